@@ -0,0 +1,104 @@
+package com.taskmanager.cli;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.repository.JsonFileTaskRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time from launching {@code java -jar task-cli-shaded.jar <command>} to the first byte it
+ * writes to stdout, i.e. what a user waits for. Each invocation is a fresh JVM on a store of
+ * {@code tasks} tasks; {@code archive=on} adds what the {@code fast-start} profile wrote for the
+ * running JDK: the AOT cache on JDK 25 or later, the class-data archive before.
+ *
+ * Needs the shaded jar, and for {@code on} the archive, both built with the JDK that runs this:
+ * {@code mvn -Pfast-start package}, then
+ * {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.args="StartupBenchmark"}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class StartupBenchmark {
+
+    private static final Path JAR = Path.of("target/task-cli-1.0.0-shaded.jar");
+    private static final boolean AOT = Runtime.version().feature() >= 25;
+    private static final Path ARCHIVE = Path.of(AOT ? "target/task-cli.aot" : "target/task-cli.jsa");
+
+    @Param({"list", "search", "add", "export"})
+    public String command;
+
+    @Param({"0", "1000"})
+    public int tasks;
+
+    @Param({"none", "on"})
+    public String archive;
+
+    private Path dir;
+    private List<String> commandLine;
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (!Files.exists(JAR)) throw new IllegalStateException("Build the jar first: mvn package (missing " + JAR + ")");
+        if (archive.equals("on") && !Files.exists(ARCHIVE)) {
+            throw new IllegalStateException("Build the archive first: mvn -Pfast-start package (missing " + ARCHIVE + ")");
+        }
+        dir = Files.createTempDirectory("task-cli-startup");
+        Path store = dir.resolve("tasks.json");
+        if (tasks > 0) {
+            JsonFileTaskRepository repository = new JsonFileTaskRepository(store);
+            for (int i = 0; i < tasks; i++) repository.save(new Task(repository.nextId(), "Benchmark task " + i));
+            repository.persist();
+        }
+
+        commandLine = new ArrayList<>(List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+        if (archive.equals("on")) {
+            commandLine.add((AOT ? "-XX:AOTCache=" : "-XX:SharedArchiveFile=") + ARCHIVE.toAbsolutePath());
+        }
+        commandLine.add("-Dtasks.file=" + store);
+        commandLine.addAll(List.of("-jar", JAR.toAbsolutePath().toString()));
+        commandLine.addAll(Arrays.asList(switch (command) {
+            case "list" -> new String[]{"list"};
+            case "search" -> new String[]{"search", "task"};
+            case "add" -> new String[]{"add", "Benchmark", "task"};
+            case "export" -> new String[]{"export"};
+            default -> throw new IllegalArgumentException("Unknown command: " + command);
+        }));
+    }
+
+    @Benchmark
+    public int firstOutput() throws IOException {
+        process = new ProcessBuilder(commandLine).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        return process.getInputStream().read();
+    }
+
+    /** Outside the measurement: drain the rest of the output and wait for the JVM to exit. */
+    @TearDown(Level.Invocation)
+    public void reap() throws IOException, InterruptedException {
+        try (InputStream out = process.getInputStream()) {
+            out.transferTo(OutputStream.nullOutputStream());
+        }
+        if (process.waitFor() != 0) throw new IllegalStateException("Command failed: " + commandLine);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteStore() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path path : files.toList()) Files.delete(path);
+        }
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,62 @@
+package com.taskmanager.cli;
+
+import com.taskmanager.repository.InMemoryTaskRepository;
+import com.taskmanager.service.TaskManager;
+import org.openjdk.jmh.annotations.*;
+import picocli.CommandLine;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end latency of one CLI command over a 1000-task in-memory store, with output discarded.
+ * {@code buildAndExecute} is what every standalone invocation pays (picocli model building plus
+ * parsing); {@code execute} reuses one {@link CommandLine}, as the {@code serve} daemon does.
+ *
+ * Run: {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.args="TaskCliBenchmark"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+@State(Scope.Thread)
+public class TaskCliBenchmark {
+
+    @Param({"add", "mark-done", "list"})
+    public String command;
+
+    private TaskManager taskManager;
+    private CommandLine cli;
+    private String[] args;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        taskManager = new TaskManager(new InMemoryTaskRepository());
+        for (int i = 0; i < 1000; i++) taskManager.addTask("Benchmark task " + i);
+        cli = quiet(TaskCLI.buildCommandLine(taskManager));
+        args = switch (command) {
+            case "add" -> new String[]{"add", "Benchmark", "task"};
+            case "mark-done" -> new String[]{"mark-done", "500"};
+            case "list" -> new String[]{"list"};
+            default -> throw new IllegalArgumentException("Unknown command: " + command);
+        };
+    }
+
+    @Benchmark
+    public int buildAndExecute() {
+        return quiet(TaskCLI.buildCommandLine(taskManager)).execute(args);
+    }
+
+    @Benchmark
+    public int execute() {
+        return cli.execute(args);
+    }
+
+    private static CommandLine quiet(CommandLine cli) {
+        cli.setOut(new PrintWriter(Writer.nullWriter()));
+        cli.setErr(new PrintWriter(Writer.nullWriter()));
+        return cli;
+    }
+}
@@ -0,0 +1,55 @@
+package com.taskmanager.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building and validating {@link Task} records: the convenience constructor (two clock
+ * reads), the canonical constructor, the update helpers, and a rejected description.
+ *
+ * Run: {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.args="TaskBenchmark"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TaskBenchmark {
+
+    private final LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+    private final Task task = new Task(1, "Benchmark task", TaskStatus.TODO, now, now);
+    private String description = "  Benchmark task with surrounding whitespace  ";
+    private String blank = "   ";
+
+    @Benchmark
+    public Task newTask() {
+        return new Task(1, description);
+    }
+
+    @Benchmark
+    public Task canonicalConstructor() {
+        return new Task(1, description, TaskStatus.TODO, now, now);
+    }
+
+    @Benchmark
+    public Task updateStatus() {
+        return task.updateStatus(TaskStatus.DONE);
+    }
+
+    @Benchmark
+    public Task updateDescription() {
+        return task.updateDescription(description);
+    }
+
+    @Benchmark
+    public Object rejectBlankDescription() {
+        try {
+            return new Task(1, blank);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
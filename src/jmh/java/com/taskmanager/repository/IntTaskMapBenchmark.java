@@ -0,0 +1,92 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link IntTaskMap} against the {@code LinkedHashMap<Integer, Task>} it replaced, on IDs
+ * 1..{@code tasks} as {@code nextId()} hands them out. {@code get*} looks up {@value #BATCH}
+ * random IDs (all above the {@code Integer} cache, so the boxed map allocates per call);
+ * {@code churn*} deletes and re-saves a task, as {@code delete} followed by a re-add would;
+ * {@code iterate*} walks every task in map order.
+ *
+ * Run with the allocation profiler:
+ * {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.args="IntTaskMapBenchmark -prof gc"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+@State(Scope.Thread)
+public class IntTaskMapBenchmark {
+
+    private static final int BATCH = 1024;
+
+    @Param({"100000", "1000000"})
+    public int tasks;
+
+    private Map<Integer, Task> boxed;
+    private IntTaskMap primitive;
+    private final int[] probes = new int[BATCH];
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        boxed = new LinkedHashMap<>();
+        primitive = new IntTaskMap();
+        for (int id = 1; id <= tasks; id++) {
+            Task task = new Task(id, "Benchmark task " + id);
+            boxed.put(id, task);
+            primitive.put(task);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < BATCH; i++) probes[i] = 128 + random.nextInt(tasks - 128);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void getBoxed(Blackhole bh) {
+        for (int id : probes) bh.consume(boxed.get(id));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void getPrimitive(Blackhole bh) {
+        for (int id : probes) bh.consume(primitive.get(id));
+    }
+
+    @Benchmark
+    public Task churnBoxed() {
+        int id = probes[cursor++ & (BATCH - 1)];
+        Task task = boxed.remove(id);
+        boxed.put(id, task);
+        return task;
+    }
+
+    @Benchmark
+    public Task churnPrimitive() {
+        int id = probes[cursor++ & (BATCH - 1)];
+        Task task = primitive.remove(id);
+        primitive.put(task);
+        return task;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void iterateBoxed(Blackhole bh) {
+        for (Task task : boxed.values()) bh.consume(task);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void iteratePrimitive(Blackhole bh) {
+        primitive.iterator().forEachRemaining(bh::consume);
+    }
+}
@@ -0,0 +1,99 @@
+package com.taskmanager.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanager.model.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load time and peak heap of {@link JsonFileTaskRepository} startup, comparing the streaming
+ * loader against the previous read-whole-file-then-bind approach ({@code readString}).
+ *
+ * Run: {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.args="JsonFileLoadBenchmark"}.
+ * The {@code peakHeapMb} secondary result is the peak heap occupancy seen during the iteration.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class JsonFileLoadBenchmark {
+
+    @Param({"1000000"})
+    public int tasks;
+
+    @Param({"readString", "streaming"})
+    public String loader;
+
+    private Path file;
+    private ObjectMapper mapper;
+
+    @Setup(Level.Trial)
+    public void writeStore() throws IOException {
+        file = Files.createTempDirectory("load-bench").resolve("tasks.json");
+        JsonFileTaskRepository repo = new JsonFileTaskRepository(file);
+        for (int i = 0; i < tasks; i++) repo.save(new Task(repo.nextId(), "Benchmark task number " + i));
+        repo.persist();
+        mapper = JsonFileTaskRepository.createObjectMapper();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteStore() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".bak"));
+        Files.deleteIfExists(file.getParent());
+    }
+
+    @Benchmark
+    public int load(HeapCounters heap) throws IOException {
+        int count = "streaming".equals(loader)
+                ? new JsonFileTaskRepository(file).count()
+                : readStringLoad();
+        heap.sample();
+        return count;
+    }
+
+    /** The loader as it was before streaming: whole file as a String, then a full List<Task>. */
+    private int readStringLoad() throws IOException {
+        String content = Files.readString(file);
+        List<Task> loaded = mapper.readValue(content, new TypeReference<List<Task>>() {});
+        Map<Integer, Task> map = new LinkedHashMap<>();
+        for (Task task : loaded) map.put(task.id(), task);
+        return map.size();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapCounters {
+        public double peakHeapMb;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            System.gc();
+            heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+        }
+
+        void sample() {
+            long peak = heapPools().stream().mapToLong(p -> p.getPeakUsage().getUsed()).sum();
+            peakHeapMb = peak / (1024.0 * 1024.0);
+        }
+
+        private static List<MemoryPoolMXBean> heapPools() {
+            return ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(p -> p.getType() == MemoryType.HEAP)
+                    .toList();
+        }
+    }
+}
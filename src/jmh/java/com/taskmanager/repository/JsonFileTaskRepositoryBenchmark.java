@@ -0,0 +1,99 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link JsonFileTaskRepository} at increasing store sizes: opening (full load), {@code persist}
+ * (full rewrite), {@code findAll} and {@code findByStatus}. One task in ten is DONE.
+ * {@code persistOneChange} edits one task and persists it in delta mode, on its own copy of the
+ * store; the occasional merge back into the file is part of the average.
+ *
+ * Run: {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.args="JsonFileTaskRepositoryBenchmark"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+@State(Scope.Benchmark)
+public class JsonFileTaskRepositoryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int tasks;
+
+    private Path dir;
+    private Path file;
+    private JsonFileTaskRepository repository;
+    private JsonFileTaskRepository deltaRepository;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void writeStore() {
+        try {
+            dir = Files.createTempDirectory("repo-bench");
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create benchmark directory", e);
+        }
+        file = dir.resolve("tasks.json");
+        repository = new JsonFileTaskRepository(file);
+        for (int i = 0; i < tasks; i++) {
+            Task task = new Task(repository.nextId(), "Benchmark task number " + i);
+            repository.save(i % 10 == 0 ? task.updateStatus(TaskStatus.DONE) : task);
+        }
+        repository.persist();
+        try {
+            Path deltaFile = dir.resolve("deltas.json");
+            Files.copy(file, deltaFile);
+            deltaRepository = new JsonFileTaskRepository(deltaFile, JsonFileTaskRepository.Options.defaults().withDeltas(true));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to copy benchmark store", e);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteStore() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path path : files.toList()) Files.delete(path);
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public int load() {
+        return new JsonFileTaskRepository(file).count();
+    }
+
+    @Benchmark
+    public void persist() {
+        repository.persist();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void persistOneChange() {
+        int id = 1 + cursor++ % tasks;
+        deltaRepository.save(deltaRepository.findById(id).orElseThrow().updateDescription("Edited " + cursor));
+        deltaRepository.persist();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Task> findAll() {
+        return repository.findAll();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Task> findByStatus() {
+        return repository.findByStatus(TaskStatus.DONE);
+    }
+}
@@ -0,0 +1,69 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Description search over 1M in-memory tasks of eight words each, drawn from a Zipf-like
+ * 20,000-word vocabulary: {@code indexed} answers from {@link IndexedTaskRepository}'s inverted
+ * index, {@code scan} is the default {@link TaskRepository#search} filter. Queries pair a word of
+ * the given rank with a common one, so the rank sets how many candidates the rarest posting has.
+ *
+ * Run: {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.args="SearchBenchmark"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    private static final int TASKS = 1_000_000;
+    private static final int VOCABULARY = 20_000;
+
+    @Param({"50", "5000"})
+    public int rank;
+
+    private InMemoryTaskRepository store;
+    private IndexedTaskRepository indexed;
+    private String query;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        Random random = new Random(42);
+        store = new InMemoryTaskRepository();
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < TASKS; i++) {
+            description.setLength(0);
+            for (int w = 0; w < 8; w++) description.append(word(zipf(random))).append(' ');
+            store.save(new Task(store.nextId(), description.toString()));
+        }
+        indexed = new IndexedTaskRepository(store);
+        indexed.search("warm up");
+        query = word(rank) + " " + word(3);
+    }
+
+    private static int zipf(Random random) {
+        return (int) Math.min(VOCABULARY - 1, Math.floor(Math.pow(VOCABULARY, random.nextDouble())));
+    }
+
+    private static String word(int rank) {
+        return "w" + rank;
+    }
+
+    @Benchmark
+    public List<Task> indexed() {
+        return indexed.search(query).toList();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Task> scan() {
+        return store.search(query).toList();
+    }
+}
@@ -0,0 +1,73 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Loading a JSON task file with and without its snapshot cache ({@link SnapshotCache}).
+ * {@code parse} is a load with the cache off; {@code cold} has the cache on but finds none, so it
+ * parses and then writes one, which is what the first run after an outside edit pays; {@code warm}
+ * finds a cache for the unchanged file and loads from it, checksum of the file included.
+ *
+ * Run: {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.args="SnapshotCacheBenchmark"}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+@State(Scope.Benchmark)
+public class SnapshotCacheBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int tasks;
+
+    @Param({"parse", "cold", "warm"})
+    public String load;
+
+    private Path dir;
+    private Path file;
+    private JsonFileTaskRepository.Options options;
+
+    @Setup(Level.Trial)
+    public void writeStore() throws IOException {
+        dir = Files.createTempDirectory("cache-bench");
+        file = dir.resolve("tasks.json");
+        JsonFileTaskRepository repo = new JsonFileTaskRepository(file);
+        TaskStatus[] statuses = TaskStatus.values();
+        for (int i = 0; i < tasks; i++) {
+            Task task = new Task(repo.nextId(), "Benchmark task number " + i);
+            repo.save(task.updateStatus(statuses[i % statuses.length]));
+        }
+        repo.persist();
+        boolean cached = !"parse".equals(load);
+        options = JsonFileTaskRepository.Options.defaults().withLocking(false).withCache(cached);
+        if (cached) new JsonFileTaskRepository(file, options); // writes the cache for warm
+    }
+
+    @Setup(Level.Invocation)
+    public void dropCache() throws IOException {
+        if ("cold".equals(load)) Files.deleteIfExists(SnapshotCache.pathFor(file));
+        System.gc(); // the previous invocation's store is garbage; don't bill its collection to this one
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteStore() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(path);
+        }
+    }
+
+    @Benchmark
+    public int load() {
+        return new JsonFileTaskRepository(file, options).count();
+    }
+}
@@ -0,0 +1,66 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * {@code findByStatus}/{@code countByStatus} on a store where 99% of tasks are DONE, comparing
+ * the status index against the full scan repositories used before ({@code scan*}).
+ *
+ * Run: {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.args="StatusIndexBenchmark"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatusIndexBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int tasks;
+
+    private InMemoryTaskRepository indexed;
+    private Map<Integer, Task> plain;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        indexed = new InMemoryTaskRepository();
+        plain = new LinkedHashMap<>();
+        for (int i = 0; i < tasks; i++) {
+            Task task = new Task(indexed.nextId(), "Benchmark task " + i);
+            if (i % 100 != 0) task = task.updateStatus(TaskStatus.DONE);
+            indexed.save(task);
+            plain.put(task.id(), task);
+        }
+    }
+
+    @Benchmark
+    public List<Task> indexedFindTodo() {
+        return indexed.findByStatus(TaskStatus.TODO);
+    }
+
+    @Benchmark
+    public List<Task> scanFindTodo() {
+        return plain.values().stream()
+                .filter(t -> t.status() == TaskStatus.TODO)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public int indexedCountTodo() {
+        return indexed.countByStatus(TaskStatus.TODO);
+    }
+
+    @Benchmark
+    public long scanCountTodo() {
+        return plain.values().stream().filter(t -> t.status() == TaskStatus.TODO).count();
+    }
+}
@@ -0,0 +1,102 @@
+package com.taskmanager.repository;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import com.taskmanager.repository.JsonFileTaskRepository.TimestampFormat;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading an array of tasks with {@link TaskCodec} against Jackson's reflective
+ * record binding with the Java time module, which every store used before. {@code codec} runs
+ * with each timestamp format; {@code reflective} writes arrays or ISO strings, and cannot write
+ * {@code epoch}, so that combination fails its setup and is skipped.
+ *
+ * Run: {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.args="TaskCodecBenchmark"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskCodecBenchmark {
+
+    @Param({"10000"})
+    public int tasks;
+
+    @Param({"reflective", "codec"})
+    public String serializer;
+
+    @Param({"ARRAY", "ISO", "EPOCH"})
+    public TimestampFormat timestamps;
+
+    private final JsonFactory factory = new JsonFactory();
+    private List<Task> list;
+    private byte[] encoded;
+    private ObjectWriter reflectiveWriter;
+    private ObjectReader reflectiveReader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (serializer.equals("reflective") && timestamps == TimestampFormat.EPOCH) {
+            throw new IllegalStateException("The Java time module has no epoch format for LocalDateTime; skipping");
+        }
+        ObjectMapper reflective = new ObjectMapper().registerModule(new JavaTimeModule())
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, timestamps == TimestampFormat.ARRAY);
+        reflectiveWriter = reflective.writerFor(Task.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        reflectiveReader = reflective.readerFor(Task.class);
+
+        LocalDateTime base = LocalDateTime.of(2026, 10, 18, 11, 23, 50, 780431337);
+        list = new ArrayList<>(tasks);
+        TaskStatus[] statuses = TaskStatus.values();
+        for (int i = 1; i <= tasks; i++) {
+            LocalDateTime created = base.plusSeconds(i).plusNanos(i * 1_013L);
+            list.add(new Task(i, "Benchmark task number " + i, statuses[i % statuses.length], created, created.plusMinutes(i)));
+        }
+        encoded = write().toByteArray();
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream write() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(tasks * 160);
+        try (JsonGenerator gen = factory.createGenerator(out)) {
+            gen.writeStartArray();
+            if (serializer.equals("codec")) {
+                for (Task task : list) TaskCodec.write(gen, task, timestamps);
+            } else {
+                for (Task task : list) reflectiveWriter.writeValue(gen, task);
+            }
+            gen.writeEndArray();
+        }
+        return out;
+    }
+
+    @Benchmark
+    public int read() throws IOException {
+        int count = 0;
+        try (JsonParser parser = factory.createParser(encoded)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Task task = serializer.equals("codec") ? TaskCodec.read(parser) : reflectiveReader.readValue(parser);
+                count += task.id() > 0 ? 1 : 0;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,101 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memory held per task by the object store ({@link InMemoryTaskRepository}, i.e. a
+ * {@code LinkedHashMap<Integer, Task>} plus status index) against {@link ColumnarTaskRepository}
+ * with its arena on and off the heap. Each invocation fills a store with {@code tasks} tasks of
+ * ~40-character descriptions, and the {@code heapBytesPerTask} / {@code offHeapBytesPerTask}
+ * counters report the retained growth after a full GC, divided by the task count. The primary
+ * score is fill time. EVENTS counters add up across iterations, so a single measured
+ * iteration reports the per-task figure directly.
+ *
+ * Run: {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.args="TaskStoreFootprintBenchmark"}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g", "-XX:+UseParallelGC"})
+@State(Scope.Thread)
+public class TaskStoreFootprintBenchmark {
+
+    @Param({"1000000"})
+    public int tasks;
+
+    @Param({"objects", "columnar", "columnar-offheap"})
+    public String store;
+
+    private final LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+    private TaskRepository filled;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long heapBytesPerTask;
+        public long offHeapBytesPerTask;
+    }
+
+    @Setup(Level.Invocation)
+    public void release() {
+        drop();
+        settle();
+    }
+
+    /** Separate from settle(): a local still naming the store would keep it reachable through the GCs. */
+    private void drop() {
+        // An off-heap arena is freed by closing it, never by the garbage collector.
+        if (filled instanceof ColumnarTaskRepository columnar) columnar.close();
+        filled = null;
+    }
+
+    @Benchmark
+    public TaskRepository fill(Footprint footprint) {
+        long heapBefore = heapUsed(), offHeapBefore = directUsed();
+        TaskRepository repo = switch (store) {
+            case "objects" -> new InMemoryTaskRepository();
+            case "columnar" -> new ColumnarTaskRepository(null, false);
+            case "columnar-offheap" -> new ColumnarTaskRepository(null, true);
+            default -> throw new IllegalArgumentException("Unknown store: " + store);
+        };
+        for (int i = 1; i <= tasks; i++) {
+            repo.save(new Task(i, "Benchmark task number " + i + " with some text", TaskStatus.TODO, now, now));
+        }
+        filled = repo;
+        settle();
+        footprint.heapBytesPerTask = (heapUsed() - heapBefore) / tasks;
+        footprint.offHeapBytesPerTask = (directUsed() - offHeapBefore) / tasks;
+        return repo;
+    }
+
+    /** Full GCs, with pauses so that cleaners have run before memory is read. */
+    private static void settle() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static long heapUsed() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long directUsed() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+}
@@ -0,0 +1,74 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Updated in the last {@code hours} hours" over 1M in-memory tasks created one a minute for
+ * about two years, a fifth of them since updated at a random later time: {@code indexed} answers
+ * from {@link IndexedTaskRepository}'s time index, {@code scan} is the default
+ * {@link TaskRepository#updatedBetween} filter and sort. {@code firstTwoQueries} is what a new
+ * one-shot process without a sidecar pays up front: its first range query scans, and its second
+ * builds the indexes.
+ *
+ * Run: {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.args="TimeRangeBenchmark"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+@State(Scope.Benchmark)
+public class TimeRangeBenchmark {
+
+    private static final int TASKS = 1_000_000;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 10, 1, 0, 0);
+
+    @Param({"24", "720"})
+    public int hours;
+
+    private InMemoryTaskRepository store;
+    private IndexedTaskRepository indexed;
+    private LocalDateTime since;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        Random random = new Random(42);
+        store = new InMemoryTaskRepository();
+        LocalDateTime end = START.plusMinutes(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            LocalDateTime created = START.plusMinutes(i);
+            LocalDateTime updated = random.nextInt(5) == 0
+                    ? created.plusMinutes(random.nextInt(TASKS - i) + 1)
+                    : created;
+            store.save(new Task(store.nextId(), "Benchmark task " + i, TaskStatus.TODO, created, updated));
+        }
+        indexed = new IndexedTaskRepository(store, true);
+        indexed.updatedBetween(null, null).count(); // builds the index, as in serve
+        since = end.minusHours(hours);
+    }
+
+    @Benchmark
+    public List<Task> indexed() {
+        return indexed.updatedBetween(since, null).toList();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Task> scan() {
+        return store.updatedBetween(since, null).toList();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long firstTwoQueries() {
+        IndexedTaskRepository fresh = new IndexedTaskRepository(store);
+        return fresh.updatedBetween(since, null).count() + fresh.updatedBetween(since, null).count();
+    }
+}
@@ -0,0 +1,47 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.TaskStatus;
+import com.taskmanager.repository.InMemoryTaskRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link TaskManager} mutations over an in-memory repository, so the numbers are
+ * service and model overhead only, without I/O.
+ *
+ * Run: {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.args="TaskManagerBenchmark"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+@State(Scope.Thread)
+public class TaskManagerBenchmark {
+
+    private static final int STORE_SIZE = 10_000;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private TaskManager taskManager;
+    private int cursor;
+
+    /** A fresh store per iteration keeps addTask from growing the heap across the whole run. */
+    @Setup(Level.Iteration)
+    public void fill() {
+        taskManager = new TaskManager(new InMemoryTaskRepository());
+        for (int i = 0; i < STORE_SIZE; i++) taskManager.addTask("Benchmark task " + i);
+        cursor = 0;
+    }
+
+    @Benchmark
+    public Object addTask() {
+        return taskManager.addTask("Another benchmark task");
+    }
+
+    @Benchmark
+    public Object updateTaskStatus() {
+        int n = cursor++;
+        return taskManager.updateTaskStatus(1 + n % STORE_SIZE, STATUSES[n % STATUSES.length]);
+    }
+}
@@ -0,0 +1,312 @@
+package com.taskmanager.cli;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import com.taskmanager.repository.JsonFileTaskRepository.TimestampFormat;
+import com.taskmanager.repository.TaskCodec;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * Line-oriented formats for {@code export} and {@code import}. Both stream one task at a time,
+ * so memory stays flat however many tasks pass through. Timestamps are ISO-8601 local date-times
+ * and statuses use their JSON spelling ({@code TODO}, {@code IN_PROGRESS}, {@code DONE}).
+ */
+enum ExchangeFormat {
+
+    /** One JSON object per line, with the same fields as {@code tasks.json}. */
+    JSONL {
+        @Override
+        long write(Iterator<Task> tasks, Writer out) throws IOException {
+            long written = 0;
+            try (JsonGenerator generator = JSON.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)) {
+                while (tasks.hasNext()) {
+                    TASK_WRITER.writeValue(generator, tasks.next());
+                    generator.writeRaw('\n');
+                    written++;
+                }
+            }
+            return written;
+        }
+
+        @Override
+        Iterator<Task> read(Reader in) throws IOException {
+            MappingIterator<Task> rows = TASK_READER.readValues(in);
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    try {
+                        return rows.hasNextValue();
+                    } catch (JsonProcessingException e) {
+                        throw invalid(rows, e);
+                    } catch (IOException e) {
+                        throw new RuntimeException("Failed to read JSON Lines input", e);
+                    }
+                }
+
+                @Override
+                public Task next() {
+                    try {
+                        return rows.nextValue();
+                    } catch (JsonProcessingException | RuntimeJsonMappingException e) {
+                        throw invalid(rows, e);
+                    } catch (IOException e) {
+                        throw new RuntimeException("Failed to read JSON Lines input", e);
+                    }
+                }
+            };
+        }
+
+        private IllegalArgumentException invalid(MappingIterator<Task> rows, Exception e) {
+            Throwable cause = e;
+            while (cause.getCause() != null) cause = cause.getCause();
+            String message = String.valueOf(cause.getMessage()).lines().findFirst().orElse("");
+            return new IllegalArgumentException("Invalid task on line "
+                    + rows.getParser().currentLocation().getLineNr() + ": " + message, e);
+        }
+    },
+
+    /** RFC 4180 CSV with a header row: {@code id,description,status,createdAt,updatedAt}. */
+    CSV {
+        @Override
+        long write(Iterator<Task> tasks, Writer out) throws IOException {
+            out.write(CSV_HEADER);
+            out.write("\r\n");
+            StringBuilder row = new StringBuilder(128);
+            long written = 0;
+            while (tasks.hasNext()) {
+                Task task = tasks.next();
+                row.setLength(0);
+                row.append(task.id()).append(',');
+                appendCsvField(row, task.description());
+                row.append(',').append(task.status().getJsonValue())
+                        .append(',').append(task.createdAt())
+                        .append(',').append(task.updatedAt())
+                        .append("\r\n");
+                out.append(row);
+                written++;
+            }
+            return written;
+        }
+
+        @Override
+        Iterator<Task> read(Reader in) {
+            return new CsvTaskReader(in);
+        }
+    };
+
+    private static final String CSV_HEADER = "id,description,status,createdAt,updatedAt";
+    private static final int CSV_COLUMNS = 5;
+
+    // The store's own codec, so an exported task reads back exactly as it was stored.
+    private static final ObjectMapper JSON = new ObjectMapper().registerModule(TaskCodec.module());
+    private static final ObjectWriter TASK_WRITER = JSON.writerFor(Task.class)
+            .withAttribute(TaskCodec.TIMESTAMPS, TimestampFormat.ISO);
+    private static final ObjectReader TASK_READER = JSON.readerFor(Task.class);
+
+    /** Writes every remaining task and returns how many were written. Does not flush or close {@code out}. */
+    abstract long write(Iterator<Task> tasks, Writer out) throws IOException;
+
+    /**
+     * Lazily parses tasks from {@code in}. Each row goes through the {@link Task} constructor, so
+     * an invalid row surfaces as an {@link IllegalArgumentException} naming its line or row.
+     */
+    abstract Iterator<Task> read(Reader in) throws IOException;
+
+    /** Parses {@code jsonl} or {@code csv}, case-insensitively. */
+    static ExchangeFormat parse(String name) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "jsonl", "ndjson" -> JSONL;
+            case "csv" -> CSV;
+            default -> throw new IllegalArgumentException("Unknown format: " + name + " (expected jsonl or csv)");
+        };
+    }
+
+    /** CSV for {@code *.csv} files, JSON Lines otherwise. */
+    static ExchangeFormat forFile(Path file) {
+        return file != null && file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : JSONL;
+    }
+
+    private static void appendCsvField(StringBuilder row, String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            row.append(value);
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') row.append('"');
+            row.append(c);
+        }
+        row.append('"');
+    }
+
+    /**
+     * Parses what {@link LocalDateTime#toString()} writes ({@code yyyy-MM-ddTHH:mm[:ss[.fraction]]})
+     * by hand, falling back to {@link LocalDateTime#parse} for anything else. The formatter-based
+     * parse allocates a field map per call and was most of the CSV import's parsing time.
+     */
+    static LocalDateTime parseTimestamp(String text) {
+        int n = text.length();
+        boolean canonical = n >= 16 && text.charAt(4) == '-' && text.charAt(7) == '-' && text.charAt(10) == 'T'
+                && text.charAt(13) == ':'
+                && (n == 16 || (n >= 19 && text.charAt(16) == ':' && (n == 19 || (n >= 21 && n <= 29 && text.charAt(19) == '.'))));
+        if (canonical) {
+            int year = digits(text, 0, 4), month = digits(text, 5, 7), day = digits(text, 8, 10);
+            int hour = digits(text, 11, 13), minute = digits(text, 14, 16);
+            int second = n >= 19 ? digits(text, 17, 19) : 0;
+            int fraction = n > 19 ? digits(text, 20, n) : 0;
+            if ((year | month | day | hour | minute | second | fraction) >= 0) {
+                for (int i = n; i < 29 && n > 19; i++) fraction *= 10;
+                return LocalDateTime.of(year, month, day, hour, minute, second, fraction);
+            }
+        }
+        return LocalDateTime.parse(text);
+    }
+
+    /** The decimal value of {@code text[from, to)}, or -1 if it contains a non-digit. */
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int d = text.charAt(i) - '0';
+            if (d < 0 || d > 9) return -1;
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    /**
+     * Record-at-a-time CSV parser. Quoted fields may contain commas, doubled quotes and line
+     * breaks; rows end in LF or CRLF. A leading header row and blank rows are skipped.
+     */
+    private static final class CsvTaskReader implements Iterator<Task> {
+        private final Reader in;
+        private final List<String> fields = new ArrayList<>(CSV_COLUMNS);
+        private final StringBuilder field = new StringBuilder(128);
+        private final char[] buffer = new char[1 << 16];
+        private int position;
+        private int limit;
+        private long row;
+        private Task next;
+
+        CsvTaskReader(Reader in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) return true;
+            try {
+                while (readRecord()) {
+                    if (fields.size() == 1 && fields.get(0).isEmpty()) continue;
+                    if (row == 1 && fields.get(0).equalsIgnoreCase("id")) continue;
+                    next = toTask();
+                    return true;
+                }
+                return false;
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read CSV input", e);
+            }
+        }
+
+        @Override
+        public Task next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Task task = next;
+            next = null;
+            return task;
+        }
+
+        private Task toTask() {
+            if (fields.size() != CSV_COLUMNS) {
+                throw invalid("expected " + CSV_COLUMNS + " fields, found " + fields.size(), null);
+            }
+            try {
+                return new Task(
+                        Integer.parseInt(fields.get(0).trim()),
+                        fields.get(1),
+                        TaskStatus.fromJsonValue(fields.get(2).trim()),
+                        parseTimestamp(fields.get(3).trim()),
+                        parseTimestamp(fields.get(4).trim()));
+            } catch (IllegalArgumentException | DateTimeException | NullPointerException e) {
+                throw invalid(e.getMessage(), e);
+            }
+        }
+
+        private IllegalArgumentException invalid(String message, Exception cause) {
+            return new IllegalArgumentException("Invalid task on CSV row " + row + ": " + message, cause);
+        }
+
+        /** Reads the next record into {@link #fields}; false at end of input. */
+        private boolean readRecord() throws IOException {
+            fields.clear();
+            int c = read();
+            if (c == -1) return false;
+            row++;
+            while (true) {
+                field.setLength(0);
+                if (c == '"') {
+                    while (true) {
+                        c = read();
+                        if (c == -1) throw invalid("unterminated quoted field", null);
+                        if (c == '"' && (c = read()) != '"') break;
+                        field.append((char) c);
+                    }
+                    if (c != ',' && c != '\n' && c != '\r' && c != -1) {
+                        throw invalid("unexpected '" + (char) c + "' after quoted field", null);
+                    }
+                } else {
+                    while (c != ',' && c != '\n' && c != '\r' && c != -1) {
+                        field.append((char) c);
+                        c = read();
+                    }
+                }
+                fields.add(field.toString());
+                if (c == ',') {
+                    c = read();
+                    continue;
+                }
+                if (c == '\r') {
+                    int after = read();
+                    if (after != '\n' && after != -1) position--;
+                }
+                return true;
+            }
+        }
+
+        /** Own buffering: a per-character {@code BufferedReader.read()} takes a lock every call. */
+        private int read() throws IOException {
+            if (position == limit) {
+                int n = in.read(buffer, 0, buffer.length);
+                if (n <= 0) return -1;
+                position = 0;
+                limit = n;
+            }
+            return buffer[position++];
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.taskmanager.cli;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.Configurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.spi.ContextAwareBase;
+
+/**
+ * The default logging setup, built in code: INFO and above to stderr, so stdout carries only
+ * command output (e.g. {@code export} piped elsewhere). Logback finds this through
+ * {@code META-INF/services} before its XML configurator; parsing a {@code logback.xml} took
+ * about a third of a short command's startup. The console appender and its pattern are only
+ * built when the first event gets through, so a command that logs nothing skips that too.
+ *
+ * A {@code logback.xml} on the classpath or {@code -Dlogback.configurationFile} still takes over.
+ */
+public class LogConfigurator extends ContextAwareBase implements Configurator {
+
+    static final String PATTERN = "%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} -- %msg%n";
+
+    @Override
+    public ExecutionStatus configure(LoggerContext context) {
+        ClassLoader loader = LogConfigurator.class.getClassLoader();
+        if (System.getProperty("logback.configurationFile") != null
+                || loader.getResource("logback-test.xml") != null
+                || loader.getResource("logback.xml") != null) {
+            return ExecutionStatus.INVOKE_NEXT_IF_ANY;
+        }
+        DeferredAppender appender = new DeferredAppender();
+        appender.setContext(context);
+        appender.setName("STDERR");
+        appender.start();
+
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+        return ExecutionStatus.DO_NOT_INVOKE_NEXT_IF_ANY;
+    }
+
+    /** Builds the stderr console appender on the first event and hands every event to it. */
+    private static final class DeferredAppender extends AppenderBase<ILoggingEvent> {
+        private ConsoleAppender<ILoggingEvent> console;
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            if (console == null) console = stderr();
+            console.doAppend(event);
+        }
+
+        private ConsoleAppender<ILoggingEvent> stderr() {
+            PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+            encoder.setContext(context);
+            encoder.setPattern(PATTERN);
+            encoder.start();
+
+            ConsoleAppender<ILoggingEvent> appender = new ConsoleAppender<>();
+            appender.setContext(context);
+            appender.setName(getName());
+            appender.setTarget("System.err");
+            appender.setEncoder(encoder);
+            appender.start();
+            return appender;
+        }
+
+        @Override
+        public void stop() {
+            if (console != null) console.stop();
+            super.stop();
+        }
+    }
+}
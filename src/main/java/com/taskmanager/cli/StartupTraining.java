@@ -0,0 +1,62 @@
+package com.taskmanager.cli;
+
+import com.taskmanager.repository.TaskRepository;
+import com.taskmanager.repository.TaskRepositoryFactory;
+import com.taskmanager.service.TaskManager;
+import picocli.CommandLine;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Training run for the {@code fast-start} build profile, not part of the CLI. Runs the common
+ * commands once each against a scratch store in one JVM, loading the store afresh for each as a
+ * real invocation would, so the class-data archive the JVM dumps on exit holds the classes every
+ * command needs, already parsed and verified.
+ *
+ * Usage: {@code java -XX:ArchiveClassesAtExit=task-cli.jsa -cp task-cli-shaded.jar
+ * com.taskmanager.cli.StartupTraining [scratch-dir]}.
+ */
+public final class StartupTraining {
+
+    private static final String[][] COMMANDS = {
+            {"list"},
+            {"add", "Training", "task"},
+            {"add", "Another", "training", "task"},
+            {"list"},
+            {"list", "todo", "--limit", "1"},
+            {"update", "1", "Renamed", "task"},
+            {"mark-in-progress", "1"},
+            {"mark-done", "2"},
+            {"search", "task"},
+            {"export", "--format", "csv"},
+            {"delete", "2"},
+    };
+
+    private StartupTraining() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path parent = Path.of(args.length > 0 ? args[0] : System.getProperty("java.io.tmpdir")).toAbsolutePath();
+        Files.createDirectories(parent);
+        Path store = Files.createTempDirectory(parent, "run").resolve("tasks.json");
+        System.setProperty("tasks.file", store.toString());
+
+        PrintWriter discard = new PrintWriter(Writer.nullWriter());
+        for (String[] command : COMMANDS) {
+            TaskRepository repository = TaskRepositoryFactory.fromConfig();
+            try {
+                CommandLine cli = TaskCLI.buildCommandLine(new TaskManager(repository), command[0]);
+                cli.setOut(discard);
+                cli.setErr(discard);
+                if (cli.execute(command) != 0) {
+                    throw new IllegalStateException("Training command failed: " + String.join(" ", command));
+                }
+            } finally {
+                if (repository instanceof AutoCloseable closeable) closeable.close();
+            }
+        }
+    }
+}
@@ -1,30 +1,112 @@
 package com.taskmanager.cli;
 
+import com.taskmanager.metrics.Metrics;
+import com.taskmanager.metrics.RecordingMetrics;
+import com.taskmanager.metrics.TaskMetrics;
 import com.taskmanager.model.Task;
 import com.taskmanager.model.TaskStatus;
-import com.taskmanager.repository.JsonFileTaskRepository;
+import com.taskmanager.repository.InstrumentedTaskRepository;
+import com.taskmanager.repository.StoreWatcher;
+import com.taskmanager.repository.TaskRepository;
+import com.taskmanager.repository.TaskRepositoryFactory;
+import com.taskmanager.service.InstrumentedTaskManager;
 import com.taskmanager.service.TaskManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
 
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalInt;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 @Command(name = "task-cli", mixinStandardHelpOptions = true,
         description = "Task CLI - Task Management Application")
 public class TaskCLI {
 
-    public static void main(String[] args) {
-        TaskManager tm = new TaskManager(new JsonFileTaskRepository());
-        CommandLine cli = buildCommandLine(tm);
-        if (args.length == 0) {
-            cli.usage(System.out);
-            return;
+    public static void main(String[] args) throws Exception {
+        // watch only reads the store, and for as long as it runs: neither a daemon nor a loaded repository helps it.
+        if (args.length > 0 && args[0].equals("watch")) {
+            CommandLine cli = buildCommandLine(null, "watch");
+            cli.setOut(stdout());
+            System.exit(cli.execute(args));
         }
-        System.exit(cli.execute(args));
+        // A running daemon owns the store; hand the command to it rather than loading the store here.
+        if (args.length > 0 && !args[0].equals("serve")) {
+            OptionalInt forwarded = TaskDaemon.forward(TaskDaemon.socketPath(), args, System.out, System.err);
+            if (forwarded.isPresent()) System.exit(forwarded.getAsInt());
+        }
+
+        TaskMetrics metrics = Metrics.fromConfig();
+        Metrics.install(metrics);
+        TaskRepository repository = TaskRepositoryFactory.fromConfig(args.length > 0 && args[0].equals("serve"));
+        if (metrics != TaskMetrics.NOOP) repository = new InstrumentedTaskRepository(repository, metrics);
+        CountDownLatch repositoryClosed = new CountDownLatch(1);
+        int exitCode = 0;
+        try {
+            TaskManager taskManager = metrics == TaskMetrics.NOOP
+                    ? new TaskManager(repository)
+                    : new InstrumentedTaskManager(repository, metrics);
+            // Only the subcommand being run: picocli builds each command's model by reflection.
+            String name = args.length > 0 ? args[0] : null;
+            CommandLine cli = buildCommandLine(taskManager, name);
+            cli.setOut(stdout());
+            if (!SUBCOMMANDS.contains(name)) cli.addSubcommand("serve", new ServeCommand(taskManager, repositoryClosed));
+            if (args.length == 0) {
+                cli.usage(System.out);
+            } else {
+                exitCode = cli.execute(args);
+            }
+        } finally {
+            // Lets backends with background work (e.g. log compaction, deferred flushes) finish
+            // before the JVM exits.
+            try {
+                if (repository instanceof AutoCloseable closeable) closeable.close();
+            } finally {
+                repositoryClosed.countDown();
+            }
+        }
+        if (metrics instanceof RecordingMetrics recording) System.err.print(recording.summary());
+        System.exit(exitCode);
+    }
+
+    /**
+     * Large buffer straight onto file descriptor 1. Unlike {@code System.out}, write errors are not
+     * swallowed, so {@link PrintWriter#checkError()} reports a closed pipe and {@code list | head}
+     * can stop early. Autoflush still applies to {@code printf}/{@code println}.
+     */
+    private static PrintWriter stdout() {
+        return new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(FileDescriptor.out), System.out.charset()), 1 << 16), true);
     }
 
     /**
@@ -32,37 +114,100 @@ public class TaskCLI {
      * Package-private so tests can construct it directly without going through main().
      */
     static CommandLine buildCommandLine(TaskManager tm) {
+        return buildCommandLine(tm, null);
+    }
+
+    private static final List<String> SUBCOMMANDS = List.of("add", "update", "delete", "mark-todo",
+            "mark-in-progress", "mark-done", "list", "search", "export", "import", "metrics", "watch");
+
+    /**
+     * Like {@link #buildCommandLine(TaskManager)}, but if {@code only} names a subcommand, wires
+     * just that one. A one-shot invocation runs a single command, and building the other
+     * models was about a fifth of its startup. Anything else (help, a typo) gets all of them.
+     */
+    static CommandLine buildCommandLine(TaskManager tm, String only) {
         CommandLine cli = new CommandLine(new TaskCLI());
-        cli.addSubcommand("add", new AddCommand(tm));
-        cli.addSubcommand("update", new UpdateCommand(tm));
-        cli.addSubcommand("delete", new DeleteCommand(tm));
-        cli.addSubcommand("mark-todo", new MarkTodoCommand(tm));
-        cli.addSubcommand("mark-in-progress", new MarkInProgressCommand(tm));
-        cli.addSubcommand("mark-done", new MarkDoneCommand(tm));
-        cli.addSubcommand("list", new ListCommand(tm));
+        if (only != null && SUBCOMMANDS.contains(only)) {
+            cli.addSubcommand(only, subcommand(only, tm));
+        } else {
+            for (String name : SUBCOMMANDS) cli.addSubcommand(name, subcommand(name, tm));
+        }
         return cli;
     }
 
+    private static Object subcommand(String name, TaskManager tm) {
+        return switch (name) {
+            case "add" -> new AddCommand(tm);
+            case "update" -> new UpdateCommand(tm);
+            case "delete" -> new DeleteCommand(tm);
+            case "mark-todo" -> new MarkTodoCommand(tm);
+            case "mark-in-progress" -> new MarkInProgressCommand(tm);
+            case "mark-done" -> new MarkDoneCommand(tm);
+            case "list" -> new ListCommand(tm);
+            case "search" -> new SearchCommand(tm);
+            case "export" -> new ExportCommand(tm);
+            case "import" -> new ImportCommand(tm);
+            case "metrics" -> new MetricsCommand();
+            case "watch" -> new WatchCommand();
+            default -> throw new IllegalArgumentException("Unknown subcommand: " + name);
+        };
+    }
+
     // ---------- Subcommands ----------
 
-    @Command(name = "add", description = "Add a new task")
+    @Command(name = "add", description = "Add a new task, or one task per line of a file")
     static class AddCommand implements Callable<Integer> {
         private static final Logger logger = LoggerFactory.getLogger(AddCommand.class);
         private final TaskManager taskManager;
 
-        @Parameters(arity = "1..*", description = "Task description")
+        @Spec
+        private CommandSpec spec;
+
+        @Parameters(arity = "0..*", description = "Task description")
         private List<String> descriptionParts;
 
+        @Option(names = "--from-file", paramLabel = "FILE",
+                description = "Add one task per non-blank line of FILE, saving once at the end")
+        private Path fromFile;
+
         AddCommand(TaskManager tm) { this.taskManager = tm; }
 
         @Override
-        public Integer call() {
+        public Integer call() throws IOException {
+            boolean hasDescription = descriptionParts != null && !descriptionParts.isEmpty();
+            if (fromFile != null) {
+                if (hasDescription) {
+                    throw new CommandLine.ParameterException(spec.commandLine(),
+                            "Give either a description or --from-file, not both");
+                }
+                return addFromFile();
+            }
+            if (!hasDescription) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "Missing required parameter: <descriptionParts>");
+            }
             Task task = taskManager.addTask(String.join(" ", descriptionParts));
             taskManager.saveTasks();
-            System.out.printf("Task added successfully (ID: %d)%n", task.id());
+            spec.commandLine().getOut().printf("Task added successfully (ID: %d)%n", task.id());
             logger.info("Added task id={}", task.id());
             return 0;
         }
+
+        private int addFromFile() throws IOException {
+            List<String> descriptions;
+            try (Stream<String> lines = Files.lines(fromFile)) {
+                descriptions = lines.filter(line -> !line.isBlank()).toList();
+            }
+            List<Task> added = taskManager.addTasks(descriptions);
+            if (added.isEmpty()) {
+                spec.commandLine().getOut().println("No tasks found in " + fromFile);
+                return 0;
+            }
+            taskManager.saveTasks();
+            spec.commandLine().getOut().printf("Added %d tasks (IDs %d-%d)%n",
+                    added.size(), added.get(0).id(), added.get(added.size() - 1).id());
+            logger.info("Added {} tasks from {}", added.size(), fromFile);
+            return 0;
+        }
     }
 
     @Command(name = "update", description = "Update a task's description")
@@ -70,6 +215,9 @@ public class TaskCLI {
         private static final Logger logger = LoggerFactory.getLogger(UpdateCommand.class);
         private final TaskManager taskManager;
 
+        @Spec
+        private CommandSpec spec;
+
         @Parameters(index = "0", description = "Task ID")
         private int id;
 
@@ -82,91 +230,481 @@ public class TaskCLI {
         public Integer call() {
             Task task = taskManager.updateTask(id, String.join(" ", descriptionParts));
             taskManager.saveTasks();
-            System.out.printf("Task updated successfully (ID: %d)%n", task.id());
+            spec.commandLine().getOut().printf("Task updated successfully (ID: %d)%n", task.id());
             logger.info("Updated task id={}", task.id());
             return 0;
         }
     }
 
-    @Command(name = "delete", description = "Delete a task by ID")
+    @Command(name = "delete", description = "Delete tasks by ID")
     static class DeleteCommand implements Callable<Integer> {
         private static final Logger logger = LoggerFactory.getLogger(DeleteCommand.class);
         private final TaskManager taskManager;
 
-        @Parameters(index = "0", description = "Task ID")
-        private int id;
+        @Spec
+        private CommandSpec spec;
+
+        @Parameters(arity = "1..*", description = "Task IDs")
+        private List<Integer> ids;
 
         DeleteCommand(TaskManager tm) { this.taskManager = tm; }
 
         @Override
         public Integer call() {
-            Task task = taskManager.removeTask(id);
+            List<Task> removed = taskManager.removeTasks(ids);
             taskManager.saveTasks();
-            System.out.printf("Task deleted successfully (ID: %d)%n", task.id());
-            logger.info("Deleted task id={}", task.id());
+            PrintWriter out = spec.commandLine().getOut();
+            for (Task task : removed) {
+                out.printf("Task deleted successfully (ID: %d)%n", task.id());
+                logger.info("Deleted task id={}", task.id());
+            }
             return 0;
         }
     }
 
-    @Command(name = "list", description = "List tasks, optionally filtered by status (todo|in-progress|done)")
+    @Command(name = "list", description = "List tasks in ID order, optionally filtered by status (todo|in-progress|done) and by when they were created or updated")
     static class ListCommand implements Callable<Integer> {
         private final TaskManager taskManager;
 
+        @Spec
+        private CommandSpec spec;
+
         @Parameters(index = "0", arity = "0..1", description = "Optional status filter: todo|in-progress|done")
         private String statusStr;
 
+        @Option(names = "--limit", paramLabel = "N", description = "Print at most N tasks")
+        private Integer limit;
+
+        @Option(names = "--offset", paramLabel = "N", description = "Skip the first N matching tasks")
+        private int offset;
+
+        @Option(names = "--after-id", paramLabel = "ID",
+                description = "Start after this task ID; pass the last ID of one page to get the next")
+        private int afterId;
+
+        @Option(names = "--created-after", paramLabel = "TIME",
+                description = "Only tasks created at or after TIME: a date (2026-10-17), a date and time "
+                        + "(2026-10-17T09:30), today, yesterday, or a span back from now (90m, 12h, 7d, 2w)")
+        private String createdAfter;
+
+        @Option(names = "--updated-since", paramLabel = "TIME", description = "Only tasks last updated at or after TIME")
+        private String updatedSince;
+
+        @Option(names = "--before", paramLabel = "TIME",
+                description = "Only tasks created before TIME; with --updated-since, last updated before TIME")
+        private String before;
+
         ListCommand(TaskManager tm) { this.taskManager = tm; }
 
         @Override
         public Integer call() {
-            List<Task> tasks = (statusStr != null && !statusStr.isBlank())
-                    ? taskManager.getTasksByStatus(TaskStatus.fromDisplayName(statusStr.toLowerCase()))
-                    : taskManager.getAllTasks();
+            if ((limit != null && limit < 0) || offset < 0) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "--limit and --offset must not be negative");
+            }
+            TaskStatus status = (statusStr != null && !statusStr.isBlank())
+                    ? TaskStatus.fromDisplayName(statusStr.toLowerCase())
+                    : null;
+            Stream<Task> tasks;
+            if (createdAfter != null || updatedSince != null || before != null) {
+                tasks = inTimeRange(status);
+            } else {
+                tasks = status != null ? taskManager.streamTasks(status, afterId) : taskManager.streamTasks(afterId);
+            }
 
-            if (tasks.isEmpty()) {
-                System.out.println("No tasks found.");
-                return 0;
+            PrintWriter out = spec.commandLine().getOut();
+            long printed;
+            try (tasks) {
+                printed = printTasks(out, tasks.skip(offset).limit(limit == null ? Long.MAX_VALUE : limit).iterator());
+            }
+            if (printed == 0) out.println("No tasks found.");
+            out.flush();
+            return 0;
+        }
+
+        /**
+         * Tasks in the requested time range, looked up by the timestamp the range is on, then
+         * filtered and put back in ID order like every other listing, so --after-id paging works.
+         */
+        private Stream<Task> inTimeRange(TaskStatus status) {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime created = parseTime("--created-after", createdAfter, now);
+            LocalDateTime updated = parseTime("--updated-since", updatedSince, now);
+            LocalDateTime end = parseTime("--before", before, now);
+            LocalDateTime start = updated != null ? updated : created;
+            if (start != null && end != null && !start.isBefore(end)) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "--before must be later than the start of the range");
+            }
+            Stream<Task> matches = updated != null
+                    ? taskManager.getTasksUpdatedBetween(updated, end)
+                            .filter(task -> created == null || !task.createdAt().isBefore(created))
+                    : taskManager.getTasksCreatedBetween(created, end);
+            return matches
+                    .filter(task -> task.id() > afterId && (status == null || task.status() == status))
+                    .sorted(Comparator.comparingInt(Task::id));
+        }
+
+        private LocalDateTime parseTime(String option, String value, LocalDateTime now) {
+            if (value == null) return null;
+            try {
+                return TaskCLI.parseTime(value, now);
+            } catch (IllegalArgumentException e) {
+                throw new CommandLine.ParameterException(spec.commandLine(), option + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A point in time for the {@code list} range options: an ISO date (midnight), an ISO date and
+     * time, {@code today}, {@code yesterday}, or a span back from {@code now} such as {@code 90m},
+     * {@code 12h}, {@code 7d} or {@code 2w}. Local time, like task timestamps.
+     */
+    static LocalDateTime parseTime(String value, LocalDateTime now) {
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        switch (text) {
+            case "today" -> { return now.toLocalDate().atStartOfDay(); }
+            case "yesterday" -> { return now.toLocalDate().minusDays(1).atStartOfDay(); }
+            default -> { }
+        }
+        if (text.length() >= 2 && Character.isDigit(text.charAt(0))) {
+            ChronoUnit unit = switch (text.charAt(text.length() - 1)) {
+                case 'm' -> ChronoUnit.MINUTES;
+                case 'h' -> ChronoUnit.HOURS;
+                case 'd' -> ChronoUnit.DAYS;
+                case 'w' -> ChronoUnit.WEEKS;
+                default -> null;
+            };
+            String amount = text.substring(0, text.length() - 1);
+            if (unit != null && amount.chars().allMatch(Character::isDigit)) {
+                try {
+                    return now.minus(Long.parseLong(amount), unit);
+                } catch (ArithmeticException | DateTimeException e) {
+                    throw new IllegalArgumentException("Span too large: " + value);
+                }
             }
+        }
+        try {
+            return text.contains("t") ? LocalDateTime.parse(value.trim()) : LocalDate.parse(text).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Not a date, date-time, today, yesterday or span (e.g. 7d): " + value);
+        }
+    }
+
+    @Command(name = "search", description = "List tasks whose description contains all of the given words, in ID order")
+    static class SearchCommand implements Callable<Integer> {
+        private final TaskManager taskManager;
+
+        @Spec
+        private CommandSpec spec;
+
+        @Parameters(arity = "1..*", paramLabel = "WORD", description = "Words to look for (case-insensitive)")
+        private List<String> words;
+
+        @Option(names = "--limit", paramLabel = "N", description = "Print at most N tasks")
+        private Integer limit;
+
+        SearchCommand(TaskManager tm) { this.taskManager = tm; }
 
-            tasks.stream()
-                    .sorted((a, b) -> Integer.compare(a.id(), b.id()))
-                    .forEach(t -> System.out.printf("%d. [%s] %s%n",
-                            t.id(), t.status().getDisplayName(), t.description()));
+        @Override
+        public Integer call() {
+            if (limit != null && limit < 0) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "--limit must not be negative");
+            }
+            PrintWriter out = spec.commandLine().getOut();
+            long printed;
+            try (Stream<Task> matches = taskManager.search(String.join(" ", words))) {
+                printed = printTasks(out, matches.limit(limit == null ? Long.MAX_VALUE : limit).iterator());
+            }
+            if (printed == 0) out.println("No matching tasks.");
+            out.flush();
             return 0;
         }
     }
 
-    @Command(name = "mark-todo", description = "Mark a task as TODO")
+    /** How often {@link #printTasks} checks whether the reader went away (e.g. {@code list | head}). */
+    private static final int ERROR_CHECK_INTERVAL = 4096;
+
+    /** Prints tasks in the {@code list} format and returns how many were printed. */
+    private static long printTasks(PrintWriter out, Iterator<Task> tasks) {
+        // One buffered writer and hand-built lines: printf per line dominated large listings.
+        StringBuilder line = new StringBuilder(128);
+        String newline = System.lineSeparator();
+        long printed = 0;
+        while (tasks.hasNext()) {
+            line.setLength(0);
+            appendTask(line, tasks.next()).append(newline);
+            out.append(line);
+            if (++printed % ERROR_CHECK_INTERVAL == 0 && out.checkError()) break;
+        }
+        return printed;
+    }
+
+    private static StringBuilder appendTask(StringBuilder line, Task t) {
+        return line.append(t.id()).append(". [").append(t.status().getDisplayName()).append("] ").append(t.description());
+    }
+
+    @Command(name = "export", description = "Write all tasks in ID order as JSON Lines or CSV")
+    static class ExportCommand implements Callable<Integer> {
+        private final TaskManager taskManager;
+
+        @Spec
+        private CommandSpec spec;
+
+        @Option(names = "--format", paramLabel = "jsonl|csv",
+                description = "Output format (default: csv for a *.csv --output, else jsonl)")
+        private String format;
+
+        @Option(names = "--output", paramLabel = "FILE", description = "Write to FILE instead of standard output")
+        private Path output;
+
+        ExportCommand(TaskManager tm) { this.taskManager = tm; }
+
+        @Override
+        public Integer call() throws IOException {
+            ExchangeFormat exchangeFormat = format != null ? ExchangeFormat.parse(format) : ExchangeFormat.forFile(output);
+            Progress progress = new Progress(spec.commandLine().getErr(), "Exported");
+            long exported;
+            try (Stream<Task> tasks = taskManager.streamTasks(0)) {
+                Iterator<Task> counted = progress.counting(tasks.iterator());
+                if (output == null) {
+                    PrintWriter out = spec.commandLine().getOut();
+                    exported = exchangeFormat.write(counted, out);
+                    out.flush();
+                } else {
+                    try (Writer out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+                        exported = exchangeFormat.write(counted, out);
+                    }
+                }
+            }
+            progress.finish(exported);
+            logger.info("Exported {} tasks as {}", exported, exchangeFormat);
+            return 0;
+        }
+    }
+
+    @Command(name = "import", description = "Add tasks from a JSON Lines or CSV file written by export, saving once at the end")
+    static class ImportCommand implements Callable<Integer> {
+        private static final int BATCH_SIZE = 10_000;
+
+        private final TaskManager taskManager;
+
+        @Spec
+        private CommandSpec spec;
+
+        @Parameters(index = "0", paramLabel = "FILE", description = "File to import")
+        private Path input;
+
+        @Option(names = "--format", paramLabel = "jsonl|csv",
+                description = "Input format (default: csv for *.csv, else jsonl)")
+        private String format;
+
+        @Option(names = "--keep-ids",
+                description = "Keep the file's task IDs, replacing stored tasks with the same ID (default: assign new IDs)")
+        private boolean keepIds;
+
+        ImportCommand(TaskManager tm) { this.taskManager = tm; }
+
+        @Override
+        public Integer call() throws IOException {
+            ExchangeFormat exchangeFormat = format != null ? ExchangeFormat.parse(format) : ExchangeFormat.forFile(input);
+            Progress progress = new Progress(spec.commandLine().getErr(), "Imported");
+            long imported;
+            try (Reader in = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+                imported = taskManager.importTasks(exchangeFormat.read(in), keepIds, BATCH_SIZE, progress);
+            }
+            if (imported > 0) taskManager.saveTasks();
+            progress.finish(imported);
+            spec.commandLine().getOut().printf("Imported %d tasks from %s%n", imported, input);
+            logger.info("Imported {} tasks from {}", imported, input);
+            return 0;
+        }
+    }
+
+    /** Running totals and throughput for export/import on stderr, at most once a second plus a final line. */
+    static final class Progress implements LongConsumer {
+        private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+        private static final int COUNT_STEP = 10_000;
+
+        private final PrintWriter err;
+        private final String verb;
+        private final long start = System.nanoTime();
+        private long lastReport = start;
+
+        Progress(PrintWriter err, String verb) {
+            this.err = err;
+            this.verb = verb;
+        }
+
+        @Override
+        public void accept(long done) {
+            long now = System.nanoTime();
+            if (now - lastReport < REPORT_INTERVAL_NANOS) return;
+            lastReport = now;
+            err.printf("%s %d tasks (%.0f tasks/s)%n", verb, done, rate(done, now));
+        }
+
+        void finish(long done) {
+            long now = System.nanoTime();
+            err.printf("%s %d tasks in %.2f s (%.0f tasks/s)%n", verb, done, (now - start) / 1e9, rate(done, now));
+        }
+
+        /** Passes {@code tasks} through, reporting every {@value #COUNT_STEP} tasks. */
+        Iterator<Task> counting(Iterator<Task> tasks) {
+            return new Iterator<>() {
+                private long count;
+
+                @Override
+                public boolean hasNext() {
+                    return tasks.hasNext();
+                }
+
+                @Override
+                public Task next() {
+                    Task task = tasks.next();
+                    if (++count % COUNT_STEP == 0) accept(count);
+                    return task;
+                }
+            };
+        }
+
+        private double rate(long done, long now) {
+            return done / Math.max((now - start) / 1e9, 1e-9);
+        }
+    }
+
+    @Command(name = "metrics", description = "Print operation latencies and I/O counters recorded by this process "
+            + "(enable with TASKS_METRICS=on; most useful against a running daemon)")
+    static class MetricsCommand implements Callable<Integer> {
+        @Spec
+        private CommandSpec spec;
+
+        @Override
+        public Integer call() {
+            if (Metrics.get() instanceof RecordingMetrics recording) {
+                spec.commandLine().getOut().print(recording.summary());
+            } else {
+                spec.commandLine().getOut().println("Metrics are off. Set TASKS_METRICS=on to record them.");
+            }
+            return 0;
+        }
+    }
+
+    @Command(name = "watch", description = "Print tasks as other task-cli invocations add (+), change (~) or remove (-) "
+            + "them, until stopped")
+    static class WatchCommand implements Callable<Integer> {
+        @Spec
+        private CommandSpec spec;
+
+        @Option(names = "--max-updates", paramLabel = "N", description = "Exit after N rounds of changes")
+        private Integer maxUpdates;
+
+        @Override
+        public Integer call() throws InterruptedException {
+            if (maxUpdates != null && maxUpdates < 1) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "--max-updates must be positive");
+            }
+            PrintWriter out = spec.commandLine().getOut();
+            try (StoreWatcher watcher = TaskRepositoryFactory.watcher()) {
+                out.printf("Watching %s (%d tasks)%n", watcher.file(), watcher.tasks().size());
+                for (int updates = 0; maxUpdates == null || updates < maxUpdates; updates++) {
+                    StoreWatcher.Changes changes = watcher.take();
+                    printChanges(out, '+', changes.added());
+                    printChanges(out, '~', changes.changed());
+                    printChanges(out, '-', changes.removed());
+                    out.flush();
+                    if (out.checkError()) break;
+                }
+            }
+            return 0;
+        }
+
+        private static void printChanges(PrintWriter out, char mark, List<Task> tasks) {
+            StringBuilder line = new StringBuilder(128);
+            for (Task task : tasks) {
+                line.setLength(0);
+                appendTask(line.append(mark).append(' '), task).append(System.lineSeparator());
+                out.append(line);
+            }
+        }
+    }
+
+    @Command(name = "serve",
+            description = "Keep tasks loaded and run commands from other task-cli invocations until stopped")
+    static class ServeCommand implements Callable<Integer> {
+        private final TaskManager taskManager;
+        private final CountDownLatch repositoryClosed;
+
+        @Spec
+        private CommandSpec spec;
+
+        @Option(names = "--socket", paramLabel = "PATH",
+                description = "Unix domain socket to listen on (default: tasks.socket / TASKS_SOCKET, else <store>.sock)")
+        private Path socket;
+
+        ServeCommand(TaskManager tm, CountDownLatch repositoryClosed) {
+            this.taskManager = tm;
+            this.repositoryClosed = repositoryClosed;
+        }
+
+        @Override
+        public Integer call() throws IOException {
+            Path path = socket != null ? socket : TaskDaemon.socketPath();
+            TaskDaemon daemon = TaskDaemon.bind(path, taskManager);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    daemon.close();
+                    // main() closes the repository once run() returns; the JVM must not halt first.
+                    repositoryClosed.await(1, TimeUnit.MINUTES);
+                } catch (IOException e) {
+                    logger.warn("Failed to remove daemon socket {}", path, e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            spec.commandLine().getOut().printf("Serving tasks on %s%n", path);
+            logger.info("Daemon listening on {}", path);
+            daemon.run();
+            return 0;
+        }
+    }
+
+    @Command(name = "mark-todo", description = "Mark tasks as TODO")
     static class MarkTodoCommand implements Callable<Integer> {
         private final TaskManager taskManager;
-        @Parameters(index = "0", description = "Task ID") private int id;
+        @Spec private CommandSpec spec;
+        @Parameters(arity = "1..*", description = "Task IDs") private List<Integer> ids;
         MarkTodoCommand(TaskManager tm) { this.taskManager = tm; }
-        @Override public Integer call() { return markAs(taskManager, id, TaskStatus.TODO); }
+        @Override public Integer call() { return markAs(spec.commandLine().getOut(), taskManager, ids, TaskStatus.TODO); }
     }
 
-    @Command(name = "mark-in-progress", description = "Mark a task as IN_PROGRESS")
+    @Command(name = "mark-in-progress", description = "Mark tasks as IN_PROGRESS")
     static class MarkInProgressCommand implements Callable<Integer> {
         private final TaskManager taskManager;
-        @Parameters(index = "0", description = "Task ID") private int id;
+        @Spec private CommandSpec spec;
+        @Parameters(arity = "1..*", description = "Task IDs") private List<Integer> ids;
         MarkInProgressCommand(TaskManager tm) { this.taskManager = tm; }
-        @Override public Integer call() { return markAs(taskManager, id, TaskStatus.IN_PROGRESS); }
+        @Override public Integer call() { return markAs(spec.commandLine().getOut(), taskManager, ids, TaskStatus.IN_PROGRESS); }
     }
 
-    @Command(name = "mark-done", description = "Mark a task as DONE")
+    @Command(name = "mark-done", description = "Mark tasks as DONE")
     static class MarkDoneCommand implements Callable<Integer> {
         private final TaskManager taskManager;
-        @Parameters(index = "0", description = "Task ID") private int id;
+        @Spec private CommandSpec spec;
+        @Parameters(arity = "1..*", description = "Task IDs") private List<Integer> ids;
         MarkDoneCommand(TaskManager tm) { this.taskManager = tm; }
-        @Override public Integer call() { return markAs(taskManager, id, TaskStatus.DONE); }
+        @Override public Integer call() { return markAs(spec.commandLine().getOut(), taskManager, ids, TaskStatus.DONE); }
     }
 
     private static final Logger logger = LoggerFactory.getLogger(TaskCLI.class);
 
-    private static int markAs(TaskManager tm, int id, TaskStatus status) {
-        Task task = tm.updateTaskStatus(id, status);
+    private static int markAs(PrintWriter out, TaskManager tm, List<Integer> ids, TaskStatus status) {
+        Map<Integer, TaskStatus> changes = new LinkedHashMap<>();
+        for (int id : ids) changes.put(id, status);
+        List<Task> updated = tm.updateStatuses(changes);
         tm.saveTasks();
-        System.out.printf("Task %d marked as %s%n", task.id(), status.getDisplayName());
-        logger.info("Task {} marked as {}", task.id(), status.name());
+        for (Task task : updated) {
+            out.printf("Task %d marked as %s%n", task.id(), status.getDisplayName());
+            logger.info("Task {} marked as {}", task.id(), status.name());
+        }
         return 0;
     }
 }
@@ -0,0 +1,250 @@
+package com.taskmanager.cli;
+
+import com.taskmanager.repository.TaskRepositoryFactory;
+import com.taskmanager.service.TaskManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.OptionalInt;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps one {@link TaskManager} resident and runs CLI commands sent over a Unix domain socket,
+ * so scripted callers pay JVM startup, picocli setup and store loading once instead of per command.
+ *
+ * Requests are served one at a time on the thread that calls {@link #run()}, which keeps the
+ * repository single-threaded exactly as in a normal CLI run; each command still persists itself.
+ *
+ * Wire format, big-endian via {@link DataOutputStream}; strings are an int byte length plus UTF-8.
+ * The request is the client's working directory, the argument count and the arguments; path
+ * arguments are resolved against that directory, not the daemon's. The response is a sequence of
+ * frames, each a one-byte tag: {@code OUT} or {@code ERR} followed by a string is output as the
+ * command produces it, and a final {@code EXIT} followed by an int is the exit code.
+ */
+final class TaskDaemon implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskDaemon.class);
+    private static final byte EXIT = 0;
+    private static final byte OUT = 1;
+    private static final byte ERR = 2;
+    /** Output held before a frame is sent without waiting for a flush. */
+    private static final int FRAME_CHARS = 8 * 1024;
+
+    private final Path socketPath;
+    private final ServerSocketChannel server;
+    private final CommandLine cli;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private TaskDaemon(Path socketPath, ServerSocketChannel server, TaskManager taskManager) {
+        this.socketPath = socketPath;
+        this.server = server;
+        this.cli = TaskCLI.buildCommandLine(taskManager);
+    }
+
+    /** Socket from {@code tasks.socket} / {@code TASKS_SOCKET}, else the store's path plus {@code .sock}. */
+    static Path socketPath() {
+        String configured = TaskRepositoryFactory.setting("tasks.socket", "TASKS_SOCKET");
+        if (configured != null) return Path.of(configured);
+        Path store = TaskRepositoryFactory.storePath();
+        return store.resolveSibling(store.getFileName() + ".sock");
+    }
+
+    /**
+     * Binds {@code socketPath}. A socket file left behind by a daemon that died is replaced;
+     * one that still accepts connections means a daemon is already running.
+     */
+    static TaskDaemon bind(Path socketPath, TaskManager taskManager) throws IOException {
+        if (Files.exists(socketPath)) {
+            if (isListening(socketPath)) throw new IOException("A daemon is already listening on " + socketPath);
+            Files.delete(socketPath);
+        }
+        ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+        return new TaskDaemon(socketPath, server, taskManager);
+    }
+
+    /** Serves requests until {@link #close()} is called. */
+    void run() {
+        try {
+            while (true) {
+                try (SocketChannel client = server.accept()) {
+                    serve(client);
+                } catch (ClosedChannelException e) {
+                    return;
+                } catch (EOFException e) {
+                    logger.debug("Client disconnected before completing a request");
+                } catch (IOException e) {
+                    logger.warn("Dropped a client connection", e);
+                }
+            }
+        } finally {
+            stopped.countDown();
+        }
+    }
+
+    /** Stops accepting and waits briefly for the request in progress, if any, to finish. */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        Files.deleteIfExists(socketPath);
+        try {
+            stopped.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void serve(SocketChannel client) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+        Path workingDirectory = Path.of(readString(in));
+        String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) args[i] = readString(in);
+
+        DataOutputStream reply = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(client)));
+        // Autoflush sends each line as the command prints it; a client that went away fails the
+        // writes silently (PrintWriter keeps the error) and is noticed at the exit frame.
+        PrintWriter out = new PrintWriter(new FrameWriter(reply, OUT), true);
+        PrintWriter err = new PrintWriter(new FrameWriter(reply, ERR), true);
+        cli.setOut(out);
+        cli.setErr(err);
+        cli.registerConverter(Path.class, workingDirectory::resolve);
+        int exitCode;
+        if (args.length == 0) {
+            cli.usage(cli.getOut());
+            exitCode = 0;
+        } else {
+            exitCode = cli.execute(args);
+        }
+        out.flush();
+        err.flush();
+
+        reply.writeByte(EXIT);
+        reply.writeInt(exitCode);
+        reply.flush();
+    }
+
+    /** Sends what is written to it as frames of one stream: on every flush, and whenever enough is held. */
+    private static final class FrameWriter extends Writer {
+        private final DataOutputStream reply;
+        private final byte tag;
+        private final StringBuilder pending = new StringBuilder();
+
+        FrameWriter(DataOutputStream reply, byte tag) {
+            this.reply = reply;
+            this.tag = tag;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            pending.append(chars, offset, length);
+            if (pending.length() >= FRAME_CHARS) send();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            send();
+            reply.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        private void send() throws IOException {
+            // A frame is decoded on its own, so it must not end between the two halves of a surrogate pair.
+            int end = pending.length();
+            if (end > 0 && Character.isHighSurrogate(pending.charAt(end - 1))) end--;
+            if (end == 0) return;
+            reply.writeByte(tag);
+            writeString(reply, pending.substring(0, end));
+            pending.delete(0, end);
+        }
+    }
+
+    // ---------- Client ----------
+
+    /**
+     * Runs {@code args} on the daemon listening on {@code socketPath}, with relative paths taken
+     * from this process's working directory, and copies its output as it arrives. Returns the
+     * command's exit code, or empty if no daemon is listening there.
+     */
+    static OptionalInt forward(Path socketPath, String[] args, PrintStream out, PrintStream err) throws IOException {
+        return forward(socketPath, Path.of("").toAbsolutePath(), args, out, err);
+    }
+
+    static OptionalInt forward(Path socketPath, Path workingDirectory, String[] args, PrintStream out, PrintStream err)
+            throws IOException {
+        if (!Files.exists(socketPath)) return OptionalInt.empty();
+        SocketChannel channel;
+        try {
+            channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+        } catch (IOException e) {
+            return OptionalInt.empty();
+        }
+        try (channel) {
+            DataOutputStream request = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            writeString(request, workingDirectory.toString());
+            request.writeInt(args.length);
+            for (String arg : args) writeString(request, arg);
+            request.flush();
+
+            DataInputStream response = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            while (true) {
+                byte tag = response.readByte();
+                switch (tag) {
+                    case EXIT -> {
+                        return OptionalInt.of(response.readInt());
+                    }
+                    case OUT -> {
+                        out.print(readString(response));
+                        out.flush();
+                    }
+                    case ERR -> {
+                        err.print(readString(response));
+                        err.flush();
+                    }
+                    default -> throw new IOException("Unexpected frame " + tag + " from the daemon at " + socketPath);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("try") // only whether the connection opens matters
+    private static boolean isListening(Path socketPath) {
+        try (SocketChannel ignored = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
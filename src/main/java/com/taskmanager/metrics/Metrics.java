@@ -0,0 +1,39 @@
+package com.taskmanager.metrics;
+
+import com.taskmanager.repository.TaskRepositoryFactory;
+
+import java.util.Locale;
+
+/**
+ * Process-wide {@link TaskMetrics} sink, so storage internals (load, backup, bytes written) can
+ * report without every constructor taking a metrics argument. {@link TaskMetrics#NOOP} until
+ * something is installed.
+ */
+public final class Metrics {
+
+    private static volatile TaskMetrics current = TaskMetrics.NOOP;
+
+    private Metrics() {}
+
+    public static TaskMetrics get() {
+        return current;
+    }
+
+    public static void install(TaskMetrics metrics) {
+        current = metrics == null ? TaskMetrics.NOOP : metrics;
+    }
+
+    /**
+     * Reads {@code tasks.metrics} / {@code TASKS_METRICS}: {@code off} (default) or {@code on}.
+     * Returns a fresh {@link RecordingMetrics} when on, else {@link TaskMetrics#NOOP}.
+     */
+    public static TaskMetrics fromConfig() {
+        String value = TaskRepositoryFactory.setting("tasks.metrics", "TASKS_METRICS");
+        if (value == null) return TaskMetrics.NOOP;
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "on", "true" -> new RecordingMetrics();
+            case "off", "false" -> TaskMetrics.NOOP;
+            default -> throw new IllegalArgumentException("Unknown tasks metrics setting: " + value);
+        };
+    }
+}
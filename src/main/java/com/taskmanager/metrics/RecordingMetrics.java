@@ -0,0 +1,55 @@
+package com.taskmanager.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a {@link LatencyHistogram} per operation and a running total per counter, for the life of
+ * the process. {@link #summary()} renders both as a plain-text table.
+ */
+public final class RecordingMetrics implements TaskMetrics {
+
+    private final ConcurrentHashMap<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordLatency(String operation, long nanos) {
+        latencies.computeIfAbsent(operation, k -> new LatencyHistogram()).record(nanos);
+    }
+
+    @Override
+    public void increment(String counter, long delta) {
+        counters.computeIfAbsent(counter, k -> new LongAdder()).add(delta);
+    }
+
+    /** Histogram for {@code operation}, or null if it never ran. */
+    public LatencyHistogram latency(String operation) {
+        return latencies.get(operation);
+    }
+
+    /** Current total of {@code counter}; zero if never incremented. */
+    public long counter(String counter) {
+        LongAdder adder = counters.get(counter);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /** Operations sorted by name with count, mean, p50, p99 and max in microseconds, then counters. */
+    public String summary() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-28s %10s %10s %10s %10s %10s%n", "operation (us)", "count", "mean", "p50", "p99", "max"));
+        for (Map.Entry<String, LatencyHistogram> e : new TreeMap<>(latencies).entrySet()) {
+            LatencyHistogram h = e.getValue();
+            out.append(String.format("%-28s %10d %10.1f %10.1f %10.1f %10.1f%n", e.getKey(), h.count(),
+                    h.mean() / 1e3, h.percentile(50) / 1e3, h.percentile(99) / 1e3, h.max() / 1e3));
+        }
+        if (!counters.isEmpty()) {
+            out.append(String.format("%n%-28s %10s%n", "counter", "total"));
+            for (Map.Entry<String, LongAdder> e : new TreeMap<>(counters).entrySet()) {
+                out.append(String.format("%-28s %10d%n", e.getKey(), e.getValue().sum()));
+            }
+        }
+        return out.toString();
+    }
+}
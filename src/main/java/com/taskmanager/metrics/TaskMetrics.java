@@ -0,0 +1,24 @@
+package com.taskmanager.metrics;
+
+/**
+ * Instrumentation SPI. Repositories and services report operation latencies and counters here;
+ * an implementation decides what to keep. Calls arrive on whatever thread did the work, so
+ * implementations must be thread-safe and cheap: they sit on every operation.
+ *
+ * Names are dotted, component first: {@code repository.save}, {@code json.persist},
+ * {@code json.bytesWritten}.
+ */
+public interface TaskMetrics {
+
+    /** Discards everything. The default until {@link Metrics#install} is called. */
+    TaskMetrics NOOP = new TaskMetrics() {
+        @Override public void recordLatency(String operation, long nanos) {}
+        @Override public void increment(String counter, long delta) {}
+    };
+
+    /** Records one completed {@code operation} that took {@code nanos}. */
+    void recordLatency(String operation, long nanos);
+
+    /** Adds {@code delta} (e.g. a byte count) to {@code counter}. */
+    void increment(String counter, long delta);
+}
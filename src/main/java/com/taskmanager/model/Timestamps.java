@@ -0,0 +1,42 @@
+package com.taskmanager.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Lossless conversion between {@link LocalDateTime} and a single {@code long} for binary formats.
+ *
+ * Task timestamps carry no zone, so they are mapped onto the UTC timeline purely as a numbering
+ * scheme; converting back yields the same local date-time. Nanosecond resolution keeps the
+ * round trip exact and covers the years 1677 to 2262; a store using this encoding checks
+ * {@link #representable} before it changes anything, and a time outside is refused with an
+ * {@link IllegalArgumentException}.
+ */
+public final class Timestamps {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    /** Earliest and latest times with an epoch-nanosecond value, in 1677 and 2262. */
+    public static final LocalDateTime MIN = fromEpochNanos(Long.MIN_VALUE);
+    public static final LocalDateTime MAX = fromEpochNanos(Long.MAX_VALUE);
+
+    private Timestamps() {}
+
+    public static boolean representable(LocalDateTime time) {
+        return !time.isBefore(MIN) && !time.isAfter(MAX);
+    }
+
+    /** Throws {@link IllegalArgumentException} for a time outside {@link #MIN} to {@link #MAX}. */
+    public static long toEpochNanos(LocalDateTime time) {
+        if (!representable(time)) {
+            throw new IllegalArgumentException("Timestamp " + time + " is outside " + MIN.getYear() + " to "
+                    + MAX.getYear() + ", the years a binary store can hold");
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * NANOS_PER_SECOND + time.getNano();
+    }
+
+    public static LocalDateTime fromEpochNanos(long epochNanos) {
+        long seconds = Math.floorDiv(epochNanos, NANOS_PER_SECOND);
+        int nanos = (int) Math.floorMod(epochNanos, NANOS_PER_SECOND);
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
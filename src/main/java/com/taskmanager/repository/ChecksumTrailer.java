@@ -0,0 +1,125 @@
+package com.taskmanager.repository;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.zip.CRC32C;
+
+/**
+ * The CRC32C line a durable JSON store ends with: {@code \n{"crc32c":"1a2b3c4d"}\n}, covering
+ * every byte before it. Being a second top-level JSON value rather than a comment, it leaves the
+ * file readable by tools that accept concatenated JSON ({@code jq}, Jackson), and parsers that
+ * stop at the end of the task array never see it. Fixed-length, so it is found without scanning.
+ */
+final class ChecksumTrailer {
+
+    private static final String PREFIX = "\n{\"crc32c\":\"";
+    private static final String SUFFIX = "\"}\n";
+    static final int LENGTH = PREFIX.length() + 8 + SUFFIX.length();
+
+    private ChecksumTrailer() {
+    }
+
+    static byte[] format(long crc) {
+        return (PREFIX + String.format(Locale.ROOT, "%08x", crc) + SUFFIX).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** The checksum recorded at the end of the file, or -1 if it does not end with a trailer. */
+    static long read(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < LENGTH) return -1;
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, size - LENGTH + buffer.position()) < 0) return -1;
+        }
+        String text = new String(buffer.array(), StandardCharsets.US_ASCII);
+        if (!text.startsWith(PREFIX) || !text.endsWith(SUFFIX)) return -1;
+        try {
+            return Long.parseLong(text, PREFIX.length(), PREFIX.length() + 8, 16);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** Whether the file is unharmed as far as its trailer can tell: true if it has none, else if the checksum matches. */
+    static boolean intact(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long recorded = read(channel);
+            if (recorded < 0) return true;
+            CRC32C crc = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+            long covered = channel.size() - LENGTH, position = 0;
+            while (position < covered) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), covered - position));
+                int n = channel.read(buffer, position);
+                if (n < 0) return false;
+                position += n;
+                crc.update(buffer.flip());
+            }
+            return crc.getValue() == recorded;
+        }
+    }
+
+    static boolean present(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel) >= 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** The file's contents do not match the checksum it was written with. */
+    static final class MismatchException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        MismatchException(Path file) {
+            super("Checksum mismatch in " + file + ": the file was damaged after it was written");
+        }
+    }
+
+    /** Reads at most {@code limit} bytes of {@code in}, i.e. the part of the file the checksum covers. */
+    static InputStream limit(InputStream in, long limit) {
+        return new FilterInputStream(in) {
+            private long remaining = limit;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining <= 0) return -1;
+                int b = in.read();
+                if (b >= 0) remaining--;
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (remaining <= 0) return -1;
+                int n = in.read(b, off, (int) Math.min(len, remaining));
+                if (n > 0) remaining -= n;
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = in.skip(Math.min(n, remaining));
+                remaining -= skipped;
+                return skipped;
+            }
+
+            @Override
+            public int available() throws IOException {
+                return (int) Math.min(in.available(), remaining);
+            }
+
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+    }
+}
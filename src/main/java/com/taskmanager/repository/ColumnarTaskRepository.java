@@ -0,0 +1,438 @@
+package com.taskmanager.repository;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import com.taskmanager.model.Timestamps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * TaskRepository that keeps tasks as columns instead of objects: parallel arrays of IDs, status
+ * ordinals and epoch-nanosecond timestamps (see {@link Timestamps}), with descriptions as UTF-8 in
+ * one shared byte arena. A task costs about 34 bytes plus its description, against well over 150
+ * for a {@link Task} with its {@code LocalDateTime}s held in a {@link TaskTable}. {@link Task}
+ * records are built only when a caller asks for one.
+ *
+ * Slots are kept in ID order, so lookups binary-search the ID column and {@link #streamAfter}
+ * starts at the right slot and walks forward. New IDs append; saving an ID below the highest one
+ * shifts the columns. Deletes leave a tombstone, and a replaced description that no longer fits
+ * its old bytes is appended; both are reclaimed by compacting once they make up half the store.
+ *
+ * The arena is a {@link MemorySegment} addressed by {@code long} offsets. On the heap it wraps a
+ * byte array and so holds at most 2 GiB of descriptions. Off the heap it is allocated from a
+ * shared {@link Arena}, which takes the descriptions out of the heap (and out of GC work)
+ * entirely, has no such limit, and is freed as soon as it is outgrown or the store is closed
+ * rather than when a collection gets to it.
+ *
+ * With a file, the store loads from and persists to the same JSON array as
+ * {@link JsonFileTaskRepository}: it verifies a checksum trailer, falls back to {@code <file>.bak}
+ * when the file is unreadable, and applies the delta segment on load. It always writes the whole
+ * file, compact and without a trailer, keeping the previous one as {@code <file>.bak} and
+ * retiring the segment it has applied. It takes no {@link StoreLock}, so it is for a single
+ * process: another process writing the same file meanwhile is overwritten, not merged with.
+ * {@link TaskRepositoryFactory} refuses the JSON settings it would ignore. Not thread-safe; a
+ * shared arena only lets the store be handed from one thread to another.
+ */
+public class ColumnarTaskRepository implements TaskRepository, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarTaskRepository.class);
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final byte DELETED = -1;
+    private static final int INITIAL_SLOTS = 1024;
+    private static final int INITIAL_ARENA_BYTES = 64 * 1024;
+    private static final long MAX_HEAP_ARENA_BYTES = Integer.MAX_VALUE - 8;
+    /** Compaction is skipped below this, where the garbage cannot matter. */
+    private static final int MIN_COMPACT_SLOTS = 1024;
+
+    private final Path file;
+    private final DeltaSegment segment;
+    private final boolean offHeap;
+
+    // Columns, indexed by slot; slots [0, size) are in ascending ID order.
+    private int[] ids = new int[INITIAL_SLOTS];
+    private byte[] statuses = new byte[INITIAL_SLOTS];
+    private long[] createdAt = new long[INITIAL_SLOTS];
+    private long[] updatedAt = new long[INITIAL_SLOTS];
+    private long[] descriptionOffsets = new long[INITIAL_SLOTS];
+    private int[] descriptionLengths = new int[INITIAL_SLOTS];
+    private int size;
+
+    // Off-heap only: the arena that owns descriptions, closed when they move to a new one.
+    private Arena owner;
+    private MemorySegment descriptions;
+    private long arenaEnd;
+    private long garbageBytes;
+
+    private final int[] statusCounts = new int[STATUSES.length];
+    private int live;
+    private int nextId = 1;
+
+    /** An empty, in-memory store with an on-heap arena; {@link #persist()} is a no-op. */
+    public ColumnarTaskRepository() {
+        this(null, false);
+    }
+
+    /**
+     * @param file    JSON file to load from and persist to, or {@code null} for a transient store
+     * @param offHeap keep descriptions in native memory outside the Java heap
+     */
+    @SuppressWarnings("this-escape") // load() streams the file through save()
+    public ColumnarTaskRepository(Path file, boolean offHeap) {
+        this.file = file == null ? null : JsonFileTaskRepository.validatePath(file);
+        this.segment = file == null ? null : new DeltaSegment(this.file);
+        this.offHeap = offHeap;
+        replaceArena(INITIAL_ARENA_BYTES);
+        if (this.file != null && Files.exists(this.file)) load();
+    }
+
+    // ---------- TaskRepository ----------
+
+    @Override
+    public Task save(Task task) {
+        // Converted first: a time out of range is refused before the columns change.
+        long created = Timestamps.toEpochNanos(task.createdAt());
+        long updated = Timestamps.toEpochNanos(task.updatedAt());
+        int slot = slotOf(task.id());
+        if (slot < 0) {
+            slot = -slot - 1;
+            insertSlot(slot, task.id());
+        } else if (statuses[slot] == DELETED) {
+            live++;
+        } else {
+            statusCounts[statuses[slot]]--;
+        }
+        statuses[slot] = (byte) task.status().ordinal();
+        statusCounts[task.status().ordinal()]++;
+        createdAt[slot] = created;
+        updatedAt[slot] = updated;
+        storeDescription(slot, task.description().getBytes(StandardCharsets.UTF_8));
+        nextId = Math.max(nextId, task.id() + 1);
+        return task;
+    }
+
+    @Override
+    public Optional<Task> findById(int id) {
+        int slot = slotOf(id);
+        return isLive(slot) ? Optional.of(taskAt(slot)) : Optional.empty();
+    }
+
+    @Override
+    public List<Task> findAll() {
+        List<Task> all = new ArrayList<>(live);
+        for (int slot = 0; slot < size; slot++) {
+            if (statuses[slot] != DELETED) all.add(taskAt(slot));
+        }
+        return all;
+    }
+
+    @Override
+    public List<Task> findByStatus(TaskStatus status) {
+        byte wanted = (byte) status.ordinal();
+        List<Task> matching = new ArrayList<>(statusCounts[wanted]);
+        for (int slot = 0; slot < size; slot++) {
+            if (statuses[slot] == wanted) matching.add(taskAt(slot));
+        }
+        return matching;
+    }
+
+    @Override
+    public int countByStatus(TaskStatus status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    @Override
+    public Stream<Task> streamAfter(int afterId) {
+        return slotsAfter(afterId).filter(slot -> statuses[slot] != DELETED).mapToObj(this::taskAt);
+    }
+
+    @Override
+    public Stream<Task> streamAfter(int afterId, TaskStatus status) {
+        byte wanted = (byte) status.ordinal();
+        return slotsAfter(afterId).filter(slot -> statuses[slot] == wanted).mapToObj(this::taskAt);
+    }
+
+    @Override
+    public Optional<Task> delete(int id) {
+        int slot = slotOf(id);
+        if (!isLive(slot)) return Optional.empty();
+        Task removed = taskAt(slot);
+        statusCounts[statuses[slot]]--;
+        statuses[slot] = DELETED;
+        garbageBytes += descriptionLengths[slot];
+        descriptionLengths[slot] = 0;
+        live--;
+        compactIfWasteful();
+        return Optional.of(removed);
+    }
+
+    @Override
+    public int nextId() {
+        return nextId++;
+    }
+
+    @Override
+    public int reserveIds(int count) {
+        int first = nextId;
+        nextId += count;
+        return first;
+    }
+
+    @Override
+    public boolean releaseIds(int first, int next) {
+        if (nextId != next) return false;
+        nextId = first;
+        return true;
+    }
+
+    @Override
+    public synchronized void persist() {
+        if (file == null) return;
+        try {
+            if (Files.exists(file)) JsonFileTaskRepository.backUp(file);
+            Path temp = Files.createTempFile(file.getParent() != null ? file.getParent() : Path.of("."), "tasks", ".tmp");
+            ObjectWriter taskWriter = JsonFileTaskRepository.sharedTaskWriter();
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024);
+                 JsonGenerator gen = JsonFileTaskRepository.sharedMapper().getFactory().createGenerator(out)) {
+                gen.writeStartArray();
+                for (int slot = 0; slot < size; slot++) {
+                    if (statuses[slot] != DELETED) taskWriter.writeValue(gen, taskAt(slot));
+                }
+                gen.writeEndArray();
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            FileOps.moveReplacing(temp, file);
+            // Its changes are in the file now; it moves aside to pair with the backup.
+            segment.rotate();
+            logger.info("Saved {} tasks to {}", live, file);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save tasks to file: " + file, e);
+        }
+    }
+
+    @Override
+    public int count() {
+        return live;
+    }
+
+    @Override
+    public boolean exists(int id) {
+        return isLive(slotOf(id));
+    }
+
+    // ---------- Footprint ----------
+
+    /** Bytes held by the columns and the arena, whether on or off the heap. */
+    public long footprintBytes() {
+        long perSlot = Integer.BYTES * 2L + Byte.BYTES + Long.BYTES * 3L;
+        return perSlot * ids.length + descriptions.byteSize();
+    }
+
+    /** Frees an off-heap arena now instead of leaving it to the garbage collector. The store is unusable afterwards. */
+    @Override
+    public void close() {
+        if (owner != null) owner.close();
+    }
+
+    // ---------- Slots ----------
+
+    /** Slot holding {@code id}, or {@code -(insertion point) - 1}. IDs mostly arrive in order, so check the end first. */
+    private int slotOf(int id) {
+        if (size == 0 || ids[size - 1] < id) return -size - 1;
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    private boolean isLive(int slot) {
+        return slot >= 0 && statuses[slot] != DELETED;
+    }
+
+    private IntStream slotsAfter(int afterId) {
+        int from = slotOf(afterId);
+        from = from >= 0 ? from + 1 : -from - 1;
+        return IntStream.range(from, size);
+    }
+
+    private Task taskAt(int slot) {
+        return new Task(ids[slot], description(slot), STATUSES[statuses[slot]],
+                Timestamps.fromEpochNanos(createdAt[slot]), Timestamps.fromEpochNanos(updatedAt[slot]));
+    }
+
+    private String description(int slot) {
+        long offset = descriptionOffsets[slot];
+        int length = descriptionLengths[slot];
+        if (owner == null) return new String((byte[]) descriptions.heapBase().orElseThrow(), (int) offset, length, StandardCharsets.UTF_8);
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(descriptions, ValueLayout.JAVA_BYTE, offset, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Opens slot {@code at} for a new ID, shifting later slots up by one. */
+    private void insertSlot(int at, int id) {
+        if (size == ids.length) growSlots();
+        int tail = size - at;
+        if (tail > 0) {
+            System.arraycopy(ids, at, ids, at + 1, tail);
+            System.arraycopy(statuses, at, statuses, at + 1, tail);
+            System.arraycopy(createdAt, at, createdAt, at + 1, tail);
+            System.arraycopy(updatedAt, at, updatedAt, at + 1, tail);
+            System.arraycopy(descriptionOffsets, at, descriptionOffsets, at + 1, tail);
+            System.arraycopy(descriptionLengths, at, descriptionLengths, at + 1, tail);
+        }
+        ids[at] = id;
+        descriptionLengths[at] = 0;
+        size++;
+        live++;
+    }
+
+    private void growSlots() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        updatedAt = Arrays.copyOf(updatedAt, capacity);
+        descriptionOffsets = Arrays.copyOf(descriptionOffsets, capacity);
+        descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+    }
+
+    // ---------- Description arena ----------
+
+    /** Overwrites the slot's description in place when it fits, else appends it. */
+    private void storeDescription(int slot, byte[] bytes) {
+        int id = ids[slot];
+        int oldLength = descriptionLengths[slot];
+        if (bytes.length <= oldLength) {
+            MemorySegment.copy(bytes, 0, descriptions, ValueLayout.JAVA_BYTE, descriptionOffsets[slot], bytes.length);
+            garbageBytes += oldLength - bytes.length;
+        } else {
+            garbageBytes += oldLength;
+            // Making room may compact, which moves slots; this one is live, so it can be found again.
+            if (ensureArena(bytes.length)) slot = slotOf(id);
+            MemorySegment.copy(bytes, 0, descriptions, ValueLayout.JAVA_BYTE, arenaEnd, bytes.length);
+            descriptionOffsets[slot] = arenaEnd;
+            arenaEnd += bytes.length;
+        }
+        descriptionLengths[slot] = bytes.length;
+        compactIfWasteful();
+    }
+
+    /** Makes room for {@code extra} more bytes; returns whether that compacted the store. */
+    private boolean ensureArena(int extra) {
+        long capacity = descriptions.byteSize();
+        if (arenaEnd + extra <= capacity) return false;
+        boolean compacted = garbageBytes > capacity / 4;
+        if (compacted) compact();
+        long needed = arenaEnd + extra;
+        if (needed <= capacity) return compacted;
+        long limit = offHeap ? Long.MAX_VALUE : MAX_HEAP_ARENA_BYTES;
+        if (needed > limit) {
+            throw new IllegalStateException("Description arena is full: an on-heap arena holds at most 2 GiB, use the off-heap one");
+        }
+        replaceArena(Math.min(limit, Math.max(needed, capacity * 2)));
+        return compacted;
+    }
+
+    /**
+     * Moves the first {@code arenaEnd} bytes of descriptions, if any, into a new arena of
+     * {@code capacity} bytes; an outgrown off-heap arena is freed on the spot.
+     */
+    private void replaceArena(long capacity) {
+        Arena newOwner = offHeap ? Arena.ofShared() : null;
+        MemorySegment grown = allocate(newOwner, capacity);
+        if (descriptions != null) MemorySegment.copy(descriptions, 0, grown, 0, arenaEnd);
+        adopt(newOwner, grown);
+    }
+
+    private static MemorySegment allocate(Arena owner, long capacity) {
+        return owner == null ? MemorySegment.ofArray(new byte[(int) capacity]) : owner.allocate(capacity);
+    }
+
+    private void adopt(Arena newOwner, MemorySegment segment) {
+        if (owner != null) owner.close();
+        owner = newOwner;
+        descriptions = segment;
+    }
+
+    private void compactIfWasteful() {
+        if (size < MIN_COMPACT_SLOTS) return;
+        if (size - live > size / 2 || garbageBytes > arenaEnd / 2) compact();
+    }
+
+    /** Drops tombstones and copies the live descriptions into a fresh arena, in slot order. */
+    private void compact() {
+        Arena packedOwner = offHeap ? Arena.ofShared() : null;
+        MemorySegment packed = allocate(packedOwner, descriptions.byteSize());
+        long end = 0;
+        int kept = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (statuses[slot] == DELETED) continue;
+            int length = descriptionLengths[slot];
+            MemorySegment.copy(descriptions, descriptionOffsets[slot], packed, end, length);
+            ids[kept] = ids[slot];
+            statuses[kept] = statuses[slot];
+            createdAt[kept] = createdAt[slot];
+            updatedAt[kept] = updatedAt[slot];
+            descriptionOffsets[kept] = end;
+            descriptionLengths[kept] = length;
+            end += length;
+            kept++;
+        }
+        size = kept;
+        adopt(packedOwner, packed);
+        arenaEnd = end;
+        garbageBytes = 0;
+    }
+
+    // ---------- Loading ----------
+
+    private void load() {
+        try {
+            try {
+                JsonFileTaskRepository.readAll(JsonFileTaskRepository.sharedMapper(), file, this::save);
+            } catch (IOException e) {
+                // A file that matches its trailer is what was written; the backup is no better.
+                if (!(e instanceof ChecksumTrailer.MismatchException) && ChecksumTrailer.present(file)) throw e;
+                recover(e);
+            }
+            segment.replay(this::save, this::delete);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load tasks from file: " + file, e);
+        }
+        logger.info("Loaded {} tasks from {}", live, file);
+    }
+
+    /** Reloads from {@code <file>.bak} and the segment that extended it, as the JSON store does. */
+    private void recover(IOException cause) throws IOException {
+        Path backup = JsonFileTaskRepository.backupPathFor(file);
+        if (!Files.exists(backup)) throw new RuntimeException("Failed to load tasks and no backup found: " + file, cause);
+        logger.warn("Failed to load {}, attempting backup recovery...", file, cause);
+        // The failed parse may have saved part of the file before it stopped.
+        size = 0;
+        live = 0;
+        Arrays.fill(statusCounts, 0);
+        arenaEnd = 0;
+        garbageBytes = 0;
+        nextId = 1;
+        JsonFileTaskRepository.readAll(JsonFileTaskRepository.sharedMapper(), backup, this::save);
+        segment.replay(DeltaSegment.backupPathFor(file), backup, this::save, this::delete);
+        logger.info("Recovered {} tasks from backup: {}", live, backup);
+    }
+}
@@ -0,0 +1,254 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Thread-safe TaskRepository for embedding {@code TaskManager} in multi-threaded code.
+ *
+ * Tasks live in a {@link ConcurrentHashMap}. IDs are reserved from the backing repository under
+ * this object's monitor, so no two callers ever receive the same ID, nor do two processes when the
+ * backing store coordinates IDs through a lock file. Reads never lock. Writes to one ID are serialized by the
+ * map's per-key locking, and {@link #update} applies a read-modify-write atomically, so
+ * concurrent edits of the same task are never lost.
+ *
+ * The per-status ID sets are updated inside that per-key critical section. A reader racing a
+ * status change may see the ID in both sets for an instant, so status queries re-check the
+ * current task and report each task at most once, under its current status.
+ *
+ * Optionally fronts another repository for storage: its tasks are loaded at construction and
+ * {@link #persist()} pushes only the IDs changed since the last persist into it before calling
+ * its {@code persist()}. The backing repository is only touched under this object's monitor, so a
+ * timer thread may persist while other threads keep reading and writing. When that persist
+ * reloads the backing store (see {@link TaskRepository#reloads}), e.g. to merge another process's
+ * changes, the tasks here are refreshed from it, except those written here since, which the next
+ * persist pushes. Writers mark an ID dirty both before and after changing it: before, so a
+ * refresh racing the write leaves the ID alone; after, so a persist racing it pushes the new value
+ * next time. {@link #close()} closes the backing repository without persisting.
+ */
+@SuppressWarnings("try") // close() forwards the delegate's, which may throw anything
+public class ConcurrentTaskRepository implements TaskRepository, AutoCloseable {
+
+    private final ConcurrentHashMap<Integer, Task> tasks = new ConcurrentHashMap<>();
+    private final EnumMap<TaskStatus, NavigableSet<Integer>> byStatus = new EnumMap<>(TaskStatus.class);
+    private final AtomicIntegerArray statusCounts = new AtomicIntegerArray(TaskStatus.values().length);
+    private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nextId;
+    private final TaskRepository backing;
+    // Guarded by this. The backing store's reloads() the tasks here were last refreshed against.
+    private long backingReloads;
+
+    /** Purely in-memory; {@link #persist()} is a no-op. */
+    public ConcurrentTaskRepository() {
+        this(new InMemoryTaskRepository());
+    }
+
+    public ConcurrentTaskRepository(TaskRepository backing) {
+        this.backing = Objects.requireNonNull(backing, "Backing repository cannot be null");
+        for (TaskStatus status : TaskStatus.values()) byStatus.put(status, new ConcurrentSkipListSet<>());
+        int maxId = 0;
+        for (Task task : backing.findAll()) {
+            tasks.put(task.id(), task);
+            reindex(null, task);
+            maxId = Math.max(maxId, task.id());
+        }
+        this.nextId = new AtomicInteger(maxId + 1);
+        this.backingReloads = backing.reloads();
+    }
+
+    // ---------- TaskRepository ----------
+
+    @Override
+    public Task save(Task task) {
+        dirty.add(task.id());
+        tasks.compute(task.id(), (id, previous) -> {
+            reindex(previous, task);
+            return task;
+        });
+        dirty.add(task.id());
+        return task;
+    }
+
+    @Override
+    public Optional<Task> update(int id, UnaryOperator<Task> updater) {
+        dirty.add(id);
+        Task updated = tasks.computeIfPresent(id, (key, current) -> {
+            Task next = Objects.requireNonNull(updater.apply(current), "Updater returned null");
+            if (next.id() != id) throw new IllegalArgumentException("Updater must not change the task ID");
+            reindex(current, next);
+            return next;
+        });
+        if (updated != null) dirty.add(id);
+        return Optional.ofNullable(updated);
+    }
+
+    @Override
+    public Optional<Task> findById(int id) {
+        return Optional.ofNullable(tasks.get(id));
+    }
+
+    @Override
+    public List<Task> findAll() {
+        List<Task> result = new ArrayList<>(tasks.values());
+        result.sort(Comparator.comparingInt(Task::id));
+        return result;
+    }
+
+    @Override
+    public List<Task> findByStatus(TaskStatus status) {
+        List<Task> result = new ArrayList<>();
+        for (int id : byStatus.get(status)) {
+            Task task = tasks.get(id);
+            if (task != null && task.status() == status) result.add(task);
+        }
+        return result;
+    }
+
+    /** Weakly consistent, like the underlying skip lists: safe to consume while others write. */
+    @Override
+    public Stream<Task> streamAfter(int afterId) {
+        List<Iterator<Integer>> sources = new ArrayList<>(byStatus.size());
+        for (NavigableSet<Integer> ids : byStatus.values()) sources.add(ids.tailSet(afterId, false).iterator());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                        TaskTable.mergeAscending(sources), Spliterator.ORDERED), false)
+                .map(tasks::get)
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public Stream<Task> streamAfter(int afterId, TaskStatus status) {
+        return byStatus.get(status).tailSet(afterId, false).stream()
+                .map(tasks::get)
+                .filter(task -> task != null && task.status() == status);
+    }
+
+    @Override
+    public int countByStatus(TaskStatus status) {
+        return statusCounts.get(status.ordinal());
+    }
+
+    @Override
+    public Optional<Task> delete(int id) {
+        Task[] removed = new Task[1];
+        dirty.add(id);
+        tasks.computeIfPresent(id, (key, current) -> {
+            reindex(current, null);
+            removed[0] = current;
+            return null;
+        });
+        if (removed[0] != null) dirty.add(id);
+        return Optional.ofNullable(removed[0]);
+    }
+
+    @Override
+    public int nextId() {
+        return reserveIds(1);
+    }
+
+    /** Never below an ID in use here: tasks saved since the last persist are unknown to the backing store. */
+    @Override
+    public synchronized int reserveIds(int count) {
+        int first = Math.max(nextId.get(), backing.reserveIds(count));
+        nextId.set(first + count);
+        return first;
+    }
+
+    @Override
+    public synchronized boolean releaseIds(int first, int next) {
+        if (nextId.get() != next || !backing.releaseIds(first, next)) return false;
+        nextId.set(first);
+        return true;
+    }
+
+    /**
+     * Copies the tasks changed since the last call into the backing repository and persists it.
+     * An ID is taken off the dirty set before its current value is read, so a write racing this
+     * call is either included now or left dirty for the next one, never dropped.
+     */
+    @Override
+    public synchronized void persist() {
+        for (Iterator<Integer> it = dirty.iterator(); it.hasNext(); ) {
+            int id = it.next();
+            it.remove();
+            Task current = tasks.get(id);
+            if (current != null) backing.save(current);
+            else backing.delete(id);
+        }
+        try {
+            backing.persist();
+        } finally {
+            // A conflicting merge throws after reloading too; the merged tasks are still the ones to show.
+            if (backing.reloads() != backingReloads) refresh();
+        }
+    }
+
+    /** Tracks the backing store's reloads: the tasks here are refreshed after each one. */
+    @Override
+    public synchronized long reloads() {
+        return backingReloads;
+    }
+
+    /** Takes over the backing store's tasks after it reloaded, keeping any ID written here since. */
+    private void refresh() {
+        backingReloads = backing.reloads();
+        Map<Integer, Task> current = new HashMap<>();
+        int maxId = 0;
+        for (Task task : backing.findAll()) {
+            current.put(task.id(), task);
+            maxId = Math.max(maxId, task.id());
+        }
+        for (Task task : current.values()) {
+            tasks.compute(task.id(), (id, previous) -> {
+                if (dirty.contains(id)) return previous;
+                reindex(previous, task);
+                return task;
+            });
+        }
+        for (int id : tasks.keySet()) {
+            if (current.containsKey(id)) continue;
+            tasks.computeIfPresent(id, (key, previous) -> {
+                if (dirty.contains(key)) return previous;
+                reindex(previous, null);
+                return null;
+            });
+        }
+        nextId.accumulateAndGet(maxId + 1, Math::max);
+    }
+
+    @Override
+    public int count() {
+        return tasks.size();
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (backing instanceof AutoCloseable closeable) closeable.close();
+    }
+
+    @Override
+    public boolean exists(int id) {
+        return tasks.containsKey(id);
+    }
+
+    /** Must run inside the map's per-key critical section for the task's ID. */
+    private void reindex(Task previous, Task current) {
+        if (previous != null && current != null && previous.status() == current.status()) return;
+        if (current != null) {
+            byStatus.get(current.status()).add(current.id());
+            statusCounts.incrementAndGet(current.status().ordinal());
+        }
+        if (previous != null) {
+            byStatus.get(previous.status()).remove(previous.id());
+            statusCounts.decrementAndGet(previous.status().ordinal());
+        }
+    }
+}
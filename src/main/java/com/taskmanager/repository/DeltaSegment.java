@@ -0,0 +1,212 @@
+package com.taskmanager.repository;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.taskmanager.model.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Changes made since a JSON task file (the snapshot) was last rewritten, appended to
+ * {@code <file>.delta} as JSON lines so that persisting a few changes costs a few lines.
+ *
+ * The first line stamps the snapshot the segment extends with that file's size and modification
+ * time; a segment whose stamp no longer matches was either merged into a newer snapshot or
+ * outlived a rewrite by another writer, and is ignored. Each persist appends one batch of
+ * {@code put} and {@code delete} lines closed by a {@code commit} line carrying the batch size.
+ * Loading replays committed batches only, so a crash mid-append loses that batch and nothing
+ * else; the torn tail is cut off by the next append. Records hold whole tasks, so replaying a
+ * segment onto a snapshot that already contains it changes nothing.
+ *
+ * When the snapshot is rewritten the segment is rotated to {@code <file>.delta.bak}, pairing it
+ * with {@code <file>.bak}: backup, then backup segment, then current segment rebuild the latest
+ * state if the main file is lost.
+ *
+ * In durable mode every batch is forced to disk before {@code append} returns, and so is the
+ * directory entry of a newly created segment.
+ */
+final class DeltaSegment {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeltaSegment.class);
+
+    private final Path snapshot;
+    private final Path path;
+    private final boolean durable;
+    private ObjectWriter entryWriter;
+    /** Bytes of header plus committed batches; anything beyond is a torn append. Zero: no usable segment. */
+    private long committedLength;
+
+    DeltaSegment(Path snapshot) {
+        this(snapshot, false);
+    }
+
+    DeltaSegment(Path snapshot, boolean durable) {
+        this.snapshot = snapshot;
+        this.path = pathFor(snapshot);
+        this.durable = durable;
+    }
+
+    /** Where the segment for {@code snapshot} lives. */
+    static Path pathFor(Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + ".delta");
+    }
+
+    static Path backupPathFor(Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + ".delta.bak");
+    }
+
+    /** Bytes of committed changes waiting to be merged into the snapshot. */
+    long committedLength() {
+        return committedLength;
+    }
+
+    /**
+     * Replays this snapshot's segment, if there is one and it belongs to the snapshot as it is on
+     * disk now. Returns the number of changes applied.
+     */
+    int replay(Consumer<Task> puts, IntConsumer deletes) throws IOException {
+        committedLength = 0;
+        return replay(path, snapshot, puts, deletes);
+    }
+
+    /**
+     * Replays {@code segment} if its stamp matches {@code base}. Used directly for recovery, where
+     * the backup segment extends the backup file rather than the main one.
+     */
+    int replay(Path segment, Path base, Consumer<Task> puts, IntConsumer deletes) throws IOException {
+        if (!Files.exists(segment) || !Files.exists(base)) return 0;
+        List<Entry> batch = new ArrayList<>();
+        int applied = 0;
+        long valid = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(segment))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long offset = 0;
+            boolean header = true;
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                offset += line.size() + 1;
+                Entry entry;
+                try {
+                    entry = JsonFileTaskRepository.sharedMapper().readValue(line.toByteArray(), Entry.class);
+                } catch (IOException e) {
+                    // A complete but unparseable line: nothing after it can be trusted either.
+                    logger.warn("Ignoring {} from byte {}: unreadable record", segment, valid, e);
+                    break;
+                }
+                line.reset();
+                if (header) {
+                    if (!Entry.SNAPSHOT.equals(entry.op()) || !entry.matches(base)) {
+                        logger.info("Ignoring {}: it extends an older version of {}", segment, base);
+                        return 0;
+                    }
+                    header = false;
+                    valid = offset;
+                    continue;
+                }
+                if (Entry.COMMIT.equals(entry.op())) {
+                    if (entry.count() == null || entry.count() != batch.size()) break;
+                    for (Entry change : batch) {
+                        if (Entry.PUT.equals(change.op())) puts.accept(change.task());
+                        else deletes.accept(change.id());
+                    }
+                    applied += batch.size();
+                    batch.clear();
+                    valid = offset;
+                } else if (Entry.PUT.equals(entry.op()) && entry.task() != null
+                        || Entry.DELETE.equals(entry.op()) && entry.id() != null) {
+                    batch.add(entry);
+                } else {
+                    break;
+                }
+            }
+        }
+        long size = Files.size(segment);
+        if (size > valid) logger.warn("Discarding {} uncommitted bytes at the tail of {}", size - valid, segment);
+        if (segment.equals(path)) committedLength = valid;
+        return applied;
+    }
+
+    /**
+     * Appends one committed batch: {@code puts} saved, {@code deletes} removed. Starts a fresh
+     * segment stamped with the current snapshot when there is no usable one. Returns bytes written.
+     */
+    long append(List<Task> puts, List<Integer> deletes) throws IOException {
+        long written;
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Cuts off a torn batch, or a stale segment when committedLength is 0.
+            channel.truncate(committedLength);
+            channel.position(committedLength);
+            CountingOutputStream out = new CountingOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+            if (committedLength == 0) write(out, Entry.header(snapshot));
+            for (Task task : puts) write(out, new Entry(Entry.PUT, task, null, null, null, null));
+            for (int id : deletes) write(out, new Entry(Entry.DELETE, null, id, null, null, null));
+            write(out, new Entry(Entry.COMMIT, null, null, puts.size() + deletes.size(), null, null));
+            out.flush();
+            if (durable) channel.force(false);
+            written = out.count();
+        }
+        if (durable && committedLength == 0) JsonFileTaskRepository.forceDirectory(path);
+        committedLength += written;
+        return written;
+    }
+
+    private void write(OutputStream out, Entry entry) throws IOException {
+        if (entryWriter == null) entryWriter = JsonFileTaskRepository.sharedMapper().writerFor(Entry.class);
+        out.write(entryWriter.writeValueAsBytes(entry));
+        out.write('\n');
+    }
+
+    /**
+     * After the snapshot was rewritten: the segment's changes are in the new snapshot, so it moves
+     * aside to pair with the {@code .bak} taken of the previous snapshot.
+     */
+    void rotate() throws IOException {
+        Path backup = backupPathFor(snapshot);
+        if (Files.exists(path)) {
+            FileOps.moveReplacing(path, backup);
+        } else {
+            Files.deleteIfExists(backup);
+        }
+        committedLength = 0;
+    }
+
+    // ---------- On-disk format ----------
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record Entry(String op, Task task, Integer id, Integer count, Long size, Long modified) {
+        static final String SNAPSHOT = "snapshot";
+        static final String PUT = "put";
+        static final String DELETE = "delete";
+        static final String COMMIT = "commit";
+
+        static Entry header(Path snapshot) throws IOException {
+            return new Entry(SNAPSHOT, null, null, null, Files.size(snapshot), FileOps.modifiedNanos(snapshot));
+        }
+
+        boolean matches(Path snapshot) throws IOException {
+            return size != null && modified != null
+                    && size == Files.size(snapshot) && modified == FileOps.modifiedNanos(snapshot);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.taskmanager.repository;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File operations shared by the stores and their sidecars: replacing a file with one written
+ * beside it, and the modification time the caches and indexes stamp themselves with.
+ */
+final class FileOps {
+
+    private FileOps() {
+    }
+
+    /**
+     * Renames {@code source} over {@code target}, atomically where the file system can, so a
+     * reader sees either the old file or the new one. Falls back to a plain replacing move where
+     * atomic moves are not supported.
+     */
+    static void moveReplacing(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** The file's modification time at the finest resolution the file system records. */
+    static long modifiedNanos(Path file) throws IOException {
+        return Files.getLastModifiedTime(file).to(TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,59 @@
+package com.taskmanager.repository;
+
+import java.util.Locale;
+
+/**
+ * When {@link GroupCommitTaskRepository} turns {@code persist()} calls into real flushes.
+ *
+ * @param mode  the policy
+ * @param value writes per flush for {@link Mode#EVERY_N_WRITES}, milliseconds between flushes
+ *              for {@link Mode#INTERVAL}, unused otherwise
+ */
+public record FlushPolicy(Mode mode, long value) {
+
+    public enum Mode {
+        /** Every {@code persist()} flushes, as without the wrapper; concurrent callers share one flush. */
+        IMMEDIATE,
+        /** {@code persist()} flushes once {@code value} writes are pending. */
+        EVERY_N_WRITES,
+        /** A background thread flushes pending writes every {@code value} milliseconds. */
+        INTERVAL,
+        /** Only {@code close()} flushes. */
+        ON_SHUTDOWN
+    }
+
+    public FlushPolicy {
+        if (mode == null) throw new IllegalArgumentException("Flush mode cannot be null");
+        if ((mode == Mode.EVERY_N_WRITES || mode == Mode.INTERVAL) && value <= 0)
+            throw new IllegalArgumentException("Flush policy " + mode + " needs a positive value");
+    }
+
+    public static FlushPolicy immediate()              { return new FlushPolicy(Mode.IMMEDIATE, 0); }
+    public static FlushPolicy everyWrites(int writes)  { return new FlushPolicy(Mode.EVERY_N_WRITES, writes); }
+    public static FlushPolicy everyMillis(long millis) { return new FlushPolicy(Mode.INTERVAL, millis); }
+    public static FlushPolicy onShutdown()             { return new FlushPolicy(Mode.ON_SHUTDOWN, 0); }
+
+    /**
+     * Parses {@code immediate}, {@code writes:N}, {@code interval:MILLIS} or {@code shutdown}.
+     */
+    public static FlushPolicy parse(String spec) {
+        String[] parts = spec.trim().toLowerCase(Locale.ROOT).split(":", 2);
+        try {
+            return switch (parts[0]) {
+                case "immediate" -> immediate();
+                case "shutdown" -> onShutdown();
+                case "writes" -> everyWrites(Integer.parseInt(parts[1]));
+                case "interval" -> everyMillis(Long.parseLong(parts[1]));
+                default -> throw new IllegalArgumentException("Unknown flush policy: " + spec);
+            };
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Flush policy needs a number, e.g. writes:100 or interval:500: " + spec);
+        }
+    }
+
+    /** Reads {@code tasks.flush} / {@code TASKS_FLUSH}; {@link #immediate()} if unset. */
+    public static FlushPolicy fromConfig() {
+        String spec = TaskRepositoryFactory.setting("tasks.flush", "TASKS_FLUSH");
+        return spec == null ? immediate() : parse(spec);
+    }
+}
@@ -0,0 +1,265 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Decides when {@code persist()} reaches the wrapped repository, according to a {@link FlushPolicy}.
+ * For stores that rewrite or fsync on every persist, the policy trades a bounded window of
+ * unflushed writes for far fewer rewrites.
+ *
+ * Writes are counted as they complete. A flush covers every write counted before it starts, and
+ * callers whose writes it covers return without flushing again: with concurrent writers, one
+ * fsync/rename serves everyone who was waiting on it. Each flush logs how many writes it merged.
+ *
+ * Reads and writes go straight to the delegate with no extra locking, so this is exactly as
+ * thread-safe as the delegate. The {@code INTERVAL} policy persists from its own timer thread, so
+ * its delegate must be thread-safe, e.g. a {@link ConcurrentTaskRepository}, as
+ * {@link TaskRepositoryFactory} builds it.
+ * {@link #close()} flushes whatever is pending and closes the delegate.
+ */
+@SuppressWarnings("try") // close() forwards the delegate's, which may throw anything
+public class GroupCommitTaskRepository implements TaskRepository, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitTaskRepository.class);
+
+    private final TaskRepository delegate;
+    private final FlushPolicy policy;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong writes = new AtomicLong();
+
+    // Guarded by this: writes covered by completed flushes, and whether a flush is running.
+    private long flushedWrites;
+    private boolean flushing;
+    private long flushCount;
+    private long lastMerged;
+
+    @SuppressWarnings("this-escape") // the timer's first run is a whole flush interval away
+    public GroupCommitTaskRepository(TaskRepository delegate, FlushPolicy policy) {
+        if (delegate == null) throw new IllegalArgumentException("Delegate repository cannot be null");
+        if (policy == null) throw new IllegalArgumentException("Flush policy cannot be null");
+        this.delegate = delegate;
+        this.policy = policy;
+        if (policy.mode() == FlushPolicy.Mode.INTERVAL) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "task-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::flushOnTimer, policy.value(), policy.value(), TimeUnit.MILLISECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    // ---------- TaskRepository ----------
+
+    @Override
+    public Task save(Task task) {
+        Task saved = delegate.save(task);
+        writes.incrementAndGet();
+        return saved;
+    }
+
+    @Override
+    public List<Task> saveAll(Collection<Task> tasks) {
+        List<Task> saved = delegate.saveAll(tasks);
+        writes.addAndGet(saved.size());
+        return saved;
+    }
+
+    @Override
+    public Optional<Task> update(int id, UnaryOperator<Task> updater) {
+        Optional<Task> updated = delegate.update(id, updater);
+        if (updated.isPresent()) writes.incrementAndGet();
+        return updated;
+    }
+
+    @Override
+    public Optional<Task> findById(int id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Task> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Task> findByStatus(TaskStatus status) {
+        return delegate.findByStatus(status);
+    }
+
+    @Override
+    public int countByStatus(TaskStatus status) {
+        return delegate.countByStatus(status);
+    }
+
+    @Override
+    public Stream<Task> streamAfter(int afterId) {
+        return delegate.streamAfter(afterId);
+    }
+
+    @Override
+    public Stream<Task> streamAfter(int afterId, TaskStatus status) {
+        return delegate.streamAfter(afterId, status);
+    }
+
+    @Override
+    public Stream<Task> search(String query) {
+        return delegate.search(query);
+    }
+
+    @Override
+    public Stream<Task> createdBetween(LocalDateTime from, LocalDateTime to) {
+        return delegate.createdBetween(from, to);
+    }
+
+    @Override
+    public Stream<Task> updatedBetween(LocalDateTime from, LocalDateTime to) {
+        return delegate.updatedBetween(from, to);
+    }
+
+    @Override
+    public Optional<Task> delete(int id) {
+        Optional<Task> removed = delegate.delete(id);
+        if (removed.isPresent()) writes.incrementAndGet();
+        return removed;
+    }
+
+    @Override
+    public List<Task> deleteAll(Collection<Integer> ids) {
+        List<Task> removed = delegate.deleteAll(ids);
+        writes.addAndGet(removed.size());
+        return removed;
+    }
+
+    @Override
+    public int nextId() {
+        return delegate.nextId();
+    }
+
+    @Override
+    public int reserveIds(int count) {
+        return delegate.reserveIds(count);
+    }
+
+    @Override
+    public boolean releaseIds(int first, int next) {
+        return delegate.releaseIds(first, next);
+    }
+
+    @Override
+    public long reloads() {
+        return delegate.reloads();
+    }
+
+    /** Flushes now, later, or not at all, depending on the policy. */
+    @Override
+    public void persist() {
+        switch (policy.mode()) {
+            case IMMEDIATE -> flush();
+            case EVERY_N_WRITES -> {
+                if (pendingWrites() >= policy.value()) flush();
+            }
+            case INTERVAL, ON_SHUTDOWN -> { /* flushed by the timer or close() */ }
+        }
+    }
+
+    @Override
+    public int count() {
+        return delegate.count();
+    }
+
+    @Override
+    public boolean exists(int id) {
+        return delegate.exists(id);
+    }
+
+    // ---------- Flushing ----------
+
+    /**
+     * Makes every write completed before this call durable, sharing a flush already in progress
+     * when possible. Returns without touching the delegate if nothing is pending.
+     */
+    public void flush() {
+        long target = writes.get();
+        long upTo;
+        synchronized (this) {
+            while (flushing && flushedWrites < target) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for a flush", e);
+                }
+            }
+            if (flushedWrites >= target) return;
+            flushing = true;
+            // Read after winning the flush: every write counted so far is already in the delegate.
+            upTo = writes.get();
+        }
+        long merged = -1;
+        try {
+            delegate.persist();
+            merged = upTo - flushedWrites;
+        } finally {
+            synchronized (this) {
+                flushing = false;
+                if (merged >= 0) {
+                    lastMerged = merged;
+                    flushedWrites = upTo;
+                    flushCount++;
+                }
+                notifyAll();
+            }
+        }
+        logger.info("Flush merged {} writes", merged);
+    }
+
+    /** Writes not yet covered by a completed flush. */
+    public synchronized long pendingWrites() {
+        return writes.get() - flushedWrites;
+    }
+
+    public synchronized long flushCount() {
+        return flushCount;
+    }
+
+    /** Number of writes the most recent flush made durable. */
+    public synchronized long lastMergedWrites() {
+        return lastMerged;
+    }
+
+    private void flushOnTimer() {
+        try {
+            if (pendingWrites() > 0) flush();
+        } catch (RuntimeException e) {
+            logger.error("Scheduled flush failed; retrying at the next interval", e);
+        }
+    }
+
+    /** Stops the timer, flushes pending writes and closes the delegate if it is closeable. */
+    @Override
+    public void close() throws Exception {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        if (pendingWrites() > 0) flush();
+        if (delegate instanceof AutoCloseable closeable) closeable.close();
+    }
+}
@@ -4,7 +4,7 @@ import com.taskmanager.model.Task;
 import com.taskmanager.model.TaskStatus;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * In-memory TaskRepository with no backing storage.
@@ -12,12 +12,12 @@ import java.util.stream.Collectors;
  */
 public class InMemoryTaskRepository implements TaskRepository {
 
-    private final Map<Integer, Task> tasks = new LinkedHashMap<>();
+    private final TaskTable tasks = new TaskTable();
     private int nextId = 1;
 
     @Override
     public Task save(Task task) {
-        tasks.put(task.id(), task);
+        tasks.put(task);
         return task;
     }
 
@@ -33,9 +33,22 @@ public class InMemoryTaskRepository implements TaskRepository {
 
     @Override
     public List<Task> findByStatus(TaskStatus status) {
-        return tasks.values().stream()
-                .filter(t -> t.status() == status)
-                .collect(Collectors.toList());
+        return tasks.byStatus(status);
+    }
+
+    @Override
+    public Stream<Task> streamAfter(int afterId) {
+        return tasks.streamAfter(afterId);
+    }
+
+    @Override
+    public Stream<Task> streamAfter(int afterId, TaskStatus status) {
+        return tasks.streamAfter(afterId, status);
+    }
+
+    @Override
+    public int countByStatus(TaskStatus status) {
+        return tasks.countByStatus(status);
     }
 
     @Override
@@ -48,6 +61,20 @@ public class InMemoryTaskRepository implements TaskRepository {
         return nextId++;
     }
 
+    @Override
+    public int reserveIds(int count) {
+        int first = nextId;
+        nextId += count;
+        return first;
+    }
+
+    @Override
+    public boolean releaseIds(int first, int next) {
+        if (nextId != next) return false;
+        nextId = first;
+        return true;
+    }
+
     @Override
     public void persist() {
         // no-op
@@ -60,6 +87,6 @@ public class InMemoryTaskRepository implements TaskRepository {
 
     @Override
     public boolean exists(int id) {
-        return tasks.containsKey(id);
+        return tasks.contains(id);
     }
 }
@@ -0,0 +1,438 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.metrics.Metrics;
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Answers {@link #search} from an {@link InvertedIndex} over task descriptions, and
+ * {@link #createdBetween} / {@link #updatedBetween} from a {@link TimeIndex} per timestamp.
+ *
+ * The index is built on the first search, so commands that never search pay nothing for it, and
+ * from then on is kept current by every write through this repository. With a sidecar path it is
+ * also saved next to the store, stamped with the store file's size, modification time and task
+ * count, and the size of its delta segment if it has one; a later process loads it instead of
+ * re-tokenizing every description, and rebuilds it if the stamp no longer matches. The sidecar is
+ * a cache: failing to read or write it only costs a rebuild.
+ *
+ * The time indexes answer range queries in O(log n + k). Building both costs two passes over the
+ * store and two sorts, about forty scans. A process with a sidecar, or one created as
+ * long-running such as {@code serve}, builds them on its first range query; with a sidecar they
+ * are also saved to {@code <store>.times}, stamped like the search index, and loaded by later
+ * processes. Otherwise a one-shot command would never earn the build back, so its first range
+ * query scans and only a second one builds.
+ *
+ * Writes are serialized on this repository so the index and the delegate change together; reads
+ * go straight to the delegate. A delegate that reloads its tasks underneath, such as a locking
+ * JSON store merging another process's changes while persisting, says so through
+ * {@link TaskRepository#reloads}; every index is then dropped and rebuilt when next needed.
+ */
+@SuppressWarnings("try") // close() forwards the delegate's, which may throw anything
+public class IndexedTaskRepository implements TaskRepository, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexedTaskRepository.class);
+
+    private final TaskRepository delegate;
+    private final Path store;
+    private final Path sidecar;
+    private final Path timeSidecar;
+    private final boolean longRunning;
+
+    // Guarded by this. index is null until the first search.
+    private InvertedIndex index;
+    private boolean unpersistedWrites;
+    private boolean indexUnsaved;
+    // Guarded by this. Both are null until a range query builds or loads them.
+    private boolean timeQueried;
+    private TimeIndex created;
+    private TimeIndex updated;
+    private boolean timesUnsaved;
+    // Guarded by this. The delegate's reloads() the indexes were built against.
+    private long reloads;
+
+    /** Keeps the indexes in memory only, for a process that may run a single command. */
+    public IndexedTaskRepository(TaskRepository delegate) {
+        this(delegate, false);
+    }
+
+    /**
+     * Keeps the indexes in memory only. {@code longRunning} says the process will run many
+     * commands, such as {@code serve}, so the first range query builds its index rather than scans.
+     */
+    public IndexedTaskRepository(TaskRepository delegate, boolean longRunning) {
+        this(delegate, null, null, longRunning);
+    }
+
+    /**
+     * Saves the index to {@code sidecar} whenever the store is persisted, validated against
+     * {@code store}, the delegate's main file. The time indexes go to {@code <store>.times}.
+     */
+    public IndexedTaskRepository(TaskRepository delegate, Path store, Path sidecar) {
+        this(delegate, store, sidecar, false);
+    }
+
+    private IndexedTaskRepository(TaskRepository delegate, Path store, Path sidecar, boolean longRunning) {
+        if (delegate == null) throw new IllegalArgumentException("Delegate repository cannot be null");
+        if ((store == null) != (sidecar == null)) {
+            throw new IllegalArgumentException("Store and sidecar paths must be given together");
+        }
+        this.delegate = delegate;
+        this.store = store;
+        this.sidecar = sidecar;
+        this.timeSidecar = store == null ? null : store.resolveSibling(store.getFileName() + ".times");
+        this.longRunning = longRunning;
+        this.reloads = delegate.reloads();
+    }
+
+    // ---------- Writes ----------
+
+    @Override
+    public synchronized Task save(Task task) {
+        Task previous = indexing() ? delegate.findById(task.id()).orElse(null) : null;
+        Task saved = delegate.save(task);
+        reindex(previous, saved);
+        return saved;
+    }
+
+    @Override
+    public synchronized List<Task> saveAll(Collection<Task> tasks) {
+        Map<Integer, Task> previous = new HashMap<>();
+        if (indexing()) {
+            for (Task task : tasks) delegate.findById(task.id()).ifPresent(old -> previous.put(old.id(), old));
+        }
+        List<Task> saved = delegate.saveAll(tasks);
+        for (Task task : saved) reindex(previous.remove(task.id()), task);
+        return saved;
+    }
+
+    @Override
+    public synchronized Optional<Task> update(int id, UnaryOperator<Task> updater) {
+        Task previous = indexing() ? delegate.findById(id).orElse(null) : null;
+        Optional<Task> result = delegate.update(id, updater);
+        result.ifPresent(task -> reindex(previous, task));
+        return result;
+    }
+
+    @Override
+    public synchronized Optional<Task> delete(int id) {
+        Optional<Task> removed = delegate.delete(id);
+        removed.ifPresent(task -> reindex(task, null));
+        return removed;
+    }
+
+    @Override
+    public synchronized List<Task> deleteAll(Collection<Integer> ids) {
+        List<Task> removed = delegate.deleteAll(ids);
+        for (Task task : removed) reindex(task, null);
+        return removed;
+    }
+
+    /** Persists the delegate, then the index if it changed since it was last saved. */
+    @Override
+    public synchronized void persist() {
+        delegate.persist();
+        unpersistedWrites = false;
+        dropIfReloaded();
+        if (indexUnsaved) saveSidecar();
+        if (timesUnsaved) saveTimes();
+    }
+
+    /** Drops every index if the delegate reloaded its tasks since they were built. */
+    private void dropIfReloaded() {
+        long current = delegate.reloads();
+        if (current == reloads) return;
+        reloads = current;
+        if (!indexing()) return;
+        logger.info("Store was reloaded; dropping its search and time indexes");
+        index = null;
+        indexUnsaved = false;
+        created = null;
+        updated = null;
+        timesUnsaved = false;
+    }
+
+    /** Whether any index is built, so writes need the task they replace. */
+    private boolean indexing() {
+        return index != null || created != null || updated != null;
+    }
+
+    private void reindex(Task previous, Task current) {
+        unpersistedWrites = true;
+        if (created != null) {
+            created.update(previous, current);
+            updated.update(previous, current);
+            timesUnsaved = true;
+        }
+        if (index == null) return;
+        if (previous != null && current != null && previous.description().equals(current.description())) return;
+        if (previous != null) index.remove(previous.id(), previous.description());
+        if (current != null) index.add(current.id(), current.description());
+        indexUnsaved = true;
+    }
+
+    // ---------- Search ----------
+
+    @Override
+    public Stream<Task> search(String query) {
+        List<String> tokens = InvertedIndex.tokenize(query);
+        if (tokens.isEmpty()) return Stream.empty();
+        int[] ids = index().search(tokens);
+        return Arrays.stream(ids).mapToObj(delegate::findById).flatMap(Optional::stream);
+    }
+
+    private synchronized InvertedIndex index() {
+        dropIfReloaded();
+        if (index != null) return index;
+        // A sidecar describes the store on disk, which unpersisted writes have already moved past.
+        if (!unpersistedWrites) index = loadSidecar();
+        if (index == null) {
+            long start = System.nanoTime();
+            InvertedIndex built = new InvertedIndex();
+            try (Stream<Task> tasks = delegate.streamAfter(0)) {
+                tasks.forEach(task -> built.add(task.id(), task.description()));
+            }
+            long elapsed = System.nanoTime() - start;
+            Metrics.get().recordLatency("index.build", elapsed);
+            logger.info("Built search index of {} tokens in {} ms", built.tokenCount(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+            index = built;
+            indexUnsaved = true;
+            if (!unpersistedWrites) saveSidecar();
+        }
+        return index;
+    }
+
+    // ---------- Time ranges ----------
+
+    @Override
+    public Stream<Task> createdBetween(LocalDateTime from, LocalDateTime to) {
+        List<Task> matches = between(true, from, to);
+        return matches != null ? matches.stream() : TaskRepository.super.createdBetween(from, to);
+    }
+
+    @Override
+    public Stream<Task> updatedBetween(LocalDateTime from, LocalDateTime to) {
+        List<Task> matches = between(false, from, to);
+        return matches != null ? matches.stream() : TaskRepository.super.updatedBetween(from, to);
+    }
+
+    /** The matches from the time index, or null when this query scans instead. */
+    private synchronized List<Task> between(boolean byCreated, LocalDateTime from, LocalDateTime to) {
+        dropIfReloaded();
+        if (created == null) {
+            if (!longRunning && sidecar == null && !timeQueried) {
+                timeQueried = true;
+                return null;
+            }
+            // A sidecar describes the store on disk, which unpersisted writes have already moved past.
+            if (unpersistedWrites || !loadTimes()) {
+                created = buildTimeIndex(true);
+                updated = buildTimeIndex(false);
+                timesUnsaved = true;
+                if (!unpersistedWrites) saveTimes();
+            }
+        }
+        TimeIndex timeIndex = byCreated ? created : updated;
+        if (timeIndex.needsRebuild()) {
+            timeIndex = buildTimeIndex(byCreated);
+            if (byCreated) created = timeIndex;
+            else updated = timeIndex;
+            timesUnsaved = true;
+        }
+        return timeIndex.between(from, to, id -> delegate.findById(id).orElse(null));
+    }
+
+    private TimeIndex buildTimeIndex(boolean byCreated) {
+        long start = System.nanoTime();
+        TimeIndex built;
+        try (Stream<Task> tasks = delegate.streamAfter(0)) {
+            built = new TimeIndex(byCreated ? Task::createdAt : Task::updatedAt, tasks);
+        }
+        Metrics.get().recordLatency("timeIndex.build", System.nanoTime() - start);
+        return built;
+    }
+
+    // ---------- Sidecar ----------
+
+    private InvertedIndex loadSidecar() {
+        if (sidecar == null || !Files.exists(sidecar)) return null;
+        long start = System.nanoTime();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar), 1 << 16))) {
+            if (!stampMatches(in)) {
+                logger.info("Search index {} is out of date; rebuilding", sidecar);
+                return null;
+            }
+            InvertedIndex loaded = InvertedIndex.readFrom(in, Files.size(sidecar), delegate.count());
+            Metrics.get().recordLatency("index.load", System.nanoTime() - start);
+            return loaded;
+        } catch (IOException | RuntimeException e) {
+            // Damaged in a way the checks in readFrom did not catch: still only a cache miss.
+            logger.warn("Failed to read search index {}; rebuilding", sidecar, e);
+            return null;
+        }
+    }
+
+    private void saveSidecar() {
+        if (sidecar == null || !Files.exists(store)) return;
+        Path temp = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                writeStamp(out);
+                index.writeTo(out);
+            }
+            FileOps.moveReplacing(temp, sidecar);
+            indexUnsaved = false;
+        } catch (IOException e) {
+            logger.warn("Failed to save search index {}", sidecar, e);
+        }
+    }
+
+    /** Loads both time indexes from their sidecar, if it is there and describes the store on disk. */
+    private boolean loadTimes() {
+        if (timeSidecar == null || !Files.exists(timeSidecar)) return false;
+        long start = System.nanoTime();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(timeSidecar), 1 << 16))) {
+            if (!stampMatches(in)) {
+                logger.info("Time index {} is out of date; rebuilding", timeSidecar);
+                return false;
+            }
+            long length = Files.size(timeSidecar);
+            TimeIndex loadedCreated = TimeIndex.readFrom(in, length, Task::createdAt);
+            TimeIndex loadedUpdated = TimeIndex.readFrom(in, length, Task::updatedAt);
+            created = loadedCreated;
+            updated = loadedUpdated;
+            Metrics.get().recordLatency("timeIndex.load", System.nanoTime() - start);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to read time index {}; rebuilding", timeSidecar, e);
+            return false;
+        }
+    }
+
+    private void saveTimes() {
+        if (timeSidecar == null || !Files.exists(store)) return;
+        Path temp = timeSidecar.resolveSibling(timeSidecar.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                writeStamp(out);
+                created.writeTo(out);
+                updated.writeTo(out);
+            }
+            FileOps.moveReplacing(temp, timeSidecar);
+            timesUnsaved = false;
+        } catch (IOException e) {
+            logger.warn("Failed to save time index {}", timeSidecar, e);
+        }
+    }
+
+    /**
+     * Stamps a sidecar with the store file's size, modification time and task count, and the size
+     * of its delta segment.
+     */
+    private void writeStamp(DataOutputStream out) throws IOException {
+        out.writeLong(Files.size(store));
+        out.writeLong(FileOps.modifiedNanos(store));
+        out.writeLong(deltaBytes());
+        out.writeInt(delegate.count());
+    }
+
+    /** Whether the stamp {@link #writeStamp} wrote still describes the store. */
+    private boolean stampMatches(DataInputStream in) throws IOException {
+        long size = in.readLong(), modified = in.readLong(), deltas = in.readLong();
+        int count = in.readInt();
+        return Files.exists(store) && size == Files.size(store) && modified == FileOps.modifiedNanos(store)
+                && deltas == deltaBytes() && count == delegate.count();
+    }
+
+    /** A JSON store in delta mode changes by growing its segment while the file stays put. */
+    private long deltaBytes() throws IOException {
+        Path deltas = DeltaSegment.pathFor(store);
+        return Files.exists(deltas) ? Files.size(deltas) : 0;
+    }
+
+    // ---------- Reads ----------
+
+    @Override
+    public Optional<Task> findById(int id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Task> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Task> findByStatus(TaskStatus status) {
+        return delegate.findByStatus(status);
+    }
+
+    @Override
+    public int countByStatus(TaskStatus status) {
+        return delegate.countByStatus(status);
+    }
+
+    @Override
+    public Stream<Task> streamAfter(int afterId) {
+        return delegate.streamAfter(afterId);
+    }
+
+    @Override
+    public Stream<Task> streamAfter(int afterId, TaskStatus status) {
+        return delegate.streamAfter(afterId, status);
+    }
+
+    @Override
+    public int nextId() {
+        return delegate.nextId();
+    }
+
+    @Override
+    public int reserveIds(int count) {
+        return delegate.reserveIds(count);
+    }
+
+    @Override
+    public boolean releaseIds(int first, int next) {
+        return delegate.releaseIds(first, next);
+    }
+
+    @Override
+    public long reloads() {
+        return delegate.reloads();
+    }
+
+    @Override
+    public int count() {
+        return delegate.count();
+    }
+
+    @Override
+    public boolean exists(int id) {
+        return delegate.exists(id);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (delegate instanceof AutoCloseable closeable) closeable.close();
+    }
+}
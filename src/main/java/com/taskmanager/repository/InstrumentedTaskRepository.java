@@ -0,0 +1,208 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.metrics.TaskMetrics;
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Times every call into the wrapped repository and reports it as {@code repository.<method>}.
+ * Adds two {@link System#nanoTime()} reads per call and nothing else; thread safety is the delegate's.
+ */
+@SuppressWarnings("try") // close() forwards the delegate's, which may throw anything
+public class InstrumentedTaskRepository implements TaskRepository, AutoCloseable {
+
+    private final TaskRepository delegate;
+    private final TaskMetrics metrics;
+
+    public InstrumentedTaskRepository(TaskRepository delegate, TaskMetrics metrics) {
+        if (delegate == null) throw new IllegalArgumentException("Delegate repository cannot be null");
+        if (metrics == null) throw new IllegalArgumentException("Metrics cannot be null");
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Task save(Task task) {
+        long start = System.nanoTime();
+        try {
+            return delegate.save(task);
+        } finally {
+            metrics.recordLatency("repository.save", System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Task> saveAll(Collection<Task> tasks) {
+        long start = System.nanoTime();
+        try {
+            return delegate.saveAll(tasks);
+        } finally {
+            metrics.recordLatency("repository.saveAll", System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Optional<Task> update(int id, UnaryOperator<Task> updater) {
+        long start = System.nanoTime();
+        try {
+            return delegate.update(id, updater);
+        } finally {
+            metrics.recordLatency("repository.update", System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Optional<Task> findById(int id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findById(id);
+        } finally {
+            metrics.recordLatency("repository.findById", System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Task> findAll() {
+        long start = System.nanoTime();
+        try {
+            return delegate.findAll();
+        } finally {
+            metrics.recordLatency("repository.findAll", System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Task> findByStatus(TaskStatus status) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByStatus(status);
+        } finally {
+            metrics.recordLatency("repository.findByStatus", System.nanoTime() - start);
+        }
+    }
+
+    // Streams are lazy, so timing the call would only measure setup; they are passed through untimed.
+    @Override
+    public Stream<Task> streamAfter(int afterId) {
+        return delegate.streamAfter(afterId);
+    }
+
+    @Override
+    public Stream<Task> streamAfter(int afterId, TaskStatus status) {
+        return delegate.streamAfter(afterId, status);
+    }
+
+    /** Timed despite returning a stream: an indexed search finds its matches before returning. */
+    @Override
+    public Stream<Task> search(String query) {
+        long start = System.nanoTime();
+        try {
+            return delegate.search(query);
+        } finally {
+            metrics.recordLatency("repository.search", System.nanoTime() - start);
+        }
+    }
+
+    /** Timed like {@link #search}: an indexed range query collects its matches before returning. */
+    @Override
+    public Stream<Task> createdBetween(LocalDateTime from, LocalDateTime to) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createdBetween(from, to);
+        } finally {
+            metrics.recordLatency("repository.createdBetween", System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Stream<Task> updatedBetween(LocalDateTime from, LocalDateTime to) {
+        long start = System.nanoTime();
+        try {
+            return delegate.updatedBetween(from, to);
+        } finally {
+            metrics.recordLatency("repository.updatedBetween", System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public int countByStatus(TaskStatus status) {
+        long start = System.nanoTime();
+        try {
+            return delegate.countByStatus(status);
+        } finally {
+            metrics.recordLatency("repository.countByStatus", System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Optional<Task> delete(int id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.delete(id);
+        } finally {
+            metrics.recordLatency("repository.delete", System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Task> deleteAll(Collection<Integer> ids) {
+        long start = System.nanoTime();
+        try {
+            return delegate.deleteAll(ids);
+        } finally {
+            metrics.recordLatency("repository.deleteAll", System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public int nextId() {
+        return delegate.nextId();
+    }
+
+    @Override
+    public int reserveIds(int count) {
+        return delegate.reserveIds(count);
+    }
+
+    @Override
+    public boolean releaseIds(int first, int next) {
+        return delegate.releaseIds(first, next);
+    }
+
+    @Override
+    public long reloads() {
+        return delegate.reloads();
+    }
+
+    @Override
+    public void persist() {
+        long start = System.nanoTime();
+        try {
+            delegate.persist();
+        } finally {
+            metrics.recordLatency("repository.persist", System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public int count() {
+        return delegate.count();
+    }
+
+    @Override
+    public boolean exists(int id) {
+        return delegate.exists(id);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (delegate instanceof AutoCloseable closeable) closeable.close();
+    }
+}
@@ -0,0 +1,312 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Map from task ID to {@link Task} on primitive {@code int} keys, iterated in ascending ID order.
+ * Replaces {@code LinkedHashMap<Integer, Task>}: no boxing on lookups, no entry objects, and a
+ * single array read per hit in the common case.
+ *
+ * Tuned for the IDs {@code nextId()} hands out, which are dense and ascending. While every ID is
+ * in {@code [0, capacity)} and the table is at most {@value #MAX_DENSE_SPREAD} times the task
+ * count, the table is <em>dense</em>: a task lives at index {@code id}, so lookups need no hashing
+ * or probing and a front-to-back scan is already in ID order. An ID that would stretch the table
+ * further (a far jump, such as an import with {@code --keep-ids}) switches it to
+ * <em>sparse</em> open addressing: Fibonacci hashing, linear probing at a load factor of at most
+ * one half, and backward-shift deletion. Ordered iteration then walks a sorted copy of the keys,
+ * cached until the key set changes. Growing the sparse table switches back to dense once the IDs
+ * fit again.
+ *
+ * Iterators are weakly consistent: they never throw {@code ConcurrentModificationException} and
+ * skip tasks removed after they started. Not thread-safe.
+ */
+final class IntTaskMap {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+    /** Dense mode allows this many table slots per task, so deletes and gaps don't force sparse mode. */
+    static final int MAX_DENSE_SPREAD = 4;
+
+    /** Dense: indexed by ID. Sparse: indexed by hash slot, null when empty. */
+    private Task[] values = new Task[MIN_CAPACITY];
+    /** Sparse only: the ID in each occupied slot, so probing compares ints rather than chasing tasks. */
+    private int[] keys;
+    private int size;
+    private int maxKey;
+    private int minKey;
+    /** Sparse only: ascending keys for iteration, or null until next needed. */
+    private int[] sortedKeys;
+
+    Task get(int id) {
+        if (keys == null) {
+            return id >= 0 && id < values.length ? values[id] : null;
+        }
+        int slot = findSlot(id);
+        return slot >= 0 ? values[slot] : null;
+    }
+
+    boolean containsKey(int id) {
+        return get(id) != null;
+    }
+
+    /** Inserts or replaces the task under its ID. Returns the previous task, or null. */
+    Task put(Task task) {
+        int id = task.id();
+        if (keys == null) {
+            if (id >= 0 && id < values.length) return replaceDense(id, task);
+            if (fitsDense(id)) {
+                values = Arrays.copyOf(values, denseCapacity(id));
+                return replaceDense(id, task);
+            }
+            rehash(false, sparseCapacity(size + 1));
+        }
+        int slot = findSlot(id);
+        if (slot >= 0) {
+            Task previous = values[slot];
+            values[slot] = task;
+            return previous;
+        }
+        if (size + 1 > keys.length >> 1) {
+            growSparse(id);
+            return put(task);
+        }
+        slot = -slot - 1;
+        keys[slot] = id;
+        values[slot] = task;
+        added(id);
+        sortedKeys = null;
+        return null;
+    }
+
+    /** Removes and returns the task with this ID, or null if absent. */
+    Task remove(int id) {
+        if (keys == null) {
+            if (id < 0 || id >= values.length) return null;
+            Task removed = values[id];
+            if (removed != null) {
+                values[id] = null;
+                size--;
+            }
+            return removed;
+        }
+        int slot = findSlot(id);
+        if (slot < 0) return null;
+        Task removed = values[slot];
+        deleteSlot(slot);
+        size--;
+        sortedKeys = null;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        values = new Task[MIN_CAPACITY];
+        keys = null;
+        sortedKeys = null;
+        size = 0;
+        maxKey = 0;
+        minKey = 0;
+    }
+
+    /** All tasks, ascending by ID. */
+    Iterator<Task> iterator() {
+        return keys == null ? new DenseIterator(0) : new SparseIterator(0);
+    }
+
+    /** Tasks with an ID above {@code afterId}, ascending. */
+    Iterator<Task> iteratorAfter(int afterId) {
+        if (keys == null) {
+            return new DenseIterator((int) Math.min(Integer.MAX_VALUE, Math.max(0, afterId + 1L)));
+        }
+        int[] sorted = sortedKeys();
+        int from = Arrays.binarySearch(sorted, afterId);
+        return new SparseIterator(from >= 0 ? from + 1 : -from - 1);
+    }
+
+    // ---------- Dense ----------
+
+    private Task replaceDense(int id, Task task) {
+        Task previous = values[id];
+        values[id] = task;
+        if (previous == null) added(id);
+        return previous;
+    }
+
+    private boolean fitsDense(int id) {
+        return id >= 0 && minKey >= 0 && id < MAX_CAPACITY
+                && denseCapacity(id) <= Math.max(MIN_CAPACITY, (long) MAX_DENSE_SPREAD * (size + 1));
+    }
+
+    /** Power-of-two table length that covers {@code id}. Grows by at least doubling. */
+    private int denseCapacity(int id) {
+        return Math.max(values.length << 1, Integer.highestOneBit(id) << 1);
+    }
+
+    private void added(int id) {
+        if (size == 0) {
+            minKey = id;
+            maxKey = id;
+        } else {
+            minKey = Math.min(minKey, id);
+            maxKey = Math.max(maxKey, id);
+        }
+        size++;
+    }
+
+    // ---------- Sparse ----------
+
+    /** Slot holding {@code id}, or {@code -(free slot) - 1} where it would go. */
+    private int findSlot(int id) {
+        int mask = keys.length - 1;
+        int slot = hash(id, mask);
+        while (values[slot] != null) {
+            if (keys[slot] == id) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    private static int hash(int id, int mask) {
+        return (id * 0x9E3779B9 >>> 16 ^ id * 0x9E3779B9) & mask;
+    }
+
+    /** Linear-probing delete: pulls later entries of the probe run back so no tombstone is needed. */
+    private void deleteSlot(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (slot + 1) & mask;
+        while (values[next] != null) {
+            int home = hash(keys[next], mask);
+            // Move next into the hole unless its home lies cyclically in (hole, next].
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[hole] = null;
+    }
+
+    /** Rehashes into a larger table, dense if the live IDs (rescanned, as removes don't track them) allow it. */
+    private void growSparse(int incomingId) {
+        int lo = incomingId, hi = incomingId;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] == null) continue;
+            lo = Math.min(lo, keys[slot]);
+            hi = Math.max(hi, keys[slot]);
+        }
+        minKey = lo;
+        maxKey = hi;
+        long span = (long) hi + 1;
+        boolean dense = lo >= 0 && span <= MAX_CAPACITY && span <= (long) MAX_DENSE_SPREAD * (size + 1);
+        rehash(dense, dense ? Math.max(MIN_CAPACITY, Integer.highestOneBit(hi) << 1) : keys.length << 1);
+    }
+
+    private static int sparseCapacity(int entries) {
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, entries)) << 2);
+    }
+
+    private void rehash(boolean dense, int capacity) {
+        Task[] oldValues = values;
+        values = new Task[capacity];
+        keys = dense ? null : new int[capacity];
+        sortedKeys = null;
+        int mask = capacity - 1;
+        for (Task task : oldValues) {
+            if (task == null) continue;
+            if (dense) {
+                values[task.id()] = task;
+            } else {
+                int slot = hash(task.id(), mask);
+                while (values[slot] != null) slot = (slot + 1) & mask;
+                keys[slot] = task.id();
+                values[slot] = task;
+            }
+        }
+    }
+
+    private int[] sortedKeys() {
+        if (sortedKeys == null) {
+            int[] sorted = new int[size];
+            int n = 0;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (values[slot] != null) sorted[n++] = keys[slot];
+            }
+            Arrays.sort(sorted);
+            sortedKeys = sorted;
+        }
+        return sortedKeys;
+    }
+
+    // ---------- Iteration ----------
+
+    private abstract class AscendingIterator implements Iterator<Task> {
+        private Task next;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) next = advance();
+            return next != null;
+        }
+
+        @Override
+        public Task next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Task task = next;
+            next = null;
+            return task;
+        }
+
+        /** The next live task, or null when done. */
+        abstract Task advance();
+    }
+
+    /** Scans the table by index, re-reading the field so growth during iteration is seen. */
+    private final class DenseIterator extends AscendingIterator {
+        private int index;
+        private Iterator<Task> resumed;
+
+        DenseIterator(int from) {
+            index = from;
+        }
+
+        @Override
+        Task advance() {
+            if (keys != null && resumed == null) resumed = iteratorAfter(index - 1); // went sparse meanwhile
+            if (resumed != null) return resumed.hasNext() ? resumed.next() : null;
+            Task[] table = values;
+            while (index < table.length) {
+                Task task = table[index++];
+                if (task != null) return task;
+            }
+            return null;
+        }
+    }
+
+    /** Walks a sorted key snapshot, looking each key up so removed tasks are skipped. */
+    private final class SparseIterator extends AscendingIterator {
+        private final int[] ids = sortedKeys();
+        private int index;
+
+        SparseIterator(int from) {
+            index = from;
+        }
+
+        @Override
+        Task advance() {
+            while (index < ids.length) {
+                Task task = get(ids[index++]);
+                if (task != null) return task;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.taskmanager.repository;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Token to task-ID postings for description search. A token is a maximal run of letters and digits,
+ * lower-cased; a query matches the tasks whose descriptions contain every query token.
+ *
+ * Postings are sorted {@code int} arrays. IDs are handed out in increasing order, so adding a new
+ * task appends; updates and deletes binary-search and shift. Queries intersect postings starting
+ * from the shortest and galloping through the longer ones, so their cost follows the rarest token
+ * rather than the store size. All methods are synchronized.
+ */
+final class InvertedIndex {
+
+    private static final int MAGIC = 0x54534958; // "TSIX"
+    private static final int VERSION = 1;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    /** Distinct tokens of {@code text} in first-occurrence order. */
+    static List<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /** Whether {@code description} contains every token, i.e. what a query for them would match. */
+    static boolean matches(String description, List<String> tokens) {
+        return new HashSet<>(tokenize(description)).containsAll(tokens);
+    }
+
+    synchronized void add(int id, String description) {
+        for (String token : tokenize(description)) postings.computeIfAbsent(token, t -> new Postings()).add(id);
+    }
+
+    synchronized void remove(int id, String description) {
+        for (String token : tokenize(description)) {
+            Postings list = postings.get(token);
+            if (list != null && list.remove(id) && list.size == 0) postings.remove(token);
+        }
+    }
+
+    /** IDs of the tasks matching every token, ascending. No tokens match nothing. */
+    synchronized int[] search(List<String> tokens) {
+        if (tokens.isEmpty()) return new int[0];
+        Postings[] lists = new Postings[tokens.size()];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.get(tokens.get(i));
+            if (lists[i] == null) return new int[0];
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        int[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int size = result.length;
+        for (int l = 1; l < lists.length && size > 0; l++) {
+            int[] other = lists[l].ids;
+            int otherSize = lists[l].size, from = 0, kept = 0;
+            for (int i = 0; i < size && from < otherSize; i++) {
+                from = gallop(other, from, otherSize, result[i]);
+                if (from < otherSize && other[from] == result[i]) result[kept++] = result[i];
+            }
+            size = kept;
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * First index in {@code ids[from, to)} holding a value {@code >= target}. Probes 1, 2, 4, ...
+     * ahead before binary-searching, so walking a long list in step with a short one costs the
+     * log of each gap rather than the log of the whole list.
+     */
+    private static int gallop(int[] ids, int from, int to, int target) {
+        int step = 1, low = from, high = from;
+        while (high < to && ids[high] < target) {
+            low = high + 1;
+            high = from + step;
+            step <<= 1;
+        }
+        high = Math.min(high, to);
+        int at = Arrays.binarySearch(ids, low, high, target);
+        return at >= 0 ? at : -at - 1;
+    }
+
+    synchronized int tokenCount() {
+        return postings.size();
+    }
+
+    synchronized void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(postings.size());
+        for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+            out.writeUTF(entry.getKey());
+            Postings list = entry.getValue();
+            out.writeInt(list.size);
+            // One bulk write per list: DataOutputStream.writeInt per ID is several times slower.
+            ByteBuffer bytes = ByteBuffer.allocate(list.size * Integer.BYTES);
+            bytes.asIntBuffer().put(list.ids, 0, list.size);
+            out.write(bytes.array());
+        }
+    }
+
+    /**
+     * Reads what {@link #writeTo} wrote, from a file of {@code length} bytes indexing
+     * {@code taskCount} tasks. Counts are checked against both before anything is allocated, so
+     * a damaged file fails with an {@link IOException} instead of a huge or negative array.
+     */
+    static InvertedIndex readFrom(DataInputStream in, long length, int taskCount) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) throw new IOException("Not a task search index");
+        InvertedIndex index = new InvertedIndex();
+        int tokens = in.readInt();
+        // Each token takes at least its UTF length and its list size.
+        if (tokens < 0 || tokens > length / (Short.BYTES + Integer.BYTES)) throw new IOException("Bad token count " + tokens);
+        for (int t = 0; t < tokens; t++) {
+            String token = in.readUTF();
+            int size = in.readInt();
+            if (size < 0 || size > taskCount) throw new IOException("Bad posting list size " + size + " for " + token);
+            Postings list = new Postings(size);
+            byte[] bytes = new byte[size * Integer.BYTES];
+            in.readFully(bytes);
+            ByteBuffer.wrap(bytes).asIntBuffer().get(list.ids);
+            for (int i = 1; i < size; i++) {
+                if (list.ids[i] <= list.ids[i - 1]) throw new IOException("Unsorted posting list for " + token);
+            }
+            list.size = size;
+            index.postings.put(token, list);
+        }
+        return index;
+    }
+
+    /** Growable sorted array of IDs. */
+    private static final class Postings {
+        int[] ids;
+        int size;
+
+        Postings() {
+            this(4);
+        }
+
+        Postings(int capacity) {
+            ids = new int[capacity];
+        }
+
+        void add(int id) {
+            int at = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0 && at < size) return; // already present
+            if (at < 0) at = -at - 1;
+            if (size == ids.length) ids = Arrays.copyOf(ids, Math.max(4, size + (size >> 1)));
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) return false;
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -1,118 +1,655 @@
 package com.taskmanager.repository;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.taskmanager.metrics.Metrics;
+import com.taskmanager.metrics.TaskMetrics;
 import com.taskmanager.model.Task;
 import com.taskmanager.model.TaskStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.nio.file.AtomicMoveNotSupportedException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
 
-public class JsonFileTaskRepository implements TaskRepository {
+public class JsonFileTaskRepository implements TaskRepository, AutoCloseable {
 
-    private static final String DEFAULT_TASKS_FILE = "tasks.json";
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+    /** Delta segments are merged into the snapshot once past this, or half the snapshot if larger. */
+    private static final long MIN_MERGE_BYTES = 64 * 1024;
     private static final Logger logger = LoggerFactory.getLogger(JsonFileTaskRepository.class);
 
     private final Path filePath;
-    private final ObjectMapper objectMapper;
-    private final Map<Integer, Task> tasks;
+    private final Options options;
+    private final TaskTable tasks;
+    // Lazy mode only: byte ranges of tasks still sitting unparsed in the file. Null once everything
+    // is in the table. A task is in exactly one of the two places. lazyFile is the file they were
+    // indexed from, held open so that a writer renaming a new file over filePath cannot change
+    // the bytes under the offsets.
+    private TaskOffsetIndex lazyIndex;
+    private FileChannel lazyFile;
+    private final DeltaSegment segment;
+    // Delta mode only: IDs saved or deleted since the last persist, possibly repeated. Past a
+    // store's worth of them a full rewrite is cheaper, so tracking stops and rewriteDue is set.
+    private int[] dirtyIds = new int[16];
+    private int dirtyCount;
+    private boolean rewriteDue;
+    // Locking only: null otherwise. generation is the lock file's counter as of the last load or
+    // persist; baseline holds each task changed since then as it was before (null: absent).
+    private final StoreLock lock;
+    private long generation;
+    private final Map<Integer, Task> baseline = new HashMap<>();
+    private long reloads;
     private int nextId;
 
+    /**
+     * Storage settings for the JSON file.
+     *
+     * @param prettyPrint indent the written JSON; compact output is roughly half the size
+     * @param lazy        index the file instead of parsing it, deserializing only the tasks a
+     *                    command touches; the index is cached in {@code <file>.idx}
+     * @param deltas      persist only the tasks changed since the last persist, appended to
+     *                    {@code <file>.delta}, and rewrite the file only when that segment has
+     *                    grown to half its size
+     * @param durable     end the file with a CRC32C trailer and fsync it, its directory and delta
+     *                    appends before {@code persist()} returns, so a save survives power loss
+     *                    and damage is told apart from a bad write
+     * @param locking     coordinate with other processes using the same file through
+     *                    {@code <file>.lock}: IDs are reserved there, and a persist that finds the
+     *                    file changed by another process merges with it or fails on a conflict
+     * @param timestamps  how {@code createdAt} and {@code updatedAt} are written; every format
+     *                    is read back regardless, so this can be changed on an existing file
+     * @param cache       keep a binary copy of the file's tasks in {@code <file>.cache}, written
+     *                    after each parse and rewrite, and load from it instead of parsing while
+     *                    the file is unchanged; see {@link SnapshotCache}
+     */
+    public record Options(boolean prettyPrint, boolean lazy, boolean deltas, boolean durable, boolean locking,
+                          TimestampFormat timestamps, boolean cache) {
+
+        public Options {
+            Objects.requireNonNull(timestamps, "Timestamp format cannot be null");
+        }
+
+        public static Options defaults() {
+            return new Options(false, false, false, false, true, TimestampFormat.ARRAY, false);
+        }
+
+        /**
+         * Reads {@code tasks.format} / {@code TASKS_FORMAT} ({@code compact} (default) or
+         * {@code pretty}), and {@code tasks.lazy} / {@code TASKS_LAZY}, {@code tasks.deltas} /
+         * {@code TASKS_DELTAS}, {@code tasks.durable} / {@code TASKS_DURABLE} and
+         * {@code tasks.locking} / {@code TASKS_LOCKING} and {@code tasks.cache} /
+         * {@code TASKS_CACHE} ({@code true} or {@code false}), and {@code tasks.timestamps} /
+         * {@code TASKS_TIMESTAMPS} ({@code array} (default), {@code iso} or {@code epoch}).
+         */
+        public static Options fromConfig() {
+            Options options = defaults();
+            String format = TaskRepositoryFactory.setting("tasks.format", "TASKS_FORMAT");
+            if (format != null) {
+                options = switch (format.toLowerCase(Locale.ROOT)) {
+                    case "compact" -> options.withPrettyPrint(false);
+                    case "pretty" -> options.withPrettyPrint(true);
+                    default -> throw new IllegalArgumentException("Unknown tasks format: " + format);
+                };
+            }
+            String lazy = TaskRepositoryFactory.setting("tasks.lazy", "TASKS_LAZY");
+            if (lazy != null) options = options.withLazy(Boolean.parseBoolean(lazy));
+            String deltas = TaskRepositoryFactory.setting("tasks.deltas", "TASKS_DELTAS");
+            if (deltas != null) options = options.withDeltas(Boolean.parseBoolean(deltas));
+            String durable = TaskRepositoryFactory.setting("tasks.durable", "TASKS_DURABLE");
+            if (durable != null) options = options.withDurable(Boolean.parseBoolean(durable));
+            String locking = TaskRepositoryFactory.setting("tasks.locking", "TASKS_LOCKING");
+            if (locking != null) options = options.withLocking(Boolean.parseBoolean(locking));
+            String timestamps = TaskRepositoryFactory.setting("tasks.timestamps", "TASKS_TIMESTAMPS");
+            if (timestamps != null) options = options.withTimestamps(TimestampFormat.parse(timestamps));
+            String cache = TaskRepositoryFactory.setting("tasks.cache", "TASKS_CACHE");
+            if (cache != null) options = options.withCache(Boolean.parseBoolean(cache));
+            return options;
+        }
+
+        public Options withPrettyPrint(boolean prettyPrint) {
+            return new Options(prettyPrint, lazy, deltas, durable, locking, timestamps, cache);
+        }
+
+        public Options withLazy(boolean lazy) {
+            return new Options(prettyPrint, lazy, deltas, durable, locking, timestamps, cache);
+        }
+
+        public Options withDeltas(boolean deltas) {
+            return new Options(prettyPrint, lazy, deltas, durable, locking, timestamps, cache);
+        }
+
+        public Options withDurable(boolean durable) {
+            return new Options(prettyPrint, lazy, deltas, durable, locking, timestamps, cache);
+        }
+
+        public Options withLocking(boolean locking) {
+            return new Options(prettyPrint, lazy, deltas, durable, locking, timestamps, cache);
+        }
+
+        public Options withTimestamps(TimestampFormat timestamps) {
+            return new Options(prettyPrint, lazy, deltas, durable, locking, timestamps, cache);
+        }
+
+        public Options withCache(boolean cache) {
+            return new Options(prettyPrint, lazy, deltas, durable, locking, timestamps, cache);
+        }
+    }
+
+    /** How task timestamps are written to the file. */
+    public enum TimestampFormat {
+        /** {@code [2026,10,18,11,23,50,780431337]}: what earlier versions write and can read. */
+        ARRAY,
+        /** {@code "2026-10-18T11:23:50.780431337"}: readable by people and most tools. */
+        ISO,
+        /** {@code 1792322630780431337}: nanoseconds since 1970-01-01T00:00, the shortest and fastest to parse. */
+        EPOCH;
+
+        static TimestampFormat parse(String name) {
+            return switch (name.toLowerCase(Locale.ROOT)) {
+                case "array" -> ARRAY;
+                case "iso" -> ISO;
+                case "epoch" -> EPOCH;
+                default -> throw new IllegalArgumentException("Unknown timestamp format: " + name);
+            };
+        }
+    }
+
     public JsonFileTaskRepository() {
-        this(resolvePathFromConfig());
+        this(resolvePathFromConfig(), Options.fromConfig());
     }
 
     public JsonFileTaskRepository(Path filePath) {
+        this(filePath, Options.defaults());
+    }
+
+    public JsonFileTaskRepository(Path filePath, Options options) {
         Objects.requireNonNull(filePath, "File path cannot be null");
         this.filePath = validatePath(filePath);
-        this.objectMapper = createObjectMapper();
-        this.tasks = new LinkedHashMap<>();
+        this.options = Objects.requireNonNull(options, "Options cannot be null");
+        this.tasks = new TaskTable();
+        this.segment = new DeltaSegment(this.filePath, options.durable());
+        this.lock = options.locking() ? new StoreLock(this.filePath) : null;
         this.nextId = 1;
-        loadTasks();
+        long start = System.nanoTime();
+        if (lock == null) {
+            loadTasks();
+        } else {
+            try {
+                // Shared, so the file and its delta segment are read as one writer left them.
+                lock.shared(state -> {
+                    loadTasks();
+                    generation = state.generation;
+                    return null;
+                });
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to load tasks from file: " + filePath, e);
+            }
+        }
+        Metrics.get().recordLatency("json.load", System.nanoTime() - start);
     }
 
     // ---------- TaskRepository ----------
 
     @Override
     public Task save(Task task) {
-        tasks.put(task.id(), task);
+        if (lock != null && !baseline.containsKey(task.id())) baseline.put(task.id(), findById(task.id()).orElse(null));
+        if (lazyIndex != null) {
+            int pos = lazyIndex.find(task.id());
+            if (pos >= 0) lazyIndex.detach(pos);
+        }
+        tasks.put(task);
+        markDirty(task.id());
         return task;
     }
 
     @Override
     public Optional<Task> findById(int id) {
-        return Optional.ofNullable(tasks.get(id));
+        Task task = tasks.get(id);
+        if (task == null && lazyIndex != null) task = materialize(id);
+        return Optional.ofNullable(task);
     }
 
     @Override
     public List<Task> findAll() {
+        materializeAll();
         return new ArrayList<>(tasks.values());
     }
 
     @Override
     public List<Task> findByStatus(TaskStatus status) {
-        return tasks.values().stream()
-                .filter(t -> t.status() == status)
-                .collect(Collectors.toList());
+        if (lazyIndex != null) materializeStatus(status);
+        return tasks.byStatus(status);
+    }
+
+    @Override
+    public Stream<Task> streamAfter(int afterId) {
+        materializeAll();
+        return tasks.streamAfter(afterId);
+    }
+
+    @Override
+    public Stream<Task> streamAfter(int afterId, TaskStatus status) {
+        if (lazyIndex != null) materializeStatus(status);
+        return tasks.streamAfter(afterId, status);
+    }
+
+    @Override
+    public int countByStatus(TaskStatus status) {
+        return tasks.countByStatus(status) + (lazyIndex == null ? 0 : lazyIndex.liveCount(status));
     }
 
     @Override
     public Optional<Task> delete(int id) {
-        return Optional.ofNullable(tasks.remove(id));
+        if (lazyIndex != null) materialize(id);
+        Task removed = tasks.remove(id);
+        if (removed != null) {
+            if (lock != null && !baseline.containsKey(id)) baseline.put(id, removed);
+            markDirty(id);
+        }
+        return Optional.ofNullable(removed);
     }
 
     @Override
     public int nextId() {
-        return nextId++;
+        return reserveIds(1);
     }
 
+    /**
+     * With locking, IDs come from the lock file, so two processes adding at once never share one.
+     * The lock file's counter is only trusted while the task file is the one it was recorded
+     * with; once the file was deleted or replaced without the lock, counting restarts from the
+     * tasks loaded here.
+     */
+    @Override
+    public int reserveIds(int count) {
+        if (lock == null) {
+            int first = nextId;
+            nextId += count;
+            return first;
+        }
+        try {
+            int first = lock.exclusive(state -> {
+                int from = nextId;
+                if (state.describes(filePath)) {
+                    from = Math.max(state.nextId, nextId);
+                } else {
+                    logger.info("{} changed without the lock, restarting task IDs at {}", filePath, from);
+                    state.describe(filePath);
+                }
+                state.nextId = from + count;
+                return from;
+            });
+            nextId = first + count;
+            return first;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to reserve task IDs in " + StoreLock.pathFor(filePath), e);
+        }
+    }
+
+    /** With locking, only if no process reserved IDs since: the lock file's counter must still be at {@code next}. */
+    @Override
+    public boolean releaseIds(int first, int next) {
+        if (nextId != next) return false;
+        if (lock == null) {
+            nextId = first;
+            return true;
+        }
+        try {
+            boolean released = lock.exclusive(state -> {
+                if (state.nextId != next) return false;
+                state.nextId = first;
+                return true;
+            });
+            if (released) nextId = first;
+            return released;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to release task IDs in " + StoreLock.pathFor(filePath), e);
+        }
+    }
+
+    /**
+     * Writes the store. With locking, first checks whether another process persisted since this
+     * one loaded; if so, its changes are reloaded and this one's applied on top. A task both
+     * changed, differently, is a conflict: nothing is written and {@link ConcurrentModificationException}
+     * is thrown, leaving the other process's version in memory under this one's, so persisting
+     * again keeps this one's.
+     */
     @Override
     public synchronized void persist() {
+        TaskMetrics metrics = Metrics.get();
+        long start = System.nanoTime();
         try {
-            List<Task> taskList = new ArrayList<>(tasks.values());
-            taskList.sort(Comparator.comparingInt(Task::id));
+            if (lock == null) {
+                write();
+                return;
+            }
+            lock.exclusive(state -> {
+                if (state.generation != generation) {
+                    generation = state.generation;
+                    mergeConcurrentChanges();
+                }
+                boolean counted = state.describes(filePath);
+                if (write()) generation = ++state.generation;
+                state.nextId = counted ? Math.max(state.nextId, nextId) : nextId;
+                state.describe(filePath);
+                baseline.clear();
+                return null;
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save tasks to file: " + filePath, e);
+        } finally {
+            metrics.recordLatency("json.persist", System.nanoTime() - start);
+        }
+    }
 
-            String json = objectMapper.writerWithDefaultPrettyPrinter()
-                    .writeValueAsString(taskList);
+    /** Returns false if there was nothing to write. */
+    private boolean write() throws IOException {
+        TaskMetrics metrics = Metrics.get();
+        if (options.deltas() && !rewriteDue && dirtyCount == 0 && Files.exists(filePath)) return false;
+        if (options.deltas() && appendDeltas()) return true;
+        List<Task> taskList = new ArrayList<>(tasks.values());
+
+        if (Files.exists(filePath)) {
+            long backupStart = System.nanoTime();
+            backUp(filePath);
+            metrics.recordLatency("json.backup", System.nanoTime() - backupStart);
+        }
 
-            if (Files.exists(filePath)) {
-                Path backup = filePath.resolveSibling(filePath.getFileName() + ".bak");
-                Files.copy(filePath, backup, StandardCopyOption.REPLACE_EXISTING);
-                logger.info("Backed up tasks file to {}", backup);
+        Path tempFile = Files.createTempFile(
+                filePath.getParent() != null ? filePath.getParent() : Path.of("."),
+                "tasks", ".tmp");
+        TaskOffsetIndex written = null;
+        try {
+            if (options.lazy()) written = writeIndexedTo(tempFile, taskList);
+            else writeTo(tempFile, taskList);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        metrics.increment("json.bytesWritten", Files.size(tempFile));
+        SnapshotCache.Key cacheKey = options.cache() && !options.lazy() ? cacheKey(tempFile) : null;
+        // Opened before the move: the channel stays on the file just written whatever replaces it later.
+        FileChannel writtenFile = written == null ? null : FileChannel.open(tempFile, StandardOpenOption.READ);
+        try {
+            FileOps.moveReplacing(tempFile, filePath);
+        } catch (IOException e) {
+            if (writtenFile != null) writtenFile.close();
+            throw e;
+        }
+        if (options.durable()) forceDirectory(filePath);
+        if (written != null) adoptIndex(written, writtenFile);
+        if (cacheKey != null) writeCache(cacheKey, taskList);
+        segment.rotate();
+        dirtyCount = 0;
+        rewriteDue = false;
+
+        logger.info("Saved {} tasks to {}", count(), filePath);
+        return true;
+    }
+
+    /**
+     * Reloads the store as another process left it and reapplies the tasks changed here since the
+     * last load or persist. Throws if one of them was also changed there.
+     */
+    private void mergeConcurrentChanges() {
+        Map<Integer, Task> mine = new HashMap<>();
+        for (int id : baseline.keySet()) mine.put(id, tasks.get(id));
+        int reserved = nextId;
+        reloads++;
+        tasks.clear();
+        dropLazyIndex();
+        nextId = 1;
+        loadTasks();
+        materializeAll();
+        nextId = Math.max(nextId, reserved);
+
+        List<Integer> conflicts = new ArrayList<>();
+        for (Map.Entry<Integer, Task> change : mine.entrySet()) {
+            int id = change.getKey();
+            Task theirs = tasks.get(id);
+            Task ours = change.getValue();
+            if (!sameContent(theirs, baseline.get(id)) && !sameContent(theirs, ours)) {
+                conflicts.add(id);
+                baseline.put(id, theirs);
             }
+            if (ours != null) tasks.put(ours);
+            else tasks.remove(id);
+        }
+        logger.info("Merged {} local changes into {} as changed by another process", mine.size(), filePath);
+        if (!conflicts.isEmpty()) {
+            Collections.sort(conflicts);
+            throw new ConcurrentModificationException("Tasks " + conflicts
+                    + " were changed by another process since they were loaded; nothing was saved");
+        }
+    }
 
-            Path tempFile = Files.createTempFile(
-                    filePath.getParent() != null ? filePath.getParent() : Path.of("."),
-                    "tasks", ".tmp");
-            Files.writeString(tempFile, json);
-            try {
-                Files.move(tempFile, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
-            } catch (AtomicMoveNotSupportedException ex) {
-                Files.move(tempFile, filePath, StandardCopyOption.REPLACE_EXISTING);
+    /** Field by field: {@link Task#equals} compares IDs only. */
+    static boolean sameContent(Task a, Task b) {
+        if (a == null || b == null) return a == b;
+        return a.id() == b.id() && a.status() == b.status() && a.description().equals(b.description())
+                && a.createdAt().equals(b.createdAt()) && a.updatedAt().equals(b.updatedAt());
+    }
+
+    /**
+     * Keeps the current file as {@code <file>.bak} before it is replaced. The file is only ever
+     * replaced by an atomic move, never written in place, so a hard link is as good as a copy
+     * without reading or writing the whole file again.
+     */
+    static void backUp(Path file) throws IOException {
+        Path backup = backupPathFor(file);
+        Files.deleteIfExists(backup);
+        try {
+            Files.createLink(backup, file);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(file, backup, StandardCopyOption.REPLACE_EXISTING);
+        }
+        logger.info("Backed up tasks file to {}", backup);
+    }
+
+    static Path backupPathFor(Path file) {
+        return file.resolveSibling(file.getFileName() + ".bak");
+    }
+
+    private void markDirty(int id) {
+        if (!options.deltas() || rewriteDue) return;
+        if (dirtyCount > Math.max(1024, count())) {
+            rewriteDue = true;
+            return;
+        }
+        if (dirtyCount == dirtyIds.length) dirtyIds = Arrays.copyOf(dirtyIds, dirtyCount * 2);
+        dirtyIds[dirtyCount++] = id;
+    }
+
+    /**
+     * Delta mode: appends the tasks changed since the last persist to the delta segment. Returns
+     * false, leaving the work to a full rewrite, when there is no file yet or the segment would
+     * grow past {@link #MIN_MERGE_BYTES} and half the file's size.
+     */
+    private boolean appendDeltas() throws IOException {
+        if (rewriteDue || !Files.exists(filePath)) return false;
+        int[] ids = Arrays.stream(dirtyIds, 0, dirtyCount).sorted().distinct().toArray();
+        if (ids.length == 0) return true;
+        long snapshotBytes = Files.size(filePath);
+        long estimate = segment.committedLength() + ids.length * (snapshotBytes / Math.max(1, count()) + 16);
+        if (estimate > Math.max(MIN_MERGE_BYTES, snapshotBytes / 2)) return false;
+
+        List<Task> puts = new ArrayList<>();
+        List<Integer> deletes = new ArrayList<>();
+        for (int id : ids) {
+            Task task = tasks.get(id);
+            if (task != null) puts.add(task);
+            else deletes.add(id);
+        }
+        long start = System.nanoTime();
+        long written = segment.append(puts, deletes);
+        Metrics.get().recordLatency("json.delta", System.nanoTime() - start);
+        Metrics.get().increment("json.bytesWritten", written);
+        dirtyCount = 0;
+        logger.info("Appended {} changed tasks to {}", ids.length, DeltaSegment.pathFor(filePath));
+        return true;
+    }
+
+    /** Streams the tasks through a JsonGenerator straight into the file; no in-memory document. */
+    private void writeTo(Path target, List<Task> taskList) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_BYTES);
+            OutputStream body = options.durable() ? new CheckedOutputStream(out, new CRC32C()) : out;
+            try (JsonGenerator gen = Json.MAPPER.getFactory().createGenerator(body)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                if (options.prettyPrint()) gen.useDefaultPrettyPrinter();
+                gen.writeStartArray();
+                for (Task task : taskList) TaskCodec.write(gen, task, options.timestamps());
+                gen.writeEndArray();
             }
+            finish(channel, out, body);
+        }
+    }
 
-            logger.info("Saved {} tasks to {}", taskList.size(), filePath);
+    /** Flushes a written file; in durable mode first appends the checksum of {@code body}, then fsyncs. */
+    private void finish(FileChannel channel, OutputStream out, OutputStream body) throws IOException {
+        if (body instanceof CheckedOutputStream checked) {
+            checked.flush();
+            out.write(ChecksumTrailer.format(checked.getChecksum().getValue()));
+        }
+        out.flush();
+        if (options.durable()) {
+            long start = System.nanoTime();
+            channel.force(true);
+            Metrics.get().recordLatency("json.fsync", System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Makes a rename or new file in {@code file}'s directory durable. Some platforms cannot open
+     * a directory for this; there the entry is left to the file system.
+     */
+    static void forceDirectory(Path file) {
+        Path dir = file.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
         } catch (IOException e) {
-            throw new RuntimeException("Failed to save tasks to file: " + filePath, e);
+            logger.debug("Could not fsync directory {}", dir, e);
+        }
+    }
+
+    /**
+     * Lazy-mode writer: tasks held in memory are serialized, tasks still unparsed in the old
+     * file are copied across byte for byte, merged in ID order. Records where each object lands
+     * so the new file can be indexed without rescanning it.
+     */
+    private TaskOffsetIndex writeIndexedTo(Path target, List<Task> owned) throws IOException {
+        TaskOffsetIndex source = lazyIndex;
+        int sourceSize = source == null ? 0 : source.size();
+        TaskOffsetIndex.Builder written = new TaskOffsetIndex.Builder();
+        ObjectWriter taskWriter = Json.TASK_WRITER.withAttribute(TaskCodec.TIMESTAMPS, options.timestamps());
+        // Not closed: closing a stream from Channels.newInputStream would close lazyFile with it.
+        InputStream old = source == null ? InputStream.nullInputStream()
+                : new BufferedInputStream(Channels.newInputStream(lazyFile.position(0)), WRITE_BUFFER_BYTES);
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream buffered = new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_BYTES);
+            OutputStream body = options.durable() ? new CheckedOutputStream(buffered, new CRC32C()) : buffered;
+            CountingOutputStream out = new CountingOutputStream(body);
+            try (JsonGenerator gen = Json.MAPPER.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                if (options.prettyPrint()) gen.useDefaultPrettyPrinter();
+                gen.writeStartArray();
+                long oldPosition = 0;
+                int next = 0;
+                int pos = nextLive(source, 0);
+                while (next < owned.size() || pos < sourceSize) {
+                    int id;
+                    TaskStatus status;
+                    byte[] json;
+                    if (pos >= sourceSize || (next < owned.size() && owned.get(next).id() < source.idAt(pos))) {
+                        Task task = owned.get(next++);
+                        id = task.id();
+                        status = task.status();
+                        json = taskWriter.writeValueAsBytes(task);
+                    } else {
+                        id = source.idAt(pos);
+                        status = source.statusAt(pos);
+                        old.skipNBytes(source.offsetAt(pos) - oldPosition);
+                        json = old.readNBytes(source.lengthAt(pos));
+                        oldPosition = source.offsetAt(pos) + json.length;
+                        pos = nextLive(source, pos + 1);
+                    }
+                    gen.writeRawValue(new String(json, StandardCharsets.UTF_8));
+                    gen.flush();
+                    written.add(id, out.count() - json.length, json.length, status);
+                }
+                gen.writeEndArray();
+            }
+            finish(channel, buffered, body);
+        }
+        return written.build();
+    }
+
+    private static int nextLive(TaskOffsetIndex index, int from) {
+        if (index == null) return 0;
+        int pos = from;
+        while (pos < index.size() && !index.isLive(pos)) pos++;
+        return pos;
+    }
+
+    /** After a lazy-mode write: everything in the map stays owned, the rest is served from the new file. */
+    private void adoptIndex(TaskOffsetIndex written, FileChannel writtenFile) {
+        for (Task task : tasks.values()) written.detach(written.find(task.id()));
+        dropLazyIndex();
+        lazyIndex = written;
+        lazyFile = writtenFile;
+        try {
+            written.writeSidecar(indexSidecar(), filePath);
+        } catch (IOException e) {
+            logger.warn("Could not write index sidecar for {}", filePath, e);
         }
     }
 
     @Override
     public int count() {
-        return tasks.size();
+        return tasks.size() + (lazyIndex == null ? 0 : lazyIndex.liveCount());
+    }
+
+    /** Counts merges of another process's changes, which reload every task. */
+    @Override
+    public synchronized long reloads() {
+        return reloads;
+    }
+
+    /** Closes the file lazy mode reads from. Tasks not read yet can no longer be, so call it last. */
+    @Override
+    public synchronized void close() {
+        dropLazyIndex();
     }
 
     @Override
     public boolean exists(int id) {
-        return tasks.containsKey(id);
+        if (tasks.contains(id)) return true;
+        if (lazyIndex == null) return false;
+        int pos = lazyIndex.find(id);
+        return pos >= 0 && lazyIndex.isLive(pos);
     }
 
     // ---------- Path validation ----------
@@ -133,52 +670,319 @@ public class JsonFileTaskRepository implements TaskRepository {
     // ---------- Internal I/O ----------
 
     private static Path resolvePathFromConfig() {
-        String prop = System.getProperty("tasks.file");
-        if (prop != null && !prop.isBlank()) return validatePath(Path.of(prop));
-        String env = System.getenv("TASKS_FILE");
-        if (env != null && !env.isBlank()) return validatePath(Path.of(env));
-        return Path.of(DEFAULT_TASKS_FILE);
+        return TaskRepositoryFactory.resolvePath(TaskRepositoryFactory.DEFAULT_JSON_FILE);
     }
 
-    private static ObjectMapper createObjectMapper() {
+    static ObjectMapper createObjectMapper() {
         ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
+        mapper.registerModule(TaskCodec.module());
         return mapper;
     }
 
+    /** The mapper shared by every repository instance; see {@link Json}. */
+    static ObjectMapper sharedMapper() {
+        return Json.MAPPER;
+    }
+
+    /** Writes one task into a generator without flushing it; see {@link Json}. */
+    static ObjectWriter sharedTaskWriter() {
+        return Json.TASK_WRITER;
+    }
+
+    /**
+     * Created on first use rather than with the repository: Jackson's databind is several hundred
+     * classes, which a command on a missing or empty store never needs.
+     */
+    private static final class Json {
+        static final ObjectMapper MAPPER = createObjectMapper();
+        // Flushing after every task would turn each element into its own write syscall.
+        static final ObjectWriter TASK_WRITER = MAPPER.writerFor(Task.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
     private void loadTasks() {
         if (!Files.exists(filePath)) {
-            logger.info("Tasks file does not exist: {}", filePath);
+            logger.debug("Tasks file does not exist: {}", filePath);
+            return;
+        }
+        if (options.lazy() && openLazily()) {
+            replaySegment();
             return;
         }
         try {
+            if (options.cache() && loadCached()) {
+                replaySegment();
+                return;
+            }
+            // Keyed before parsing: if the file is replaced meanwhile, the key no longer matches it.
+            SnapshotCache.Key cacheKey = options.cache() ? cacheKey(filePath) : null;
             loadFrom(filePath);
+            if (cacheKey != null && cacheKey.sameStat(filePath)) writeCache(cacheKey, tasks.values());
         } catch (IOException e) {
+            if (!(e instanceof ChecksumTrailer.MismatchException) && ChecksumTrailer.present(filePath)) {
+                // The bytes are exactly what was written, so the backup would not be any better.
+                throw new RuntimeException("Failed to load tasks from file: " + filePath, e);
+            }
             logger.warn("Failed to load {}, attempting backup recovery...", filePath, e);
-            Path backup = filePath.resolveSibling(filePath.getFileName() + ".bak");
+            Path backup = backupPathFor(filePath);
             if (!Files.exists(backup)) {
                 throw new RuntimeException("Failed to load tasks and no backup found: " + filePath, e);
             }
+            // A streaming load may have applied part of the corrupt file before failing.
+            tasks.clear();
+            nextId = 1;
             try {
                 loadFrom(backup);
+                // The backup's own segment brings it up to the damaged file, whose segment follows.
+                segment.replay(DeltaSegment.backupPathFor(filePath), backup, this::replayPut, this::replayDelete);
                 logger.info("Recovered {} tasks from backup: {}", tasks.size(), backup);
             } catch (IOException ex) {
                 throw new RuntimeException("Both tasks file and backup are unreadable: " + filePath, ex);
             }
+            rewriteDue = true;
         }
+        replaySegment();
     }
 
-    private void loadFrom(Path path) throws IOException {
-        String content = Files.readString(path);
-        if (content.trim().isEmpty()) {
-            logger.info("Tasks file is empty: {}", path);
+    /** Loads the file's tasks from its snapshot cache, if there is one for the file as it is now. */
+    private boolean loadCached() {
+        long start = System.nanoTime();
+        int loaded = SnapshotCache.load(SnapshotCache.pathFor(filePath), filePath, task -> {
+            tasks.put(task);
+            nextId = Math.max(nextId, task.id() + 1);
+        });
+        if (loaded < 0) return false;
+        Metrics.get().recordLatency("json.cacheLoad", System.nanoTime() - start);
+        logger.debug("Loaded {} tasks from snapshot cache of {}", loaded, filePath);
+        return true;
+    }
+
+    private SnapshotCache.Key cacheKey(Path file) {
+        try {
+            return SnapshotCache.Key.of(file);
+        } catch (IOException e) {
+            logger.warn("Could not checksum {}, not caching it", file, e);
+            return null;
+        }
+    }
+
+    /** Saves the file's tasks as its snapshot cache. Failing only costs the next load a parse. */
+    private void writeCache(SnapshotCache.Key key, Collection<Task> fileTasks) {
+        try {
+            SnapshotCache.write(SnapshotCache.pathFor(filePath), key, fileTasks);
+        } catch (IOException | IllegalArgumentException e) {
+            // IllegalArgumentException: a timestamp outside what epoch nanoseconds can hold.
+            logger.warn("Could not write snapshot cache for {}", filePath, e);
+        }
+    }
+
+    /** Applies the delta segment on top of the loaded file, if it belongs to it. */
+    private void replaySegment() {
+        try {
+            int applied = segment.replay(this::replayPut, this::replayDelete);
+            if (applied > 0) logger.debug("Applied {} changes from {}", applied, DeltaSegment.pathFor(filePath));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load tasks from file: " + DeltaSegment.pathFor(filePath), e);
+        }
+    }
+
+    private void replayPut(Task task) {
+        if (lazyIndex != null) {
+            int pos = lazyIndex.find(task.id());
+            if (pos >= 0) lazyIndex.detach(pos);
+        }
+        tasks.put(task);
+        nextId = Math.max(nextId, task.id() + 1);
+    }
+
+    private void replayDelete(int id) {
+        if (lazyIndex != null) {
+            int pos = lazyIndex.find(id);
+            if (pos >= 0) lazyIndex.detach(pos);
+        }
+        tasks.remove(id);
+    }
+
+    /**
+     * Uses the cached sidecar index if it matches the file, else builds one by tokenizing the
+     * file. Returns false if the file cannot be indexed, leaving eager loading (and its backup
+     * recovery) to handle it.
+     */
+    private boolean openLazily() {
+        try {
+            // After a crash the file can be damaged with its size and mtime intact; only the checksum tells.
+            if (options.durable() && !ChecksumTrailer.intact(filePath)) {
+                logger.warn("Checksum mismatch in {}, loading it fully", filePath);
+                return false;
+            }
+        } catch (IOException e) {
+            logger.warn("Could not verify {}, loading it fully", filePath, e);
+            return false;
+        }
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        } catch (IOException e) {
+            logger.warn("Could not open {}, loading it fully", filePath, e);
+            return false;
+        }
+        Path sidecar = indexSidecar();
+        TaskOffsetIndex index = TaskOffsetIndex.loadSidecar(sidecar, filePath);
+        if (index == null) {
+            try {
+                index = TaskOffsetIndex.scan(channel, filePath, Json.MAPPER.getFactory());
+            } catch (IOException | IllegalArgumentException e) {
+                logger.warn("Could not index {}, loading it fully", filePath, e);
+                closeQuietly(channel);
+                return false;
+            }
+            if (index == null) {
+                logger.info("Task IDs in {} are not in ascending order, loading it fully", filePath);
+                closeQuietly(channel);
+                return false;
+            }
+            try {
+                index.writeSidecar(sidecar, filePath);
+            } catch (IOException e) {
+                logger.warn("Could not write index sidecar for {}", filePath, e);
+            }
+        }
+        lazyIndex = index;
+        lazyFile = channel;
+        nextId = Math.max(nextId, index.maxId() + 1);
+        logger.debug("Indexed {} tasks in {}", index.size(), filePath);
+        return true;
+    }
+
+    /** Forgets the index, once every task it covered is in the table or the file is reloaded. */
+    private void dropLazyIndex() {
+        lazyIndex = null;
+        if (lazyFile != null) closeQuietly(lazyFile);
+        lazyFile = null;
+    }
+
+    private void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close {}", filePath, e);
+        }
+    }
+
+    private Task materialize(int id) {
+        int pos = lazyIndex.find(id);
+        if (pos < 0 || !lazyIndex.isLive(pos)) return null;
+        try {
+            return materializeAt(pos);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read task " + id + " from " + filePath, e);
+        }
+    }
+
+    private Task materializeAt(int pos) throws IOException {
+        Task task = Json.MAPPER.readValue(lazyIndex.read(lazyFile, pos), Task.class);
+        lazyIndex.detach(pos);
+        tasks.put(task);
+        return task;
+    }
+
+    /**
+     * Reads only the unparsed tasks with the given status, one positioned read each. When they
+     * make up a large share of the file a single sequential pass is cheaper, so fall back to that.
+     */
+    private void materializeStatus(TaskStatus status) {
+        int wanted = lazyIndex.liveCount(status);
+        if (wanted == 0) return;
+        if (wanted > lazyIndex.size() / 8) {
+            materializeAll();
             return;
         }
-        List<Task> loadedTasks = objectMapper.readValue(content, new TypeReference<List<Task>>() {});
-        for (Task task : loadedTasks) {
-            tasks.put(task.id(), task);
+        try {
+            for (int pos = 0; pos < lazyIndex.size(); pos++) {
+                if (lazyIndex.isLive(pos) && lazyIndex.statusAt(pos) == status) materializeAt(pos);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load tasks from file: " + filePath, e);
+        }
+    }
+
+    /** Parses the rest of the file once; afterwards the map holds every task, in ID order. */
+    private void materializeAll() {
+        if (lazyIndex == null) return;
+        TaskOffsetIndex index = lazyIndex;
+        try {
+            readAll(Json.MAPPER, filePath, lazyFile.position(0), task -> {
+                // Tasks already in the map are newer; dead index entries were deleted since the file was indexed.
+                int pos = index.find(task.id());
+                if (!tasks.contains(task.id()) && pos >= 0 && index.isLive(pos)) tasks.put(task);
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load tasks from file: " + filePath, e);
+        }
+        dropLazyIndex();
+    }
+
+    private Path indexSidecar() {
+        return filePath.resolveSibling(filePath.getFileName() + ".idx");
+    }
+
+    private void loadFrom(Path path) throws IOException {
+        readAll(Json.MAPPER, path, task -> {
+            tasks.put(task);
             nextId = Math.max(nextId, task.id() + 1);
+        });
+        Metrics.get().increment("json.bytesRead", Files.size(path));
+        logger.debug("Loaded {} tasks from {}", tasks.size(), path);
+    }
+
+    /**
+     * Streams the task array element by element into {@code sink}, so peak heap is the tasks
+     * themselves plus the parser's buffer rather than the file text and a parsed list.
+     */
+    static void readAll(ObjectMapper objectMapper, Path path, Consumer<Task> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            readAll(objectMapper, path, channel, sink);
+        }
+    }
+
+    /** As above, from {@code channel}'s position on, leaving it open; {@code path} names it in errors. */
+    private static void readAll(ObjectMapper objectMapper, Path path, FileChannel channel, Consumer<Task> sink) throws IOException {
+        long recorded = ChecksumTrailer.read(channel);
+        if (recorded < 0) {
+            parseAll(objectMapper, path, Channels.newInputStream(channel), sink);
+            return;
+        }
+        // Checksummed as it is parsed, so verifying costs no second pass.
+        CheckedInputStream in = new CheckedInputStream(ChecksumTrailer.limit(
+                Channels.newInputStream(channel), channel.size() - ChecksumTrailer.LENGTH), new CRC32C());
+        IOException failure = null;
+        try {
+            parseAll(objectMapper, path, in, sink);
+        } catch (IOException e) {
+            failure = e;
+        }
+        in.transferTo(OutputStream.nullOutputStream());
+        if (in.getChecksum().getValue() != recorded) throw new ChecksumTrailer.MismatchException(path);
+        if (failure != null) throw failure;
+    }
+
+    private static void parseAll(ObjectMapper objectMapper, Path path, InputStream in, Consumer<Task> sink) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)
+                .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                logger.debug("Tasks file is empty: {}", path);
+                return;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a JSON array of tasks but found " + token);
+            }
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                sink.accept(TaskCodec.read(parser));
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new JsonParseException(parser, "Expected a task object but found " + token);
+            }
         }
-        logger.info("Loaded {} tasks from {}", tasks.size(), path);
     }
 }
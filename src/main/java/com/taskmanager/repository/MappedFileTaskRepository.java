@@ -0,0 +1,308 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import com.taskmanager.model.Timestamps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * TaskRepository backed by two memory-mapped files: a fixed-width record index addressed by
+ * task ID and a heap holding the UTF-8 descriptions.
+ *
+ * Opening the store only maps the files, so {@code findById}, {@code exists} and {@code count}
+ * are constant-time reads with no up-front deserialization. {@code findAll} and
+ * {@code findByStatus} walk the index and decode only the records they return.
+ *
+ * Index layout: a {@value #HEADER_BYTES}-byte header (magic, version, nextId, count, heap end,
+ * garbage bytes) followed by one {@value #SLOT_BYTES}-byte slot per ID at
+ * {@code HEADER_BYTES + (id - 1) * SLOT_BYTES}:
+ * <pre>
+ *   long heapOffset | int length | byte status (ordinal + 1, 0 = empty) | 3 pad | long created | long updated
+ * </pre>
+ * Timestamps are stored as epoch nanoseconds (see {@link Timestamps}) so they round-trip exactly.
+ *
+ * Writes go through the mapping immediately; {@link #persist()} forces both files to disk.
+ * A replaced description stays in the heap as garbage (counted in the header) unless the new
+ * text is identical, which is the common case for status changes. Each file is limited to 2 GiB.
+ */
+public class MappedFileTaskRepository implements TaskRepository, AutoCloseable {
+
+    static final int HEADER_BYTES = 64;
+    static final int SLOT_BYTES = 32;
+
+    private static final int MAGIC = 0x5453_4B49; // "TSKI"
+    private static final int VERSION = 1;
+    private static final int INITIAL_SLOTS = 1024;
+    private static final long INITIAL_HEAP_BYTES = 64 * 1024;
+
+    // Header offsets
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_NEXT_ID = 8;
+    private static final int H_COUNT = 12;
+    private static final int H_HEAP_END = 16;
+    private static final int H_GARBAGE = 24;
+
+    // Slot offsets
+    private static final int S_OFFSET = 0;
+    private static final int S_LENGTH = 8;
+    private static final int S_STATUS = 12;
+    private static final int S_CREATED = 16;
+    private static final int S_UPDATED = 24;
+
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final Logger logger = LoggerFactory.getLogger(MappedFileTaskRepository.class);
+
+    private final Path indexPath;
+    private final Path heapPath;
+    private final FileChannel indexChannel;
+    private final FileChannel heapChannel;
+    private MappedByteBuffer index;
+    private MappedByteBuffer heap;
+
+    public MappedFileTaskRepository(Path indexPath) {
+        Objects.requireNonNull(indexPath, "Index path cannot be null");
+        this.indexPath = JsonFileTaskRepository.validatePath(indexPath);
+        this.heapPath = this.indexPath.resolveSibling(this.indexPath.getFileName() + ".heap");
+        try {
+            this.indexChannel = open(this.indexPath);
+            this.heapChannel = open(heapPath);
+            boolean fresh = indexChannel.size() == 0;
+            this.index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    fresh ? HEADER_BYTES + (long) INITIAL_SLOTS * SLOT_BYTES : indexChannel.size());
+            this.heap = heapChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Math.max(heapChannel.size(), INITIAL_HEAP_BYTES));
+            if (fresh) {
+                index.putInt(H_MAGIC, MAGIC).putInt(H_VERSION, VERSION).putInt(H_NEXT_ID, 1);
+            } else if (index.getInt(H_MAGIC) != MAGIC || index.getInt(H_VERSION) != VERSION) {
+                throw new IOException("Not a task index file (bad magic or version)");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open mapped task store: " + this.indexPath, e);
+        }
+        logger.info("Mapped {} tasks from {}", index.getInt(H_COUNT), this.indexPath);
+    }
+
+    // ---------- TaskRepository ----------
+
+    @Override
+    public Task save(Task task) {
+        // Converted first: a time out of range is refused before the file changes.
+        long created = Timestamps.toEpochNanos(task.createdAt());
+        long updated = Timestamps.toEpochNanos(task.updatedAt());
+        int id = task.id();
+        ensureSlot(id);
+        int slot = slotOffset(id);
+        byte[] description = task.description().getBytes(StandardCharsets.UTF_8);
+        boolean occupied = index.get(slot + S_STATUS) != 0;
+
+        long offset;
+        if (occupied && sameBytes(index.getLong(slot + S_OFFSET), index.getInt(slot + S_LENGTH), description)) {
+            offset = index.getLong(slot + S_OFFSET);
+        } else {
+            if (occupied) addGarbage(index.getInt(slot + S_LENGTH));
+            offset = appendToHeap(description);
+        }
+
+        index.putLong(slot + S_OFFSET, offset)
+                .putInt(slot + S_LENGTH, description.length)
+                .putLong(slot + S_CREATED, created)
+                .putLong(slot + S_UPDATED, updated)
+                .put(slot + S_STATUS, (byte) (task.status().ordinal() + 1));
+        if (!occupied) index.putInt(H_COUNT, count() + 1);
+        if (id >= index.getInt(H_NEXT_ID)) index.putInt(H_NEXT_ID, id + 1);
+        return task;
+    }
+
+    @Override
+    public Optional<Task> findById(int id) {
+        return exists(id) ? Optional.of(read(id)) : Optional.empty();
+    }
+
+    @Override
+    public List<Task> findAll() {
+        List<Task> result = new ArrayList<>(count());
+        for (int id = 1, last = highestUsedId(); id <= last; id++) {
+            if (index.get(slotOffset(id) + S_STATUS) != 0) result.add(read(id));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> findByStatus(TaskStatus status) {
+        byte wanted = (byte) (status.ordinal() + 1);
+        List<Task> result = new ArrayList<>();
+        for (int id = 1, last = highestUsedId(); id <= last; id++) {
+            if (index.get(slotOffset(id) + S_STATUS) == wanted) result.add(read(id));
+        }
+        return result;
+    }
+
+    /** Walks the slots from {@code afterId + 1}, decoding each task only when the stream reaches it. */
+    @Override
+    public Stream<Task> streamAfter(int afterId) {
+        return IntStream.rangeClosed(Math.max(1, afterId + 1), highestUsedId())
+                .filter(id -> index.get(slotOffset(id) + S_STATUS) != 0)
+                .mapToObj(this::read);
+    }
+
+    @Override
+    public Stream<Task> streamAfter(int afterId, TaskStatus status) {
+        byte wanted = (byte) (status.ordinal() + 1);
+        return IntStream.rangeClosed(Math.max(1, afterId + 1), highestUsedId())
+                .filter(id -> index.get(slotOffset(id) + S_STATUS) == wanted)
+                .mapToObj(this::read);
+    }
+
+    @Override
+    public int countByStatus(TaskStatus status) {
+        byte wanted = (byte) (status.ordinal() + 1);
+        int count = 0;
+        for (int id = 1, last = highestUsedId(); id <= last; id++) {
+            if (index.get(slotOffset(id) + S_STATUS) == wanted) count++;
+        }
+        return count;
+    }
+
+    @Override
+    public Optional<Task> delete(int id) {
+        if (!exists(id)) return Optional.empty();
+        Task removed = read(id);
+        int slot = slotOffset(id);
+        index.put(slot + S_STATUS, (byte) 0);
+        addGarbage(index.getInt(slot + S_LENGTH));
+        index.putInt(H_COUNT, count() - 1);
+        return Optional.of(removed);
+    }
+
+    @Override
+    public int nextId() {
+        return reserveIds(1);
+    }
+
+    @Override
+    public int reserveIds(int count) {
+        int first = index.getInt(H_NEXT_ID);
+        index.putInt(H_NEXT_ID, first + count);
+        return first;
+    }
+
+    @Override
+    public boolean releaseIds(int first, int next) {
+        if (index.getInt(H_NEXT_ID) != next) return false;
+        index.putInt(H_NEXT_ID, first);
+        return true;
+    }
+
+    @Override
+    public synchronized void persist() {
+        heap.force();
+        index.force();
+        logger.info("Flushed {} tasks to {}", count(), indexPath);
+    }
+
+    @Override
+    public int count() {
+        return index.getInt(H_COUNT);
+    }
+
+    @Override
+    public boolean exists(int id) {
+        return id > 0 && id <= lastSlotId() && index.get(slotOffset(id) + S_STATUS) != 0;
+    }
+
+    /** Heap bytes held by deleted or replaced descriptions. */
+    public long garbageBytes() {
+        return index.getLong(H_GARBAGE);
+    }
+
+    @Override
+    public void close() {
+        try {
+            persist();
+            indexChannel.close();
+            heapChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close mapped task store: " + indexPath, e);
+        }
+    }
+
+    // ---------- Record access ----------
+
+    private Task read(int id) {
+        int slot = slotOffset(id);
+        byte[] description = new byte[index.getInt(slot + S_LENGTH)];
+        heap.get(Math.toIntExact(index.getLong(slot + S_OFFSET)), description);
+        return new Task(id,
+                new String(description, StandardCharsets.UTF_8),
+                STATUSES[index.get(slot + S_STATUS) - 1],
+                Timestamps.fromEpochNanos(index.getLong(slot + S_CREATED)),
+                Timestamps.fromEpochNanos(index.getLong(slot + S_UPDATED)));
+    }
+
+    private boolean sameBytes(long offset, int length, byte[] bytes) {
+        if (length != bytes.length) return false;
+        int base = Math.toIntExact(offset);
+        for (int i = 0; i < length; i++) {
+            if (heap.get(base + i) != bytes[i]) return false;
+        }
+        return true;
+    }
+
+    private long appendToHeap(byte[] bytes) {
+        long offset = index.getLong(H_HEAP_END);
+        long end = offset + bytes.length;
+        if (end > heap.capacity()) heap = remap(heapChannel, Math.max(end, 2L * heap.capacity()));
+        heap.put(Math.toIntExact(offset), bytes);
+        index.putLong(H_HEAP_END, end);
+        return offset;
+    }
+
+    private void addGarbage(int bytes) {
+        index.putLong(H_GARBAGE, index.getLong(H_GARBAGE) + bytes);
+    }
+
+    private void ensureSlot(int id) {
+        long needed = HEADER_BYTES + (long) id * SLOT_BYTES;
+        if (needed > index.capacity()) index = remap(indexChannel, Math.max(needed, 2L * index.capacity()));
+    }
+
+    /** Every saved ID is below nextId, so scans can stop there instead of at the mapping's end. */
+    private int highestUsedId() {
+        return Math.min(index.getInt(H_NEXT_ID) - 1, lastSlotId());
+    }
+
+    private int lastSlotId() {
+        return (index.capacity() - HEADER_BYTES) / SLOT_BYTES;
+    }
+
+    private static int slotOffset(int id) {
+        return HEADER_BYTES + (id - 1) * SLOT_BYTES;
+    }
+
+    private MappedByteBuffer remap(FileChannel channel, long size) {
+        if (size > Integer.MAX_VALUE)
+            throw new IllegalStateException("Mapped task store exceeds 2 GiB: " + indexPath);
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to grow mapped task store: " + indexPath, e);
+        }
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+}
@@ -0,0 +1,44 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Converts a {@code tasks.json} store into a {@link MappedFileTaskRepository}.
+ *
+ * Usage: {@code java -cp task-cli.jar com.taskmanager.repository.MappedTaskStoreConverter tasks.json tasks.db}
+ */
+public final class MappedTaskStoreConverter {
+
+    private MappedTaskStoreConverter() {}
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: MappedTaskStoreConverter <tasks.json> <store>");
+            System.exit(2);
+        }
+        int converted = convert(Path.of(args[0]), Path.of(args[1]));
+        System.out.printf("Converted %d tasks into %s%n", converted, args[1]);
+    }
+
+    /** Copies every task from the JSON file into a new mapped store. Returns the number of tasks copied. */
+    public static int convert(Path jsonFile, Path store) {
+        if (Files.exists(store))
+            throw new IllegalArgumentException("Target store already exists: " + store);
+        // Only read, and maybe by a one-off tool in a directory of its own: no lock file wanted.
+        List<Task> tasks;
+        try (JsonFileTaskRepository source = new JsonFileTaskRepository(jsonFile,
+                JsonFileTaskRepository.Options.defaults().withLocking(false))) {
+            tasks = source.findAll();
+        }
+        tasks.sort(Comparator.comparingInt(Task::id));
+        try (MappedFileTaskRepository target = new MappedFileTaskRepository(store)) {
+            for (Task task : tasks) target.save(task);
+        }
+        return tasks.size();
+    }
+}
@@ -0,0 +1,168 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import com.taskmanager.model.Timestamps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A binary copy of the tasks in a JSON task file, kept in {@code <file>.cache} so that a process
+ * finding the file unchanged since the cache was written loads it without parsing JSON.
+ *
+ * The cache is keyed by the file's size, modification time and CRC32C. Size and time turn away a
+ * rewritten file with one {@code stat}; the checksum catches the edits they miss (a same-size
+ * change within one clock tick, a copy restored with its old time) for one sequential read of the
+ * file, many times cheaper than parsing it. The cache holds the file only: the delta segment is
+ * replayed on top of it just as after parsing, and its own stamp is checked against the file.
+ *
+ * Layout: a magic number, the key and the task count, then per task its ID, status ordinal,
+ * created and updated times as epoch nanoseconds ({@link Timestamps}) and description as
+ * length-prefixed UTF-8, and last a CRC32C of everything before it. The whole cache is read with
+ * one bulk read and checked before any task is built.
+ */
+final class SnapshotCache {
+
+    private static final int MAGIC = 0x5453_4331; // "TSC1"
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotCache.class);
+
+    private SnapshotCache() {}
+
+    static Path pathFor(Path file) {
+        return file.resolveSibling(file.getFileName() + ".cache");
+    }
+
+    /** What a cache is valid for: one version of the JSON file. */
+    record Key(long size, long modified, long checksum) {
+        /**
+         * Key of {@code file} as it is now. A rename keeps size, time and content, so the key of a
+         * temp file is also the key of the file it is renamed to.
+         */
+        static Key of(Path file) throws IOException {
+            return new Key(Files.size(file), FileOps.modifiedNanos(file), crc32c(file));
+        }
+
+        /** Whether {@code file} still has this size and time, i.e. was not replaced since. */
+        boolean sameStat(Path file) {
+            try {
+                return size == Files.size(file) && modified == FileOps.modifiedNanos(file);
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Passes the cached tasks of {@code file} to {@code sink} and returns how many there were, or
+     * returns -1 without calling {@code sink} if there is no cache for the file as it is now.
+     */
+    static int load(Path cache, Path file, Consumer<Task> sink) {
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE - 8) return -1;
+            in = ByteBuffer.allocate((int) length);
+            while (in.hasRemaining() && channel.read(in) >= 0) {
+                // a single read unless the file system hands the cache over in parts
+            }
+            in.flip();
+        } catch (NoSuchFileException e) {
+            return -1;
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable snapshot cache {}", cache, e);
+            return -1;
+        }
+        try {
+            if (in.remaining() < Integer.BYTES * 3 + Long.BYTES * 3 || in.getInt() != MAGIC) return -1;
+            if (in.getLong() != Files.size(file) || in.getLong() != FileOps.modifiedNanos(file)) return -1;
+            long checksum = in.getLong();
+            CRC32C crc = new CRC32C();
+            crc.update(in.array(), 0, in.limit() - Integer.BYTES);
+            if ((int) crc.getValue() != in.getInt(in.limit() - Integer.BYTES)) {
+                logger.warn("Ignoring damaged snapshot cache {}", cache);
+                return -1;
+            }
+            if (checksum != crc32c(file)) {
+                logger.debug("Snapshot cache {} is stale: {} changed without a size or time change", cache, file);
+                return -1;
+            }
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                int id = in.getInt();
+                TaskStatus status = STATUSES[in.get()];
+                long created = in.getLong();
+                long updated = in.getLong();
+                int length = in.getInt();
+                String description = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+                in.position(in.position() + length);
+                sink.accept(new Task(id, description, status,
+                        Timestamps.fromEpochNanos(created), Timestamps.fromEpochNanos(updated)));
+            }
+            return count;
+        } catch (IOException e) {
+            logger.warn("Could not check snapshot cache {} against {}", cache, file, e);
+            return -1;
+        }
+    }
+
+    /**
+     * Writes {@code tasks}, which must be exactly what the file version {@code key} holds. Replaces
+     * any previous cache atomically, so a concurrent reader sees one or the other.
+     */
+    static void write(Path cache, Key key, Collection<Task> tasks) throws IOException {
+        Path dir = cache.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, cache.getFileName().toString(), ".tmp");
+        try {
+            try (CheckedOutputStream checked = new CheckedOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024), new CRC32C());
+                 DataOutputStream out = new DataOutputStream(checked)) {
+                out.writeInt(MAGIC);
+                out.writeLong(key.size());
+                out.writeLong(key.modified());
+                out.writeLong(key.checksum());
+                out.writeInt(tasks.size());
+                for (Task task : tasks) {
+                    byte[] description = task.description().getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(task.id());
+                    out.writeByte(task.status().ordinal());
+                    out.writeLong(Timestamps.toEpochNanos(task.createdAt()));
+                    out.writeLong(Timestamps.toEpochNanos(task.updatedAt()));
+                    out.writeInt(description.length);
+                    out.write(description);
+                }
+                out.flush();
+                out.writeInt((int) checked.getChecksum().getValue());
+            }
+            FileOps.moveReplacing(tmp, cache);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    /** CRC32C of the whole file, read sequentially in large blocks. */
+    static long crc32c(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            CRC32C crc = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            while (channel.read(buffer.clear()) >= 0) crc.update(buffer.flip());
+            return crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.taskmanager.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coordinates processes sharing one JSON task file through {@code <file>.lock}, a 28-byte file
+ * holding a generation counter (bumped by every persist), the next unreserved task ID, and the
+ * size and modification time the task file had after the last persist. The last two tell whether
+ * the counter still belongs to the file: one deleted or replaced behind the lock's back (a
+ * restored backup, a writer without locking) starts counting again from its own tasks.
+ *
+ * The task file itself cannot carry the lock: it is replaced by a rename on every rewrite, and a
+ * lock on the old inode protects nothing. Readers take a shared {@link FileLock}, so parallel
+ * {@code list} runs do not wait on each other; persists and ID reservations take it exclusively.
+ * Locks are held for one operation, never between calls.
+ *
+ * Within one JVM, {@link FileLock}s on the same file overlap rather than wait, so all operations
+ * on a path are also serialized on a per-path monitor: threads queue, processes share.
+ */
+final class StoreLock {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoreLock.class);
+    private static final int LENGTH = Long.BYTES + Integer.BYTES + Long.BYTES * 2;
+    /** What earlier versions wrote: generation and next ID only. */
+    private static final int LEGACY_LENGTH = Long.BYTES + Integer.BYTES;
+    private static final ConcurrentHashMap<Path, Object> MONITORS = new ConcurrentHashMap<>();
+
+    private final Path path;
+    private final Object monitor;
+
+    StoreLock(Path file) {
+        this.path = pathFor(file).toAbsolutePath().normalize();
+        this.monitor = MONITORS.computeIfAbsent(path, p -> new Object());
+    }
+
+    static Path pathFor(Path file) {
+        return file.resolveSibling(file.getFileName() + ".lock");
+    }
+
+    /** What the lock file records; changes made by an exclusive action are written back. */
+    static final class State {
+        long generation;
+        int nextId;
+        // The task file as of the last persist; -1 if it did not exist or nothing was recorded.
+        long fileSize = -1;
+        long fileModified = -1;
+
+        /** Whether {@code file} is the one recorded, or is still absent as recorded. */
+        boolean describes(Path file) throws IOException {
+            if (!Files.exists(file)) return fileSize < 0;
+            return fileSize == Files.size(file) && fileModified == FileOps.modifiedNanos(file);
+        }
+
+        /** Records {@code file} as it is now. */
+        void describe(Path file) throws IOException {
+            boolean exists = Files.exists(file);
+            fileSize = exists ? Files.size(file) : -1;
+            fileModified = exists ? FileOps.modifiedNanos(file) : -1;
+        }
+
+        private State copy() {
+            State copy = new State();
+            copy.generation = generation;
+            copy.nextId = nextId;
+            copy.fileSize = fileSize;
+            copy.fileModified = fileModified;
+            return copy;
+        }
+
+        private boolean sameAs(State other) {
+            return generation == other.generation && nextId == other.nextId
+                    && fileSize == other.fileSize && fileModified == other.fileModified;
+        }
+    }
+
+    @FunctionalInterface
+    interface Action<T> {
+        T run(State state) throws IOException;
+    }
+
+    <T> T shared(Action<T> action) throws IOException {
+        return locked(true, action);
+    }
+
+    <T> T exclusive(Action<T> action) throws IOException {
+        return locked(false, action);
+    }
+
+    @SuppressWarnings("try") // the file lock is only held, never used
+    private <T> T locked(boolean shared, Action<T> action) throws IOException {
+        synchronized (monitor) {
+            FileChannel channel;
+            try {
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                // Typically a read-only directory: nothing can be written there, so nothing to race with.
+                logger.debug("Cannot open {}, continuing without a lock", path, e);
+                return action.run(new State());
+            }
+            try (channel; FileLock ignored = channel.lock(0, Long.MAX_VALUE, shared)) {
+                State state = read(channel);
+                State before = state.copy();
+                T result = action.run(state);
+                if (!shared && !state.sameAs(before)) write(channel, state);
+                return result;
+            }
+        }
+    }
+
+    private static State read(FileChannel channel) throws IOException {
+        State state = new State();
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH);
+        int n;
+        do n = channel.read(buffer, buffer.position()); while (n > 0 && buffer.hasRemaining());
+        if (buffer.position() >= LEGACY_LENGTH) {
+            state.generation = buffer.getLong(0);
+            state.nextId = buffer.getInt(Long.BYTES);
+        }
+        if (buffer.position() == LENGTH) {
+            state.fileSize = buffer.getLong(LEGACY_LENGTH);
+            state.fileModified = buffer.getLong(LEGACY_LENGTH + Long.BYTES);
+        }
+        return state;
+    }
+
+    private static void write(FileChannel channel, State state) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH).putLong(state.generation).putInt(state.nextId)
+                .putLong(state.fileSize).putLong(state.fileModified).flip();
+        while (buffer.hasRemaining()) channel.write(buffer, buffer.position());
+    }
+}
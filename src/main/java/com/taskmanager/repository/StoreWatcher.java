@@ -0,0 +1,242 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows a JSON task file as other processes change it and reports which tasks were added,
+ * changed or removed. Backs {@code task-cli watch}.
+ *
+ * {@link #take} blocks on a {@link WatchService} registered for the file's directory, so an idle
+ * watcher costs no CPU. Events for anything but the file and its delta segment (temp files,
+ * backups, sidecars, the lock file) are ignored, and one persist's burst of events is collapsed
+ * into a single reread.
+ *
+ * The tasks read from the file and the changes read from its segment are kept apart. A delta-mode
+ * persist only appends to the segment, so only the segment is reread and only the IDs it names are
+ * compared. A rewrite renames a new file over the old one; that is recognised by the file's
+ * identity, size and modification time, and only then is the file reparsed. Events that changed
+ * neither cost a few {@code stat} calls. With locking, both are read under the shared lock, so they
+ * are seen as one writer left them.
+ *
+ * Not thread-safe, except for {@link #close}, which ends a blocked {@link #take} from another
+ * thread.
+ */
+public final class StoreWatcher implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoreWatcher.class);
+    /** Quiet time after an event before rereading; a persist is a rename plus a segment rotation. */
+    private static final long SETTLE_MILLIS = 25;
+
+    /** What one reread found, each list in ID order; {@code changed} holds the new versions. */
+    public record Changes(List<Task> added, List<Task> changed, List<Task> removed) {
+        static final Changes NONE = new Changes(List.of(), List.of(), List.of());
+
+        public boolean isEmpty() {
+            return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    /** Identifies one version of a file: a rename brings a new file key, an append a new size. */
+    private record Stamp(Object key, long size, FileTime modified) {
+        static Stamp of(Path file) throws IOException {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                return new Stamp(attributes.fileKey(), attributes.size(), attributes.lastModifiedTime());
+            } catch (NoSuchFileException e) {
+                return null;
+            }
+        }
+    }
+
+    private final Path file;
+    private final Path segmentPath;
+    private final DeltaSegment segment;
+    private final StoreLock lock;
+    private final WatchService watchService;
+    // Tasks as read from the file, and the segment's changes on top of them (null value: deleted).
+    private Map<Integer, Task> base = Map.of();
+    private Map<Integer, Task> overlay = Map.of();
+    private Stamp baseStamp;
+    private Stamp overlayStamp;
+
+    /** Reads the file as it is now and starts watching it; {@code locking} as in {@link JsonFileTaskRepository.Options}. */
+    public StoreWatcher(Path file, boolean locking) {
+        this.file = JsonFileTaskRepository.validatePath(Objects.requireNonNull(file, "File path cannot be null"))
+                .toAbsolutePath().normalize();
+        this.segmentPath = DeltaSegment.pathFor(this.file);
+        this.segment = new DeltaSegment(this.file);
+        this.lock = locking ? new StoreLock(this.file) : null;
+        try {
+            read();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load tasks from file: " + this.file, e);
+        }
+        try {
+            watchService = this.file.getFileSystem().newWatchService();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to watch " + this.file, e);
+        }
+        try {
+            this.file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            close();
+            throw new RuntimeException("Failed to watch " + this.file, e);
+        }
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /** The tasks as of the last read, in ID order. */
+    public List<Task> tasks() {
+        List<Task> result = new ArrayList<>(base.size() + overlay.size());
+        for (Task task : base.values()) {
+            if (!overlay.containsKey(task.id())) result.add(task);
+        }
+        for (Task task : overlay.values()) {
+            if (task != null) result.add(task);
+        }
+        result.sort(Comparator.comparingInt(Task::id));
+        return result;
+    }
+
+    /**
+     * Blocks until the file or its segment changes in a way that adds, changes or removes a task,
+     * and returns how. Throws {@link ClosedWatchServiceException} once the watcher is closed.
+     */
+    public Changes take() throws InterruptedException {
+        while (true) {
+            boolean relevant = relevant(watchService.take());
+            WatchKey more;
+            while ((more = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                relevant |= relevant(more);
+            }
+            if (!relevant) continue;
+            Changes changes = refresh();
+            if (!changes.isEmpty()) return changes;
+        }
+    }
+
+    /**
+     * Rereads whatever changed since the last read, without waiting for an event. A file that
+     * cannot be read, e.g. one damaged by hand, is reported and the last tasks read are kept.
+     */
+    public Changes refresh() {
+        try {
+            return read();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to reread {}, keeping the tasks read before", file, e);
+            return Changes.NONE;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (watchService != null) watchService.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close watch service for {}", file, e);
+        }
+    }
+
+    private boolean relevant(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            relevant |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || event.context() instanceof Path name
+                    && (name.equals(file.getFileName()) || name.equals(segmentPath.getFileName()));
+        }
+        key.reset();
+        return relevant;
+    }
+
+    private Changes read() throws IOException {
+        return lock == null ? readUnlocked() : lock.shared(state -> readUnlocked());
+    }
+
+    private Changes readUnlocked() throws IOException {
+        Stamp fileStamp = Stamp.of(file);
+        Stamp segmentStamp = Stamp.of(segmentPath);
+        boolean rewritten = !Objects.equals(fileStamp, baseStamp);
+        if (!rewritten && Objects.equals(segmentStamp, overlayStamp)) return Changes.NONE;
+
+        Map<Integer, Task> newBase = base;
+        if (rewritten) {
+            Map<Integer, Task> loaded = new HashMap<>();
+            if (fileStamp != null) {
+                JsonFileTaskRepository.readAll(JsonFileTaskRepository.sharedMapper(), file, task -> loaded.put(task.id(), task));
+            }
+            newBase = loaded;
+        }
+        Map<Integer, Task> newOverlay = new HashMap<>();
+        segment.replay(task -> newOverlay.put(task.id(), task), id -> newOverlay.put(id, null));
+
+        Changes changes = diff(newBase, newOverlay, rewritten);
+        base = newBase;
+        overlay = newOverlay;
+        baseStamp = fileStamp;
+        overlayStamp = segmentStamp;
+        logger.debug("Reread {}{}: {} added, {} changed, {} removed", rewritten ? "" : "the segment of ", file,
+                changes.added().size(), changes.changed().size(), changes.removed().size());
+        return changes;
+    }
+
+    /** Compares the last read with a new one; when the file was not rewritten only segment IDs can differ. */
+    private Changes diff(Map<Integer, Task> newBase, Map<Integer, Task> newOverlay, boolean rewritten) {
+        Set<Integer> ids = new HashSet<>(overlay.keySet());
+        ids.addAll(newOverlay.keySet());
+        if (rewritten) {
+            ids.addAll(base.keySet());
+            ids.addAll(newBase.keySet());
+        }
+        List<Task> added = new ArrayList<>();
+        List<Task> changed = new ArrayList<>();
+        List<Task> removed = new ArrayList<>();
+        for (int id : ids) {
+            Task before = lookup(base, overlay, id);
+            Task after = lookup(newBase, newOverlay, id);
+            if (before == null) {
+                if (after != null) added.add(after);
+            } else if (after == null) {
+                removed.add(before);
+            } else if (!JsonFileTaskRepository.sameContent(before, after)) {
+                changed.add(after);
+            }
+        }
+        if (added.isEmpty() && changed.isEmpty() && removed.isEmpty()) return Changes.NONE;
+        Comparator<Task> byId = Comparator.comparingInt(Task::id);
+        added.sort(byId);
+        changed.sort(byId);
+        removed.sort(byId);
+        return new Changes(added, changed, removed);
+    }
+
+    private static Task lookup(Map<Integer, Task> base, Map<Integer, Task> overlay, int id) {
+        return overlay.containsKey(id) ? overlay.get(id) : base.get(id);
+    }
+}
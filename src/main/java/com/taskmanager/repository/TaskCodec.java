@@ -0,0 +1,299 @@
+package com.taskmanager.repository;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import com.taskmanager.model.Timestamps;
+import com.taskmanager.repository.JsonFileTaskRepository.TimestampFormat;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads and writes a {@link Task} as a JSON object field by field through the streaming API,
+ * in place of Jackson's reflective record binding and its Java time module.
+ *
+ * Timestamps are written in the requested {@link TimestampFormat}, and on read any of the three
+ * is accepted whatever was asked for: an array ({@code [2026,10,18,11,23,50,780431337]}, what
+ * every earlier version wrote), an ISO-8601 string, or a number of epoch nanoseconds (epoch
+ * milliseconds if too small to be nanoseconds since 1970-01-02). A file may mix them, e.g. a lazy
+ * rewrite copies untouched tasks across byte for byte.
+ *
+ * Public for {@code export} and {@code import}, which register {@link #module} in their own mapper
+ * so exchanged tasks are encoded exactly as stored ones.
+ */
+public final class TaskCodec {
+
+    /** Attribute on an {@code ObjectWriter} choosing the timestamp format; {@code ARRAY} if unset. */
+    public static final String TIMESTAMPS = TimestampFormat.class.getName();
+
+    // Below this, a number cannot be epoch nanoseconds of a real task (it would be 1970-01-02).
+    private static final long MIN_EPOCH_NANOS = 100_000_000_000_000L;
+
+    private TaskCodec() {
+    }
+
+    /** Routes every {@link Task} through this codec in a mapper, including tasks nested in other records. */
+    public static SimpleModule module() {
+        SimpleModule module = new SimpleModule("TaskCodec");
+        module.addSerializer(Task.class, new Serializer());
+        module.addDeserializer(Task.class, new Deserializer());
+        return module;
+    }
+
+    // ---------- Writing ----------
+
+    static void write(JsonGenerator gen, Task task, TimestampFormat timestamps) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("id", task.id());
+        gen.writeStringField("description", task.description());
+        gen.writeStringField("status", task.status().getJsonValue());
+        gen.writeFieldName("createdAt");
+        writeTimestamp(gen, task.createdAt(), timestamps);
+        gen.writeFieldName("updatedAt");
+        writeTimestamp(gen, task.updatedAt(), timestamps);
+        gen.writeEndObject();
+    }
+
+    private static void writeTimestamp(JsonGenerator gen, LocalDateTime time, TimestampFormat timestamps) throws IOException {
+        switch (timestamps) {
+            case ARRAY -> {
+                // Trailing zero seconds and nanoseconds are left off, as the Java time module does.
+                gen.writeStartArray();
+                gen.writeNumber(time.getYear());
+                gen.writeNumber(time.getMonthValue());
+                gen.writeNumber(time.getDayOfMonth());
+                gen.writeNumber(time.getHour());
+                gen.writeNumber(time.getMinute());
+                if (time.getSecond() > 0 || time.getNano() > 0) {
+                    gen.writeNumber(time.getSecond());
+                    if (time.getNano() > 0) gen.writeNumber(time.getNano());
+                }
+                gen.writeEndArray();
+            }
+            case ISO -> gen.writeString(formatIso(time));
+            // Outside 1677 to 2262 there is no epoch value; ISO reads back the same under any format.
+            case EPOCH -> {
+                if (Timestamps.representable(time)) gen.writeNumber(Timestamps.toEpochNanos(time));
+                else gen.writeString(formatIso(time));
+            }
+        }
+    }
+
+    /** {@code yyyy-MM-ddTHH:mm:ss} plus a 3, 6 or 9 digit fraction when non-zero, without a formatter. */
+    static String formatIso(LocalDateTime time) {
+        int year = time.getYear();
+        if (year < 0 || year > 9999) return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time);
+        char[] out = new char[29];
+        digits(out, 0, year, 4);
+        out[4] = '-';
+        digits(out, 5, time.getMonthValue(), 2);
+        out[7] = '-';
+        digits(out, 8, time.getDayOfMonth(), 2);
+        out[10] = 'T';
+        digits(out, 11, time.getHour(), 2);
+        out[13] = ':';
+        digits(out, 14, time.getMinute(), 2);
+        out[16] = ':';
+        digits(out, 17, time.getSecond(), 2);
+        int nano = time.getNano();
+        if (nano == 0) return new String(out, 0, 19);
+        out[19] = '.';
+        if (nano % 1_000_000 == 0) {
+            digits(out, 20, nano / 1_000_000, 3);
+            return new String(out, 0, 23);
+        }
+        if (nano % 1000 == 0) {
+            digits(out, 20, nano / 1000, 6);
+            return new String(out, 0, 26);
+        }
+        digits(out, 20, nano, 9);
+        return new String(out);
+    }
+
+    private static void digits(char[] out, int at, int value, int width) {
+        for (int i = at + width - 1; i >= at; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    // ---------- Reading ----------
+
+    /**
+     * Reads the task object the parser is positioned at ({@code START_OBJECT}), leaving it on the
+     * matching {@code END_OBJECT}. Unknown fields and invalid values fail with the parser location.
+     */
+    static Task read(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw JsonMappingException.from(parser, "Expected a task object but found " + parser.currentToken());
+        }
+        int id = 0;
+        String description = null;
+        TaskStatus status = null;
+        LocalDateTime createdAt = null;
+        LocalDateTime updatedAt = null;
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (field) {
+                case "id" -> id = parser.currentToken() == JsonToken.VALUE_NULL ? 0 : parser.getIntValue();
+                case "description" -> description = text(parser);
+                case "status" -> {
+                    String value = text(parser);
+                    status = value == null ? null : status(parser, value);
+                }
+                case "createdAt" -> createdAt = readTimestamp(parser);
+                case "updatedAt" -> updatedAt = readTimestamp(parser);
+                default -> throw JsonMappingException.from(parser, "Unknown task field '" + field + "'");
+            }
+        }
+        if (parser.currentToken() != JsonToken.END_OBJECT) {
+            throw JsonMappingException.from(parser, "Expected a task field but found " + parser.currentToken());
+        }
+        try {
+            return new Task(id, description, status, createdAt, updatedAt);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw JsonMappingException.from(parser, "Invalid task " + id + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String text(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (!token.isScalarValue()) throw JsonMappingException.from(parser, "Expected a string but found " + token);
+        return token == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+
+    private static TaskStatus status(JsonParser parser, String value) throws IOException {
+        try {
+            return TaskStatus.fromJsonValue(value);
+        } catch (IllegalArgumentException e) {
+            throw JsonMappingException.from(parser, e.getMessage(), e);
+        }
+    }
+
+    private static LocalDateTime readTimestamp(JsonParser parser) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_NULL -> null;
+            case START_ARRAY -> readArray(parser);
+            case VALUE_STRING -> {
+                try {
+                    yield parseIso(parser.getText());
+                } catch (DateTimeParseException e) {
+                    throw JsonMappingException.from(parser, "Invalid timestamp: " + e.getMessage(), e);
+                }
+            }
+            case VALUE_NUMBER_INT -> {
+                long value = parser.getLongValue();
+                if (Math.abs(value) >= MIN_EPOCH_NANOS) yield Timestamps.fromEpochNanos(value);
+                try {
+                    yield LocalDateTime.ofEpochSecond(Math.floorDiv(value, 1000), Math.floorMod(value, 1000) * 1_000_000, ZoneOffset.UTC);
+                } catch (DateTimeException e) {
+                    throw JsonMappingException.from(parser, "Invalid timestamp: " + e.getMessage(), e);
+                }
+            }
+            default -> throw JsonMappingException.from(parser, "Expected a timestamp but found " + parser.currentToken());
+        };
+    }
+
+    /** {@code [year, month, day, hour, minute(, second(, nano))]}. */
+    private static LocalDateTime readArray(JsonParser parser) throws IOException {
+        int[] parts = new int[7];
+        int n = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.VALUE_NUMBER_INT && n < parts.length) {
+            parts[n++] = parser.getIntValue();
+        }
+        if (token != JsonToken.END_ARRAY || n < 5) {
+            throw JsonMappingException.from(parser, "Expected a timestamp array of 5 to 7 numbers");
+        }
+        try {
+            return LocalDateTime.of(parts[0], parts[1], parts[2], parts[3], parts[4], parts[5], parts[6]);
+        } catch (DateTimeException e) {
+            throw JsonMappingException.from(parser, "Invalid timestamp: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parses the common {@code yyyy-MM-ddTHH:mm:ss(.fraction)} layout by hand; anything else,
+     * such as a missing seconds field, goes to {@link LocalDateTime#parse}.
+     */
+    static LocalDateTime parseIso(String text) {
+        int length = text.length();
+        if (length >= 19 && text.charAt(4) == '-' && text.charAt(7) == '-' && text.charAt(10) == 'T'
+                && text.charAt(13) == ':' && text.charAt(16) == ':' && (length == 19 || text.charAt(19) == '.')) {
+            int year = number(text, 0, 4);
+            int month = number(text, 5, 2);
+            int day = number(text, 8, 2);
+            int hour = number(text, 11, 2);
+            int minute = number(text, 14, 2);
+            int second = number(text, 17, 2);
+            int digits = length - 20;
+            int nano = 0;
+            if (digits > 0 && digits <= 9) {
+                nano = number(text, 20, digits);
+                for (int i = digits; i < 9; i++) nano *= 10;
+            }
+            if ((year | month | day | hour | minute | second | nano) >= 0 && digits != 0 && digits <= 9) {
+                try {
+                    return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+                } catch (DateTimeException e) {
+                    throw new DateTimeParseException(e.getMessage(), text, 0, e);
+                }
+            }
+        }
+        return LocalDateTime.parse(text);
+    }
+
+    /** The decimal number in {@code text[from, from + width)}, or -1 if any character is not a digit. */
+    private static int number(String text, int from, int width) {
+        int value = 0;
+        for (int i = from; i < from + width; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // ---------- Jackson bindings ----------
+
+    private static final class Serializer extends StdSerializer<Task> {
+        private static final long serialVersionUID = 1L;
+
+        Serializer() {
+            super(Task.class);
+        }
+
+        @Override
+        public void serialize(Task task, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            Object timestamps = provider.getAttribute(TIMESTAMPS);
+            write(gen, task, timestamps instanceof TimestampFormat format ? format : TimestampFormat.ARRAY);
+        }
+    }
+
+    private static final class Deserializer extends StdDeserializer<Task> {
+        private static final long serialVersionUID = 1L;
+
+        Deserializer() {
+            super(Task.class);
+        }
+
+        @Override
+        public Task deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            return read(parser);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.taskmanager.repository;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.taskmanager.model.TaskStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Maps task IDs to the byte range of their JSON object inside a tasks file, so single tasks can
+ * be read without parsing the rest. Entries are held in ID order in parallel primitive arrays,
+ * together with each task's status so status queries know which tasks to read.
+ *
+ * An entry is "live" until the repository takes ownership of that task (materializes, replaces
+ * or deletes it), after which the file bytes are no longer authoritative for that ID.
+ *
+ * The index is cached in a sidecar file stamped with the tasks file's size and modification
+ * time; a stamp mismatch means the file changed underneath and the index is rebuilt by a
+ * token-level scan that never binds a {@code Task}.
+ */
+final class TaskOffsetIndex {
+
+    private static final int MAGIC = 0x5444_5833; // "TDX3"
+    private static final int ENTRY_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES + Byte.BYTES;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final Logger logger = LoggerFactory.getLogger(TaskOffsetIndex.class);
+
+    private final int[] ids;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final byte[] statuses;
+    private final int size;
+    private final BitSet detached;
+    private final int[] liveByStatus = new int[STATUSES.length];
+    private int detachedCount;
+
+    private TaskOffsetIndex(int[] ids, long[] offsets, int[] lengths, byte[] statuses, int size) {
+        this.ids = ids;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.statuses = statuses;
+        this.size = size;
+        this.detached = new BitSet(size);
+        for (int i = 0; i < size; i++) liveByStatus[statuses[i]]++;
+    }
+
+    // ---------- Lookup ----------
+
+    /** Position of {@code id}, or a negative value if the file does not contain it. */
+    int find(int id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int idAt(int pos) {
+        return ids[pos];
+    }
+
+    boolean isLive(int pos) {
+        return !detached.get(pos);
+    }
+
+    void detach(int pos) {
+        if (!detached.get(pos)) {
+            detached.set(pos);
+            detachedCount++;
+            liveByStatus[statuses[pos]]--;
+        }
+    }
+
+    int liveCount() {
+        return size - detachedCount;
+    }
+
+    int liveCount(TaskStatus status) {
+        return liveByStatus[status.ordinal()];
+    }
+
+    TaskStatus statusAt(int pos) {
+        return STATUSES[statuses[pos]];
+    }
+
+    int maxId() {
+        return size == 0 ? 0 : ids[size - 1];
+    }
+
+    long offsetAt(int pos) {
+        return offsets[pos];
+    }
+
+    int lengthAt(int pos) {
+        return lengths[pos];
+    }
+
+    /** Reads the raw JSON object bytes of the entry at {@code pos}. */
+    byte[] read(FileChannel channel, int pos) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(lengths[pos]);
+        long position = offsets[pos];
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + buffer.position());
+            if (n < 0) throw new IOException("Tasks file ended inside task " + ids[pos]);
+        }
+        return buffer.array();
+    }
+
+    // ---------- Building ----------
+
+    /** Accumulates entries in ID order, e.g. while a tasks file is being written. */
+    static final class Builder {
+        private int[] ids = new int[1024];
+        private long[] offsets = new long[1024];
+        private int[] lengths = new int[1024];
+        private byte[] statuses = new byte[1024];
+        private int size;
+
+        /** Returns false if {@code id} does not extend the ascending ID order. */
+        boolean add(int id, long offset, int length, TaskStatus status) {
+            if (size > 0 && id <= ids[size - 1]) return false;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+                statuses = Arrays.copyOf(statuses, size * 2);
+            }
+            ids[size] = id;
+            offsets[size] = offset;
+            lengths[size] = length;
+            statuses[size] = (byte) status.ordinal();
+            size++;
+            return true;
+        }
+
+        TaskOffsetIndex build() {
+            return new TaskOffsetIndex(ids, offsets, lengths, statuses, size);
+        }
+    }
+
+    /**
+     * Builds the index by tokenizing {@code file}, read from the start of {@code channel}, which is
+     * left open: only each object's {@code id} and {@code status} are decoded.
+     * Returns null if the IDs are not strictly ascending (e.g. a hand-edited file), in which
+     * case byte ranges cannot be binary-searched and the caller should load eagerly.
+     */
+    static TaskOffsetIndex scan(FileChannel channel, Path file, JsonFactory factory) throws IOException {
+        Builder builder = new Builder();
+        try (JsonParser parser = factory.createParser(Channels.newInputStream(channel.position(0)))
+                .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) return builder.build();
+            if (token != JsonToken.START_ARRAY) throw new IOException("Expected a JSON array of tasks in " + file);
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                long start = parser.currentTokenLocation().getByteOffset();
+                int id = -1;
+                TaskStatus status = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "id" -> id = parser.getIntValue();
+                        case "status" -> status = TaskStatus.fromJsonValue(parser.getText());
+                        default -> parser.skipChildren();
+                    }
+                }
+                long end = parser.currentLocation().getByteOffset();
+                if (id <= 0 || status == null) {
+                    throw new IOException("Task without a valid id or status at byte " + start + " of " + file);
+                }
+                if (!builder.add(id, start, Math.toIntExact(end - start), status)) return null;
+            }
+            if (token != JsonToken.END_ARRAY) throw new IOException("Malformed tasks array in " + file);
+        }
+        return builder.build();
+    }
+
+    // ---------- Sidecar ----------
+
+    /** Loads the sidecar if its stamp still matches {@code file}; otherwise returns null. */
+    static TaskOffsetIndex loadSidecar(Path sidecar, Path file) {
+        if (!Files.exists(sidecar)) return null;
+        try {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(sidecar));
+            if (in.getInt() != MAGIC) return null;
+            if (in.getLong() != Files.size(file) || in.getLong() != FileOps.modifiedNanos(file)) {
+                return null;
+            }
+            int size = in.getInt();
+            if (in.remaining() != (long) size * ENTRY_BYTES) return null;
+            int[] ids = new int[size];
+            long[] offsets = new long[size];
+            int[] lengths = new int[size];
+            byte[] statuses = new byte[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = in.getInt();
+                offsets[i] = in.getLong();
+                lengths[i] = in.getInt();
+                statuses[i] = in.get();
+                if (statuses[i] < 0 || statuses[i] >= STATUSES.length) return null;
+            }
+            return new TaskOffsetIndex(ids, offsets, lengths, statuses, size);
+        } catch (IOException | BufferUnderflowException e) {
+            logger.warn("Ignoring unreadable index sidecar {}", sidecar, e);
+            return null;
+        }
+    }
+
+    /** Writes every entry, live or not, stamped with the current size and mtime of {@code file}. */
+    void writeSidecar(Path sidecar, Path file) throws IOException {
+        Path tmp = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(Files.size(file));
+            out.writeLong(FileOps.modifiedNanos(file));
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeInt(ids[i]);
+                out.writeLong(offsets[i]);
+                out.writeInt(lengths[i]);
+                out.writeByte(statuses[i]);
+            }
+        }
+        FileOps.moveReplacing(tmp, sidecar);
+    }
+}
@@ -3,26 +3,134 @@ package com.taskmanager.repository;
 import com.taskmanager.model.Task;
 import com.taskmanager.model.TaskStatus;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 public interface TaskRepository {
 
     /** Inserts or replaces a task. Returns the task as stored. */
     Task save(Task task);
 
+    /** Inserts or replaces each task, in iteration order. Returns the tasks as stored. */
+    default List<Task> saveAll(Collection<Task> tasks) {
+        List<Task> saved = new ArrayList<>(tasks.size());
+        for (Task task : tasks) saved.add(save(task));
+        return saved;
+    }
+
     Optional<Task> findById(int id);
 
+    /**
+     * Replaces the task with {@code updater}'s result if it exists. Returns the stored result,
+     * or empty if there is no such task. Thread-safe implementations apply this atomically;
+     * the default is a plain read-then-save.
+     */
+    default Optional<Task> update(int id, UnaryOperator<Task> updater) {
+        return findById(id).map(updater).map(this::save);
+    }
+
     List<Task> findAll();
 
+    /** Tasks with the given status, in ID order. */
     List<Task> findByStatus(TaskStatus status);
 
+    /**
+     * Tasks with an ID greater than {@code afterId}, in ID order. Implementations with an ordered
+     * index produce them lazily without copying the store, so a consumer that stops early (a page,
+     * {@code list | head}) pays only for what it reads. The repository must not be modified until
+     * the stream is consumed or closed.
+     */
+    default Stream<Task> streamAfter(int afterId) {
+        return findAll().stream().filter(t -> t.id() > afterId).sorted(Comparator.comparingInt(Task::id));
+    }
+
+    /** As {@link #streamAfter(int)}, restricted to tasks with the given status. */
+    default Stream<Task> streamAfter(int afterId, TaskStatus status) {
+        return findByStatus(status).stream().filter(t -> t.id() > afterId);
+    }
+
+    /** Number of tasks with the given status. Indexed implementations answer without a scan. */
+    default int countByStatus(TaskStatus status) {
+        return findByStatus(status).size();
+    }
+
+    /**
+     * Tasks whose description contains every word of {@code query}, in ID order. Words are runs of
+     * letters and digits, compared case-insensitively; a query without any matches nothing. The
+     * default scans the store; {@link IndexedTaskRepository} answers from an inverted index.
+     */
+    default Stream<Task> search(String query) {
+        List<String> tokens = InvertedIndex.tokenize(query);
+        if (tokens.isEmpty()) return Stream.empty();
+        return streamAfter(0).filter(t -> InvertedIndex.matches(t.description(), tokens));
+    }
+
+    /**
+     * Tasks created at or after {@code from} and before {@code to}, oldest first, ties in ID order;
+     * a null bound is open. The default scans the store; {@link IndexedTaskRepository} answers from
+     * a sorted index in O(log n + k).
+     */
+    default Stream<Task> createdBetween(LocalDateTime from, LocalDateTime to) {
+        return streamAfter(0)
+                .filter(t -> TimeIndex.within(t.createdAt(), from, to))
+                .sorted(Comparator.comparing(Task::createdAt));
+    }
+
+    /** As {@link #createdBetween}, by {@link Task#updatedAt()}. */
+    default Stream<Task> updatedBetween(LocalDateTime from, LocalDateTime to) {
+        return streamAfter(0)
+                .filter(t -> TimeIndex.within(t.updatedAt(), from, to))
+                .sorted(Comparator.comparing(Task::updatedAt));
+    }
+
     /** Removes the task with the given ID. Returns the removed task, or empty if not found. */
     Optional<Task> delete(int id);
 
+    /** Removes every task with one of the given IDs. Returns the removed tasks; absent IDs are skipped. */
+    default List<Task> deleteAll(Collection<Integer> ids) {
+        List<Task> removed = new ArrayList<>(ids.size());
+        for (int id : ids) delete(id).ifPresent(removed::add);
+        return removed;
+    }
+
     /** Returns the next available ID and advances the sequence. */
     int nextId();
 
+    /**
+     * Reserves {@code count} (positive) consecutive IDs in one step and returns the first.
+     * Implementations whose {@link #nextId()} is not a plain counter increment must override this.
+     */
+    default int reserveIds(int count) {
+        int first = nextId();
+        for (int i = 1; i < count; i++) nextId();
+        return first;
+    }
+
+    /**
+     * Gives back the IDs from {@code first} up to {@code next}, reserved by a change that was
+     * undone, provided {@code next} is still the next ID, i.e. none was handed out since. Returns
+     * whether they were given back; the default never does, leaving a gap in the sequence.
+     */
+    default boolean releaseIds(int first, int next) {
+        return false;
+    }
+
+    /**
+     * Changes whenever the store replaces its tasks other than through the methods here, such as
+     * reloading what another process wrote. A decorator that derives state from the tasks (an
+     * index) compares it with the value it saw last and drops that state when it moved. The
+     * default never changes.
+     */
+    default long reloads() {
+        return 0;
+    }
+
     /** Flushes in-memory state to backing storage. No-op for in-memory implementations. */
     void persist();
 
@@ -0,0 +1,145 @@
+package com.taskmanager.repository;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds the {@link TaskRepository} selected by configuration. Every setting is read from a
+ * system property first and an environment variable second, mirroring how {@code tasks.file}
+ * has always been resolved.
+ *
+ * <ul>
+ *   <li>{@code tasks.backend} / {@code TASKS_BACKEND}: {@code json} (default), {@code wal}, {@code mmap} or
+ *       {@code columnar}</li>
+ *   <li>{@code tasks.file} / {@code TASKS_FILE}: store location, validated against traversal</li>
+ *   <li>{@code tasks.format} / {@code TASKS_FORMAT}: JSON layout, see {@link JsonFileTaskRepository.Options}</li>
+ *   <li>{@code tasks.offheap} / {@code TASKS_OFFHEAP}: {@code true} keeps columnar descriptions off the Java heap</li>
+ *   <li>{@code tasks.flush} / {@code TASKS_FLUSH}: when changes are written, see {@link FlushPolicy#parse};
+ *       with {@code interval:N} the store is fronted by a {@link ConcurrentTaskRepository}</li>
+ *   <li>{@code tasks.index} / {@code TASKS_INDEX}: search and time-range indexes, see {@link IndexedTaskRepository}:
+ *       {@code memory} (default), {@code file} (also saved to {@code <store>.search} and
+ *       {@code <store>.times}) or {@code off}</li>
+ * </ul>
+ */
+public final class TaskRepositoryFactory {
+
+    static final String DEFAULT_JSON_FILE = "tasks.json";
+    static final String DEFAULT_WAL_FILE = "tasks.wal";
+    static final String DEFAULT_MAPPED_FILE = "tasks.db";
+
+    private TaskRepositoryFactory() {}
+
+    public static TaskRepository fromConfig() {
+        return fromConfig(false);
+    }
+
+    /**
+     * As {@link #fromConfig()}; {@code longRunning} says the process will serve many commands, so
+     * indexes are worth building on first use even without a sidecar to save them to.
+     */
+    public static TaskRepository fromConfig(boolean longRunning) {
+        Path path = storePath();
+        TaskRepository store = switch (Backend.fromConfig()) {
+            case JSON -> new JsonFileTaskRepository(path, JsonFileTaskRepository.Options.fromConfig());
+            case WAL -> new WalTaskRepository(path);
+            case MMAP -> new MappedFileTaskRepository(path);
+            case COLUMNAR -> columnar(path);
+        };
+        FlushPolicy flushPolicy = FlushPolicy.fromConfig();
+        // The interval timer persists from its own thread while the caller keeps using the store.
+        if (flushPolicy.mode() == FlushPolicy.Mode.INTERVAL) store = new ConcurrentTaskRepository(store);
+        store = withSearchIndex(store, path, longRunning);
+        return flushPolicy.mode() == FlushPolicy.Mode.IMMEDIATE
+                ? store
+                : new GroupCommitTaskRepository(store, flushPolicy);
+    }
+
+    /**
+     * Watches the configured store for changes made by other processes. Only the {@code json} and
+     * {@code columnar} backends keep a JSON task file to watch.
+     */
+    public static StoreWatcher watcher() {
+        Backend backend = Backend.fromConfig();
+        if (backend != Backend.JSON && backend != Backend.COLUMNAR) {
+            throw new IllegalArgumentException("Watching needs a JSON task file; the "
+                    + backend.name().toLowerCase(Locale.ROOT) + " backend does not keep one");
+        }
+        return new StoreWatcher(storePath(), JsonFileTaskRepository.Options.fromConfig().locking());
+    }
+
+    /** Main file of the configured store, e.g. to derive per-store paths from. */
+    public static Path storePath() {
+        return resolvePath(Backend.fromConfig().defaultFile);
+    }
+
+    /**
+     * The columnar store always writes the whole file compactly from one process, so JSON settings
+     * asking for anything else are refused rather than silently ignored.
+     */
+    private static ColumnarTaskRepository columnar(Path path) {
+        JsonFileTaskRepository.Options json = JsonFileTaskRepository.Options.fromConfig();
+        List<String> unsupported = new ArrayList<>();
+        if (json.prettyPrint()) unsupported.add("tasks.format=pretty");
+        if (json.timestamps() != JsonFileTaskRepository.TimestampFormat.ARRAY) {
+            unsupported.add("tasks.timestamps=" + json.timestamps().name().toLowerCase(Locale.ROOT));
+        }
+        if (json.lazy()) unsupported.add("tasks.lazy");
+        if (json.deltas()) unsupported.add("tasks.deltas");
+        if (json.durable()) unsupported.add("tasks.durable");
+        if (json.cache()) unsupported.add("tasks.cache");
+        // Locking is on by default for the JSON store, so only an explicit request is refused.
+        if (Boolean.parseBoolean(setting("tasks.locking", "TASKS_LOCKING"))) unsupported.add("tasks.locking");
+        if (!unsupported.isEmpty()) {
+            throw new IllegalArgumentException("The columnar backend writes compact JSON from a single process"
+                    + " and does not support " + String.join(", ", unsupported));
+        }
+        return new ColumnarTaskRepository(path, Boolean.parseBoolean(setting("tasks.offheap", "TASKS_OFFHEAP")));
+    }
+
+    private static TaskRepository withSearchIndex(TaskRepository store, Path path, boolean longRunning) {
+        String mode = setting("tasks.index", "TASKS_INDEX");
+        return switch (mode == null ? "memory" : mode.toLowerCase(Locale.ROOT)) {
+            case "memory" -> new IndexedTaskRepository(store, longRunning);
+            case "file" -> new IndexedTaskRepository(store, path, path.resolveSibling(path.getFileName() + ".search"));
+            case "off" -> store;
+            default -> throw new IllegalArgumentException("Unknown search index mode: " + mode);
+        };
+    }
+
+    private enum Backend {
+        JSON(DEFAULT_JSON_FILE), WAL(DEFAULT_WAL_FILE), MMAP(DEFAULT_MAPPED_FILE), COLUMNAR(DEFAULT_JSON_FILE);
+
+        final String defaultFile;
+
+        Backend(String defaultFile) {
+            this.defaultFile = defaultFile;
+        }
+
+        static Backend fromConfig() {
+            String backend = setting("tasks.backend", "TASKS_BACKEND");
+            if (backend == null) return JSON;
+            try {
+                return valueOf(backend.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown tasks backend: " + backend);
+            }
+        }
+    }
+
+    /** Returns the system property if set, else the environment variable, else {@code null}. */
+    public static String setting(String property, String envVar) {
+        String prop = System.getProperty(property);
+        if (prop != null && !prop.isBlank()) return prop;
+        String env = System.getenv(envVar);
+        if (env != null && !env.isBlank()) return env;
+        return null;
+    }
+
+    static Path resolvePath(String defaultFile) {
+        String configured = setting("tasks.file", "TASKS_FILE");
+        if (configured != null) return JsonFileTaskRepository.validatePath(Path.of(configured));
+        return Path.of(defaultFile);
+    }
+}
@@ -0,0 +1,136 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The in-memory task map shared by the map-backed repositories, together with the secondary
+ * indexes that must change whenever it does. Keeping them behind one {@code put}/{@code remove}
+ * means no repository can update the map and forget an index.
+ *
+ * Tasks are held in an {@link IntTaskMap}, so lookups don't box and {@link #values()} iterates
+ * in ID order. Status index: one ID-ordered set per {@link TaskStatus}, so status queries cost
+ * time proportional to the number of matching tasks rather than the size of the store.
+ */
+final class TaskTable {
+
+    private final IntTaskMap tasks = new IntTaskMap();
+    private final EnumMap<TaskStatus, NavigableSet<Integer>> byStatus = new EnumMap<>(TaskStatus.class);
+
+    TaskTable() {
+        for (TaskStatus status : TaskStatus.values()) byStatus.put(status, new TreeSet<>());
+    }
+
+    /** Inserts or replaces a task. Returns the previous version, or null. */
+    Task put(Task task) {
+        Task previous = tasks.put(task);
+        if (previous != null && previous.status() != task.status()) byStatus.get(previous.status()).remove(task.id());
+        byStatus.get(task.status()).add(task.id());
+        return previous;
+    }
+
+    /** Removes and returns the task, or null if absent. */
+    Task remove(int id) {
+        Task removed = tasks.remove(id);
+        if (removed != null) byStatus.get(removed.status()).remove(id);
+        return removed;
+    }
+
+    Task get(int id) {
+        return tasks.get(id);
+    }
+
+    boolean contains(int id) {
+        return tasks.containsKey(id);
+    }
+
+    int size() {
+        return tasks.size();
+    }
+
+    /** Live, unmodifiable view in ID order. */
+    Collection<Task> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Task> iterator() {
+                return tasks.iterator();
+            }
+
+            @Override
+            public int size() {
+                return tasks.size();
+            }
+        };
+    }
+
+    /** Tasks with the given status, in ID order. */
+    List<Task> byStatus(TaskStatus status) {
+        NavigableSet<Integer> ids = byStatus.get(status);
+        List<Task> result = new ArrayList<>(ids.size());
+        for (int id : ids) result.add(tasks.get(id));
+        return result;
+    }
+
+    /** Tasks with an ID above {@code afterId}, ascending, read lazily. */
+    Stream<Task> streamAfter(int afterId) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(tasks.iteratorAfter(afterId),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /** Tasks with the given status and an ID above {@code afterId}, ascending, read lazily. */
+    Stream<Task> streamAfter(int afterId, TaskStatus status) {
+        return idStream(byStatus.get(status).tailSet(afterId, false).iterator());
+    }
+
+    private Stream<Task> idStream(Iterator<Integer> ids) {
+        Spliterator<Integer> spliterator = Spliterators.spliteratorUnknownSize(
+                ids, Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).map(tasks::get);
+    }
+
+    /**
+     * Merges strictly ascending iterators (such as the per-status ID sets) into one strictly
+     * ascending iterator, without copying. An ID present in several sources is returned once.
+     */
+    static Iterator<Integer> mergeAscending(List<Iterator<Integer>> sources) {
+        PriorityQueue<Map.Entry<Integer, Iterator<Integer>>> heads =
+                new PriorityQueue<>(Math.max(1, sources.size()), Map.Entry.comparingByKey());
+        for (Iterator<Integer> source : sources) {
+            if (source.hasNext()) heads.add(Map.entry(source.next(), source));
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public Integer next() {
+                Integer id = advance();
+                while (!heads.isEmpty() && heads.peek().getKey().equals(id)) advance();
+                return id;
+            }
+
+            private Integer advance() {
+                Map.Entry<Integer, Iterator<Integer>> head = heads.poll();
+                if (head == null) throw new NoSuchElementException();
+                Iterator<Integer> source = head.getValue();
+                if (source.hasNext()) heads.add(Map.entry(source.next(), source));
+                return head.getKey();
+            }
+        };
+    }
+
+    int countByStatus(TaskStatus status) {
+        return byStatus.get(status).size();
+    }
+
+    void clear() {
+        tasks.clear();
+        byStatus.values().forEach(Set::clear);
+    }
+}
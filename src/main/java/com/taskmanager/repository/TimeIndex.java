@@ -0,0 +1,184 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Tasks ordered by one of their timestamps, answering range queries in O(log n + k).
+ *
+ * Built with one pass and one sort into an array: timestamps mostly follow IDs, so the sort is
+ * close to linear, several times faster than filling a tree. Later changes go into a small tree
+ * beside the array instead of shifting it. Nothing is removed from the array: a changed or deleted
+ * task leaves its old entry behind, and a lookup skips any entry whose task no longer has that time.
+ * The owner rebuilds once the tree and the stale entries together outgrow a quarter of the array
+ * ({@link #needsRebuild}).
+ *
+ * {@link #writeTo} saves the array and the tree merged, stale entries included, so a loaded index
+ * answers exactly as the saved one did and still knows when it is due a rebuild.
+ *
+ * Not thread-safe; {@link IndexedTaskRepository} guards it with its own lock.
+ */
+final class TimeIndex {
+
+    private static final int MIN_REBUILD = 1024;
+    private static final int MAGIC = 0x54494458; // "TIDX"
+    private static final int VERSION = 1;
+    /** Epoch second, nanosecond and ID. */
+    private static final int ENTRY_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    /** One task at one time; ordered by time, then ID. */
+    record Entry(LocalDateTime time, int id) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            int c = time.compareTo(other.time);
+            return c != 0 ? c : Integer.compare(id, other.id);
+        }
+    }
+
+    private final Function<Task, LocalDateTime> field;
+    private final Entry[] sorted;
+    private final NavigableSet<Entry> recent = new TreeSet<>();
+    private int stale;
+
+    TimeIndex(Function<Task, LocalDateTime> field, Stream<Task> tasks) {
+        this.field = field;
+        List<Entry> entries = new ArrayList<>();
+        tasks.forEach(task -> entries.add(new Entry(field.apply(task), task.id())));
+        sorted = entries.toArray(new Entry[0]);
+        Arrays.sort(sorted);
+    }
+
+    private TimeIndex(Function<Task, LocalDateTime> field, Entry[] sorted, int stale) {
+        this.field = field;
+        this.sorted = sorted;
+        this.stale = stale;
+    }
+
+    /** Records that {@code previous} became {@code current}; either is null for an insert or delete. */
+    void update(Task previous, Task current) {
+        LocalDateTime before = previous == null ? null : field.apply(previous);
+        LocalDateTime after = current == null ? null : field.apply(current);
+        if (Objects.equals(before, after)) return;
+        if (before != null && !recent.remove(new Entry(before, previous.id()))) stale++;
+        if (after != null) {
+            Entry entry = new Entry(after, current.id());
+            // Already in the array if the task went back to an earlier time, e.g. an import.
+            if (Arrays.binarySearch(sorted, entry) < 0) recent.add(entry);
+            else stale = Math.max(0, stale - 1);
+        }
+    }
+
+    boolean needsRebuild() {
+        return recent.size() + stale > Math.max(MIN_REBUILD, sorted.length / 4);
+    }
+
+    /**
+     * Tasks whose time is at or after {@code from} and before {@code to}, in time order then ID
+     * order. A null bound is open. {@code lookup} returns the current task for an ID, or null.
+     */
+    List<Task> between(LocalDateTime from, LocalDateTime to, IntFunction<Task> lookup) {
+        if (from != null && to != null && !from.isBefore(to)) return List.of();
+        Entry low = from == null ? null : new Entry(from, Integer.MIN_VALUE);
+        Entry high = to == null ? null : new Entry(to, Integer.MIN_VALUE);
+        int start = low == null ? 0 : lowerBound(low);
+        int end = high == null ? sorted.length : lowerBound(high);
+        NavigableSet<Entry> tail = low == null ? recent : recent.tailSet(low, true);
+        Iterator<Entry> changed = (high == null ? tail : tail.headSet(high, false)).iterator();
+
+        List<Task> result = new ArrayList<>();
+        Entry next = changed.hasNext() ? changed.next() : null;
+        int i = start;
+        while (i < end || next != null) {
+            Entry entry;
+            if (next == null || (i < end && sorted[i].compareTo(next) < 0)) {
+                entry = sorted[i++];
+            } else {
+                entry = next;
+                next = changed.hasNext() ? changed.next() : null;
+            }
+            Task task = lookup.apply(entry.id());
+            if (task != null && field.apply(task).equals(entry.time())) result.add(task);
+        }
+        return result;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(stale);
+        out.writeInt(sorted.length + recent.size());
+        // One bulk write, as in InvertedIndex: DataOutputStream per field is several times slower.
+        ByteBuffer bytes = ByteBuffer.allocate((sorted.length + recent.size()) * ENTRY_BYTES);
+        Iterator<Entry> changed = recent.iterator();
+        Entry next = changed.hasNext() ? changed.next() : null;
+        int i = 0;
+        while (i < sorted.length || next != null) {
+            Entry entry;
+            if (next == null || (i < sorted.length && sorted[i].compareTo(next) < 0)) {
+                entry = sorted[i++];
+            } else {
+                entry = next;
+                next = changed.hasNext() ? changed.next() : null;
+            }
+            bytes.putLong(entry.time().toEpochSecond(ZoneOffset.UTC)).putInt(entry.time().getNano()).putInt(entry.id());
+        }
+        out.write(bytes.array());
+    }
+
+    /**
+     * Reads what {@link #writeTo} wrote, from a file of {@code length} bytes, as an index on
+     * {@code field}. Counts and order are checked, so a damaged file fails with an
+     * {@link IOException} instead of a huge array or wrong answers.
+     */
+    static TimeIndex readFrom(DataInputStream in, long length, Function<Task, LocalDateTime> field) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) throw new IOException("Not a task time index");
+        int stale = in.readInt();
+        int count = in.readInt();
+        if (count < 0 || count > length / ENTRY_BYTES) throw new IOException("Bad entry count " + count);
+        if (stale < 0 || stale > count) throw new IOException("Bad stale count " + stale);
+        byte[] bytes = new byte[count * ENTRY_BYTES];
+        in.readFully(bytes);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        Entry[] sorted = new Entry[count];
+        for (int i = 0; i < count; i++) {
+            long seconds = buffer.getLong();
+            int nanos = buffer.getInt();
+            if (nanos < 0 || nanos > 999_999_999) throw new IOException("Bad nanosecond " + nanos);
+            sorted[i] = new Entry(LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC), buffer.getInt());
+            if (i > 0 && sorted[i].compareTo(sorted[i - 1]) <= 0) throw new IOException("Unsorted time index");
+        }
+        return new TimeIndex(field, sorted, stale);
+    }
+
+    /** Whether {@code time} falls in {@code [from, to)}, with null bounds open. */
+    static boolean within(LocalDateTime time, LocalDateTime from, LocalDateTime to) {
+        return (from == null || !time.isBefore(from)) && (to == null || time.isBefore(to));
+    }
+
+    /** First position in the array whose entry is not less than {@code key}. */
+    private int lowerBound(Entry key) {
+        int low = 0, high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].compareTo(key) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
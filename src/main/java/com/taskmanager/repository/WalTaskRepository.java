@@ -0,0 +1,358 @@
+package com.taskmanager.repository;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanager.metrics.Metrics;
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskRepository backed by an append-only write-ahead log.
+ *
+ * Each {@code save}/{@code delete} queues one small JSON line; {@link #persist()} appends the
+ * queued batch to the log and fsyncs once. At startup state is rebuilt from the last snapshot
+ * ({@code <log>.snapshot}) plus every log record newer than it. Once the log grows past the
+ * compaction threshold a background thread writes a fresh snapshot and drops the log prefix
+ * it covers, so the cost of a one-task change stays proportional to that change.
+ *
+ * Every record carries a sequence number and the snapshot records the last sequence it
+ * includes, so a crash between writing the snapshot and trimming the log replays nothing twice.
+ * A torn record at the tail of the log (crash mid-append) is discarded on load; an append that
+ * fails without a crash is cut off again before {@link #persist()} throws, so the batch, still
+ * pending, is appended whole by the next persist.
+ */
+public class WalTaskRepository implements TaskRepository, AutoCloseable {
+
+    public static final long DEFAULT_COMPACTION_THRESHOLD_BYTES = 8L * 1024 * 1024;
+
+    private static final Logger logger = LoggerFactory.getLogger(WalTaskRepository.class);
+
+    private final Path logPath;
+    private final Path snapshotPath;
+    private final long compactionThresholdBytes;
+    private final ObjectMapper objectMapper;
+    private final TaskTable tasks;
+    private final List<LogRecord> pending;
+    private final ExecutorService compactor;
+    private FileChannel log;
+    private Future<?> compaction;
+    private long lastSeq;
+    private int nextId;
+
+    public WalTaskRepository(Path logPath) {
+        this(logPath, DEFAULT_COMPACTION_THRESHOLD_BYTES);
+    }
+
+    public WalTaskRepository(Path logPath, long compactionThresholdBytes) {
+        Objects.requireNonNull(logPath, "Log path cannot be null");
+        if (compactionThresholdBytes <= 0)
+            throw new IllegalArgumentException("Compaction threshold must be positive");
+        this.logPath = JsonFileTaskRepository.validatePath(logPath);
+        this.snapshotPath = this.logPath.resolveSibling(this.logPath.getFileName() + ".snapshot");
+        this.compactionThresholdBytes = compactionThresholdBytes;
+        this.objectMapper = JsonFileTaskRepository.createObjectMapper();
+        this.tasks = new TaskTable();
+        this.pending = new ArrayList<>();
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "wal-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        this.nextId = 1;
+        load();
+    }
+
+    // ---------- TaskRepository ----------
+
+    @Override
+    public Task save(Task task) {
+        tasks.put(task);
+        pending.add(new LogRecord(++lastSeq, LogRecord.PUT, task, null));
+        return task;
+    }
+
+    @Override
+    public Optional<Task> findById(int id) {
+        return Optional.ofNullable(tasks.get(id));
+    }
+
+    @Override
+    public List<Task> findAll() {
+        return new ArrayList<>(tasks.values());
+    }
+
+    @Override
+    public List<Task> findByStatus(TaskStatus status) {
+        return tasks.byStatus(status);
+    }
+
+    @Override
+    public Stream<Task> streamAfter(int afterId) {
+        return tasks.streamAfter(afterId);
+    }
+
+    @Override
+    public Stream<Task> streamAfter(int afterId, TaskStatus status) {
+        return tasks.streamAfter(afterId, status);
+    }
+
+    @Override
+    public int countByStatus(TaskStatus status) {
+        return tasks.countByStatus(status);
+    }
+
+    @Override
+    public Optional<Task> delete(int id) {
+        Task removed = tasks.remove(id);
+        if (removed != null) pending.add(new LogRecord(++lastSeq, LogRecord.DELETE, null, id));
+        return Optional.ofNullable(removed);
+    }
+
+    @Override
+    public int nextId() {
+        return nextId++;
+    }
+
+    @Override
+    public int reserveIds(int count) {
+        int first = nextId;
+        nextId += count;
+        return first;
+    }
+
+    @Override
+    public boolean releaseIds(int first, int next) {
+        if (nextId != next) return false;
+        nextId = first;
+        return true;
+    }
+
+    @Override
+    public synchronized void persist() {
+        if (pending.isEmpty()) return;
+        try {
+            ByteArrayOutputStream batch = new ByteArrayOutputStream();
+            for (LogRecord record : pending) {
+                objectMapper.writeValue(batch, record);
+                batch.write('\n');
+            }
+            long start = log.position();
+            long syncStart;
+            try {
+                append(log, ByteBuffer.wrap(batch.toByteArray()));
+                syncStart = System.nanoTime();
+                log.force(false);
+            } catch (IOException e) {
+                // Left in place, the fragment would sit in front of the retried batch and stop the next load.
+                try {
+                    log.truncate(start);
+                    log.position(start);
+                } catch (IOException truncate) {
+                    e.addSuppressed(truncate);
+                }
+                throw e;
+            }
+            Metrics.get().recordLatency("wal.fsync", System.nanoTime() - syncStart);
+            Metrics.get().increment("wal.bytesWritten", batch.size());
+            logger.info("Appended {} records to {}", pending.size(), logPath);
+            pending.clear();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to append to log file: " + logPath, e);
+        }
+        maybeCompact();
+    }
+
+    @Override
+    public int count() {
+        return tasks.size();
+    }
+
+    @Override
+    public boolean exists(int id) {
+        return tasks.contains(id);
+    }
+
+    /** Waits for any in-flight compaction and releases the log file. Unpersisted changes are dropped. */
+    @Override
+    public void close() {
+        compactor.shutdown();
+        try {
+            if (!compactor.awaitTermination(1, TimeUnit.MINUTES))
+                logger.warn("Compaction of {} did not finish before close", logPath);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to close log file: " + logPath, e);
+            }
+        }
+    }
+
+    /** Blocks until the currently scheduled compaction, if any, has finished. */
+    void awaitCompaction() throws Exception {
+        Future<?> running;
+        synchronized (this) { running = compaction; }
+        if (running != null) running.get();
+    }
+
+    // ---------- Compaction ----------
+
+    private void maybeCompact() {
+        try {
+            if (log.size() < compactionThresholdBytes) return;
+            if (compaction != null && !compaction.isDone()) return;
+            // Captured while holding the monitor with nothing pending: the snapshot covers exactly
+            // the log up to logEnd, and everything written later lands beyond that offset.
+            Snapshot snapshot = new Snapshot(lastSeq, nextId, new ArrayList<>(tasks.values()));
+            long logEnd = log.position();
+            compaction = compactor.submit(() -> compact(snapshot, logEnd));
+        } catch (IOException e) {
+            logger.warn("Could not check size of {}, skipping compaction", logPath, e);
+        }
+    }
+
+    private void compact(Snapshot snapshot, long logEnd) {
+        try {
+            snapshot.tasks().sort(Comparator.comparingInt(Task::id));
+            Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                JsonGenerator gen = objectMapper.getFactory().createGenerator(Channels.newOutputStream(out))
+                        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                objectMapper.writeValue(gen, snapshot);
+                out.force(true);
+            }
+            FileOps.moveReplacing(tmp, snapshotPath);
+            trimLog(logEnd);
+            logger.info("Compacted {} into snapshot at seq {} ({} tasks)",
+                    logPath, snapshot.seq(), snapshot.tasks().size());
+        } catch (IOException e) {
+            logger.warn("Compaction of {} failed; log left intact", logPath, e);
+        }
+    }
+
+    /** Replaces the log with its suffix starting at {@code from}. */
+    private synchronized void trimLog(long from) throws IOException {
+        Path tmp = logPath.resolveSibling(logPath.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long end = log.position();
+            long copied = 0;
+            while (from + copied < end) copied += log.transferTo(from + copied, end - from - copied, out);
+            out.force(true);
+        }
+        log.close();
+        FileOps.moveReplacing(tmp, logPath);
+        log = openLog();
+    }
+
+    // ---------- Loading ----------
+
+    private void load() {
+        try {
+            long snapshotSeq = 0;
+            if (Files.exists(snapshotPath)) {
+                Snapshot snapshot = objectMapper.readValue(snapshotPath.toFile(), Snapshot.class);
+                for (Task task : snapshot.tasks()) tasks.put(task);
+                snapshotSeq = snapshot.seq();
+                nextId = Math.max(nextId, snapshot.nextId());
+            }
+            lastSeq = snapshotSeq;
+            long validBytes = Files.exists(logPath) ? replay(snapshotSeq) : 0;
+            log = openLog();
+            if (log.size() > validBytes) {
+                logger.warn("Discarding {} bytes of torn record at tail of {}", log.size() - validBytes, logPath);
+                log.truncate(validBytes);
+            }
+            log.position(validBytes);
+            logger.info("Loaded {} tasks from {} (seq {})", tasks.size(), logPath, lastSeq);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load tasks from log: " + logPath, e);
+        }
+    }
+
+    /** Applies log records newer than the snapshot. Returns the byte length of the intact prefix. */
+    private long replay(long snapshotSeq) throws IOException {
+        long valid = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(logPath))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                LogRecord record;
+                try {
+                    record = objectMapper.readValue(line.toByteArray(), LogRecord.class);
+                } catch (IOException e) {
+                    throw new IOException("Corrupt record at byte " + valid + " of " + logPath, e);
+                }
+                valid += line.size() + 1;
+                line.reset();
+                if (record.seq() <= snapshotSeq) continue;
+                apply(record);
+            }
+            // Anything after the last newline is a record whose append never completed.
+        }
+        return valid;
+    }
+
+    private void apply(LogRecord record) {
+        switch (record.op()) {
+            case LogRecord.PUT -> {
+                tasks.put(record.task());
+                nextId = Math.max(nextId, record.task().id() + 1);
+            }
+            case LogRecord.DELETE -> tasks.remove(record.id());
+            default -> throw new IllegalStateException("Unknown log op: " + record.op());
+        }
+        lastSeq = record.seq();
+    }
+
+    /** Writes all of {@code buffer} at the log's position; package-private so tests can fail it partway. */
+    void append(FileChannel log, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) log.write(buffer);
+    }
+
+    private FileChannel openLog() throws IOException {
+        FileChannel channel = FileChannel.open(logPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    // ---------- On-disk formats ----------
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record LogRecord(long seq, String op, Task task, Integer id) {
+        static final String PUT = "put";
+        static final String DELETE = "delete";
+    }
+
+    record Snapshot(long seq, int nextId, List<Task> tasks) {}
+}
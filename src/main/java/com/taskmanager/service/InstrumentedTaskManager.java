@@ -0,0 +1,119 @@
+package com.taskmanager.service;
+
+import com.taskmanager.metrics.TaskMetrics;
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import com.taskmanager.repository.TaskRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * {@link TaskManager} that reports the latency of each business operation as
+ * {@code service.<method>}, failures included. Pair it with an
+ * {@link com.taskmanager.repository.InstrumentedTaskRepository} to see how much of an operation
+ * is spent in storage.
+ */
+public class InstrumentedTaskManager extends TaskManager {
+
+    private final TaskMetrics metrics;
+
+    public InstrumentedTaskManager(TaskRepository repository, TaskMetrics metrics) {
+        super(repository);
+        if (metrics == null) throw new IllegalArgumentException("Metrics cannot be null");
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Task addTask(String description) {
+        return timed("service.addTask", () -> super.addTask(description));
+    }
+
+    @Override
+    public Task updateTask(int id, String newDescription) {
+        return timed("service.updateTask", () -> super.updateTask(id, newDescription));
+    }
+
+    @Override
+    public Task removeTask(int id) {
+        return timed("service.removeTask", () -> super.removeTask(id));
+    }
+
+    @Override
+    public Task updateTaskStatus(int id, TaskStatus status) {
+        return timed("service.updateTaskStatus", () -> super.updateTaskStatus(id, status));
+    }
+
+    @Override
+    public List<Task> addTasks(List<String> descriptions) {
+        return timed("service.addTasks", () -> super.addTasks(descriptions));
+    }
+
+    @Override
+    public List<Task> updateStatuses(Map<Integer, TaskStatus> changes) {
+        return timed("service.updateStatuses", () -> super.updateStatuses(changes));
+    }
+
+    @Override
+    public List<Task> removeTasks(Collection<Integer> ids) {
+        return timed("service.removeTasks", () -> super.removeTasks(ids));
+    }
+
+    @Override
+    public long importTasks(Iterator<Task> source, boolean keepIds, int batchSize, LongConsumer progress) {
+        return timed("service.importTasks", () -> super.importTasks(source, keepIds, batchSize, progress));
+    }
+
+    @Override
+    public Stream<Task> search(String query) {
+        return timed("service.search", () -> super.search(query));
+    }
+
+    @Override
+    public Stream<Task> getTasksCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return timed("service.getTasksCreatedBetween", () -> super.getTasksCreatedBetween(from, to));
+    }
+
+    @Override
+    public Stream<Task> getTasksUpdatedBetween(LocalDateTime from, LocalDateTime to) {
+        return timed("service.getTasksUpdatedBetween", () -> super.getTasksUpdatedBetween(from, to));
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return timed("service.getAllTasks", super::getAllTasks);
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(TaskStatus s) {
+        return timed("service.getTasksByStatus", () -> super.getTasksByStatus(s));
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return timed("service.getTaskById", () -> super.getTaskById(id));
+    }
+
+    @Override
+    public void saveTasks() {
+        timed("service.saveTasks", () -> {
+            super.saveTasks();
+            return null;
+        });
+    }
+
+    private <T> T timed(String operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            metrics.recordLatency(operation, System.nanoTime() - start);
+        }
+    }
+}
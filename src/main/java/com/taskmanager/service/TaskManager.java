@@ -4,12 +4,17 @@ import com.taskmanager.model.Task;
 import com.taskmanager.model.TaskStatus;
 import com.taskmanager.repository.TaskRepository;
 
-import java.util.List;
-import java.util.Objects;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.LongConsumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 /**
  * Service layer: business operations on tasks. All storage is delegated to
  * a {@link TaskRepository}; this class contains no I/O or serialisation logic.
+ * It holds no state of its own, so it is as thread-safe as its repository
+ * (see {@link com.taskmanager.repository.ConcurrentTaskRepository}).
  */
 public class TaskManager {
 
@@ -25,8 +30,7 @@ public class TaskManager {
     }
 
     public Task updateTask(int id, String newDescription) {
-        Task updated = findOrThrow(id).updateDescription(newDescription);
-        return repository.save(updated);
+        return updateOrThrow(id, task -> task.updateDescription(newDescription));
     }
 
     public Task removeTask(int id) {
@@ -35,17 +39,183 @@ public class TaskManager {
     }
 
     public Task updateTaskStatus(int id, TaskStatus status) {
-        Task updated = findOrThrow(id).updateStatus(status);
-        return repository.save(updated);
+        return updateOrThrow(id, task -> task.updateStatus(status));
+    }
+
+    // ---------- Batch operations ----------
+    // Each validates the whole batch before changing any task, so a bad entry leaves the
+    // stored tasks untouched. None of them persist; callers call saveTasks() once afterwards.
+
+    /** Adds one task per description under a single reserved block of consecutive IDs. */
+    public List<Task> addTasks(List<String> descriptions) {
+        if (descriptions.isEmpty()) return List.of();
+        // Validated under placeholder IDs first, so an invalid description reserves nothing.
+        List<Task> tasks = new ArrayList<>(descriptions.size());
+        for (int i = 0; i < descriptions.size(); i++) tasks.add(new Task(i + 1, descriptions.get(i)));
+        return repository.saveAll(renumber(tasks, repository.reserveIds(tasks.size())));
+    }
+
+    /**
+     * Sets the status of each task in {@code changes}, in iteration order. Each goes through
+     * {@link TaskRepository#update}, so a concurrent change to another field of the task is kept.
+     */
+    public List<Task> updateStatuses(Map<Integer, TaskStatus> changes) {
+        requireAllExist(changes.keySet());
+        List<Task> updated = new ArrayList<>(changes.size());
+        changes.forEach((id, status) -> updated.add(updateOrThrow(id, task -> task.updateStatus(status))));
+        return updated;
+    }
+
+    /** Removes the given tasks. Duplicate IDs are removed once. */
+    public List<Task> removeTasks(Collection<Integer> ids) {
+        Set<Integer> unique = new LinkedHashSet<>(ids);
+        requireAllExist(unique);
+        return repository.deleteAll(unique);
+    }
+
+    /**
+     * Saves tasks from {@code source} in batches of {@code batchSize}, reporting the running total to
+     * {@code progress} after each batch. Unlike the batch operations above this streams; if reading
+     * or saving fails part way, the batches already saved are undone (tasks they replaced are put
+     * back, the IDs they were given are released where no one took a later one) and the failure is
+     * rethrown, so a later persist cannot write half an import.
+     *
+     * With {@code keepIds} each task replaces any stored task with the same ID and the ID counter
+     * moves past the highest imported ID; otherwise tasks get fresh IDs in source order, keeping
+     * their status and timestamps.
+     */
+    public long importTasks(Iterator<Task> source, boolean keepIds, int batchSize, LongConsumer progress) {
+        if (batchSize <= 0) throw new IllegalArgumentException("Batch size must be positive");
+        List<Task> batch = new ArrayList<>(batchSize);
+        // keepIds: what each saved ID held before (null: nothing). Otherwise the IDs are [firstId, nextId).
+        Map<Integer, Task> replaced = new HashMap<>();
+        int firstId = 0;
+        int nextId = 0;
+        long imported = 0;
+        int maxId = 0;
+        try {
+            while (source.hasNext()) {
+                Task task = source.next();
+                batch.add(task);
+                maxId = Math.max(maxId, task.id());
+                if (batch.size() == batchSize || !source.hasNext()) {
+                    if (keepIds) {
+                        for (Task t : batch) {
+                            if (!replaced.containsKey(t.id())) replaced.put(t.id(), repository.findById(t.id()).orElse(null));
+                        }
+                        repository.saveAll(batch);
+                    } else {
+                        int first = repository.reserveIds(batch.size());
+                        if (imported == 0) firstId = first;
+                        nextId = first + batch.size();
+                        repository.saveAll(renumber(batch, first));
+                    }
+                    imported += batch.size();
+                    batch.clear();
+                    progress.accept(imported);
+                }
+            }
+        } catch (RuntimeException e) {
+            try {
+                if (keepIds) {
+                    undoImport(replaced);
+                } else if (nextId > firstId) {
+                    undoImport(firstId, nextId);
+                }
+            } catch (RuntimeException undo) {
+                e.addSuppressed(undo);
+            }
+            throw e;
+        }
+        if (keepIds && imported > 0) {
+            // Claims IDs up to maxId so later additions cannot overwrite imported tasks. Peeking
+            // takes an ID, which is given back if the counter was already past maxId.
+            int next = repository.reserveIds(1);
+            if (maxId > next) repository.reserveIds(maxId - next);
+            else if (maxId < next) repository.releaseIds(next, next + 1);
+        }
+        return imported;
+    }
+
+    /**
+     * Tasks whose description contains every word of {@code query}, case-insensitively, in ID order.
+     * See {@link TaskRepository#search}.
+     */
+    public Stream<Task> search(String query) {
+        if (query == null || query.isBlank()) throw new IllegalArgumentException("Search query cannot be empty");
+        return repository.search(query);
+    }
+
+    /**
+     * Tasks created at or after {@code from} and before {@code to}, oldest first; either bound may
+     * be null. See {@link TaskRepository#createdBetween}.
+     */
+    public Stream<Task> getTasksCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        requireRange(from, to);
+        return repository.createdBetween(from, to);
+    }
+
+    /** As {@link #getTasksCreatedBetween}, by when tasks were last updated. */
+    public Stream<Task> getTasksUpdatedBetween(LocalDateTime from, LocalDateTime to) {
+        requireRange(from, to);
+        return repository.updatedBetween(from, to);
     }
 
     public List<Task> getAllTasks()                   { return repository.findAll(); }
     public List<Task> getTasksByStatus(TaskStatus s) { return repository.findByStatus(s); }
+    public Stream<Task> streamTasks(int afterId)     { return repository.streamAfter(afterId); }
+    public Stream<Task> streamTasks(TaskStatus s, int afterId) { return repository.streamAfter(afterId, s); }
     public Task getTaskById(int id)                  { return findOrThrow(id); }
     public boolean taskExists(int id)                { return repository.exists(id); }
     public int getTaskCount()                        { return repository.count(); }
+    public int getTaskCount(TaskStatus s)            { return repository.countByStatus(s); }
     public void saveTasks()                          { repository.persist(); }
 
+    private static List<Task> renumber(List<Task> tasks, int first) {
+        List<Task> renumbered = new ArrayList<>(tasks.size());
+        for (Task t : tasks) {
+            renumbered.add(new Task(first + renumbered.size(), t.description(), t.status(), t.createdAt(), t.updatedAt()));
+        }
+        return renumbered;
+    }
+
+    /** Deletes tasks imported under fresh IDs, which may have been saved only in part, and releases the IDs. */
+    private void undoImport(int firstId, int nextId) {
+        List<Integer> ids = new ArrayList<>(nextId - firstId);
+        for (int id = firstId; id < nextId; id++) ids.add(id);
+        repository.deleteAll(ids);
+        repository.releaseIds(firstId, nextId);
+    }
+
+    /** Deletes tasks imported under their own IDs and puts back the stored tasks they replaced. */
+    private void undoImport(Map<Integer, Task> replaced) {
+        List<Integer> added = new ArrayList<>();
+        List<Task> restored = new ArrayList<>();
+        replaced.forEach((id, previous) -> {
+            if (previous == null) added.add(id);
+            else restored.add(previous);
+        });
+        repository.deleteAll(added);
+        repository.saveAll(restored);
+    }
+
+    private static void requireRange(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("Start of time range (" + from + ") must be before its end (" + to + ")");
+        }
+    }
+
+    private Task updateOrThrow(int id, UnaryOperator<Task> change) {
+        return repository.update(id, change)
+                .orElseThrow(() -> new IllegalArgumentException("Task with ID " + id + " not found"));
+    }
+
+    private void requireAllExist(Collection<Integer> ids) {
+        List<Integer> missing = ids.stream().filter(id -> !repository.exists(id)).toList();
+        if (missing.size() == 1) throw new IllegalArgumentException("Task with ID " + missing.get(0) + " not found");
+        if (!missing.isEmpty()) throw new IllegalArgumentException("Tasks with IDs " + missing + " not found");
+    }
+
     private Task findOrThrow(int id) {
         return repository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Task with ID " + id + " not found"));
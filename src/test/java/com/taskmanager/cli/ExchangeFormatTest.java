@@ -0,0 +1,118 @@
+package com.taskmanager.cli;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExchangeFormatTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_456_000);
+
+    private static List<Task> readAll(ExchangeFormat format, String text) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        Iterator<Task> rows = format.read(new StringReader(text));
+        rows.forEachRemaining(tasks::add);
+        return tasks;
+    }
+
+    private static String write(ExchangeFormat format, List<Task> tasks) throws IOException {
+        StringWriter out = new StringWriter();
+        assertEquals(tasks.size(), format.write(tasks.iterator(), out));
+        return out.toString();
+    }
+
+    // ---------- CSV ----------
+
+    @Test
+    @DisplayName("csv: quotes only fields that need it and round-trips them")
+    void csvQuoting() throws IOException {
+        List<Task> tasks = List.of(
+                new Task(1, "Plain", TaskStatus.TODO, T, T),
+                new Task(2, "Comma, \"quote\"\nand newline", TaskStatus.DONE, T, T.plusDays(1)));
+        String csv = write(ExchangeFormat.CSV, tasks);
+
+        assertTrue(csv.contains("\r\n1,Plain,TODO,2024-03-01T10:15:30.123456,"));
+        assertTrue(csv.contains("\r\n2,\"Comma, \"\"quote\"\"\nand newline\",DONE,"));
+
+        List<Task> read = readAll(ExchangeFormat.CSV, csv);
+        assertEquals(2, read.size());
+        assertEquals(tasks.get(1).description(), read.get(1).description());
+        assertEquals(T.plusDays(1), read.get(1).updatedAt());
+    }
+
+    @Test
+    @DisplayName("csv: header is optional, blank rows and LF endings are accepted")
+    void csvLenientLayout() throws IOException {
+        String csv = "3,Third,IN_PROGRESS,2024-03-01T10:00,2024-03-01T10:00\n\n4,Fourth,TODO,2024-03-01T10:00,2024-03-01T10:00";
+        List<Task> read = readAll(ExchangeFormat.CSV, csv);
+        assertEquals(List.of(3, 4), read.stream().map(Task::id).toList());
+        assertEquals(TaskStatus.IN_PROGRESS, read.get(0).status());
+    }
+
+    @Test
+    @DisplayName("csv: invalid rows are rejected with their row number")
+    void csvRejectsInvalidRows() {
+        String header = "id,description,status,createdAt,updatedAt\n";
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> readAll(ExchangeFormat.CSV,
+                header + "1,Ok,TODO,2024-03-01T10:00,2024-03-01T10:00\n2,  ,TODO,2024-03-01T10:00,2024-03-01T10:00\n"));
+        assertTrue(e.getMessage().contains("row 3"), e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> readAll(ExchangeFormat.CSV, header + "1,Short,TODO\n"));
+        assertThrows(IllegalArgumentException.class,
+                () -> readAll(ExchangeFormat.CSV, header + "1,Bad,LATER,2024-03-01T10:00,2024-03-01T10:00\n"));
+        assertThrows(IllegalArgumentException.class,
+                () -> readAll(ExchangeFormat.CSV, header + "1,\"Open quote,TODO,2024-03-01T10:00,2024-03-01T10:00\n"));
+        assertThrows(IllegalArgumentException.class,
+                () -> readAll(ExchangeFormat.CSV, header + "1,Bad date,TODO,2024-02-30T10:00,2024-03-01T10:00\n"));
+    }
+
+    @Test
+    @DisplayName("parseTimestamp: hand-parsed forms agree with LocalDateTime.parse")
+    void parseTimestampMatchesJdk() {
+        for (String text : List.of("2024-03-01T10:15", "2024-03-01T10:15:30", "2024-03-01T10:15:30.1",
+                "2024-03-01T10:15:30.123456", "2024-03-01T10:15:30.123456789", "+12024-03-01T10:15")) {
+            assertEquals(LocalDateTime.parse(text), ExchangeFormat.parseTimestamp(text), text);
+        }
+    }
+
+    // ---------- JSON Lines ----------
+
+    @Test
+    @DisplayName("jsonl: one object per line with ISO timestamps; invalid tasks name their line")
+    void jsonLines() throws IOException {
+        List<Task> tasks = List.of(new Task(1, "First", TaskStatus.TODO, T, T), new Task(2, "Second", TaskStatus.DONE, T, T));
+        String jsonl = write(ExchangeFormat.JSONL, tasks);
+
+        assertEquals(2, jsonl.lines().count());
+        assertTrue(jsonl.contains("\"createdAt\":\"2024-03-01T10:15:30.123456\""), jsonl);
+        assertEquals(tasks, readAll(ExchangeFormat.JSONL, jsonl));
+
+        String invalid = jsonl + "{\"id\":0,\"description\":\"Zero\",\"status\":\"TODO\","
+                + "\"createdAt\":\"2024-03-01T10:00\",\"updatedAt\":\"2024-03-01T10:00\"}\n";
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> readAll(ExchangeFormat.JSONL, invalid));
+        assertTrue(e.getMessage().contains("line 3") && e.getMessage().contains("Task ID must be positive"), e.getMessage());
+    }
+
+    // ---------- Format selection ----------
+
+    @Test
+    @DisplayName("formats parse by name and default from the file extension")
+    void formatSelection() {
+        assertEquals(ExchangeFormat.CSV, ExchangeFormat.parse("CSV"));
+        assertEquals(ExchangeFormat.JSONL, ExchangeFormat.parse("jsonl"));
+        assertThrows(IllegalArgumentException.class, () -> ExchangeFormat.parse("xml"));
+        assertEquals(ExchangeFormat.CSV, ExchangeFormat.forFile(Path.of("out/Tasks.CSV")));
+        assertEquals(ExchangeFormat.JSONL, ExchangeFormat.forFile(Path.of("tasks.jsonl")));
+        assertEquals(ExchangeFormat.JSONL, ExchangeFormat.forFile(null));
+    }
+}
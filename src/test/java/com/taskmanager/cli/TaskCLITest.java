@@ -1,5 +1,6 @@
 package com.taskmanager.cli;
 
+import com.taskmanager.model.Task;
 import com.taskmanager.model.TaskStatus;
 import com.taskmanager.repository.JsonFileTaskRepository;
 import com.taskmanager.service.TaskManager;
@@ -8,8 +9,14 @@ import org.junit.jupiter.api.io.TempDir;
 import picocli.CommandLine;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -74,6 +81,25 @@ class TaskCLITest {
         assertNotEquals(0, run("add"));
     }
 
+    @Test
+    @DisplayName("add --from-file: adds one task per non-blank line")
+    void addFromFileAddsEachLine() throws IOException {
+        Path file = tempDir.resolve("import.txt");
+        Files.writeString(file, "First\n\nSecond\n  Third  \n");
+        assertEquals(0, run("add", "--from-file", file.toString()));
+        assertTrue(console().contains("Added 3 tasks (IDs 1-3)"));
+        assertEquals("Third", taskManager.getTaskById(3).description());
+    }
+
+    @Test
+    @DisplayName("add --from-file: combining with a description returns non-zero exit code")
+    void addFromFileWithDescriptionFails() throws IOException {
+        Path file = tempDir.resolve("import.txt");
+        Files.writeString(file, "First\n");
+        assertNotEquals(0, run("add", "--from-file", file.toString(), "Extra"));
+        assertEquals(0, taskManager.getTaskCount());
+    }
+
     // ---------- update ----------
 
     @Test
@@ -131,6 +157,17 @@ class TaskCLITest {
         assertNotEquals(0, run("delete", "abc"));
     }
 
+    @Test
+    @DisplayName("delete: removes several tasks at once")
+    void deleteRemovesSeveralTasks() {
+        run("add", "One");
+        run("add", "Two");
+        run("add", "Three");
+        assertEquals(0, run("delete", "1", "3"));
+        assertEquals(1, taskManager.getTaskCount());
+        assertTrue(taskManager.taskExists(2));
+    }
+
     // ---------- mark commands ----------
 
     @Test
@@ -166,6 +203,20 @@ class TaskCLITest {
         assertNotEquals(0, run("mark-done", "999"));
     }
 
+    @Test
+    @DisplayName("mark-done: several IDs are updated together, or none if one is missing")
+    void markDoneSeveralIds() {
+        run("add", "One");
+        run("add", "Two");
+        assertNotEquals(0, run("mark-done", "1", "999"));
+        assertEquals(TaskStatus.TODO, taskManager.getTaskById(1).status());
+
+        clearConsole();
+        assertEquals(0, run("mark-done", "1", "2"));
+        assertTrue(console().contains("Task 2 marked as done"));
+        assertEquals(2, taskManager.getTaskCount(TaskStatus.DONE));
+    }
+
     // ---------- list ----------
 
     @Test
@@ -201,12 +252,233 @@ class TaskCLITest {
         assertFalse(out.contains("Todo task"));
     }
 
+    @Test
+    @DisplayName("list: --limit, --offset and --after-id page through tasks in ID order")
+    void listPages() {
+        for (int i = 1; i <= 5; i++) run("add", "Task " + i);
+        run("mark-done", "4");
+
+        clearConsole();
+        assertEquals(0, run("list", "--limit", "2"));
+        assertEquals("1. [todo] Task 1" + System.lineSeparator() + "2. [todo] Task 2" + System.lineSeparator(), console());
+
+        clearConsole();
+        assertEquals(0, run("list", "--after-id", "2", "--offset", "1", "--limit", "2"));
+        assertEquals("4. [done] Task 4" + System.lineSeparator() + "5. [todo] Task 5" + System.lineSeparator(), console());
+
+        clearConsole();
+        assertEquals(0, run("list", "todo", "--after-id", "3"));
+        assertEquals("5. [todo] Task 5" + System.lineSeparator(), console());
+
+        clearConsole();
+        assertEquals(0, run("list", "--after-id", "5"));
+        assertTrue(console().contains("No tasks found."));
+        assertNotEquals(0, run("list", "--limit", "-1"));
+    }
+
     @Test
     @DisplayName("list: invalid status returns non-zero exit code")
     void listInvalidStatusFails() {
         assertNotEquals(0, run("list", "invalid-status"));
     }
 
+    @Test
+    @DisplayName("list: --created-after, --updated-since and --before select by timestamp, still in ID order")
+    void listFiltersByTime() {
+        JsonFileTaskRepository repository = new JsonFileTaskRepository(tempDir.resolve("timed-tasks.json"));
+        LocalDateTime now = LocalDateTime.now();
+        repository.save(new Task(1, "Old, touched today", TaskStatus.DONE, now.minusDays(10), now.minusHours(2)));
+        repository.save(new Task(2, "Last week", TaskStatus.TODO, now.minusDays(6), now.minusDays(6)));
+        repository.save(new Task(3, "This morning", TaskStatus.TODO, now.minusHours(3), now.minusHours(3)));
+        repository.save(new Task(4, "Old, untouched", TaskStatus.TODO, now.minusDays(30), now.minusDays(30)));
+        cli = TaskCLI.buildCommandLine(new TaskManager(repository));
+        String nl = System.lineSeparator();
+
+        assertEquals(0, run("list", "--created-after", "7d"));
+        assertEquals("2. [todo] Last week" + nl + "3. [todo] This morning" + nl, console());
+
+        clearConsole();
+        assertEquals(0, run("list", "--updated-since", "1d"));
+        assertEquals("1. [done] Old, touched today" + nl + "3. [todo] This morning" + nl, console());
+
+        clearConsole();
+        assertEquals(0, run("list", "todo", "--updated-since", "1d", "--created-after", "1w"));
+        assertEquals("3. [todo] This morning" + nl, console());
+
+        clearConsole();
+        assertEquals(0, run("list", "--before", "1w", "--after-id", "1"));
+        assertEquals("4. [todo] Old, untouched" + nl, console());
+
+        clearConsole();
+        assertEquals(0, run("list", "--created-after", now.plusDays(1).toLocalDate().toString()));
+        assertTrue(console().contains("No tasks found."));
+
+        assertNotEquals(0, run("list", "--created-after", "last tuesday"));
+        assertNotEquals(0, run("list", "--created-after", "1d", "--before", "2d"));
+    }
+
+    @Test
+    @DisplayName("list: time options accept dates, date-times, today, yesterday and spans back from now")
+    void parseTimeFormats() {
+        LocalDateTime now = LocalDateTime.of(2026, 10, 18, 14, 30);
+        assertEquals(LocalDateTime.of(2026, 10, 17, 0, 0), TaskCLI.parseTime("2026-10-17", now));
+        assertEquals(LocalDateTime.of(2026, 10, 17, 9, 15), TaskCLI.parseTime("2026-10-17T09:15", now));
+        assertEquals(LocalDateTime.of(2026, 10, 18, 0, 0), TaskCLI.parseTime("today", now));
+        assertEquals(LocalDateTime.of(2026, 10, 17, 0, 0), TaskCLI.parseTime("Yesterday", now));
+        assertEquals(now.minusMinutes(90), TaskCLI.parseTime("90m", now));
+        assertEquals(now.minusHours(12), TaskCLI.parseTime("12h", now));
+        assertEquals(now.minusDays(7), TaskCLI.parseTime("7d", now));
+        assertEquals(now.minusWeeks(2), TaskCLI.parseTime("2w", now));
+        assertThrows(IllegalArgumentException.class, () -> TaskCLI.parseTime("7y", now));
+        assertThrows(IllegalArgumentException.class, () -> TaskCLI.parseTime("2026-13-01", now));
+    }
+
+    // ---------- search ----------
+
+    @Test
+    @DisplayName("search: prints tasks containing every word, in list format")
+    void searchFindsMatchingTasks() {
+        run("add", "Buy milk");
+        run("add", "Write quarterly report");
+        run("add", "Buy report binder");
+        run("mark-done", "3");
+
+        clearConsole();
+        assertEquals(0, run("search", "REPORT"));
+        assertEquals("2. [todo] Write quarterly report" + System.lineSeparator()
+                + "3. [done] Buy report binder" + System.lineSeparator(), console());
+
+        clearConsole();
+        assertEquals(0, run("search", "buy", "report", "--limit", "5"));
+        assertEquals("3. [done] Buy report binder" + System.lineSeparator(), console());
+
+        clearConsole();
+        assertEquals(0, run("search", "nothing"));
+        assertTrue(console().contains("No matching tasks."));
+        assertNotEquals(0, run("search"));
+    }
+
+    // ---------- export / import ----------
+
+    @Test
+    @DisplayName("export/import: JSON Lines and CSV round-trip tasks, including awkward descriptions")
+    void exportImportRoundTrip() throws IOException {
+        run("add", "Plain task");
+        run("add", "Comma, \"quotes\" and", "more");
+        taskManager.updateTask(2, "Line one\nline two, \"quoted\"");
+        run("mark-done", "2");
+
+        for (String format : new String[]{"jsonl", "csv"}) {
+            Path file = tempDir.resolve("tasks." + format);
+            assertEquals(0, run("export", "--output", file.toString()));
+
+            TaskManager target = new TaskManager(new JsonFileTaskRepository(tempDir.resolve(format + ".json")));
+            CommandLine targetCli = TaskCLI.buildCommandLine(target);
+            assertEquals(0, targetCli.execute("import", file.toString()));
+
+            assertEquals(2, target.getTaskCount(), format);
+            for (int id = 1; id <= 2; id++) {
+                var expected = taskManager.getTaskById(id);
+                var actual = target.getTaskById(id);
+                assertEquals(expected.description(), actual.description(), format);
+                assertEquals(expected.status(), actual.status(), format);
+                assertEquals(expected.createdAt(), actual.createdAt(), format);
+                assertEquals(expected.updatedAt(), actual.updatedAt(), format);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("export: writes JSON Lines to stdout by default, CSV with a header on request")
+    void exportToStdout() {
+        run("add", "First");
+        run("add", "Second");
+
+        clearConsole();
+        assertEquals(0, run("export"));
+        assertEquals(2, console().lines().count());
+        assertTrue(console().startsWith("{\"id\":1,"));
+
+        clearConsole();
+        assertEquals(0, run("export", "--format", "csv"));
+        assertTrue(console().startsWith("id,description,status,createdAt,updatedAt\r\n1,First,TODO,"));
+        assertNotEquals(0, run("export", "--format", "xml"));
+    }
+
+    @Test
+    @DisplayName("import: --keep-ids keeps IDs; an invalid row fails the import without saving")
+    void importKeepIdsAndRejectsInvalidRows() throws IOException {
+        run("add", "Existing");
+        Path csv = tempDir.resolve("in.csv");
+        Files.writeString(csv, "id,description,status,createdAt,updatedAt\n"
+                + "40,Imported,IN_PROGRESS,2024-03-01T10:00,2024-03-02T11:30:15\n");
+        assertEquals(0, run("import", "--keep-ids", csv.toString()));
+        assertEquals(TaskStatus.IN_PROGRESS, taskManager.getTaskById(40).status());
+        clearConsole();
+        run("add", "After import");
+        assertTrue(console().contains("(ID: 41)"));
+
+        Path bad = tempDir.resolve("bad.jsonl");
+        Files.writeString(bad, "{\"id\":1,\"description\":\"   \",\"status\":\"TODO\","
+                + "\"createdAt\":\"2024-03-01T10:00\",\"updatedAt\":\"2024-03-01T10:00\"}\n");
+        assertNotEquals(0, run("import", bad.toString()));
+        assertEquals(3, new TaskManager(new JsonFileTaskRepository(tempDir.resolve("test-tasks.json"))).getTaskCount());
+    }
+
+    @Test
+    @DisplayName("import: a bad row after a full batch leaves nothing imported, even after a later save")
+    void importFailureAfterSavedBatches() throws IOException {
+        run("add", "Existing");
+        StringBuilder rows = new StringBuilder();
+        for (int i = 0; i < 10_500; i++) {
+            rows.append("{\"id\":").append(i + 1).append(",\"description\":\"Row ").append(i)
+                    .append("\",\"status\":\"TODO\",\"createdAt\":\"2024-03-01T10:00\",\"updatedAt\":\"2024-03-01T10:00\"}\n");
+        }
+        rows.append("not json\n");
+        Path file = tempDir.resolve("partly-bad.jsonl");
+        Files.writeString(file, rows);
+
+        assertNotEquals(0, run("import", file.toString()));
+        clearConsole();
+        assertEquals(0, run("add", "After failed import"));
+        assertTrue(console().contains("(ID: 2)"), console());
+        assertEquals(2, new TaskManager(new JsonFileTaskRepository(tempDir.resolve("test-tasks.json"))).getTaskCount());
+    }
+
+    // ---------- watch ----------
+
+    @Test
+    @DisplayName("watch: prints the tasks another process adds, changes and removes, marked +, ~ and -")
+    void watchPrintsChanges() throws Exception {
+        Path tasksFile = tempDir.resolve("test-tasks.json");
+        run("add", "Stays");
+        run("add", "Gets done");
+        run("add", "Goes away");
+        clearConsole();
+        System.setProperty("tasks.file", tasksFile.toString());
+        try {
+            CompletableFuture<Integer> watching = CompletableFuture.supplyAsync(() -> run("watch", "--max-updates", "1"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (!console().contains("tasks)") && System.nanoTime() < deadline) Thread.sleep(10);
+            assertTrue(console().contains("(3 tasks)"), console());
+
+            TaskManager other = new TaskManager(new JsonFileTaskRepository(tasksFile));
+            other.addTask("Just arrived");
+            other.updateTaskStatus(2, TaskStatus.DONE);
+            other.removeTask(3);
+            other.saveTasks();
+
+            assertEquals(0, watching.get(30, TimeUnit.SECONDS));
+            String output = console();
+            assertTrue(output.contains("+ 4. [todo] Just arrived"), output);
+            assertTrue(output.contains("~ 2. [done] Gets done"), output);
+            assertTrue(output.contains("- 3. [todo] Goes away"), output);
+            assertFalse(output.contains("Stays"), "unchanged tasks are not printed");
+        } finally {
+            System.clearProperty("tasks.file");
+        }
+    }
+
     // ---------- persistence ----------
 
     @Test
@@ -264,6 +536,17 @@ class TaskCLITest {
         assertNotEquals(0, run("unknown-command"));
     }
 
+    @Test
+    @DisplayName("picocli: naming a subcommand wires only that one; anything else wires them all")
+    void buildCommandLineForOneSubcommand() {
+        CommandLine single = TaskCLI.buildCommandLine(taskManager, "list");
+        assertEquals(Set.of("list"), single.getSubcommands().keySet());
+        assertEquals(0, single.execute("list"));
+
+        assertTrue(TaskCLI.buildCommandLine(taskManager, "--help").getSubcommands().containsKey("add"));
+        assertNotEquals(0, TaskCLI.buildCommandLine(taskManager, "unknown-command").execute("unknown-command"));
+    }
+
     @Test
     @DisplayName("picocli: successful commands return exit code 0")
     void successfulCommandsReturnZero() {
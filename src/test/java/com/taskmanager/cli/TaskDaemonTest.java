@@ -0,0 +1,127 @@
+package com.taskmanager.cli;
+
+import com.taskmanager.model.TaskStatus;
+import com.taskmanager.repository.JsonFileTaskRepository;
+import com.taskmanager.service.TaskManager;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Timeout(30)
+class TaskDaemonTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path socket;
+    private TaskManager taskManager;
+    private TaskDaemon daemon;
+    private Thread serving;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        socket = tempDir.resolve("tasks.sock");
+        taskManager = new TaskManager(new JsonFileTaskRepository(tempDir.resolve("tasks.json")));
+        daemon = TaskDaemon.bind(socket, taskManager);
+        serving = new Thread(daemon::run);
+        serving.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        daemon.close();
+        serving.join();
+    }
+
+    private int send(String... args) throws IOException {
+        out.reset();
+        err.reset();
+        OptionalInt exitCode = TaskDaemon.forward(socket, args, new PrintStream(out, true), new PrintStream(err, true));
+        assertTrue(exitCode.isPresent(), "daemon should be reachable");
+        return exitCode.getAsInt();
+    }
+
+    @Test
+    @DisplayName("commands run against the resident TaskManager and their output comes back")
+    void forwardsCommandsAndOutput() throws IOException {
+        assertEquals(0, send("add", "Write", "report"));
+        assertTrue(out.toString().contains("Task added successfully (ID: 1)"));
+        assertEquals(0, send("mark-done", "1"));
+        assertEquals(0, send("list", "done"));
+        assertTrue(out.toString().contains("1. [done] Write report"));
+        assertEquals(TaskStatus.DONE, taskManager.getTaskById(1).status());
+    }
+
+    @Test
+    @DisplayName("failing commands return their exit code and error text")
+    void forwardsFailures() throws IOException {
+        assertNotEquals(0, send("delete", "999"));
+        assertFalse(err.toString().isBlank());
+        assertNotEquals(0, send("no-such-command"));
+        assertEquals(0, send("add", "Still serving"));
+    }
+
+    @Test
+    @DisplayName("options from one request do not leak into the next")
+    void requestsAreIndependent() throws IOException {
+        Path file = tempDir.resolve("import.txt");
+        Files.writeString(file, "A\nB\n");
+        assertEquals(0, send("add", "--from-file", file.toString()));
+        assertEquals(0, send("add", "C"));
+        assertTrue(out.toString().contains("Task added successfully (ID: 3)"));
+        assertEquals(3, taskManager.getTaskCount());
+    }
+
+    @Test
+    @DisplayName("relative paths are resolved against the client's working directory, not the daemon's")
+    void resolvesPathsAgainstClientDirectory() throws IOException {
+        Path client = Files.createDirectory(tempDir.resolve("client"));
+        Files.writeString(client.resolve("import.txt"), "A\nB\n");
+        OptionalInt added = TaskDaemon.forward(socket, client, new String[]{"add", "--from-file", "import.txt"},
+                new PrintStream(out, true), new PrintStream(err, true));
+        assertEquals(0, added.getAsInt(), err.toString());
+        assertEquals(2, taskManager.getTaskCount());
+
+        OptionalInt exported = TaskDaemon.forward(socket, client, new String[]{"export", "--output", "tasks.csv"},
+                new PrintStream(out, true), new PrintStream(err, true));
+        assertEquals(0, exported.getAsInt(), err.toString());
+        assertEquals(3, Files.readAllLines(client.resolve("tasks.csv")).size(), "header and two tasks");
+    }
+
+    @Test
+    @DisplayName("output longer than one frame arrives whole and in order")
+    void streamsLongOutput() throws IOException {
+        for (int i = 1; i <= 2000; i++) taskManager.addTask("Task number " + i + " \uD83D\uDE00");
+        assertEquals(0, send("list"));
+        String[] lines = out.toString().split("\n");
+        assertEquals(2000, lines.length);
+        assertEquals("1. [todo] Task number 1 \uD83D\uDE00", lines[0]);
+        assertEquals("2000. [todo] Task number 2000 \uD83D\uDE00", lines[1999]);
+    }
+
+    @Test
+    @DisplayName("no daemon: forward reports empty; a live daemon's socket cannot be taken over")
+    void socketOwnership() throws IOException {
+        Path unused = tempDir.resolve("other.sock");
+        assertTrue(TaskDaemon.forward(unused, new String[]{"list"}, System.out, System.err).isEmpty());
+        assertThrows(IOException.class, () -> TaskDaemon.bind(socket, taskManager));
+    }
+
+    @Test
+    @DisplayName("close removes the socket file")
+    void closeRemovesSocket() throws Exception {
+        daemon.close();
+        serving.join();
+        assertFalse(Files.exists(socket));
+    }
+}
@@ -0,0 +1,41 @@
+package com.taskmanager.metrics;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("every value lands in a bucket whose range contains it, within 1/16 relative error")
+    void bucketsBoundValues() {
+        long[] samples = {0, 1, 15, 16, 17, 31, 32, 1000, 123_456_789, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (long v : samples) {
+            long high = LatencyHistogram.highestValueIn(LatencyHistogram.bucketOf(v));
+            assertTrue(high >= v, "bucket top below value " + v);
+            assertTrue(high - v <= v / LatencyHistogram.SUB_BUCKETS, "bucket too wide for " + v);
+        }
+    }
+
+    @Test
+    @DisplayName("percentiles, mean and max over a uniform 1..10000 range")
+    void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10_000; i++) histogram.record(i);
+
+        assertEquals(10_000, histogram.count());
+        assertEquals(10_000, histogram.max());
+        assertEquals(5000.5, histogram.mean(), 1e-9);
+        assertEquals(5000, histogram.percentile(50), 5000 / 16.0);
+        assertEquals(9900, histogram.percentile(99), 9900 / 16.0);
+        assertEquals(10_000, histogram.percentile(100));
+    }
+
+    @Test
+    @DisplayName("empty histogram reports zeros")
+    void empty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(99));
+        assertEquals(0.0, histogram.mean());
+    }
+}
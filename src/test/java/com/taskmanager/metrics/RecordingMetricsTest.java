@@ -0,0 +1,64 @@
+package com.taskmanager.metrics;
+
+import com.taskmanager.repository.InstrumentedTaskRepository;
+import com.taskmanager.repository.JsonFileTaskRepository;
+import com.taskmanager.service.InstrumentedTaskManager;
+import com.taskmanager.service.TaskManager;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class RecordingMetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private RecordingMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new RecordingMetrics();
+        Metrics.install(metrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Metrics.install(TaskMetrics.NOOP);
+    }
+
+    @Test
+    @DisplayName("service, repository and JSON store operations are all recorded")
+    void recordsAcrossLayers() throws Exception {
+        Path file = tempDir.resolve("tasks.json");
+        TaskManager manager = new InstrumentedTaskManager(
+                new InstrumentedTaskRepository(new JsonFileTaskRepository(file), metrics), metrics);
+        manager.addTask("One");
+        manager.saveTasks();
+        manager.addTask("Two");
+        manager.saveTasks();
+        assertThrows(IllegalArgumentException.class, () -> manager.removeTask(99));
+        new JsonFileTaskRepository(file);
+
+        assertEquals(2, metrics.latency("service.addTask").count());
+        assertEquals(1, metrics.latency("service.removeTask").count(), "failures are timed too");
+        assertEquals(2, metrics.latency("repository.persist").count());
+        assertEquals(2, metrics.latency("json.persist").count());
+        assertEquals(1, metrics.latency("json.backup").count(), "first persist has nothing to back up");
+        assertEquals(2, metrics.latency("json.load").count());
+        assertEquals(Files.size(file), metrics.counter("json.bytesRead"));
+        assertTrue(metrics.counter("json.bytesWritten") > Files.size(file));
+
+        String summary = metrics.summary();
+        assertTrue(summary.contains("service.addTask"));
+        assertTrue(summary.contains("json.bytesWritten"));
+    }
+
+    @Test
+    @DisplayName("unknown metrics are absent rather than zero-filled")
+    void unknownMetrics() {
+        assertNull(metrics.latency("nothing"));
+        assertEquals(0, metrics.counter("nothing"));
+    }
+}
@@ -0,0 +1,46 @@
+package com.taskmanager.model;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.LocalDateTime;
+
+class TimestampsTest {
+
+    @Test
+    @DisplayName("Round-trips nanosecond precision")
+    void roundTripsNanos() {
+        LocalDateTime time = LocalDateTime.of(2025, 6, 30, 23, 59, 59, 999_999_999);
+        assertEquals(time, Timestamps.fromEpochNanos(Timestamps.toEpochNanos(time)));
+    }
+
+    @Test
+    @DisplayName("Round-trips dates before the epoch")
+    void roundTripsPreEpoch() {
+        LocalDateTime time = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 1);
+        assertEquals(-999_999_999L, Timestamps.toEpochNanos(time));
+        assertEquals(time, Timestamps.fromEpochNanos(-999_999_999L));
+    }
+
+    @Test
+    @DisplayName("Preserves ordering")
+    void preservesOrdering() {
+        LocalDateTime earlier = LocalDateTime.of(2024, 1, 1, 0, 0);
+        assertTrue(Timestamps.toEpochNanos(earlier) < Timestamps.toEpochNanos(earlier.plusNanos(1)));
+    }
+
+    @Test
+    @DisplayName("Dates outside the representable range fail loudly")
+    void outOfRangeThrows() {
+        assertThrows(IllegalArgumentException.class, () -> Timestamps.toEpochNanos(LocalDateTime.of(2300, 1, 1, 0, 0)));
+        assertFalse(Timestamps.representable(LocalDateTime.of(1600, 1, 1, 0, 0)));
+    }
+
+    @Test
+    @DisplayName("The range ends round-trip exactly")
+    void rangeEnds() {
+        assertEquals(Long.MIN_VALUE, Timestamps.toEpochNanos(Timestamps.MIN));
+        assertEquals(Long.MAX_VALUE, Timestamps.toEpochNanos(Timestamps.MAX));
+        assertEquals(1677, Timestamps.MIN.getYear());
+        assertEquals(2262, Timestamps.MAX.getYear());
+    }
+}
@@ -0,0 +1,213 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+class ColumnarTaskRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::id).toList();
+    }
+
+    // ---------- Columns ----------
+
+    @Test
+    @DisplayName("a task read back has every field of the one saved, timestamps exactly")
+    void roundTripsFields() {
+        ColumnarTaskRepository repo = new ColumnarTaskRepository();
+        LocalDateTime created = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_789);
+        Task task = new Task(repo.nextId(), "Write report ✓", TaskStatus.IN_PROGRESS, created, created.plusHours(1));
+        repo.save(task);
+
+        Task loaded = repo.findById(1).orElseThrow();
+        assertEquals(task.description(), loaded.description());
+        assertEquals(TaskStatus.IN_PROGRESS, loaded.status());
+        assertEquals(created, loaded.createdAt());
+        assertEquals(created.plusHours(1), loaded.updatedAt());
+    }
+
+    @Test
+    @DisplayName("a timestamp outside 1677 to 2262 is refused before the columns change")
+    void outOfRangeTimestampRefused() {
+        ColumnarTaskRepository repo = new ColumnarTaskRepository();
+        repo.save(new Task(repo.nextId(), "Kept"));
+        LocalDateTime far = LocalDateTime.of(1600, 1, 1, 0, 0);
+        Task task = new Task(repo.nextId(), "Too early", TaskStatus.DONE, far, LocalDateTime.now());
+        assertThrows(IllegalArgumentException.class, () -> repo.save(task));
+
+        assertEquals(List.of(1), ids(repo.findAll()));
+        assertEquals(0, repo.countByStatus(TaskStatus.DONE));
+        assertFalse(repo.exists(2));
+    }
+
+    @Test
+    @DisplayName("slots stay in ID order when lower IDs are saved late, and streams start after the cursor")
+    void keepsIdOrder() {
+        ColumnarTaskRepository repo = new ColumnarTaskRepository();
+        for (int id : new int[]{5, 9, 2, 7}) repo.save(new Task(id, "Task " + id));
+        repo.save(repo.findById(7).orElseThrow().updateStatus(TaskStatus.DONE));
+
+        assertEquals(List.of(2, 5, 7, 9), ids(repo.findAll()));
+        assertEquals(List.of(7, 9), ids(repo.streamAfter(5).toList()));
+        assertEquals(List.of(9), ids(repo.streamAfter(6, TaskStatus.TODO).toList()));
+        assertEquals(List.of(7), ids(repo.findByStatus(TaskStatus.DONE)));
+        assertEquals(1, repo.countByStatus(TaskStatus.DONE));
+        assertEquals(10, repo.nextId());
+    }
+
+    @Test
+    @DisplayName("deleted and re-saved IDs, longer and shorter descriptions stay consistent")
+    void updatesAndDeletes() {
+        ColumnarTaskRepository repo = new ColumnarTaskRepository();
+        for (int i = 0; i < 3; i++) repo.save(new Task(repo.nextId(), "Task " + i));
+        repo.save(new Task(2, "A much longer description than before"));
+        repo.save(new Task(3, "T3"));
+        assertEquals("Task 0", repo.delete(1).orElseThrow().description());
+        assertFalse(repo.exists(1));
+        assertTrue(repo.delete(1).isEmpty());
+
+        repo.save(new Task(1, "Back again"));
+        assertEquals(List.of("Back again", "A much longer description than before", "T3"),
+                repo.findAll().stream().map(Task::description).toList());
+        assertEquals(3, repo.count());
+        assertEquals(3, repo.countByStatus(TaskStatus.TODO));
+    }
+
+    @Test
+    @DisplayName("agrees with the object store over random writes, through compactions and arena growth")
+    void agreesWithTaskTable() {
+        assertAgreesWithTaskTable(false);
+    }
+
+    @Test
+    @DisplayName("off-heap arena behaves the same as the on-heap one")
+    void agreesWithTaskTableOffHeap() {
+        assertAgreesWithTaskTable(true);
+    }
+
+    private static void assertAgreesWithTaskTable(boolean offHeap) {
+        Random random = new Random(11);
+        InMemoryTaskRepository expected = new InMemoryTaskRepository();
+        ColumnarTaskRepository actual = new ColumnarTaskRepository(null, offHeap);
+        TaskStatus[] statuses = TaskStatus.values();
+
+        for (int i = 0; i < 50_000; i++) {
+            int id = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.delete(id).isPresent(), actual.delete(id).isPresent());
+            } else {
+                Task task = new Task(id, "x".repeat(1 + random.nextInt(60)) + " " + i)
+                        .updateStatus(statuses[random.nextInt(statuses.length)]);
+                expected.save(task);
+                actual.save(task);
+            }
+        }
+        List<Task> want = expected.streamAfter(0).toList();
+        List<Task> got = actual.findAll();
+        assertEquals(ids(want), ids(got));
+        for (int i = 0; i < want.size(); i++) {
+            assertEquals(want.get(i).description(), got.get(i).description());
+            assertEquals(want.get(i).status(), got.get(i).status());
+        }
+        for (TaskStatus status : statuses) assertEquals(expected.countByStatus(status), actual.countByStatus(status));
+    }
+
+    @Test
+    @DisplayName("closing frees the off-heap arena at once, after which the store can no longer be read")
+    void closeFreesOffHeapArena() {
+        ColumnarTaskRepository repo = new ColumnarTaskRepository(null, true);
+        repo.save(new Task(repo.nextId(), "Lives off the heap"));
+        assertEquals("Lives off the heap", repo.findById(1).orElseThrow().description());
+        repo.close();
+        assertThrows(IllegalStateException.class, () -> repo.findById(1));
+    }
+
+    // ---------- Persistence ----------
+
+    @Test
+    @DisplayName("persists to the JSON store format, readable by either repository")
+    void interchangeableWithJsonStore() {
+        Path file = tempDir.resolve("tasks.json");
+        ColumnarTaskRepository columnar = new ColumnarTaskRepository(file, true);
+        columnar.save(new Task(columnar.nextId(), "First"));
+        columnar.save(new Task(columnar.nextId(), "Second").updateStatus(TaskStatus.DONE));
+        columnar.persist();
+
+        JsonFileTaskRepository json = new JsonFileTaskRepository(file);
+        assertEquals(List.of("First", "Second"), json.findAll().stream().map(Task::description).toList());
+        json.save(new Task(json.nextId(), "Third"));
+        json.persist();
+
+        ColumnarTaskRepository reopened = new ColumnarTaskRepository(file, false);
+        assertEquals(List.of(1, 2, 3), ids(reopened.findAll()));
+        assertEquals(TaskStatus.DONE, reopened.findById(2).orElseThrow().status());
+        assertEquals(4, reopened.nextId());
+    }
+
+    @Test
+    @DisplayName("a persist keeps the old file as .bak and retires the delta segment it applied")
+    void backsUpAndRetiresSegment() {
+        Path file = tempDir.resolve("tasks.json");
+        JsonFileTaskRepository json = new JsonFileTaskRepository(file, JsonFileTaskRepository.Options.defaults().withDeltas(true));
+        json.save(new Task(json.nextId(), "First"));
+        json.save(new Task(json.nextId(), "Second"));
+        json.persist();
+        json.delete(1);
+        json.persist();
+        assertTrue(Files.exists(DeltaSegment.pathFor(file)), "the delete was only appended");
+
+        ColumnarTaskRepository columnar = new ColumnarTaskRepository(file, false);
+        assertEquals(List.of(2), ids(columnar.findAll()));
+        columnar.save(new Task(columnar.nextId(), "Third"));
+        columnar.persist();
+
+        assertFalse(Files.exists(DeltaSegment.pathFor(file)));
+        assertTrue(Files.exists(JsonFileTaskRepository.backupPathFor(file)));
+        assertEquals(List.of(2, 3), ids(new JsonFileTaskRepository(file).findAll()));
+    }
+
+    @Test
+    @DisplayName("a damaged file is loaded from its backup")
+    void recoversFromBackup() throws Exception {
+        Path file = tempDir.resolve("tasks.json");
+        ColumnarTaskRepository columnar = new ColumnarTaskRepository(file, false);
+        columnar.save(new Task(columnar.nextId(), "Kept"));
+        columnar.persist();
+        columnar.save(new Task(columnar.nextId(), "Lost with the file"));
+        columnar.persist();
+        Files.writeString(file, "[{\"id\":1,\"descr");
+
+        ColumnarTaskRepository recovered = new ColumnarTaskRepository(file, false);
+        assertEquals(List.of("Kept"), recovered.findAll().stream().map(Task::description).toList());
+        assertEquals(2, recovered.nextId());
+    }
+
+    @Test
+    @DisplayName("the factory refuses JSON settings the columnar store would ignore")
+    void factoryRefusesUnsupportedSettings() {
+        System.setProperty("tasks.backend", "columnar");
+        System.setProperty("tasks.file", tempDir.resolve("tasks.json").toString());
+        System.setProperty("tasks.deltas", "true");
+        System.setProperty("tasks.locking", "true");
+        try {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, TaskRepositoryFactory::fromConfig);
+            assertTrue(e.getMessage().contains("tasks.deltas, tasks.locking"), e.getMessage());
+        } finally {
+            System.clearProperty("tasks.backend");
+            System.clearProperty("tasks.file");
+            System.clearProperty("tasks.deltas");
+            System.clearProperty("tasks.locking");
+        }
+    }
+}
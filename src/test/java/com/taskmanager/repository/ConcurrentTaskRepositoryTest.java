@@ -0,0 +1,196 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import com.taskmanager.service.TaskManager;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ConcurrentTaskRepositoryTest {
+
+    private static final int THREADS = 8;
+
+    @TempDir
+    Path tempDir;
+
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    /** Runs {@code body} on every thread at once and rethrows the first failure. */
+    private void race(Callable<Void> body) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return body.call();
+            }));
+        }
+        start.countDown();
+        for (Future<Void> future : futures) future.get();
+    }
+
+    // ---------- Concurrency ----------
+
+    @Test
+    @Timeout(30)
+    @DisplayName("concurrent adds through TaskManager never hand out the same ID")
+    void concurrentAddsGetUniqueIds() throws Exception {
+        ConcurrentTaskRepository repo = new ConcurrentTaskRepository();
+        TaskManager manager = new TaskManager(repo);
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+        race(() -> {
+            for (int i = 0; i < 1000; i++) ids.add(manager.addTask("Task " + i).id());
+            return null;
+        });
+
+        assertEquals(THREADS * 1000, ids.size());
+        assertEquals(THREADS * 1000, repo.count());
+        assertEquals(THREADS * 1000, repo.countByStatus(TaskStatus.TODO));
+    }
+
+    @Test
+    @Timeout(30)
+    @DisplayName("concurrent updates of one task are applied atomically, none lost")
+    void concurrentUpdatesAreNotLost() throws Exception {
+        ConcurrentTaskRepository repo = new ConcurrentTaskRepository();
+        Task task = repo.save(new Task(repo.nextId(), "0"));
+
+        race(() -> {
+            for (int i = 0; i < 1000; i++) {
+                repo.update(task.id(), t -> t.updateDescription(
+                        String.valueOf(Integer.parseInt(t.description()) + 1)));
+            }
+            return null;
+        });
+
+        assertEquals(String.valueOf(THREADS * 1000), repo.findById(task.id()).orElseThrow().description());
+    }
+
+    @Test
+    @Timeout(30)
+    @DisplayName("batch status changes through TaskManager do not undo concurrent description updates")
+    void batchStatusChangesKeepConcurrentUpdates() throws Exception {
+        ConcurrentTaskRepository repo = new ConcurrentTaskRepository();
+        TaskManager manager = new TaskManager(repo);
+        Task task = repo.save(new Task(repo.nextId(), "0"));
+        AtomicInteger roles = new AtomicInteger();
+
+        race(() -> {
+            boolean counting = roles.getAndIncrement() % 2 == 0;
+            for (int i = 0; i < 20_000; i++) {
+                if (counting) {
+                    repo.update(task.id(), t -> t.updateDescription(String.valueOf(Integer.parseInt(t.description()) + 1)));
+                } else {
+                    manager.updateStatuses(Map.of(task.id(), i % 2 == 0 ? TaskStatus.DONE : TaskStatus.IN_PROGRESS));
+                }
+            }
+            return null;
+        });
+
+        assertEquals(String.valueOf(THREADS / 2 * 20_000), repo.findById(task.id()).orElseThrow().description());
+    }
+
+    @Test
+    @Timeout(30)
+    @DisplayName("status index and counts stay consistent under concurrent status changes")
+    void statusIndexStaysConsistent() throws Exception {
+        ConcurrentTaskRepository repo = new ConcurrentTaskRepository();
+        TaskManager manager = new TaskManager(repo);
+        for (int i = 0; i < 100; i++) manager.addTask("Task " + i);
+        TaskStatus[] statuses = TaskStatus.values();
+
+        race(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 5000; i++) {
+                int id = 1 + random.nextInt(100);
+                manager.updateTaskStatus(id, statuses[random.nextInt(statuses.length)]);
+                List<Task> done = repo.findByStatus(TaskStatus.DONE);
+                assertEquals(done.size(), new HashSet<>(done).size());
+            }
+            return null;
+        });
+
+        int total = 0;
+        for (TaskStatus status : statuses) {
+            List<Task> matching = repo.findByStatus(status);
+            assertTrue(matching.stream().allMatch(t -> t.status() == status));
+            assertEquals(matching.size(), repo.countByStatus(status));
+            total += matching.size();
+        }
+        assertEquals(100, total);
+    }
+
+    @Test
+    @DisplayName("update returns empty for a missing task and rejects changing the ID")
+    void updateContract() {
+        ConcurrentTaskRepository repo = new ConcurrentTaskRepository();
+        assertTrue(repo.update(1, t -> t).isEmpty());
+
+        Task task = repo.save(new Task(repo.nextId(), "Task"));
+        assertThrows(IllegalArgumentException.class, () -> repo.update(task.id(), t -> new Task(99, "Other")));
+        assertEquals("Task", repo.findById(task.id()).orElseThrow().description());
+    }
+
+    // ---------- Backing store ----------
+
+    @Test
+    @DisplayName("persist writes changes into the backing store and the ID sequence continues")
+    void persistsThroughBackingStore() {
+        Path file = tempDir.resolve("tasks.json");
+        ConcurrentTaskRepository repo = new ConcurrentTaskRepository(new JsonFileTaskRepository(file));
+        for (int i = 0; i < 5; i++) repo.save(new Task(repo.nextId(), "Task " + i));
+        repo.update(2, t -> t.updateStatus(TaskStatus.DONE));
+        repo.delete(4);
+        repo.persist();
+
+        ConcurrentTaskRepository reloaded = new ConcurrentTaskRepository(new JsonFileTaskRepository(file));
+        assertEquals(List.of(1, 2, 3, 5), reloaded.findAll().stream().map(Task::id).toList());
+        assertEquals(TaskStatus.DONE, reloaded.findById(2).orElseThrow().status());
+        assertEquals(6, reloaded.nextId());
+    }
+
+    @Test
+    @DisplayName("a persist that merges another process's changes refreshes the tasks here and the index above")
+    void refreshesAfterBackingReload() {
+        Path file = tempDir.resolve("tasks.json");
+        JsonFileTaskRepository seeded = new JsonFileTaskRepository(file);
+        seeded.save(new Task(seeded.nextId(), "Shared"));
+        seeded.persist();
+
+        ConcurrentTaskRepository repo = new ConcurrentTaskRepository(new JsonFileTaskRepository(file));
+        IndexedTaskRepository indexed = new IndexedTaskRepository(repo);
+        assertEquals(0, indexed.search("elsewhere").count());
+
+        JsonFileTaskRepository other = new JsonFileTaskRepository(file);
+        other.save(new Task(other.nextId(), "Added elsewhere"));
+        other.update(1, task -> task.updateStatus(TaskStatus.DONE));
+        other.persist();
+
+        long reloads = indexed.reloads();
+        indexed.save(new Task(indexed.nextId(), "Added here"));
+        indexed.persist();
+
+        assertNotEquals(reloads, indexed.reloads());
+        assertEquals(List.of(1, 2, 3), indexed.findAll().stream().map(Task::id).toList());
+        assertEquals(TaskStatus.DONE, indexed.findById(1).orElseThrow().status());
+        assertEquals(1, indexed.countByStatus(TaskStatus.DONE));
+        assertEquals(List.of(2), indexed.search("elsewhere").map(Task::id).toList());
+        assertEquals(4, indexed.nextId());
+    }
+}
@@ -0,0 +1,184 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class GroupCommitTaskRepositoryTest {
+
+    /** Thread-safe store that counts persists and makes each one take a while, like a file rewrite. */
+    static class CountingRepository extends ConcurrentTaskRepository {
+        final AtomicInteger persists = new AtomicInteger();
+        final long persistMillis;
+
+        CountingRepository(long persistMillis) {
+            this.persistMillis = persistMillis;
+        }
+
+        @Override
+        public synchronized void persist() {
+            persists.incrementAndGet();
+            try {
+                Thread.sleep(persistMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private CountingRepository store;
+
+    @BeforeEach
+    void setUp() {
+        store = new CountingRepository(0);
+    }
+
+    private static void add(TaskRepository repo, int n) {
+        for (int i = 0; i < n; i++) repo.save(new Task(repo.nextId(), "Task " + i));
+    }
+
+    // ---------- Policies ----------
+
+    @Test
+    @DisplayName("immediate: every persist with pending writes flushes; idle persists do not")
+    void immediateFlushesEachTime() throws Exception {
+        try (GroupCommitTaskRepository repo = new GroupCommitTaskRepository(store, FlushPolicy.immediate())) {
+            add(repo, 2);
+            repo.persist();
+            repo.persist();
+            add(repo, 1);
+            repo.persist();
+
+            assertEquals(2, store.persists.get());
+            assertEquals(1, repo.lastMergedWrites());
+            assertEquals(0, repo.pendingWrites());
+        }
+    }
+
+    @Test
+    @DisplayName("writes:N flushes once N writes are pending, merging them")
+    void everyNWritesBatches() throws Exception {
+        try (GroupCommitTaskRepository repo = new GroupCommitTaskRepository(store, FlushPolicy.everyWrites(3))) {
+            for (int i = 0; i < 7; i++) {
+                add(repo, 1);
+                repo.persist();
+            }
+            assertEquals(2, store.persists.get());
+            assertEquals(3, repo.lastMergedWrites());
+            assertEquals(1, repo.pendingWrites());
+        }
+        assertEquals(3, store.persists.get(), "close flushes the remainder");
+    }
+
+    @Test
+    @Timeout(10)
+    @DisplayName("interval: a background flush picks up pending writes")
+    void intervalFlushesInBackground() throws Exception {
+        try (GroupCommitTaskRepository repo = new GroupCommitTaskRepository(store, FlushPolicy.everyMillis(20))) {
+            add(repo, 5);
+            repo.persist();
+            while (repo.flushCount() == 0) Thread.sleep(5);
+            assertEquals(5, repo.lastMergedWrites());
+        }
+    }
+
+    @Test
+    @DisplayName("shutdown: persist defers everything to close")
+    void shutdownFlushesOnClose() throws Exception {
+        GroupCommitTaskRepository repo = new GroupCommitTaskRepository(store, FlushPolicy.onShutdown());
+        add(repo, 4);
+        repo.delete(1);
+        repo.persist();
+        assertEquals(0, store.persists.get());
+
+        repo.close();
+        assertEquals(1, store.persists.get());
+        assertEquals(5, repo.lastMergedWrites());
+    }
+
+    // ---------- Group commit ----------
+
+    @Test
+    @Timeout(30)
+    @DisplayName("concurrent writers share flushes and every write is flushed before persist returns")
+    void concurrentWritersShareFlushes() throws Exception {
+        store = new CountingRepository(5);
+        int threads = 8, perThread = 20;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (GroupCommitTaskRepository repo = new GroupCommitTaskRepository(store, FlushPolicy.immediate())) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        add(repo, 1);
+                        repo.persist();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) future.get();
+
+            assertEquals(0, repo.pendingWrites());
+            assertEquals(threads * perThread, repo.count());
+            assertTrue(store.persists.get() < threads * perThread,
+                    "expected merged flushes, got " + store.persists.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // ---------- Configuration ----------
+
+    @Test
+    @DisplayName("flush policies parse from their config spelling")
+    void parsesPolicies() {
+        assertEquals(FlushPolicy.immediate(), FlushPolicy.parse("immediate"));
+        assertEquals(FlushPolicy.everyWrites(100), FlushPolicy.parse("writes:100"));
+        assertEquals(FlushPolicy.everyMillis(250), FlushPolicy.parse("Interval:250"));
+        assertEquals(FlushPolicy.onShutdown(), FlushPolicy.parse("shutdown"));
+        assertThrows(IllegalArgumentException.class, () -> FlushPolicy.parse("writes"));
+        assertThrows(IllegalArgumentException.class, () -> FlushPolicy.parse("writes:0"));
+        assertThrows(IllegalArgumentException.class, () -> FlushPolicy.parse("sometimes"));
+    }
+
+    @Test
+    @DisplayName("interval from the factory: writes made while the timer persists a JSON store are all kept")
+    void intervalFromFactoryIsThreadSafe(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("tasks.json");
+        System.setProperty("tasks.file", file.toString());
+        System.setProperty("tasks.flush", "interval:1");
+        System.setProperty("tasks.index", "off");
+        try {
+            TaskRepository repo = TaskRepositoryFactory.fromConfig();
+            try {
+                for (int i = 0; i < 3000; i++) {
+                    int id = repo.nextId();
+                    repo.save(new Task(id, "Task " + i));
+                    if (i % 3 == 0) repo.update(id, task -> task.updateStatus(TaskStatus.DONE));
+                    if (i % 7 == 0) repo.delete(id);
+                    assertEquals(id, repo.findById(id).map(Task::id).orElse(id));
+                }
+            } finally {
+                ((AutoCloseable) repo).close();
+            }
+            JsonFileTaskRepository reloaded = new JsonFileTaskRepository(file);
+            assertEquals(3000 - 429, reloaded.count());
+            assertEquals(TaskStatus.DONE, reloaded.findById(4).orElseThrow().status());
+            assertFalse(reloaded.exists(8));
+        } finally {
+            System.clearProperty("tasks.file");
+            System.clearProperty("tasks.flush");
+            System.clearProperty("tasks.index");
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+class IndexedTaskRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static List<Integer> ids(TaskRepository repo, String query) {
+        return repo.search(query).map(Task::id).toList();
+    }
+
+    private static void add(TaskRepository repo, String... descriptions) {
+        for (String description : descriptions) repo.save(new Task(repo.nextId(), description));
+    }
+
+    // ---------- Tokenizing and matching ----------
+
+    @Test
+    @DisplayName("tokens are lower-cased runs of letters and digits, each once")
+    void tokenize() {
+        assertEquals(List.of("fix", "bug", "42", "in", "naïve", "parser", "again"),
+                InvertedIndex.tokenize("Fix BUG-42 in naïve parser; fix again"));
+        assertEquals(List.of(), InvertedIndex.tokenize(" -- !! "));
+    }
+
+    @Test
+    @DisplayName("a query matches tasks containing every word, in any order and case")
+    void queriesIntersectWords() {
+        IndexedTaskRepository repo = new IndexedTaskRepository(new InMemoryTaskRepository());
+        add(repo, "Buy milk", "Buy eggs and MILK", "Sell milk", "Write report");
+
+        assertEquals(List.of(1, 2), ids(repo, "milk buy"));
+        assertEquals(List.of(2), ids(repo, "Milk, eggs"));
+        assertEquals(List.of(), ids(repo, "milk report"));
+        assertEquals(List.of(), ids(repo, "mil"));
+        assertEquals(List.of(), ids(repo, "?!"));
+    }
+
+    // ---------- Incremental maintenance ----------
+
+    @Test
+    @DisplayName("saves, updates and deletes after the first search keep the index current")
+    void indexFollowsWrites() {
+        IndexedTaskRepository repo = new IndexedTaskRepository(new InMemoryTaskRepository());
+        add(repo, "Alpha report", "Beta report");
+        assertEquals(List.of(1, 2), ids(repo, "report"));
+
+        add(repo, "Gamma report");
+        repo.update(1, t -> t.updateDescription("Alpha summary"));
+        repo.update(2, t -> t.updateStatus(TaskStatus.DONE));
+        repo.delete(3);
+        repo.saveAll(List.of(new Task(2, "Beta summary"), new Task(repo.nextId(), "Delta report")));
+
+        assertEquals(List.of(4), ids(repo, "report"));
+        assertEquals(List.of(1, 2), ids(repo, "summary"));
+        repo.deleteAll(List.of(1, 4));
+        assertEquals(List.of(2), ids(repo, "summary"));
+        assertEquals(List.of(), ids(repo, "report"));
+    }
+
+    @Test
+    @DisplayName("indexed search agrees with the default scan over random writes")
+    void agreesWithScan() {
+        Random random = new Random(7);
+        String[] words = {"red", "green", "blue", "cyan", "magenta", "black"};
+        InMemoryTaskRepository plain = new InMemoryTaskRepository();
+        IndexedTaskRepository indexed = new IndexedTaskRepository(new InMemoryTaskRepository());
+        indexed.search("warm up"); // build the index first so every write below is incremental
+
+        for (int i = 0; i < 2000; i++) {
+            int id = 1 + random.nextInt(300);
+            if (random.nextInt(4) == 0) {
+                plain.delete(id);
+                indexed.delete(id);
+            } else {
+                String description = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+                plain.save(new Task(id, description));
+                indexed.save(new Task(id, description));
+            }
+        }
+        for (String a : words) {
+            for (String b : words) {
+                assertEquals(ids(plain, a + " " + b), ids(indexed, a + " " + b), a + " " + b);
+            }
+        }
+    }
+
+    // ---------- Time ranges ----------
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 1, 9, 0);
+
+    private static Task at(int id, int createdHours, int updatedHours) {
+        return new Task(id, "Task " + id, TaskStatus.TODO, T0.plusHours(createdHours), T0.plusHours(updatedHours));
+    }
+
+    private static List<Integer> created(TaskRepository repo, LocalDateTime from, LocalDateTime to) {
+        return repo.createdBetween(from, to).map(Task::id).toList();
+    }
+
+    private static List<Integer> updated(TaskRepository repo, LocalDateTime from, LocalDateTime to) {
+        return repo.updatedBetween(from, to).map(Task::id).toList();
+    }
+
+    @Test
+    @DisplayName("time ranges include the start, exclude the end, are open when null and come oldest first")
+    void timeRangeBounds() {
+        IndexedTaskRepository repo = new IndexedTaskRepository(new InMemoryTaskRepository());
+        repo.save(at(1, 5, 5));
+        repo.save(at(2, 1, 9));
+        repo.save(at(3, 3, 3));
+        repo.save(at(4, 3, 7));
+
+        assertEquals(List.of(3, 4, 1), created(repo, T0.plusHours(3), T0.plusHours(6)));
+        assertEquals(List.of(2, 3, 4), created(repo, null, T0.plusHours(5)));
+        assertEquals(List.of(1, 4, 2), updated(repo, T0.plusHours(5), null));
+        assertEquals(List.of(3, 1, 4, 2), updated(repo, null, null));
+        assertEquals(List.of(), created(repo, T0.plusHours(6), T0.plusHours(6)));
+    }
+
+    @Test
+    @DisplayName("updates and deletes after the first range query move tasks within the time indexes")
+    void timeIndexFollowsWrites() {
+        IndexedTaskRepository repo = new IndexedTaskRepository(new InMemoryTaskRepository());
+        for (int id = 1; id <= 5; id++) repo.save(at(id, id, id));
+        assertEquals(List.of(4, 5), updated(repo, T0.plusHours(4), null)); // scans
+        assertEquals(List.of(4, 5), updated(repo, T0.plusHours(4), null)); // builds the index
+        assertEquals(List.of(2, 3), created(repo, T0.plusHours(2), T0.plusHours(4)));
+
+        repo.update(1, task -> new Task(1, task.description(), TaskStatus.DONE, task.createdAt(), T0.plusHours(8)));
+        repo.delete(5);
+        repo.save(at(6, 6, 6));
+        repo.update(4, task -> new Task(4, task.description(), TaskStatus.DONE, task.createdAt(), T0.plusHours(1)));
+
+        assertEquals(List.of(6, 1), updated(repo, T0.plusHours(4), null));
+        assertEquals(List.of(4, 2), updated(repo, T0.plusHours(1), T0.plusHours(3)));
+        assertEquals(List.of(4, 6), created(repo, T0.plusHours(4), null));
+    }
+
+    @Test
+    @DisplayName("indexed time ranges agree with the default scan over random writes, across rebuilds")
+    void timeRangesAgreeWithScan() {
+        Random random = new Random(11);
+        InMemoryTaskRepository plain = new InMemoryTaskRepository();
+        IndexedTaskRepository indexed = new IndexedTaskRepository(new InMemoryTaskRepository());
+        // The first range query scans and the second builds both indexes, so the writes below are incremental.
+        indexed.createdBetween(null, null).count();
+        indexed.createdBetween(null, null).count();
+        indexed.updatedBetween(null, null).count();
+
+        for (int i = 0; i < 5000; i++) {
+            int id = 1 + random.nextInt(300);
+            if (random.nextInt(5) == 0) {
+                plain.delete(id);
+                indexed.delete(id);
+            } else {
+                // Few distinct hours, so ties and tasks returning to an earlier time are common.
+                Task task = at(id, random.nextInt(48), random.nextInt(48));
+                plain.save(task);
+                indexed.save(task);
+            }
+            if (i % 500 == 0 || i == 4999) {
+                LocalDateTime from = T0.plusHours(random.nextInt(24));
+                LocalDateTime to = from.plusHours(1 + random.nextInt(24));
+                assertEquals(created(plain, from, to), created(indexed, from, to), "created, write " + i);
+                assertEquals(updated(plain, from, null), updated(indexed, from, null), "updated, write " + i);
+                assertEquals(updated(plain, null, to), updated(indexed, null, to), "updated, write " + i);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("a one-shot process scans on its first range query; a long-running one builds both indexes")
+    void longRunningBuildsOnFirstQuery() {
+        int[] passes = new int[1];
+        InMemoryTaskRepository counting = new InMemoryTaskRepository() {
+            @Override
+            public Stream<Task> streamAfter(int afterId) {
+                passes[0]++;
+                return super.streamAfter(afterId);
+            }
+        };
+        for (int id = 1; id <= 5; id++) counting.save(at(id, id, id));
+
+        IndexedTaskRepository oneShot = new IndexedTaskRepository(counting);
+        assertEquals(List.of(4, 5), created(oneShot, T0.plusHours(4), null));
+        assertEquals(1, passes[0], "scanned once");
+
+        passes[0] = 0;
+        IndexedTaskRepository serving = new IndexedTaskRepository(counting, true);
+        assertEquals(List.of(4, 5), created(serving, T0.plusHours(4), null));
+        assertEquals(List.of(1, 2), updated(serving, null, T0.plusHours(3)));
+        assertEquals(2, passes[0], "one pass per index, then no more scans");
+    }
+
+    @Test
+    @DisplayName("indexes are dropped when a locking store reloads another process's changes on persist")
+    void indexesFollowReloads() {
+        Path store = tempDir.resolve("tasks.json");
+        JsonFileTaskRepository.Options locking = JsonFileTaskRepository.Options.defaults().withLocking(true);
+        IndexedTaskRepository repo = new IndexedTaskRepository(new JsonFileTaskRepository(store, locking));
+        add(repo, "Quarterly report", "Team lunch");
+        repo.persist();
+        assertEquals(List.of(1), ids(repo, "report"));
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        repo.createdBetween(start, null).count();
+        assertEquals(2, repo.createdBetween(start, null).count(), "time index built");
+
+        JsonFileTaskRepository other = new JsonFileTaskRepository(store, locking);
+        other.update(1, task -> task.updateDescription("Quarterly budget"));
+        other.delete(2);
+        add(other, "Annual report");
+        other.persist();
+
+        add(repo, "Lunch with the team");
+        repo.persist(); // merges the other process's changes into the delegate
+
+        assertEquals(List.of(3), ids(repo, "report"));
+        assertEquals(List.of(1), ids(repo, "budget"));
+        assertEquals(List.of(4), ids(repo, "lunch"));
+        assertEquals(List.of(1, 3, 4), repo.createdBetween(start, null).map(Task::id).sorted().toList());
+    }
+
+    // ---------- Sidecar ----------
+
+    @Test
+    @DisplayName("the sidecar is reused by the next process and rebuilt when the store changed")
+    void sidecarReusedUntilStale() throws Exception {
+        Path store = tempDir.resolve("tasks.json");
+        Path sidecar = tempDir.resolve("tasks.json.search");
+        IndexedTaskRepository first = new IndexedTaskRepository(new JsonFileTaskRepository(store), store, sidecar);
+        add(first, "Quarterly report", "Team lunch");
+        first.persist();
+        assertFalse(Files.exists(sidecar), "nothing is indexed until someone searches");
+        assertEquals(List.of(1), ids(first, "report"));
+        assertTrue(Files.exists(sidecar));
+
+        FileTime marker = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(sidecar, marker);
+        IndexedTaskRepository second = new IndexedTaskRepository(new JsonFileTaskRepository(store), store, sidecar);
+        assertEquals(List.of(1), ids(second, "quarterly"));
+        assertEquals(marker, Files.getLastModifiedTime(sidecar), "loaded, not rebuilt");
+
+        // A process without the index changes the store behind the sidecar's back.
+        JsonFileTaskRepository other = new JsonFileTaskRepository(store);
+        add(other, "Annual report");
+        other.persist();
+        IndexedTaskRepository third = new IndexedTaskRepository(new JsonFileTaskRepository(store), store, sidecar);
+        assertEquals(List.of(1, 3), ids(third, "report"));
+        assertNotEquals(marker, Files.getLastModifiedTime(sidecar), "stale sidecar rebuilt and saved");
+    }
+
+    @Test
+    @DisplayName("a corrupt sidecar is ignored and replaced")
+    void corruptSidecarRebuilt() throws Exception {
+        Path store = tempDir.resolve("tasks.json");
+        Path sidecar = tempDir.resolve("tasks.json.search");
+        JsonFileTaskRepository json = new JsonFileTaskRepository(store);
+        add(json, "Fix login bug");
+        json.persist();
+        Files.write(sidecar, new byte[]{1, 2, 3});
+
+        IndexedTaskRepository repo = new IndexedTaskRepository(new JsonFileTaskRepository(store), store, sidecar);
+        assertEquals(List.of(1), ids(repo, "login"));
+        assertTrue(Files.size(sidecar) > 3);
+    }
+
+    @Test
+    @DisplayName("a sidecar with damaged counts behind a valid header is a cache miss, not a failure")
+    void damagedCountsRebuilt() throws Exception {
+        Path store = tempDir.resolve("tasks.json");
+        Path sidecar = tempDir.resolve("tasks.json.search");
+        IndexedTaskRepository first = new IndexedTaskRepository(new JsonFileTaskRepository(store), store, sidecar);
+        add(first, "Fix login bug", "Write report");
+        first.persist();
+        assertEquals(List.of(1), ids(first, "login"));
+        byte[] valid = Files.readAllBytes(sidecar);
+
+        // After the store stamp (28 bytes), magic and version: the token count, then the first
+        // token's UTF length and text, then its posting list size.
+        int tokenCount = 36;
+        int firstListSize = tokenCount + Integer.BYTES + Short.BYTES + ByteBuffer.wrap(valid, tokenCount + Integer.BYTES, Short.BYTES).getShort();
+        for (int[] damage : new int[][]{{tokenCount, -1}, {tokenCount, Integer.MAX_VALUE}, {firstListSize, Integer.MAX_VALUE}, {firstListSize, -5}}) {
+            byte[] damaged = valid.clone();
+            ByteBuffer.wrap(damaged).putInt(damage[0], damage[1]);
+            Files.write(sidecar, damaged);
+
+            IndexedTaskRepository repo = new IndexedTaskRepository(new JsonFileTaskRepository(store), store, sidecar);
+            assertEquals(List.of(1), ids(repo, "login"), "value " + damage[1] + " at byte " + damage[0]);
+            assertEquals(List.of(2), ids(repo, "report"));
+        }
+    }
+
+    @Test
+    @DisplayName("with a sidecar the first range query builds the time indexes, and later processes load them until the store changes")
+    void timeSidecarReusedUntilStale() throws Exception {
+        Path store = tempDir.resolve("tasks.json");
+        Path sidecar = tempDir.resolve("tasks.json.search");
+        Path times = tempDir.resolve("tasks.json.times");
+        JsonFileTaskRepository json = new JsonFileTaskRepository(store);
+        for (int id = 1; id <= 4; id++) json.save(at(id, id, 10 - id));
+        json.persist();
+
+        IndexedTaskRepository first = new IndexedTaskRepository(new JsonFileTaskRepository(store), store, sidecar);
+        assertEquals(List.of(2, 3), created(first, T0.plusHours(2), T0.plusHours(4)));
+        assertTrue(Files.exists(times), "built and saved on the first query");
+
+        FileTime marker = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(times, marker);
+        IndexedTaskRepository second = new IndexedTaskRepository(new JsonFileTaskRepository(store), store, sidecar);
+        assertEquals(List.of(4, 3), updated(second, null, T0.plusHours(8)));
+        assertEquals(List.of(1, 2), created(second, null, T0.plusHours(3)));
+        assertEquals(marker, Files.getLastModifiedTime(times), "loaded, not rebuilt");
+
+        // Writes through a process holding the indexes save them again with the store.
+        second.update(4, task -> new Task(4, task.description(), TaskStatus.DONE, task.createdAt(), T0.plusHours(20)));
+        second.persist();
+        assertNotEquals(marker, Files.getLastModifiedTime(times));
+        IndexedTaskRepository third = new IndexedTaskRepository(new JsonFileTaskRepository(store), store, sidecar);
+        assertEquals(List.of(4), updated(third, T0.plusHours(10), null));
+
+        // A process without the indexes changes the store behind the sidecar's back.
+        Files.setLastModifiedTime(times, marker);
+        JsonFileTaskRepository other = new JsonFileTaskRepository(store);
+        other.save(at(5, 5, 5));
+        other.persist();
+        IndexedTaskRepository fourth = new IndexedTaskRepository(new JsonFileTaskRepository(store), store, sidecar);
+        assertEquals(List.of(4, 5), created(fourth, T0.plusHours(4), null));
+        assertNotEquals(marker, Files.getLastModifiedTime(times), "stale sidecar rebuilt and saved");
+    }
+
+    @Test
+    @DisplayName("a damaged time sidecar is a cache miss, not a failure")
+    void damagedTimeSidecarRebuilt() throws Exception {
+        Path store = tempDir.resolve("tasks.json");
+        Path sidecar = tempDir.resolve("tasks.json.search");
+        Path times = tempDir.resolve("tasks.json.times");
+        JsonFileTaskRepository json = new JsonFileTaskRepository(store);
+        for (int id = 1; id <= 3; id++) json.save(at(id, id, id));
+        json.persist();
+        IndexedTaskRepository first = new IndexedTaskRepository(new JsonFileTaskRepository(store), store, sidecar);
+        assertEquals(List.of(1, 2, 3), created(first, null, null));
+        byte[] valid = Files.readAllBytes(times);
+
+        // After the store stamp (28 bytes), magic and version: the stale count, the entry count,
+        // then 16 bytes per entry: epoch second, nanosecond and ID.
+        int stale = 36, count = 40, firstNanos = 52, secondSecondsLow = 64;
+        for (int[] damage : new int[][]{{stale, -1}, {count, Integer.MAX_VALUE}, {count, -3}, {firstNanos, -1}, {secondSecondsLow, 0}}) {
+            byte[] damaged = valid.clone();
+            ByteBuffer.wrap(damaged).putInt(damage[0], damage[1]);
+            Files.write(times, damaged);
+
+            IndexedTaskRepository repo = new IndexedTaskRepository(new JsonFileTaskRepository(store), store, sidecar);
+            assertEquals(List.of(2, 3), created(repo, T0.plusHours(2), null), "value " + damage[1] + " at byte " + damage[0]);
+            assertEquals(List.of(1), updated(repo, null, T0.plusHours(2)));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+class IntTaskMapTest {
+
+    private static List<Integer> ids(Iterator<Task> tasks) {
+        List<Integer> ids = new ArrayList<>();
+        tasks.forEachRemaining(task -> ids.add(task.id()));
+        return ids;
+    }
+
+    // ---------- Dense ----------
+
+    @Test
+    @DisplayName("put, get and remove by ID, with replaced and removed tasks returned")
+    void putGetRemove() {
+        IntTaskMap map = new IntTaskMap();
+        for (int id = 1; id <= 100; id++) assertNull(map.put(new Task(id, "Task " + id)));
+
+        assertEquals("Task 42", map.put(new Task(42, "Renamed")).description());
+        assertEquals("Renamed", map.get(42).description());
+        assertEquals("Task 7", map.remove(7).description());
+        assertNull(map.remove(7));
+        assertNull(map.get(7));
+        assertFalse(map.containsKey(0));
+        assertFalse(map.containsKey(Integer.MAX_VALUE));
+        assertEquals(99, map.size());
+    }
+
+    @Test
+    @DisplayName("iterates in ID order whatever the insertion order, and resumes after a cursor")
+    void iteratesInIdOrder() {
+        IntTaskMap map = new IntTaskMap();
+        for (int id : new int[]{9, 3, 40, 1, 7}) map.put(new Task(id, "Task " + id));
+
+        assertEquals(List.of(1, 3, 7, 9, 40), ids(map.iterator()));
+        assertEquals(List.of(9, 40), ids(map.iteratorAfter(7)));
+        assertEquals(List.of(9, 40), ids(map.iteratorAfter(8)));
+        assertEquals(List.of(1, 3, 7, 9, 40), ids(map.iteratorAfter(Integer.MIN_VALUE)));
+        assertEquals(List.of(), ids(map.iteratorAfter(Integer.MAX_VALUE)));
+    }
+
+    // ---------- Sparse ----------
+
+    @Test
+    @DisplayName("far-apart IDs switch to hashing without losing order, and the map keeps working as the gap refills")
+    void sparseKeysStayOrdered() {
+        IntTaskMap map = new IntTaskMap();
+        for (int id = 1; id <= 20; id++) map.put(new Task(id, "Task " + id));
+        map.put(new Task(2_000_000_000, "Far"));
+        map.put(new Task(1_500_000, "Farish"));
+
+        assertEquals("Far", map.get(2_000_000_000).description());
+        assertEquals(List.of(19, 20, 1_500_000, 2_000_000_000), ids(map.iteratorAfter(18)));
+        assertEquals(22, ids(map.iterator()).size());
+
+        map.remove(2_000_000_000);
+        map.remove(1_500_000);
+        for (int id = 21; id <= 100; id++) map.put(new Task(id, "Task " + id));
+        assertEquals(100, map.size());
+        assertEquals(List.of(99, 100), ids(map.iteratorAfter(98)));
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(1));
+    }
+
+    @Test
+    @DisplayName("iterators skip tasks removed after they started")
+    void iteratorsSkipRemovedTasks() {
+        IntTaskMap map = new IntTaskMap();
+        for (int id = 1; id <= 5; id++) map.put(new Task(id * 1_000_000, "Task " + id));
+        Iterator<Task> iterator = map.iterator();
+        assertEquals(1_000_000, iterator.next().id());
+        map.remove(2_000_000);
+        assertEquals(List.of(3_000_000, 4_000_000, 5_000_000), ids(iterator));
+    }
+
+    @Test
+    @DisplayName("agrees with a TreeMap over random puts and removes, dense and sparse")
+    void agreesWithTreeMap() {
+        Random random = new Random(17);
+        IntTaskMap map = new IntTaskMap();
+        TreeMap<Integer, Task> expected = new TreeMap<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            // Mostly a small dense range, sometimes an ID far outside it.
+            int id = 1 + (random.nextInt(50) == 0 ? random.nextInt(Integer.MAX_VALUE - 1) : random.nextInt(2_000));
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id), map.remove(id));
+            } else {
+                Task task = new Task(id, "Task " + i);
+                assertEquals(expected.put(task.id(), task), map.put(task));
+            }
+            if (i % 10_000 == 0) assertEquals(new ArrayList<>(expected.values()), toList(map));
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(new ArrayList<>(expected.values()), toList(map));
+        for (int id : expected.keySet()) assertSame(expected.get(id), map.get(id));
+    }
+
+    private static List<Task> toList(IntTaskMap map) {
+        List<Task> tasks = new ArrayList<>();
+        map.iterator().forEachRemaining(tasks::add);
+        return tasks;
+    }
+}
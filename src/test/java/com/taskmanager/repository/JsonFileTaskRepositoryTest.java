@@ -1,5 +1,7 @@
 package com.taskmanager.repository;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.taskmanager.model.Task;
 import com.taskmanager.model.TaskStatus;
 import org.junit.jupiter.api.*;
@@ -8,9 +10,16 @@ import org.junit.jupiter.api.Timeout;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assumptions.assumeFalse;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ConcurrentModificationException;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
 
 class JsonFileTaskRepositoryTest {
 
@@ -53,6 +62,659 @@ class JsonFileTaskRepositoryTest {
         assertEquals(3, reloaded.nextId());
     }
 
+    // ---------- Output format ----------
+
+    @Test
+    @DisplayName("Default output is compact: a single line with no indentation")
+    void defaultOutputIsCompact() throws IOException {
+        repo.save(new Task(repo.nextId(), "First task"));
+        repo.save(new Task(repo.nextId(), "Second task"));
+        repo.persist();
+
+        String json = Files.readString(testFile);
+        assertFalse(json.contains("\n"), "Compact output should not contain newlines");
+        assertTrue(json.startsWith("[{\"id\":1,"));
+    }
+
+    @Test
+    @DisplayName("Pretty output is opt-in and round-trips")
+    void prettyOutputRoundTrips() throws IOException {
+        JsonFileTaskRepository pretty = new JsonFileTaskRepository(testFile,
+                JsonFileTaskRepository.Options.defaults().withPrettyPrint(true));
+        pretty.save(new Task(pretty.nextId(), "First task"));
+        pretty.save(new Task(pretty.nextId(), "Second task"));
+        pretty.persist();
+
+        assertTrue(Files.readString(testFile).contains("\n  \"id\" : 1,"));
+        JsonFileTaskRepository reloaded = new JsonFileTaskRepository(testFile);
+        assertEquals(2, reloaded.count());
+        assertEquals("Second task", reloaded.findById(2).orElseThrow().description());
+    }
+
+    @Test
+    @DisplayName("tasks.format system property selects the output format")
+    void formatSelectedBySystemProperty() {
+        System.setProperty("tasks.format", "pretty");
+        try {
+            assertTrue(JsonFileTaskRepository.Options.fromConfig().prettyPrint());
+            System.setProperty("tasks.format", "bogus");
+            assertThrows(IllegalArgumentException.class, JsonFileTaskRepository.Options::fromConfig);
+        } finally {
+            System.clearProperty("tasks.format");
+        }
+        assertFalse(JsonFileTaskRepository.Options.fromConfig().prettyPrint());
+    }
+
+    // ---------- Lazy mode ----------
+
+    private static final JsonFileTaskRepository.Options LAZY = JsonFileTaskRepository.Options.defaults().withLazy(true);
+
+    private void seed(int n) {
+        for (int i = 0; i < n; i++) repo.save(new Task(repo.nextId(), "Task " + i));
+        repo.persist();
+    }
+
+    @Test
+    @DisplayName("Lazy: point lookups, count and nextId match the eager view")
+    void lazyLookupsMatchEager() {
+        seed(50);
+        JsonFileTaskRepository lazy = new JsonFileTaskRepository(testFile, LAZY);
+
+        assertEquals(50, lazy.count());
+        assertTrue(lazy.exists(17));
+        assertFalse(lazy.exists(51));
+        assertEquals("Task 16", lazy.findById(17).orElseThrow().description());
+        assertTrue(lazy.findById(99).isEmpty());
+        assertEquals(51, lazy.nextId());
+    }
+
+    @Test
+    @DisplayName("Lazy: builds an index sidecar and reuses it while the file is unchanged")
+    void lazyWritesAndReusesSidecar() throws IOException {
+        seed(10);
+        Path sidecar = tempDir.resolve("test-tasks.json.idx");
+        new JsonFileTaskRepository(testFile, LAZY);
+        assertTrue(Files.exists(sidecar));
+
+        byte[] before = Files.readAllBytes(sidecar);
+        assertEquals(10, new JsonFileTaskRepository(testFile, LAZY).count());
+        assertArrayEquals(before, Files.readAllBytes(sidecar));
+    }
+
+    @Test
+    @DisplayName("Lazy: a stale sidecar is ignored when the file changed outside the repository")
+    void lazyIgnoresStaleSidecar() {
+        seed(10);
+        new JsonFileTaskRepository(testFile, LAZY);
+
+        JsonFileTaskRepository eager = new JsonFileTaskRepository(testFile);
+        eager.delete(1);
+        eager.save(new Task(eager.nextId(), "Added elsewhere"));
+        eager.persist();
+
+        JsonFileTaskRepository lazy = new JsonFileTaskRepository(testFile, LAZY);
+        assertFalse(lazy.exists(1));
+        assertEquals("Added elsewhere", lazy.findById(11).orElseThrow().description());
+        assertEquals("Task 4", lazy.findById(5).orElseThrow().description());
+    }
+
+    @Test
+    @DisplayName("Lazy: a file replaced by another writer after loading does not shift the indexed offsets")
+    void lazyKeepsReadingTheFileItIndexed() {
+        seed(10);
+        JsonFileTaskRepository lazy = new JsonFileTaskRepository(testFile, LAZY);
+
+        JsonFileTaskRepository other = new JsonFileTaskRepository(testFile);
+        other.delete(2);
+        other.update(3, task -> task.updateDescription("A much longer description that moves every later task"));
+        for (int i = 0; i < 5; i++) other.save(new Task(other.nextId(), "Added elsewhere " + i));
+        other.persist();
+
+        assertEquals("Task 4", lazy.findById(5).orElseThrow().description());
+        assertEquals(TaskStatus.TODO, lazy.findByStatus(TaskStatus.TODO).get(0).status());
+        List<Task> all = lazy.findAll();
+        assertEquals(10, all.size(), "the tasks as loaded, none of the other writer's");
+        assertEquals("Task 1", all.get(1).description());
+        lazy.close();
+    }
+
+    @Test
+    @DisplayName("Lazy: update, delete and add persist correctly while untouched tasks are copied verbatim")
+    void lazyMutationsRoundTrip() throws IOException {
+        seed(20);
+        JsonFileTaskRepository lazy = new JsonFileTaskRepository(testFile, LAZY);
+        lazy.save(lazy.findById(3).orElseThrow().updateStatus(TaskStatus.DONE));
+        lazy.delete(7);
+        lazy.save(new Task(lazy.nextId(), "New task"));
+        lazy.persist();
+
+        assertTrue(Files.readString(testFile).contains("\"description\":\"Task 0\""));
+        JsonFileTaskRepository reloaded = new JsonFileTaskRepository(testFile);
+        assertEquals(20, reloaded.count());
+        assertEquals(TaskStatus.DONE, reloaded.findById(3).orElseThrow().status());
+        assertFalse(reloaded.exists(7));
+        assertEquals("New task", reloaded.findById(21).orElseThrow().description());
+        assertEquals("Task 19", reloaded.findById(20).orElseThrow().description());
+    }
+
+    @Test
+    @DisplayName("Lazy: the index written during persist serves lookups without a rescan")
+    void lazyIndexStaysValidAcrossPersists() {
+        seed(20);
+        JsonFileTaskRepository lazy = new JsonFileTaskRepository(testFile, LAZY);
+        lazy.delete(1);
+        lazy.persist();
+        lazy.save(lazy.findById(2).orElseThrow().updateDescription("Second pass"));
+        lazy.persist();
+
+        assertEquals("Task 14", lazy.findById(15).orElseThrow().description());
+        JsonFileTaskRepository reopened = new JsonFileTaskRepository(testFile, LAZY);
+        assertEquals(19, reopened.count());
+        assertEquals("Second pass", reopened.findById(2).orElseThrow().description());
+        assertEquals("Task 19", reopened.findById(20).orElseThrow().description());
+    }
+
+    @Test
+    @DisplayName("Lazy: findAll and findByStatus materialize everything in ID order")
+    void lazyListMaterializesInIdOrder() {
+        seed(10);
+        JsonFileTaskRepository lazy = new JsonFileTaskRepository(testFile, LAZY);
+        lazy.save(lazy.findById(8).orElseThrow().updateStatus(TaskStatus.DONE));
+        lazy.delete(2);
+
+        assertEquals(List.of(1, 3, 4, 5, 6, 7, 8, 9, 10), lazy.findAll().stream().map(Task::id).toList());
+        assertEquals(List.of(8), lazy.findByStatus(TaskStatus.DONE).stream().map(Task::id).toList());
+        assertEquals(9, lazy.count());
+    }
+
+    @Test
+    @DisplayName("Lazy: status counts come from the index and status queries read only matching tasks")
+    void lazyStatusQueries() {
+        for (int i = 0; i < 40; i++) repo.save(new Task(repo.nextId(), "Task " + i));
+        repo.save(repo.findById(5).orElseThrow().updateStatus(TaskStatus.DONE));
+        repo.save(repo.findById(9).orElseThrow().updateStatus(TaskStatus.DONE));
+        repo.persist();
+
+        JsonFileTaskRepository lazy = new JsonFileTaskRepository(testFile, LAZY);
+        assertEquals(2, lazy.countByStatus(TaskStatus.DONE));
+        assertEquals(38, lazy.countByStatus(TaskStatus.TODO));
+
+        lazy.save(lazy.findById(12).orElseThrow().updateStatus(TaskStatus.DONE));
+        assertEquals(List.of(5, 9, 12), lazy.findByStatus(TaskStatus.DONE).stream().map(Task::id).toList());
+        assertEquals(37, lazy.countByStatus(TaskStatus.TODO));
+        assertEquals(40, lazy.count());
+    }
+
+    @Test
+    @DisplayName("Lazy: pretty-printed files are indexed and rewritten as valid JSON")
+    void lazyHandlesPrettyFiles() {
+        JsonFileTaskRepository.Options prettyLazy = LAZY.withPrettyPrint(true);
+        JsonFileTaskRepository pretty = new JsonFileTaskRepository(testFile, prettyLazy);
+        for (int i = 0; i < 5; i++) pretty.save(new Task(pretty.nextId(), "Task " + i));
+        pretty.persist();
+
+        JsonFileTaskRepository lazy = new JsonFileTaskRepository(testFile, prettyLazy);
+        lazy.save(lazy.findById(2).orElseThrow().updateStatus(TaskStatus.DONE));
+        lazy.persist();
+
+        JsonFileTaskRepository reloaded = new JsonFileTaskRepository(testFile);
+        assertEquals(5, reloaded.count());
+        assertEquals(TaskStatus.DONE, reloaded.findById(2).orElseThrow().status());
+    }
+
+    @Test
+    @DisplayName("Lazy: corrupt file still falls back to the .bak copy")
+    void lazyCorruptFileRecoversFromBackup() throws IOException {
+        seed(3);
+        repo.persist();
+        Files.writeString(testFile, "[{\"id\":");
+
+        JsonFileTaskRepository lazy = new JsonFileTaskRepository(testFile, LAZY);
+        assertEquals(3, lazy.count());
+    }
+
+    // ---------- Delta segments ----------
+
+    private static final JsonFileTaskRepository.Options DELTAS = JsonFileTaskRepository.Options.defaults().withDeltas(true);
+
+    private Path deltaFile() {
+        return tempDir.resolve("test-tasks.json.delta");
+    }
+
+    @Test
+    @DisplayName("Deltas: a small change is appended to the segment and the file is left alone")
+    void deltasAppendWithoutRewriting() throws IOException {
+        seed(10);
+        byte[] snapshot = Files.readAllBytes(testFile);
+        JsonFileTaskRepository deltas = new JsonFileTaskRepository(testFile, DELTAS);
+        deltas.save(deltas.findById(3).orElseThrow().updateStatus(TaskStatus.DONE));
+        deltas.delete(7);
+        deltas.save(new Task(deltas.nextId(), "New task"));
+        deltas.persist();
+        deltas.persist(); // nothing changed since: nothing appended
+
+        assertArrayEquals(snapshot, Files.readAllBytes(testFile));
+        assertEquals(5, Files.readAllLines(deltaFile()).size(), "header, three changes, commit");
+        int expectedNextId = 12; // each reload reserves one more: IDs are never handed out twice
+        for (JsonFileTaskRepository.Options options : List.of(JsonFileTaskRepository.Options.defaults(), LAZY, DELTAS)) {
+            JsonFileTaskRepository reloaded = new JsonFileTaskRepository(testFile, options);
+            assertEquals(10, reloaded.count());
+            assertEquals(TaskStatus.DONE, reloaded.findById(3).orElseThrow().status());
+            assertFalse(reloaded.exists(7));
+            assertEquals("New task", reloaded.findById(11).orElseThrow().description());
+            assertEquals(expectedNextId++, reloaded.nextId());
+        }
+    }
+
+    @Test
+    @DisplayName("Deltas: once the segment outgrows its threshold it is merged and rotated beside the .bak")
+    void deltasMergeIntoSnapshot() throws IOException {
+        seed(1000);
+        JsonFileTaskRepository deltas = new JsonFileTaskRepository(testFile, DELTAS);
+        deltas.save(deltas.findById(1).orElseThrow().updateDescription("Renamed"));
+        deltas.persist();
+        assertTrue(Files.exists(deltaFile()));
+
+        for (int id = 2; id <= 700; id++) deltas.save(deltas.findById(id).orElseThrow().updateStatus(TaskStatus.DONE));
+        deltas.persist();
+
+        assertFalse(Files.exists(deltaFile()));
+        assertTrue(Files.exists(tempDir.resolve("test-tasks.json.delta.bak")));
+        JsonFileTaskRepository reloaded = new JsonFileTaskRepository(testFile);
+        assertEquals("Renamed", reloaded.findById(1).orElseThrow().description());
+        assertEquals(699, reloaded.countByStatus(TaskStatus.DONE));
+    }
+
+    @Test
+    @DisplayName("Deltas: a batch torn by a crash is ignored on load and cut off by the next append")
+    void deltasIgnoreTornBatch() throws IOException {
+        seed(5);
+        JsonFileTaskRepository deltas = new JsonFileTaskRepository(testFile, DELTAS);
+        deltas.delete(1);
+        deltas.persist();
+        Files.writeString(deltaFile(), "{\"op\":\"delete\",\"id\":2}\n{\"op\":\"del", StandardOpenOption.APPEND);
+
+        JsonFileTaskRepository reopened = new JsonFileTaskRepository(testFile, DELTAS);
+        assertFalse(reopened.exists(1));
+        assertTrue(reopened.exists(2), "uncommitted delete is not applied");
+        reopened.delete(3);
+        reopened.persist();
+
+        JsonFileTaskRepository reloaded = new JsonFileTaskRepository(testFile);
+        assertEquals(List.of(2, 4, 5), reloaded.findAll().stream().map(Task::id).toList());
+    }
+
+    @Test
+    @DisplayName("Deltas: a segment is ignored once another writer has rewritten the file")
+    void deltasIgnoreStaleSegment() throws IOException {
+        seed(5);
+        JsonFileTaskRepository deltas = new JsonFileTaskRepository(testFile, DELTAS);
+        deltas.delete(1);
+        deltas.persist();
+
+        JsonFileTaskRepository plain = new JsonFileTaskRepository(testFile);
+        assertFalse(plain.exists(1));
+        plain.save(new Task(1, "Restored"));
+        plain.persist();
+
+        assertEquals("Restored", new JsonFileTaskRepository(testFile, DELTAS).findById(1).orElseThrow().description());
+    }
+
+    @Test
+    @DisplayName("Deltas: a corrupt file is rebuilt from the .bak plus the segment merged into it")
+    void deltasRecoverThroughBackupSegment() throws IOException {
+        seed(1000);
+        JsonFileTaskRepository deltas = new JsonFileTaskRepository(testFile, DELTAS);
+        deltas.save(deltas.findById(1).orElseThrow().updateDescription("Renamed"));
+        deltas.persist();
+        for (int id = 2; id <= 700; id++) deltas.save(deltas.findById(id).orElseThrow().updateStatus(TaskStatus.DONE));
+        deltas.persist(); // rewrite: .bak holds the seed, .delta.bak the rename
+
+        Files.writeString(testFile, "{invalid json");
+
+        JsonFileTaskRepository recovered = new JsonFileTaskRepository(testFile, DELTAS);
+        assertEquals(1000, recovered.count());
+        assertEquals("Renamed", recovered.findById(1).orElseThrow().description());
+    }
+
+    // ---------- Durability ----------
+
+    private static final JsonFileTaskRepository.Options DURABLE = JsonFileTaskRepository.Options.defaults().withDurable(true);
+
+    @Test
+    @DisplayName("Durable: the file ends with a CRC32C trailer and every loader reads it")
+    void durableWritesChecksumTrailer() throws IOException {
+        JsonFileTaskRepository durable = new JsonFileTaskRepository(testFile, DURABLE);
+        for (int i = 1; i <= 5; i++) durable.save(new Task(durable.nextId(), "Task " + i));
+        durable.persist();
+
+        assertTrue(Files.readString(testFile).matches("(?s)\\[.*]\n\\{\"crc32c\":\"[0-9a-f]{8}\"}\n"));
+        for (JsonFileTaskRepository.Options options : List.of(JsonFileTaskRepository.Options.defaults(), LAZY, DURABLE, DURABLE.withLazy(true))) {
+            JsonFileTaskRepository reloaded = new JsonFileTaskRepository(testFile, options);
+            assertEquals(5, reloaded.count());
+            assertEquals("Task 3", reloaded.findById(3).orElseThrow().description());
+        }
+    }
+
+    @Test
+    @DisplayName("Durable: a damaged byte that still parses is caught by the checksum and recovered from .bak")
+    void durableDetectsSilentCorruption() throws IOException {
+        JsonFileTaskRepository durable = new JsonFileTaskRepository(testFile, DURABLE);
+        durable.save(new Task(durable.nextId(), "First task"));
+        durable.save(new Task(durable.nextId(), "Second task"));
+        durable.persist();
+        durable.persist(); // .bak now holds a valid copy
+
+        Files.writeString(testFile, Files.readString(testFile).replace("Second", "Secund"));
+
+        for (JsonFileTaskRepository.Options options : List.of(DURABLE, DURABLE.withLazy(true))) {
+            JsonFileTaskRepository recovered = new JsonFileTaskRepository(testFile, options);
+            assertEquals("Second task", recovered.findById(2).orElseThrow().description());
+        }
+    }
+
+    @Test
+    @DisplayName("Durable: a file that matches its checksum but does not parse fails instead of using .bak")
+    void durableIntactButInvalidFails() throws IOException {
+        JsonFileTaskRepository durable = new JsonFileTaskRepository(testFile, DURABLE);
+        durable.save(new Task(durable.nextId(), "First task"));
+        durable.persist();
+        durable.persist();
+
+        byte[] body = "[{\"id\":".getBytes(StandardCharsets.UTF_8);
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        Files.write(testFile, body);
+        Files.write(testFile, ChecksumTrailer.format(crc.getValue()), StandardOpenOption.APPEND);
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> new JsonFileTaskRepository(testFile, DURABLE));
+        assertTrue(ex.getMessage().contains("Failed to load tasks"));
+    }
+
+    // ---------- Timestamp formats ----------
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2026, 10, 18, 11, 23, 50, 780431337);
+    private static final LocalDateTime UPDATED = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    @Test
+    @DisplayName("Timestamps: the default array format is byte-for-byte what Jackson's Java time module writes")
+    void arrayTimestampsMatchJavaTimeModule() throws IOException {
+        List<Task> tasks = List.of(
+                new Task(1, "Nanos", TaskStatus.TODO, CREATED, UPDATED),
+                new Task(2, "Whole \"seconds\"", TaskStatus.IN_PROGRESS, CREATED.withNano(0), CREATED.withNano(1_000_000)),
+                new Task(3, "Minute", TaskStatus.DONE, UPDATED, UPDATED));
+        tasks.forEach(repo::save);
+        repo.persist();
+
+        ObjectMapper reflective = new ObjectMapper().registerModule(new JavaTimeModule());
+        assertEquals(reflective.writeValueAsString(tasks), Files.readString(testFile));
+    }
+
+    @Test
+    @DisplayName("Timestamps: iso and epoch round-trip to the nanosecond through every loader")
+    void isoAndEpochTimestampsRoundTrip() throws IOException {
+        for (JsonFileTaskRepository.TimestampFormat format : List.of(
+                JsonFileTaskRepository.TimestampFormat.ISO, JsonFileTaskRepository.TimestampFormat.EPOCH)) {
+            Path file = tempDir.resolve(format + ".json");
+            JsonFileTaskRepository.Options options = JsonFileTaskRepository.Options.defaults().withTimestamps(format);
+            JsonFileTaskRepository writer = new JsonFileTaskRepository(file, options);
+            writer.save(new Task(writer.nextId(), "Nanos", TaskStatus.TODO, CREATED, UPDATED));
+            writer.save(new Task(writer.nextId(), "Millis", TaskStatus.DONE, CREATED.withNano(5_000_000), CREATED.withNano(0)));
+            writer.persist();
+
+            String json = Files.readString(file);
+            assertTrue(json.contains(format == JsonFileTaskRepository.TimestampFormat.ISO
+                    ? "\"createdAt\":\"2026-10-18T11:23:50.780431337\",\"updatedAt\":\"2026-10-18T12:00:00\""
+                    : "\"createdAt\":1792322630780431337,"), json);
+            for (JsonFileTaskRepository.Options loader : List.of(JsonFileTaskRepository.Options.defaults(), LAZY, options.withLazy(true))) {
+                JsonFileTaskRepository reloaded = new JsonFileTaskRepository(file, loader);
+                Task first = reloaded.findById(1).orElseThrow();
+                assertEquals(CREATED, first.createdAt());
+                assertEquals(UPDATED, first.updatedAt());
+                assertEquals(CREATED.withNano(5_000_000), reloaded.findById(2).orElseThrow().createdAt());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Timestamps: a file mixing arrays, ISO strings, epoch nanos and epoch millis loads, and is rewritten in the chosen format")
+    void mixedTimestampFormatsAreDetected() throws IOException {
+        Files.writeString(testFile, "["
+                + "{\"id\":1,\"description\":\"Array\",\"status\":\"TODO\",\"createdAt\":[2026,10,18,11,23,50,780431337],\"updatedAt\":[2026,10,18,12,0]},"
+                + "{\"id\":2,\"description\":\"Iso\",\"status\":\"DONE\",\"createdAt\":\"2026-10-18T11:23:50.780431337\",\"updatedAt\":\"2026-10-18T12:00\"},"
+                + "{\"id\":3,\"description\":\"Nanos\",\"status\":\"TODO\",\"createdAt\":1792322630780431337,\"updatedAt\":1792324800000000000},"
+                + "{\"updatedAt\":1792324800000,\"createdAt\":1792322630780,\"status\":\"IN_PROGRESS\",\"description\":\"Millis\",\"id\":4}]");
+
+        JsonFileTaskRepository mixed = new JsonFileTaskRepository(testFile);
+        for (int id = 1; id <= 3; id++) {
+            assertEquals(CREATED, mixed.findById(id).orElseThrow().createdAt(), "task " + id);
+            assertEquals(UPDATED, mixed.findById(id).orElseThrow().updatedAt(), "task " + id);
+        }
+        assertEquals(CREATED.withNano(780_000_000), mixed.findById(4).orElseThrow().createdAt());
+
+        JsonFileTaskRepository epoch = new JsonFileTaskRepository(testFile,
+                JsonFileTaskRepository.Options.defaults().withTimestamps(JsonFileTaskRepository.TimestampFormat.EPOCH));
+        epoch.persist();
+        assertFalse(Files.readString(testFile).contains("\"createdAt\":["));
+        assertEquals(4, new JsonFileTaskRepository(testFile).count());
+    }
+
+    @Test
+    @DisplayName("Timestamps: unknown fields and unreadable timestamps are load failures, and tasks.timestamps is validated")
+    void invalidTimestampsAreRejected() throws IOException {
+        for (String task : List.of(
+                "{\"id\":1,\"description\":\"x\",\"status\":\"TODO\",\"createdAt\":\"yesterday\",\"updatedAt\":[2026,10,18,12,0]}",
+                "{\"id\":1,\"description\":\"x\",\"status\":\"TODO\",\"createdAt\":[2026,13,18,12,0],\"updatedAt\":[2026,10,18,12,0]}",
+                "{\"id\":1,\"description\":\"x\",\"status\":\"TODO\",\"createdAt\":[2026,10,18,12,0],\"updatedAt\":[2026,10,18,12,0],\"owner\":\"me\"}",
+                "{\"id\":1,\"description\":{\"text\":\"x\"},\"status\":\"TODO\",\"createdAt\":[2026,10,18,12,0],\"updatedAt\":[2026,10,18,12,0]}",
+                "{\"id\":1,\"description\":\"x\",\"status\":\"TODO\",\"createdAt\":[2026,10,18,12,0]}")) {
+            Files.writeString(testFile, "[" + task + "]");
+            RuntimeException ex = assertThrows(RuntimeException.class, () -> new JsonFileTaskRepository(testFile), task);
+            assertTrue(ex.getMessage().contains("Failed to load tasks"), task);
+        }
+
+        System.setProperty("tasks.timestamps", "EPOCH");
+        try {
+            assertEquals(JsonFileTaskRepository.TimestampFormat.EPOCH, JsonFileTaskRepository.Options.fromConfig().timestamps());
+            System.setProperty("tasks.timestamps", "unix");
+            assertThrows(IllegalArgumentException.class, JsonFileTaskRepository.Options::fromConfig);
+        } finally {
+            System.clearProperty("tasks.timestamps");
+        }
+        assertEquals(JsonFileTaskRepository.TimestampFormat.ARRAY, JsonFileTaskRepository.Options.fromConfig().timestamps());
+    }
+
+    @Test
+    @DisplayName("Timestamps: a time with no epoch value is written as ISO in epoch format, and skips the cache")
+    void outOfRangeTimestampsInEpochFormat() throws IOException {
+        LocalDateTime far = LocalDateTime.of(2300, 1, 1, 12, 0);
+        JsonFileTaskRepository.Options options = JsonFileTaskRepository.Options.defaults()
+                .withTimestamps(JsonFileTaskRepository.TimestampFormat.EPOCH).withCache(true);
+        JsonFileTaskRepository repo = new JsonFileTaskRepository(testFile, options);
+        repo.save(new Task(repo.nextId(), "Far ahead", TaskStatus.TODO, far, far));
+        repo.save(new Task(repo.nextId(), "Today"));
+        repo.persist();
+
+        assertTrue(Files.readString(testFile).contains("\"createdAt\":\"2300-01-01T12:00:00\""));
+        assertFalse(Files.exists(SnapshotCache.pathFor(testFile)));
+        JsonFileTaskRepository reloaded = new JsonFileTaskRepository(testFile, options);
+        assertEquals(far, reloaded.findById(1).orElseThrow().createdAt());
+        assertEquals(2, reloaded.count());
+    }
+
+    // ---------- Snapshot cache ----------
+
+    private static final JsonFileTaskRepository.Options CACHED = JsonFileTaskRepository.Options.defaults().withCache(true);
+
+    private Path cacheFile() {
+        return tempDir.resolve("test-tasks.json.cache");
+    }
+
+    @Test
+    @DisplayName("Cache: a save writes the cache, a warm load reads it, and the delta segment applies on top")
+    void cacheServesWarmLoads() throws IOException {
+        seed(5);
+        JsonFileTaskRepository cached = new JsonFileTaskRepository(testFile, CACHED.withDeltas(true));
+        assertTrue(Files.exists(cacheFile()), "written by the first load");
+        cached.save(cached.findById(2).orElseThrow().updateStatus(TaskStatus.DONE));
+        cached.persist();
+        assertTrue(Files.exists(deltaFile()));
+
+        // Swap in a cache for the same file version holding different text: a warm load must use it.
+        List<Task> marked = new JsonFileTaskRepository(testFile).findAll().stream()
+                .map(task -> task.id() == 2 ? task : task.updateDescription("From cache " + task.id()))
+                .toList();
+        SnapshotCache.write(cacheFile(), SnapshotCache.Key.of(testFile), marked);
+        JsonFileTaskRepository warm = new JsonFileTaskRepository(testFile, CACHED);
+        assertEquals(5, warm.count());
+        assertEquals("From cache 1", warm.findById(1).orElseThrow().description());
+        assertEquals(TaskStatus.DONE, warm.findById(2).orElseThrow().status(), "segment replayed on the cache");
+
+        int id = warm.nextId();
+        assertTrue(id > 5);
+        warm.save(new Task(id, "After warm load"));
+        warm.persist();
+        assertEquals(6, SnapshotCache.load(cacheFile(), testFile, task -> { }), "rebuilt by the save");
+        JsonFileTaskRepository reloaded = new JsonFileTaskRepository(testFile, CACHED);
+        assertEquals(List.of(1, 2, 3, 4, 5, id), reloaded.findAll().stream().map(Task::id).toList());
+        assertEquals("After warm load", reloaded.findById(id).orElseThrow().description());
+    }
+
+    @Test
+    @DisplayName("Cache: an outside edit that keeps the file's size and time is caught by the checksum")
+    void cacheRejectsOutsideEdits() throws IOException {
+        seed(3);
+        new JsonFileTaskRepository(testFile, CACHED);
+        assertEquals(3, SnapshotCache.load(cacheFile(), testFile, task -> { }));
+
+        var modified = Files.getLastModifiedTime(testFile);
+        String json = Files.readString(testFile);
+        Files.writeString(testFile, json.replace("Task 1", "Task X"));
+        Files.setLastModifiedTime(testFile, modified);
+
+        JsonFileTaskRepository reloaded = new JsonFileTaskRepository(testFile, CACHED);
+        assertEquals("Task X", reloaded.findById(2).orElseThrow().description());
+        assertEquals(3, SnapshotCache.load(cacheFile(), testFile, task -> { }), "rebuilt for the edited file");
+    }
+
+    @Test
+    @DisplayName("Cache: a damaged or foreign cache is ignored and replaced")
+    void damagedCacheIgnored() throws IOException {
+        seed(3);
+        new JsonFileTaskRepository(testFile, CACHED);
+        byte[] bytes = Files.readAllBytes(cacheFile());
+        bytes[bytes.length / 2] ^= 0x40;
+        Files.write(cacheFile(), bytes);
+        assertEquals(-1, SnapshotCache.load(cacheFile(), testFile, task -> fail("damaged cache used")));
+
+        JsonFileTaskRepository reloaded = new JsonFileTaskRepository(testFile, CACHED);
+        assertEquals("Task 1", reloaded.findById(2).orElseThrow().description());
+        assertEquals(3, SnapshotCache.load(cacheFile(), testFile, task -> { }));
+
+        Files.writeString(cacheFile(), "not a cache");
+        assertEquals(3, new JsonFileTaskRepository(testFile, CACHED).count());
+    }
+
+    // ---------- Concurrent writers ----------
+
+    @Test
+    @DisplayName("Locking: two writers loaded at the same time get distinct IDs and both keep their tasks")
+    void concurrentWritersGetDistinctIds() {
+        seed(3);
+        JsonFileTaskRepository first = new JsonFileTaskRepository(testFile);
+        JsonFileTaskRepository second = new JsonFileTaskRepository(testFile);
+        Task a = first.save(new Task(first.nextId(), "From first"));
+        Task b = second.save(new Task(second.nextId(), "From second"));
+        first.persist();
+        second.persist();
+
+        assertNotEquals(a.id(), b.id());
+        JsonFileTaskRepository reloaded = new JsonFileTaskRepository(testFile);
+        assertEquals(5, reloaded.count());
+        assertEquals("From first", reloaded.findById(a.id()).orElseThrow().description());
+        assertEquals("From second", reloaded.findById(b.id()).orElseThrow().description());
+    }
+
+    @Test
+    @DisplayName("Locking: changes to different tasks are merged, as full rewrites and as deltas")
+    void concurrentChangesToDifferentTasksMerge() throws IOException {
+        for (JsonFileTaskRepository.Options options : List.of(JsonFileTaskRepository.Options.defaults(), DELTAS, LAZY)) {
+            Path file = Files.createTempFile(tempDir, "merge", ".json");
+            Files.delete(file);
+            JsonFileTaskRepository seeded = new JsonFileTaskRepository(file);
+            for (int i = 1; i <= 3; i++) seeded.save(new Task(seeded.nextId(), "Task " + i));
+            seeded.persist();
+
+            JsonFileTaskRepository first = new JsonFileTaskRepository(file, options);
+            JsonFileTaskRepository second = new JsonFileTaskRepository(file, options);
+            first.save(first.findById(1).orElseThrow().updateStatus(TaskStatus.DONE));
+            second.delete(2);
+            first.persist();
+            second.persist();
+
+            JsonFileTaskRepository reloaded = new JsonFileTaskRepository(file);
+            assertEquals(TaskStatus.DONE, reloaded.findById(1).orElseThrow().status(), options.toString());
+            assertFalse(reloaded.exists(2), options.toString());
+            assertTrue(reloaded.exists(3), options.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Locking: a task changed by both fails the later persist, and persisting again keeps its version")
+    void concurrentChangesToSameTaskConflict() {
+        seed(3);
+        JsonFileTaskRepository first = new JsonFileTaskRepository(testFile);
+        JsonFileTaskRepository second = new JsonFileTaskRepository(testFile);
+        first.save(first.findById(2).orElseThrow().updateDescription("First's edit"));
+        second.save(second.findById(2).orElseThrow().updateDescription("Second's edit"));
+        second.save(second.findById(3).orElseThrow().updateStatus(TaskStatus.DONE));
+        first.persist();
+
+        ConcurrentModificationException ex = assertThrows(ConcurrentModificationException.class, second::persist);
+        assertTrue(ex.getMessage().contains("[2]"), ex.getMessage());
+        assertEquals("First's edit", new JsonFileTaskRepository(testFile).findById(2).orElseThrow().description());
+
+        second.persist();
+        JsonFileTaskRepository reloaded = new JsonFileTaskRepository(testFile);
+        assertEquals("Second's edit", reloaded.findById(2).orElseThrow().description());
+        assertEquals(TaskStatus.DONE, reloaded.findById(3).orElseThrow().status());
+    }
+
+    @Test
+    @DisplayName("Locking: disabled, the last writer wins as before")
+    void lockingDisabledLastWriterWins() {
+        seed(3);
+        JsonFileTaskRepository.Options unlocked = JsonFileTaskRepository.Options.defaults().withLocking(false);
+        JsonFileTaskRepository first = new JsonFileTaskRepository(testFile, unlocked);
+        JsonFileTaskRepository second = new JsonFileTaskRepository(testFile, unlocked);
+        first.save(new Task(first.nextId(), "From first"));
+        second.save(new Task(second.nextId(), "From second"));
+        first.persist();
+        second.persist();
+
+        assertEquals("From second", new JsonFileTaskRepository(testFile).findById(4).orElseThrow().description());
+    }
+
+    @Test
+    @DisplayName("Locking: IDs restart from the tasks in the file once it is deleted or replaced without the lock")
+    void idCounterFollowsTheFile() throws IOException {
+        seed(3);
+        Path backup = tempDir.resolve("saved.json");
+        Files.copy(testFile, backup);
+        JsonFileTaskRepository grown = new JsonFileTaskRepository(testFile);
+        for (int i = 0; i < 5; i++) grown.save(new Task(grown.nextId(), "Later " + i));
+        grown.persist();
+
+        Files.copy(backup, testFile, StandardCopyOption.REPLACE_EXISTING);
+        assertEquals(4, new JsonFileTaskRepository(testFile).nextId(), "restored backup");
+
+        Files.delete(testFile);
+        JsonFileTaskRepository first = new JsonFileTaskRepository(testFile);
+        JsonFileTaskRepository second = new JsonFileTaskRepository(testFile);
+        assertEquals(1, first.nextId(), "deleted file");
+        assertEquals(2, second.nextId(), "the counter is trusted again once reset");
+    }
+
     // ---------- Path validation ----------
 
     @Test
@@ -120,6 +782,29 @@ class JsonFileTaskRepositoryTest {
         assertEquals("Second task", recovered.findById(2).orElseThrow().description());
     }
 
+    @Test
+    @DisplayName("Primary truncated mid-array: tasks parsed before the damage do not leak into recovery")
+    void truncatedPrimaryRecoversOnlyBackupContents() throws IOException {
+        repo.save(new Task(repo.nextId(), "Backed up"));
+        repo.persist();
+        repo.persist();
+
+        Files.writeString(testFile, "[{\"id\":5,\"description\":\"Partial\",\"status\":\"TODO\","
+                + "\"createdAt\":\"2024-01-01T00:00:00\",\"updatedAt\":\"2024-01-01T00:00:00\"},{\"id\":");
+
+        JsonFileTaskRepository recovered = new JsonFileTaskRepository(testFile);
+        assertEquals(1, recovered.count());
+        assertFalse(recovered.exists(5));
+        assertEquals(2, recovered.nextId());
+    }
+
+    @Test
+    @DisplayName("Top-level value that is not an array is rejected")
+    void nonArrayDocumentThrows() throws IOException {
+        Files.writeString(testFile, "{\"id\": 1}");
+        assertThrows(RuntimeException.class, () -> new JsonFileTaskRepository(testFile));
+    }
+
     @Test
     @DisplayName("Both primary and backup corrupted throws RuntimeException")
     void bothFilesCorruptedThrows() throws IOException {
@@ -0,0 +1,165 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+class MappedFileTaskRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path storeFile;
+    private MappedFileTaskRepository repo;
+
+    @BeforeEach
+    void setUp() {
+        storeFile = tempDir.resolve("tasks.db");
+        repo = new MappedFileTaskRepository(storeFile);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repo.close();
+    }
+
+    private MappedFileTaskRepository reopen() {
+        repo.close();
+        repo = new MappedFileTaskRepository(storeFile);
+        return repo;
+    }
+
+    @Test
+    @DisplayName("save and persist: every field survives reopening, timestamps exactly")
+    void roundTripPreservesAllFields() {
+        LocalDateTime created = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_789);
+        Task task = new Task(repo.nextId(), "Write report ✓", TaskStatus.IN_PROGRESS, created, created.plusHours(1));
+        repo.save(task);
+        repo.persist();
+
+        Task loaded = reopen().findById(task.id()).orElseThrow();
+        assertEquals(task.description(), loaded.description());
+        assertEquals(TaskStatus.IN_PROGRESS, loaded.status());
+        assertEquals(created, loaded.createdAt());
+        assertEquals(created.plusHours(1), loaded.updatedAt());
+        assertEquals(2, repo.nextId());
+    }
+
+    @Test
+    @DisplayName("a timestamp outside 1677 to 2262 is refused before anything is written")
+    void outOfRangeTimestampRefused() {
+        repo.save(new Task(repo.nextId(), "Kept"));
+        LocalDateTime far = LocalDateTime.of(2300, 1, 1, 0, 0);
+        Task task = new Task(repo.nextId(), "Too late", TaskStatus.TODO, far, far);
+        assertThrows(IllegalArgumentException.class, () -> repo.save(task));
+        repo.persist();
+
+        assertEquals(1, reopen().count());
+        assertFalse(repo.exists(2));
+    }
+
+    @Test
+    @DisplayName("count, exists and findById answer from the index without loading everything")
+    void pointLookups() {
+        repo.save(new Task(repo.nextId(), "One"));
+        repo.save(new Task(repo.nextId(), "Two"));
+        repo.delete(1);
+
+        assertEquals(1, repo.count());
+        assertFalse(repo.exists(1));
+        assertTrue(repo.exists(2));
+        assertFalse(repo.exists(0));
+        assertFalse(repo.exists(1_000_000));
+        assertTrue(repo.findById(1).isEmpty());
+        assertTrue(repo.delete(1).isEmpty());
+    }
+
+    @Test
+    @DisplayName("index and heap grow past their initial mapping")
+    void growsBeyondInitialMapping() {
+        String longText = "x".repeat(Task.MAX_DESCRIPTION_LENGTH);
+        for (int i = 0; i < 3000; i++) repo.save(new Task(repo.nextId(), i % 100 == 0 ? longText : "Task " + i));
+        repo.persist();
+
+        MappedFileTaskRepository reloaded = reopen();
+        assertEquals(3000, reloaded.count());
+        assertEquals(longText, reloaded.findById(2901).orElseThrow().description());
+        assertEquals("Task 2999", reloaded.findById(3000).orElseThrow().description());
+        assertEquals(3000, reloaded.findAll().size());
+    }
+
+    @Test
+    @DisplayName("findByStatus returns only matching tasks in ID order")
+    void findByStatusFilters() {
+        for (int i = 0; i < 10; i++) repo.save(new Task(repo.nextId(), "Task " + i));
+        repo.save(repo.findById(3).orElseThrow().updateStatus(TaskStatus.DONE));
+        repo.save(repo.findById(7).orElseThrow().updateStatus(TaskStatus.DONE));
+
+        List<Task> done = repo.findByStatus(TaskStatus.DONE);
+        assertEquals(List.of(3, 7), done.stream().map(Task::id).toList());
+        assertEquals(8, repo.findByStatus(TaskStatus.TODO).size());
+    }
+
+    @Test
+    @DisplayName("status change reuses the stored description; edits and deletes count as garbage")
+    void garbageAccounting() {
+        Task task = repo.save(new Task(repo.nextId(), "Stable text"));
+        repo.save(task.updateStatus(TaskStatus.DONE));
+        assertEquals(0, repo.garbageBytes());
+
+        repo.save(task.updateDescription("Changed"));
+        assertEquals("Stable text".length(), repo.garbageBytes());
+        repo.delete(task.id());
+        assertEquals("Stable text".length() + "Changed".length(), repo.garbageBytes());
+    }
+
+    @Test
+    @DisplayName("file that is not a task index is rejected")
+    void rejectsForeignFile() throws IOException {
+        Path other = tempDir.resolve("other.db");
+        Files.writeString(other, "definitely not an index file, but long enough to map a header......");
+        assertThrows(RuntimeException.class, () -> new MappedFileTaskRepository(other));
+    }
+
+    @Test
+    @DisplayName("converter copies every task from tasks.json and keeps the ID sequence")
+    void convertsFromJson() {
+        Path json = tempDir.resolve("tasks.json");
+        JsonFileTaskRepository source = new JsonFileTaskRepository(json, JsonFileTaskRepository.Options.defaults().withLocking(false));
+        for (int i = 0; i < 5; i++) source.save(new Task(source.nextId(), "Task " + i));
+        source.save(source.findById(2).orElseThrow().updateStatus(TaskStatus.DONE));
+        source.delete(4);
+        source.persist();
+
+        Path target = tempDir.resolve("converted.db");
+        assertEquals(4, MappedTaskStoreConverter.convert(json, target));
+        assertFalse(Files.exists(StoreLock.pathFor(json)), "the source is only read");
+
+        try (MappedFileTaskRepository converted = new MappedFileTaskRepository(target)) {
+            assertEquals(4, converted.count());
+            assertEquals(TaskStatus.DONE, converted.findById(2).orElseThrow().status());
+            assertFalse(converted.exists(4));
+            assertEquals(6, converted.nextId());
+        }
+        assertThrows(IllegalArgumentException.class, () -> MappedTaskStoreConverter.convert(json, target));
+    }
+
+    @Test
+    @DisplayName("streamAfter walks slots in ID order, skipping deleted tasks")
+    void streamAfterSkipsEmptySlots() {
+        for (int i = 0; i < 6; i++) repo.save(new Task(repo.nextId(), "Task " + i));
+        repo.delete(3);
+        repo.save(repo.findById(5).orElseThrow().updateStatus(TaskStatus.DONE));
+
+        assertEquals(List.of(1, 2, 4, 5, 6), repo.streamAfter(0).map(Task::id).toList());
+        assertEquals(List.of(4, 6), repo.streamAfter(2, TaskStatus.TODO).map(Task::id).toList());
+        assertEquals(List.of(6), repo.streamAfter(5).limit(3).map(Task::id).toList());
+    }
+}
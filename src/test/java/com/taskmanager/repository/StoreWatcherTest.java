@@ -0,0 +1,131 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class StoreWatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::id).toList();
+    }
+
+    private static void add(TaskRepository repo, String... descriptions) {
+        for (String description : descriptions) repo.save(new Task(repo.nextId(), description));
+    }
+
+    // ---------- Rereading ----------
+
+    @Test
+    @DisplayName("a rewrite of the file reports tasks added, changed and removed, compared field by field")
+    void rewriteReportsDifferences() {
+        Path file = tempDir.resolve("tasks.json");
+        JsonFileTaskRepository repo = new JsonFileTaskRepository(file);
+        add(repo, "Write report", "Buy milk", "Call Bob");
+        repo.persist();
+
+        try (StoreWatcher watcher = new StoreWatcher(file, false)) {
+            assertEquals(List.of(1, 2, 3), ids(watcher.tasks()));
+            assertTrue(watcher.refresh().isEmpty(), "nothing changed yet");
+
+            repo.update(1, task -> task.updateStatus(TaskStatus.DONE));
+            repo.delete(2);
+            add(repo, "Book flights");
+            repo.persist();
+
+            StoreWatcher.Changes changes = watcher.refresh();
+            assertEquals(List.of(4), ids(changes.added()));
+            assertEquals(List.of(1), ids(changes.changed()));
+            assertEquals(TaskStatus.DONE, changes.changed().get(0).status());
+            assertEquals(List.of(2), ids(changes.removed()));
+            assertEquals(List.of(1, 3, 4), ids(watcher.tasks()));
+            assertTrue(watcher.refresh().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("with deltas only the segment changes, and a merge into the file reports nothing new")
+    void followsDeltaSegment() {
+        Path file = tempDir.resolve("tasks.json");
+        JsonFileTaskRepository repo = new JsonFileTaskRepository(file, JsonFileTaskRepository.Options.defaults().withDeltas(true));
+        add(repo, "Alpha", "Beta");
+        repo.persist();
+
+        try (StoreWatcher watcher = new StoreWatcher(file, false)) {
+            repo.update(2, task -> task.updateDescription("Beta, revised"));
+            add(repo, "Gamma");
+            repo.persist();
+            assertTrue(Files.exists(DeltaSegment.pathFor(file)), "appended, not rewritten");
+
+            StoreWatcher.Changes changes = watcher.refresh();
+            assertEquals(List.of(3), ids(changes.added()));
+            assertEquals("Beta, revised", changes.changed().get(0).description());
+            assertEquals(List.of(), changes.removed());
+
+            repo.delete(1);
+            repo.persist();
+            assertEquals(List.of(1), ids(watcher.refresh().removed()));
+
+            // A rewrite folds the segment into the file: the same tasks, read from elsewhere.
+            new JsonFileTaskRepository(file).persist();
+            assertFalse(Files.exists(DeltaSegment.pathFor(file)));
+            assertTrue(watcher.refresh().isEmpty());
+            assertEquals(List.of(2, 3), ids(watcher.tasks()));
+        }
+    }
+
+    @Test
+    @DisplayName("a missing file reads as empty, and its deletion removes every task")
+    void missingFile() throws Exception {
+        Path file = tempDir.resolve("tasks.json");
+        try (StoreWatcher watcher = new StoreWatcher(file, true)) {
+            assertEquals(List.of(), watcher.tasks());
+
+            JsonFileTaskRepository repo = new JsonFileTaskRepository(file, JsonFileTaskRepository.Options.defaults().withLocking(true));
+            add(repo, "First");
+            repo.persist();
+            assertEquals(List.of(1), ids(watcher.refresh().added()));
+
+            Files.delete(file);
+            assertEquals(List.of(1), ids(watcher.refresh().removed()));
+        }
+    }
+
+    // ---------- Notification ----------
+
+    @Test
+    @DisplayName("take() wakes up for a persist by another writer and ignores other files in the directory")
+    void takeWakesOnPersist() throws Exception {
+        Path file = tempDir.resolve("tasks.json");
+        JsonFileTaskRepository repo = new JsonFileTaskRepository(file);
+        add(repo, "Existing");
+        repo.persist();
+
+        try (StoreWatcher watcher = new StoreWatcher(file, false)) {
+            CompletableFuture<StoreWatcher.Changes> next = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return watcher.take();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            Files.writeString(tempDir.resolve("notes.txt"), "unrelated");
+            add(repo, "Arrived while watching");
+            repo.persist();
+
+            StoreWatcher.Changes changes = next.get(30, TimeUnit.SECONDS);
+            assertEquals(List.of(2), ids(changes.added()));
+            assertEquals(List.of(), changes.changed());
+        }
+    }
+}
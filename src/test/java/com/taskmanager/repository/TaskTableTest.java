@@ -0,0 +1,86 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+class TaskTableTest {
+
+    private TaskTable table;
+
+    @BeforeEach
+    void setUp() {
+        table = new TaskTable();
+        for (int id = 1; id <= 5; id++) table.put(new Task(id, "Task " + id));
+    }
+
+    private List<Integer> idsOf(TaskStatus status) {
+        return table.byStatus(status).stream().map(Task::id).toList();
+    }
+
+    @Test
+    @DisplayName("Status index follows status changes")
+    void statusChangeMovesBetweenIndexes() {
+        table.put(table.get(4).updateStatus(TaskStatus.DONE));
+        table.put(table.get(2).updateStatus(TaskStatus.DONE));
+
+        assertEquals(List.of(2, 4), idsOf(TaskStatus.DONE));
+        assertEquals(List.of(1, 3, 5), idsOf(TaskStatus.TODO));
+        assertEquals(2, table.countByStatus(TaskStatus.DONE));
+        assertEquals(0, table.countByStatus(TaskStatus.IN_PROGRESS));
+    }
+
+    @Test
+    @DisplayName("Replacing a task without a status change keeps it indexed once")
+    void sameStatusReplaceKeepsSingleEntry() {
+        table.put(table.get(3).updateDescription("Renamed"));
+        assertEquals(5, table.countByStatus(TaskStatus.TODO));
+        assertEquals("Renamed", table.byStatus(TaskStatus.TODO).get(2).description());
+    }
+
+    @Test
+    @DisplayName("Remove and clear drop index entries")
+    void removeAndClear() {
+        assertNotNull(table.remove(1));
+        assertNull(table.remove(1));
+        assertEquals(List.of(2, 3, 4, 5), idsOf(TaskStatus.TODO));
+
+        table.clear();
+        assertEquals(0, table.size());
+        assertEquals(0, table.countByStatus(TaskStatus.TODO));
+    }
+
+    @Test
+    @DisplayName("Status results are in ID order regardless of insertion order")
+    void resultsAreIdOrdered() {
+        TaskTable shuffled = new TaskTable();
+        for (int id : new int[] {9, 3, 7, 1}) shuffled.put(new Task(id, "Task " + id));
+        assertEquals(List.of(1, 3, 7, 9), shuffled.byStatus(TaskStatus.TODO).stream().map(Task::id).toList());
+    }
+
+    @Test
+    @DisplayName("streamAfter merges the status indexes into ID order, starting after the cursor")
+    void streamAfterIsIdOrdered() {
+        table.put(table.get(2).updateStatus(TaskStatus.DONE));
+        table.put(table.get(5).updateStatus(TaskStatus.IN_PROGRESS));
+
+        assertEquals(List.of(1, 2, 3, 4, 5), table.streamAfter(0).map(Task::id).toList());
+        assertEquals(List.of(3, 4, 5), table.streamAfter(2).map(Task::id).toList());
+        assertEquals(List.of(3, 4), table.streamAfter(1, TaskStatus.TODO).map(Task::id).toList());
+        assertEquals(List.of(), table.streamAfter(5).toList());
+    }
+
+    @Test
+    @DisplayName("mergeAscending returns IDs present in several sources once")
+    void mergeSkipsDuplicates() {
+        Iterator<Integer> merged = TaskTable.mergeAscending(List.of(
+                List.of(1, 4, 6).iterator(), List.of(2, 4).iterator(), List.<Integer>of().iterator()));
+        List<Integer> ids = new ArrayList<>();
+        merged.forEachRemaining(ids::add);
+        assertEquals(List.of(1, 2, 4, 6), ids);
+    }
+}
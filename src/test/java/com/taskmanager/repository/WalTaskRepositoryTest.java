@@ -0,0 +1,173 @@
+package com.taskmanager.repository;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatus;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+class WalTaskRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path logFile;
+    private WalTaskRepository repo;
+
+    @BeforeEach
+    void setUp() {
+        logFile = tempDir.resolve("tasks.wal");
+        repo = new WalTaskRepository(logFile);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repo.close();
+    }
+
+    private WalTaskRepository reopen(long threshold) {
+        repo.close();
+        repo = new WalTaskRepository(logFile, threshold);
+        return repo;
+    }
+
+    @Test
+    @DisplayName("save, delete and persist: state is rebuilt by replaying the log")
+    void replayRestoresState() {
+        Task t1 = repo.save(new Task(repo.nextId(), "First"));
+        Task t2 = repo.save(new Task(repo.nextId(), "Second"));
+        repo.save(t2.updateStatus(TaskStatus.DONE));
+        repo.delete(t1.id());
+        repo.persist();
+
+        WalTaskRepository reloaded = reopen(WalTaskRepository.DEFAULT_COMPACTION_THRESHOLD_BYTES);
+        assertEquals(1, reloaded.count());
+        assertFalse(reloaded.exists(t1.id()));
+        assertEquals(TaskStatus.DONE, reloaded.findById(t2.id()).orElseThrow().status());
+        assertEquals(3, reloaded.nextId());
+    }
+
+    @Test
+    @DisplayName("persist appends only the new records instead of rewriting the file")
+    void persistAppendsOnlyChanges() throws IOException {
+        for (int i = 0; i < 100; i++) repo.save(new Task(repo.nextId(), "Task " + i));
+        repo.persist();
+        long before = Files.size(logFile);
+
+        repo.save(repo.findById(1).orElseThrow().updateStatus(TaskStatus.DONE));
+        repo.persist();
+        long grown = Files.size(logFile) - before;
+
+        assertTrue(grown > 0 && grown < before / 10, "Expected a small append but log grew by " + grown);
+    }
+
+    @Test
+    @DisplayName("unpersisted changes are not written to the log")
+    void unpersistedChangesAreDropped() {
+        repo.save(new Task(repo.nextId(), "Kept"));
+        repo.persist();
+        repo.save(new Task(repo.nextId(), "Dropped"));
+
+        assertEquals(1, reopen(WalTaskRepository.DEFAULT_COMPACTION_THRESHOLD_BYTES).count());
+    }
+
+    @Test
+    @DisplayName("torn record at the log tail is discarded on load")
+    void tornTailIsDiscarded() throws IOException {
+        repo.save(new Task(repo.nextId(), "Complete"));
+        repo.persist();
+        repo.close();
+        Files.writeString(logFile, "{\"seq\":2,\"op\":\"put\",\"ta", StandardOpenOption.APPEND);
+
+        WalTaskRepository reloaded = reopen(WalTaskRepository.DEFAULT_COMPACTION_THRESHOLD_BYTES);
+        assertEquals(1, reloaded.count());
+        reloaded.save(new Task(reloaded.nextId(), "After recovery"));
+        reloaded.persist();
+
+        assertEquals(2, reopen(WalTaskRepository.DEFAULT_COMPACTION_THRESHOLD_BYTES).count());
+    }
+
+    @Test
+    @DisplayName("corrupt record in the middle of the log fails loudly")
+    void corruptRecordThrows() throws IOException {
+        repo.close();
+        Files.writeString(logFile, "{invalid json\n{\"seq\":2,\"op\":\"delete\",\"id\":1}\n");
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> new WalTaskRepository(logFile));
+        assertTrue(ex.getMessage().contains("Failed to load tasks from log"));
+        repo = new WalTaskRepository(tempDir.resolve("other.wal"));
+    }
+
+    @Test
+    @DisplayName("crossing the threshold compacts into a snapshot and trims the log")
+    void compactionWritesSnapshotAndTrimsLog() throws Exception {
+        WalTaskRepository small = reopen(1024);
+        for (int i = 0; i < 50; i++) small.save(new Task(small.nextId(), "Task " + i));
+        small.persist();
+        small.awaitCompaction();
+
+        assertTrue(Files.exists(tempDir.resolve("tasks.wal.snapshot")));
+        assertEquals(0, Files.size(logFile));
+
+        small.delete(7);
+        small.persist();
+
+        WalTaskRepository reloaded = reopen(1024);
+        assertEquals(49, reloaded.count());
+        assertFalse(reloaded.exists(7));
+        assertEquals(51, reloaded.nextId());
+    }
+
+    @Test
+    @DisplayName("records already covered by the snapshot are not replayed twice")
+    void snapshotSequenceSkipsOldRecords() throws Exception {
+        WalTaskRepository small = reopen(512);
+        for (int i = 0; i < 20; i++) small.save(new Task(small.nextId(), "Task " + i));
+        small.persist();
+        small.awaitCompaction();
+        small.close();
+        // Simulate a crash after the snapshot was written but before the log was trimmed.
+        Files.writeString(logFile, "{\"seq\":1,\"op\":\"delete\",\"id\":1}\n");
+
+        assertTrue(reopen(512).exists(1));
+    }
+
+    @Test
+    @DisplayName("an append that fails partway is cut off, and the retried batch loads cleanly")
+    void failedAppendIsTruncated() throws IOException {
+        repo.save(new Task(repo.nextId(), "Before"));
+        repo.persist();
+        long before = Files.size(logFile);
+        repo.close();
+
+        // Writes half the batch and then fails once, as a full disk would.
+        repo = new WalTaskRepository(logFile) {
+            boolean failed;
+
+            @Override
+            void append(FileChannel log, ByteBuffer buffer) throws IOException {
+                if (failed) {
+                    super.append(log, buffer);
+                    return;
+                }
+                failed = true;
+                log.write(buffer.limit(buffer.limit() / 2));
+                throw new IOException("No space left on device");
+            }
+        };
+        repo.save(new Task(repo.nextId(), "Retried"));
+        repo.delete(1);
+        assertThrows(RuntimeException.class, repo::persist);
+        assertEquals(before, Files.size(logFile));
+
+        repo.persist();
+        WalTaskRepository reloaded = reopen(WalTaskRepository.DEFAULT_COMPACTION_THRESHOLD_BYTES);
+        assertEquals(1, reloaded.count());
+        assertEquals("Retried", reloaded.findById(2).orElseThrow().description());
+    }
+}
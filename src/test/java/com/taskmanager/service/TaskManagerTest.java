@@ -5,7 +5,11 @@ import com.taskmanager.model.TaskStatus;
 import com.taskmanager.repository.InMemoryTaskRepository;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Unit tests for TaskManager business logic.
@@ -116,6 +120,18 @@ class TaskManagerTest {
         assertEquals(task2.id(), doneTasks.get(0).id());
     }
 
+    @Test
+    @DisplayName("Should count tasks per status")
+    void shouldCountTasksPerStatus() {
+        taskManager.addTask("Todo task");
+        Task done = taskManager.addTask("Done task");
+        taskManager.updateTaskStatus(done.id(), TaskStatus.DONE);
+
+        assertEquals(1, taskManager.getTaskCount(TaskStatus.TODO));
+        assertEquals(1, taskManager.getTaskCount(TaskStatus.DONE));
+        assertEquals(0, taskManager.getTaskCount(TaskStatus.IN_PROGRESS));
+    }
+
     @Test
     @DisplayName("Should handle empty task list")
     void shouldHandleEmptyTaskList() {
@@ -173,4 +189,131 @@ class TaskManagerTest {
         String atLimit = "x".repeat(Task.MAX_DESCRIPTION_LENGTH);
         assertDoesNotThrow(() -> taskManager.addTask(atLimit));
     }
+
+    @Test
+    @DisplayName("addTasks assigns one consecutive block of IDs")
+    void addTasksReservesConsecutiveIds() {
+        taskManager.addTask("Existing");
+        List<Task> added = taskManager.addTasks(List.of("A", "B", "C"));
+
+        assertEquals(List.of(2, 3, 4), added.stream().map(Task::id).toList());
+        assertEquals(4, taskManager.getTaskCount());
+        assertEquals(5, taskManager.addTask("Next").id());
+    }
+
+    @Test
+    @DisplayName("addTasks with an invalid description adds nothing")
+    void addTasksIsAllOrNothing() {
+        assertThrows(IllegalArgumentException.class, () -> taskManager.addTasks(List.of("A", "  ", "C")));
+        assertEquals(0, taskManager.getTaskCount());
+        assertEquals(1, taskManager.addTask("Next").id(), "no IDs were reserved");
+    }
+
+    @Test
+    @DisplayName("updateStatuses and removeTasks apply every change, or none if an ID is missing")
+    void batchUpdatesValidateFirst() {
+        taskManager.addTasks(List.of("A", "B", "C"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> taskManager.updateStatuses(Map.of(1, TaskStatus.DONE, 99, TaskStatus.DONE)));
+        assertEquals(TaskStatus.TODO, taskManager.getTaskById(1).status());
+        assertThrows(IllegalArgumentException.class, () -> taskManager.removeTasks(List.of(1, 99)));
+        assertEquals(3, taskManager.getTaskCount());
+
+        taskManager.updateStatuses(Map.of(1, TaskStatus.DONE, 3, TaskStatus.IN_PROGRESS));
+        assertEquals(TaskStatus.DONE, taskManager.getTaskById(1).status());
+        assertEquals(TaskStatus.IN_PROGRESS, taskManager.getTaskById(3).status());
+        assertEquals(2, taskManager.removeTasks(List.of(1, 2, 1)).size());
+        assertEquals(1, taskManager.getTaskCount());
+    }
+
+    @Test
+    @DisplayName("importTasks saves in batches, renumbering unless IDs are kept")
+    void importTasksInBatches() {
+        taskManager.addTask("Existing");
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<Task> source = List.of(
+                new Task(1, "One", TaskStatus.DONE, created, created),
+                new Task(50, "Fifty", TaskStatus.TODO, created, created),
+                new Task(7, "Seven", TaskStatus.IN_PROGRESS, created, created));
+        List<Long> progress = new ArrayList<>();
+
+        assertEquals(3, taskManager.importTasks(source.iterator(), false, 2, progress::add));
+        assertEquals(List.of(2L, 3L), progress);
+        assertEquals("One", taskManager.getTaskById(2).description());
+        assertEquals(TaskStatus.DONE, taskManager.getTaskById(2).status());
+        assertEquals(created, taskManager.getTaskById(4).createdAt());
+
+        assertEquals(3, taskManager.importTasks(source.iterator(), true, 10, n -> {}));
+        assertEquals("One", taskManager.getTaskById(1).description(), "kept IDs replace stored tasks");
+        assertEquals(6, taskManager.getTaskCount());
+        assertTrue(taskManager.addTask("Next").id() > 50);
+    }
+
+    @Test
+    @DisplayName("importTasks keeping IDs below the counter leaves the counter where it was")
+    void importTasksKeepingIdsTakesNoId() {
+        taskManager.addTasks(List.of("A", "B", "C"));
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<Task> source = List.of(new Task(2, "Bee", TaskStatus.DONE, created, created));
+
+        assertEquals(1, taskManager.importTasks(source.iterator(), true, 10, n -> {}));
+        assertEquals("Bee", taskManager.getTaskById(2).description());
+        assertEquals(4, taskManager.addTask("Next").id());
+    }
+
+    /** Yields {@code tasks}, then fails the way a parser does on a bad line. */
+    private static Iterator<Task> failingAfter(List<Task> tasks) {
+        Iterator<Task> it = tasks.iterator();
+        return new Iterator<>() {
+            public boolean hasNext() { return true; }
+            public Task next() {
+                if (!it.hasNext()) throw new IllegalArgumentException("Line " + (tasks.size() + 1) + ": invalid task");
+                return it.next();
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("importTasks undoes the batches already saved when the source fails part way")
+    void importTasksRollsBackOnFailure() {
+        taskManager.addTask("Existing");
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<Task> good = List.of(
+                new Task(1, "Replaces existing", TaskStatus.DONE, created, created),
+                new Task(20, "Twenty", TaskStatus.TODO, created, created),
+                new Task(21, "Twenty-one", TaskStatus.TODO, created, created));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.importTasks(failingAfter(good), false, 2, n -> {}));
+        assertEquals(List.of(1), taskManager.getAllTasks().stream().map(Task::id).toList());
+        assertEquals(2, taskManager.addTask("Next").id(), "the reserved IDs were released");
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.importTasks(failingAfter(good), true, 2, n -> {}));
+        assertEquals(List.of(1, 2), taskManager.getAllTasks().stream().map(Task::id).toList());
+        assertEquals("Existing", taskManager.getTaskById(1).description(), "replaced task put back");
+    }
+
+    @Test
+    @DisplayName("search matches all words case-insensitively and rejects a blank query")
+    void searchByWords() {
+        taskManager.addTasks(List.of("Call the dentist", "Dentist invoice", "Pay invoice"));
+
+        assertEquals(List.of(2, 3), taskManager.search("INVOICE").map(Task::id).toList());
+        assertEquals(List.of(2), taskManager.search("invoice dentist").map(Task::id).toList());
+        assertThrows(IllegalArgumentException.class, () -> taskManager.search("  "));
+    }
+
+    @Test
+    @DisplayName("time-range queries return tasks oldest first and reject a range that ends before it starts")
+    void timeRanges() {
+        LocalDateTime t0 = LocalDateTime.of(2026, 10, 1, 9, 0);
+        InMemoryTaskRepository repository = new InMemoryTaskRepository();
+        repository.save(new Task(1, "Late", TaskStatus.TODO, t0.plusDays(2), t0.plusDays(2)));
+        repository.save(new Task(2, "Early", TaskStatus.DONE, t0, t0.plusDays(3)));
+        TaskManager manager = new TaskManager(repository);
+
+        assertEquals(List.of(2, 1), manager.getTasksCreatedBetween(null, null).map(Task::id).toList());
+        assertEquals(List.of(1), manager.getTasksCreatedBetween(t0.plusDays(1), null).map(Task::id).toList());
+        assertEquals(List.of(1, 2), manager.getTasksUpdatedBetween(t0.plusDays(1), t0.plusDays(4)).map(Task::id).toList());
+        assertThrows(IllegalArgumentException.class, () -> manager.getTasksCreatedBetween(t0.plusDays(1), t0));
+    }
 }